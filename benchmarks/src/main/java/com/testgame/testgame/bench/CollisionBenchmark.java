@@ -0,0 +1,84 @@
+package com.testgame.testgame.bench;
+
+import com.testgame.testgame.entities.Archetype;
+import com.testgame.testgame.entities.Projectile;
+import com.testgame.testgame.world.SpatialHash;
+import com.testgame.testgame.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesures des collisions projectiles/ennemis (test du segment parcouru pendant un pas) : la grille spatiale
+ * utilisée par le monde, comparée au test de toutes les paires. Chaque mesure renvoie le nombre de contacts trouvés,
+ * qui doit être le même pour les deux méthodes.
+ * Le test de toutes les paires s'arrête à 10 000 ennemis, au-delà une itération dure plusieurs secondes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int enemyCount;
+
+    @Param("42")
+    public long seed;
+
+    private Archetype enemies;
+    private Archetype projectiles;
+    private SpatialHash grid;
+    private double maxEnemyRadius;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        World world = Scenario.create(enemyCount, Math.max(1, enemyCount / 10), seed);
+        enemies = world.getEntities().getEnemies();
+        projectiles = world.getEntities().getProjectiles();
+        projectiles.savePreviousPositions();
+        projectiles.integrate(); // Chaque projectile a parcouru un pas
+        grid = new SpatialHash(World.GRID_CELL_SIZE, world.getWidth(), world.getHeight());
+        for (int row = 0; row < enemies.size(); row++) {
+            maxEnemyRadius = Math.max(maxEnemyRadius, enemies.getRadius(row));
+        }
+    }
+
+    @Benchmark
+    public int spatialHash() {
+        grid.clear();
+        for (int row = 0; row < enemies.size(); row++) {
+            double radius = enemies.getRadius(row);
+            grid.insert(row, enemies.getX(row) + radius, enemies.getY(row) + radius);
+        }
+        int contacts = 0;
+        for (int p = 0; p < projectiles.size(); p++) {
+            double reach = Projectile.RADIUS + maxEnemyRadius;
+            double startX = projectiles.getPreviousX(p);
+            double startY = projectiles.getPreviousY(p);
+            int candidates = grid.query(Math.min(startX, projectiles.getX(p)) - reach, Math.min(startY, projectiles.getY(p)) - reach,
+                    Math.max(startX, projectiles.getX(p)) + reach, Math.max(startY, projectiles.getY(p)) + reach);
+            for (int i = 0; i < candidates; i++) {
+                if (Projectile.sweep(projectiles, p, enemies, grid.getResult(i)) >= 0) {
+                    contacts++;
+                }
+            }
+        }
+        return contacts;
+    }
+
+    @Benchmark
+    public int bruteForce() {
+        int contacts = 0;
+        for (int p = 0; p < projectiles.size(); p++) {
+            for (int row = 0; row < enemies.size(); row++) {
+                if (Projectile.sweep(projectiles, p, enemies, row) >= 0) {
+                    contacts++;
+                }
+            }
+        }
+        return contacts;
+    }
+}
@@ -0,0 +1,67 @@
+package com.testgame.testgame.bench;
+
+import com.testgame.testgame.entities.Archetype;
+import com.testgame.testgame.entities.Enemy;
+import com.testgame.testgame.entities.EnemyOrange;
+import com.testgame.testgame.entities.Player;
+import com.testgame.testgame.world.ThreatField;
+import com.testgame.testgame.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesures du déplacement des ennemis : poursuite du joueur (Enemy.moveTowards) et esquive des ennemis orange
+ * (construction du champ de danger puis EnemyOrange.update), sur tous les ennemis d'un scénario.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnemyBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int enemyCount;
+
+    @Param("42")
+    public long seed;
+
+    private World world;
+    private Archetype enemies;
+    private Archetype projectiles;
+    private Player player;
+    private ThreatField threatField;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = Scenario.create(enemyCount, Math.max(1, enemyCount / 10), seed);
+        enemies = world.getEntities().getEnemies();
+        projectiles = world.getEntities().getProjectiles();
+        player = world.getPlayer();
+        threatField = new ThreatField(World.THREAT_CELL_SIZE, EnemyOrange.EVADE_RADIUS, world.getWidth(), world.getHeight());
+    }
+
+    @Benchmark
+    public void moveTowards() {
+        for (int row = 0; row < enemies.size(); row++) {
+            Enemy.moveTowards(enemies, row, player.getX(), player.getY(), 0.5);
+        }
+    }
+
+    @Benchmark
+    public void orangeEvade() {
+        threatField.clear();
+        for (int p = 0; p < projectiles.size(); p++) {
+            threatField.addThreat(projectiles.getX(p), projectiles.getY(p), projectiles.getVelocityX(p), projectiles.getVelocityY(p));
+        }
+        threatField.finish();
+        for (int row = 0; row < enemies.size(); row++) {
+            int cell = threatField.cellAt(enemies.getX(row), enemies.getY(row));
+            double escapeX = cell >= 0 ? threatField.getEscapeX(cell) : 0;
+            double escapeY = cell >= 0 ? threatField.getEscapeY(cell) : 0;
+            EnemyOrange.update(enemies, row, escapeX, escapeY, player.getX(), player.getY(), 0, 0, 0.5, EnemyOrange.EVADE_SPEED);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.testgame.testgame.bench;
+
+import com.testgame.testgame.entities.EntityStore;
+import com.testgame.testgame.entities.Player;
+import com.testgame.testgame.entities.Projectile;
+import com.testgame.testgame.world.World;
+
+import java.util.Random;
+
+/**
+ * Classe Scenario : construit des parties reproductibles pour les mesures.
+ * Pour une même graine et les mêmes effectifs, les positions des ennemis et des projectiles sont identiques
+ * d'une exécution à l'autre, ce qui rend les chiffres comparables entre deux versions du moteur.
+ */
+public final class Scenario {
+
+    private Scenario() {
+    }
+
+    /**
+     * Crée une partie avec le nombre d'ennemis et de projectiles demandé.
+     * Les projectiles partent de points aléatoires de l'arène dans des directions aléatoires ;
+     * leur nombre est borné par la taille de la réserve de projectiles.
+     * @param enemies Nombre d'ennemis (au moins 1)
+     * @param projectiles Nombre de projectiles souhaité
+     * @param seed Graine du scénario
+     * @return La partie prête à être mesurée
+     */
+    public static World create(int enemies, int projectiles, long seed) {
+        World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, seed);
+        world.spawnEnemies(enemies - 1); // Le monde contient déjà un ennemi
+        Random random = new Random(seed);
+        EntityStore store = world.getEntities();
+        int count = Math.min(projectiles, Projectile.MAX_PROJECTILES);
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * world.getWidth();
+            double y = random.nextDouble() * world.getHeight();
+            double angle = random.nextDouble() * Math.PI * 2;
+            Projectile.spawn(store, x, y, x + Math.cos(angle), y + Math.sin(angle), world.getGameSpeed());
+        }
+        return world;
+    }
+
+    /**
+     * Place le joueur au centre de l'arène, là où l'apparition par rejet écarte presque toutes les positions.
+     * @param world La partie à modifier
+     */
+    public static void centerPlayer(World world) {
+        Player player = world.getPlayer();
+        double targetX = (world.getWidth() - player.getWidth()) / 2;
+        double targetY = (world.getHeight() - player.getHeight()) / 2;
+        // Player.move déplace de 2 pixels (vitesse de base) multipliés par le facteur de vitesse
+        player.move(1, 0, world.getWidth(), world.getHeight(), (targetX - player.getX()) / 2);
+        player.move(0, 1, world.getWidth(), world.getHeight(), (targetY - player.getY()) / 2);
+    }
+}
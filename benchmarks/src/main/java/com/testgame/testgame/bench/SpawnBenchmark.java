@@ -0,0 +1,43 @@
+package com.testgame.testgame.bench;
+
+import com.testgame.testgame.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure de l'apparition des ennemis, joueur dans son coin de départ puis au centre de l'arène.
+ * Au centre, seuls les coins de l'arène sont assez loin du joueur : le tirage par cases doit y rester aussi rapide.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpawnBenchmark {
+    private static final int BATCH = 100; // Nombre d'ennemis ajoutés par appel
+
+    @Param({"corner", "center"})
+    public String playerPosition;
+
+    @Param("42")
+    public long seed;
+
+    private World world;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        world = new World(seed);
+        if (playerPosition.equals("center")) {
+            Scenario.centerPlayer(world);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public World spawnEnemies() {
+        world.spawnEnemies(BATCH);
+        return world;
+    }
+}
@@ -0,0 +1,47 @@
+package com.testgame.testgame.bench;
+
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure du monde complet : une seconde de jeu (60 pas) sur une partie chargée.
+ * Une nouvelle partie est préparée avant chaque appel : les ennemis rejoignent le joueur en quelques centaines de pas,
+ * et une partie terminée ne simule plus rien. Les ennemis apparaissent à 400 pixels au moins du joueur
+ * et avancent d'au plus un pixel par pas, donc la partie dure toute la seconde mesurée.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldBenchmark {
+    private static final int TICKS = World.REFERENCE_TICK_RATE; // Nombre de pas simulés par appel
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int enemyCount;
+
+    @Param("42")
+    public long seed;
+
+    private World world;
+    private final PlayerInput input = new PlayerInput();
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        world = Scenario.create(enemyCount, Math.max(1, enemyCount / 10), seed);
+        input.setDirections(false, false, false, true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public World step() {
+        for (int i = 0; i < TICKS; i++) {
+            world.step(input);
+        }
+        return world;
+    }
+}
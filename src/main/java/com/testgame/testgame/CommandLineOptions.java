@@ -0,0 +1,31 @@
+package com.testgame.testgame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lecture des options des outils en ligne de commande (équilibrage, serveur, vérifications), au format --nom=valeur.
+ */
+public final class CommandLineOptions {
+
+    private CommandLineOptions() {
+    }
+
+    /**
+     * Lit les options au format --nom=valeur.
+     * @param args Arguments de la ligne de commande
+     * @return Les options, par nom
+     * @throws IllegalArgumentException Si un argument n'est pas au format --nom=valeur
+     */
+    public static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Option invalide (attendu --nom=valeur) : " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
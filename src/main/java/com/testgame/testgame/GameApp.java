@@ -1,49 +1,102 @@
 package com.testgame.testgame;
 
-import com.testgame.testgame.entities.*;
+import com.testgame.testgame.entities.Player;
+import com.testgame.testgame.metrics.FrameProfiler;
+import com.testgame.testgame.metrics.StartupProbe;
+import com.testgame.testgame.render.Camera;
+import com.testgame.testgame.render.Renderer;
+import com.testgame.testgame.replay.ReplayFormat;
+import com.testgame.testgame.replay.ReplayWriter;
+import com.testgame.testgame.scores.Leaderboard;
+import com.testgame.testgame.world.FixedStepClock;
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
 import javafx.animation.AnimationTimer; // Import pour la boucle d'animation
+import javafx.animation.PauseTransition;
 import javafx.application.Application; // Import pour créer une application JavaFX
+import javafx.application.Platform;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import javafx.scene.image.Image;
+import javafx.util.Duration;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
- * Classe principale GameApp qui lance le jeu. Gère l'initialisation, la logique de jeu, et l'affichage des scores.
+ * Classe principale GameApp qui lance le jeu. Gère l'affichage du monde simulé par {@link World},
+ * la transmission des commandes du joueur et l'affichage des scores.
  */
 public class GameApp extends Application {
+    // Fréquence de simulation et plafond de rattrapage, configurables avec -Dgame.tickRate=120 -Dgame.maxCatchUpTicks=5
+    private static final int TICK_RATE = Integer.getInteger("game.tickRate", World.REFERENCE_TICK_RATE);
+    private static final int MAX_CATCH_UP_TICKS = Integer.getInteger("game.maxCatchUpTicks", 5);
+    // Dossier où chaque partie est enregistrée, configurable avec -Dgame.replayDir=... (vide pour ne rien enregistrer)
+    private static final String REPLAY_DIR = System.getProperty("game.replayDir", "replays");
+    // Dossier du tableau des scores, configurable avec -Dgame.scoresDir=... (le mode horde a son propre tableau dans le sous-dossier horde)
+    private static final String SCORES_DIR = System.getProperty("game.scoresDir", "scores");
+    private static final int TOP_SCORES = 5; // Nombre de meilleurs scores affichés dans le menu
+    private static final int INPUT_QUEUE_CAPACITY = 256; // Nombre maximal d'événements d'entrée en attente entre deux frames
+    // Dimensions du monde, configurables avec -Dgame.worldSize=8000x6000 (par défaut, le monde a la taille de l'écran)
+    private static final double[] WORLD_SIZE = parseSize(System.getProperty("game.worldSize",
+            (int) World.DEFAULT_WIDTH + "x" + (int) World.DEFAULT_HEIGHT));
+    // Mesure du démarrage, activée avec -Dgame.startupProbe=true ; avec train, joue aussi quelques secondes de chaque mode
+    // puis quitte, pour entraîner l'archive CDS de l'image de démarrage rapide
+    private static final String STARTUP_PROBE = System.getProperty("game.startupProbe", "false");
+    private static final double TRAINING_SECONDS = 3; // Durée de chaque partie d'entraînement
+
     // Déclaration des variables principales de jeu
-    private Player player;
+    // Les scènes, les mondes et les objets de la partie sont créés une fois puis remis à zéro à chaque partie
+    private final Map<GameMode, World> worlds = new EnumMap<>(GameMode.class); // Monde de chaque mode, créé à sa première partie
+    private World world; // Simulation de la partie en cours
+    private final PlayerInput playerInput = new PlayerInput(); // Commandes du joueur pour le prochain pas de simulation
+    private ReplayWriter replayWriter; // Enregistrement des commandes de la partie en cours
+    private final FixedStepClock clock = new FixedStepClock(TICK_RATE, MAX_CATCH_UP_TICKS); // Horloge de simulation à pas fixe
     private GameEventHandler gameEventHandler;
-    private List<Projectile> projectiles; // Liste des projectiles actifs
-    private List<Enemy> enemies; // Liste des ennemis actifs
-    private List<AmmoPack> ammoPacks; // Liste des packs de munitions
-    private Random random;
-    private int killCount = 0; // Compteur de kills
-    private double gameSpeed = 0.5; // Vitesse initiale du jeu
     private Text killCountText; // Affichage du compteur de kills
     private Text ammoText; // Affichage des munitions
-    private boolean isAmmoPackPresent = false; // Indicateur de présence d'un pack de munitions
+    private int shownKills = -1; // Kills affichés (-1 : compteurs à actualiser)
+    private int shownWave = -1; // Vague affichée
+    private int shownAmmo = -1; // Munitions affichées
+    private int shownMaxAmmo = -1; // Munitions maximales affichées
+    private int shownHealth = -1; // Santé affichée
     private InputHandler inputHandler;
     private Pane root; // Pane racine pour les éléments de jeu
-
-    private ExtraLifeItem extraLifeItem;
-    private boolean hasExtraLife = false; // Indicateur de vie supplémentaire
-    private Rectangle extraLifeIndicator; // Indicateur visuel de vie supplémentaire
-
-    private List<Integer> highScores = new ArrayList<>(); // Liste des 5 meilleurs scores
+    private Scene gameScene; // Scène de la partie, créée à la première partie
+    private Scene menuScene; // Scène du menu, créée au premier affichage du menu
+    private Text[][] scoreTexts; // Lignes des meilleurs scores de chaque mode, dans le menu
+    private Text rankText; // Rang de la dernière partie, dans le menu
+
+    // Moteur de rendu des entités, choisi avec -Dgame.renderer=canvas (dessin immédiat) ou nodes (un nœud par entité).
+    // Sans choix explicite, le mode horde utilise le canvas, seul à tenir des milliers d'ennemis à 60 images par seconde
+    private Renderer renderer; // Moteur de rendu de la partie en cours
+    private final Map<String, Renderer> renderers = new HashMap<>(); // Moteurs déjà créés, par nom, réutilisés d'une partie à l'autre
+    private final Camera camera = new Camera(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT); // Zone du monde affichée, centrée sur le joueur
+
+    private final Map<GameMode, Leaderboard> leaderboards = new EnumMap<>(GameMode.class); // Tableaux des scores persistants, par mode
+    private int lastScore = -1; // Score de la dernière partie (-1 avant la première partie)
+    private GameMode lastMode = GameMode.CLASSIC; // Mode de la dernière partie
     private AnimationTimer gameLoop;  // Boucle de jeu pour mettre à jour les éléments
+    private final FrameProfiler profiler = new FrameProfiler(); // Durées des phases de la boucle de jeu
+    private ProfilerOverlay profilerOverlay; // Affichage des durées (F3)
+    private long lastFrameStart = 0; // Début de la frame précédente, pour mesurer l'intervalle entre deux pulses
+    private StartupProbe startupProbe; // Mesure du démarrage (null si elle n'est pas demandée)
 
     /**
      * Méthode de démarrage de l'application. Initialise le stage et affiche le menu.
@@ -51,20 +104,75 @@ public class GameApp extends Application {
      */
     @Override
     public void start(Stage primaryStage) {
-        root = new Pane();
+        boolean training = STARTUP_PROBE.equals("train");
+        if (training || Boolean.parseBoolean(STARTUP_PROBE)) {
+            startupProbe = new StartupProbe();
+        }
         primaryStage.setTitle("Infinite Cube Frenzy");
         primaryStage.getIcons().add(new Image(getClass().getResourceAsStream("icon64.png")));
+        for (GameMode mode : GameMode.values()) {
+            Path directory = mode == GameMode.CLASSIC ? Path.of(SCORES_DIR) : Path.of(SCORES_DIR, mode.name().toLowerCase(Locale.ROOT));
+            try {
+                leaderboards.put(mode, new Leaderboard(directory, TOP_SCORES));
+            } catch (IOException e) {
+                System.err.println("Impossible d'ouvrir le tableau des scores " + directory + " : " + e.getMessage());
+            }
+        }
 
         showMenu(primaryStage);  // Affiche le menu au démarrage
 
         primaryStage.show();
+        if (startupProbe != null) {
+            onNextPulse(() -> {
+                startupProbe.menuShown();
+                if (training) {
+                    train(primaryStage, 0);
+                }
+            });
+        }
     }
 
     /**
-     * Affiche le menu principal avec un bouton "Start" et la liste des scores
+     * Affiche le menu principal avec un bouton par mode de jeu et la liste des scores de chaque mode.
+     * La scène du menu est créée au premier affichage ; ensuite, seuls ses textes sont mis à jour.
      * @param stage Le stage où afficher le menu
      */
     private void showMenu(Stage stage) {
+        if (menuScene == null) {
+            menuScene = createMenuScene(stage);
+        }
+
+        // Affiche la liste des meilleurs scores de chaque mode (si disponible)
+        for (GameMode mode : GameMode.values()) {
+            Leaderboard leaderboard = leaderboards.get(mode);
+            int[] highScores = leaderboard != null ? leaderboard.getTop() : new int[0]; // Lu dans l'index, sans parcourir le journal
+            Text[] texts = scoreTexts[mode.ordinal()];
+            for (int i = 0; i < texts.length; i++) {
+                if (i < highScores.length) {
+                    texts[i].setText("Top" + (i + 1) + " : " + highScores[i] + " kills");
+                }
+                setShown(texts[i], i < highScores.length);
+            }
+        }
+
+        Leaderboard leaderboard = leaderboards.get(lastMode);
+        boolean ranked = leaderboard != null && lastScore > 0;
+        if (ranked) {
+            rankText.setText("Dernière partie (" + lastMode.getLabel() + ") : " + lastScore + " kills, rang "
+                    + leaderboard.rankOf(lastScore) + " sur " + leaderboard.size());
+        }
+        setShown(rankText, ranked);
+
+        stage.setScene(menuScene);
+    }
+
+    /**
+     * Crée la scène du menu : boutons des modes de jeu, colonnes des meilleurs scores et rang de la dernière partie,
+     * remplis par showMenu.
+     * @param stage Le stage où le jeu est affiché
+     * @return La scène du menu
+     */
+    private Scene createMenuScene(Stage stage) {
         Pane menuRoot = new Pane();
         menuRoot.setStyle("-fx-background-color: black;");
 
@@ -72,315 +180,326 @@ public class GameApp extends Application {
         menuBox.setTranslateX(300);
         menuBox.setTranslateY(200);
 
-        // Bouton Start pour commencer le jeu
+        // Bouton Start pour commencer une partie classique, bouton Horde pour le mode horde
         Button startButton = new Button("Start");
         startButton.setFont(new Font(20));
-        startButton.setOnAction(event -> startGame(stage));  // Lance le jeu au clic
+        startButton.setOnAction(event -> startGame(stage, GameMode.CLASSIC));  // Lance le jeu au clic
+        Button hordeButton = new Button("Horde");
+        hordeButton.setFont(new Font(20));
+        hordeButton.setOnAction(event -> startGame(stage, GameMode.HORDE));
+        HBox buttonsBox = new HBox(10, startButton, hordeButton);
+
+        HBox scoresColumns = new HBox(40);
+        scoreTexts = new Text[GameMode.values().length][];
+        for (GameMode mode : GameMode.values()) {
+            scoresColumns.getChildren().add(createScoresBox(mode));
+        }
 
-        // Affiche la liste des meilleurs scores (si disponible)
-        Text highScoresTitle = new Text("Top 5 Scores");
+        rankText = new Text();
+        rankText.setFont(new Font(16));
+        rankText.setFill(Color.WHITE);
+        VBox scoresBox = new VBox(5, scoresColumns, rankText);
+
+        menuBox.getChildren().addAll(buttonsBox, scoresBox);
+        menuRoot.getChildren().add(menuBox);
+
+        return new Scene(menuRoot, World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+    }
+
+    /**
+     * Crée la colonne des meilleurs scores d'un mode de jeu, avec une ligne par score affiché, vide jusqu'à showMenu.
+     * @param mode Mode de jeu
+     * @return La colonne des meilleurs scores du mode
+     */
+    private VBox createScoresBox(GameMode mode) {
+        Text highScoresTitle = new Text("Top " + TOP_SCORES + " " + mode.getLabel());
         highScoresTitle.setFont(new Font(20));
         highScoresTitle.setFill(Color.WHITE);
 
         VBox scoresBox = new VBox(5);
         scoresBox.getChildren().add(highScoresTitle);
-        for (int i = 0; i < Math.min(5, highScores.size()); i++) {
-            Text scoreText = new Text("Top" + (i + 1) + " : " + highScores.get(i) + " kills");
-            scoreText.setFont(new Font(16));
-            scoreText.setFill(Color.WHITE);
-            scoresBox.getChildren().add(scoreText);
+        Text[] texts = new Text[TOP_SCORES];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = new Text();
+            texts[i].setFont(new Font(16));
+            texts[i].setFill(Color.WHITE);
+            scoresBox.getChildren().add(texts[i]);
         }
+        scoreTexts[mode.ordinal()] = texts;
+        return scoresBox;
+    }
 
-        menuBox.getChildren().addAll(startButton, scoresBox);
-        menuRoot.getChildren().add(menuBox);
+    /**
+     * Affiche ou masque un élément du menu ; un élément masqué ne prend pas de place.
+     * @param node Élément du menu
+     * @param shown true pour l'afficher
+     */
+    private static void setShown(Node node, boolean shown) {
+        node.setVisible(shown);
+        node.setManaged(shown);
+    }
 
-        stage.setScene(new Scene(menuRoot, 800, 600));
+    /**
+     * Lance une nouvelle partie. La première partie d'un mode crée son monde ; les suivantes remettent ce monde à zéro
+     * avec une nouvelle graine. La scène, les entrées, l'enregistrement du replay et l'affichage sont réutilisés.
+     * @param stage Le stage où le jeu est affiché
+     * @param mode Mode de jeu de la partie
+     */
+    private void startGame(Stage stage, GameMode mode) {
+        if (startupProbe != null) {
+            startupProbe.gameRequested();
+        }
+        if (gameScene == null) {
+            gameScene = createGameScene(stage);
+        }
+
+        // Initialisation de la simulation
+        long seed = System.nanoTime();
+        world = worlds.get(mode);
+        if (world == null) {
+            world = new World(WORLD_SIZE[0], WORLD_SIZE[1], seed, clock.getTickRate(), GameRules.forMode(mode));
+            world.setProfiler(profiler);
+            worlds.put(mode, world);
+        } else {
+            world.reset(seed);
+        }
+        if (replayWriter == null) {
+            replayWriter = new ReplayWriter(seed, clock.getTickRate(), world.getWidth(), world.getHeight(), mode);
+        } else {
+            replayWriter.reset(seed, clock.getTickRate(), world.getWidth(), world.getHeight(), mode);
+        }
+        clock.reset();
+        playerInput.clearShots();
+        gameEventHandler.reset();
+        selectRenderer(mode);
+        renderer.reset();
+
+        shownKills = -1; // Les compteurs de la partie précédente sont remplacés au premier affichage
+        render(1);
+        lastFrameStart = 0;
+        gameLoop.start();
+
+        stage.setScene(gameScene);
+        if (startupProbe != null) {
+            onNextPulse(() -> startupProbe.gameShown(mode.getLabel()));
+        }
     }
 
     /**
-     * Initialise une nouvelle partie en configurant le joueur, la scène, et les éléments de jeu.
+     * Crée la scène de la partie : entrées clavier et souris, compteurs, affichage des durées et boucle de jeu.
+     * Le moteur de rendu est ajouté par selectRenderer.
      * @param stage Le stage où le jeu est affiché
+     * @return La scène de la partie
      */
-    private void startGame(Stage stage) {
-        root = new Pane();  // Réinitialise la scène pour une nouvelle partie
-        Scene scene = new Scene(root, 800, 600);
-
-        // Initialisation des objets de jeu
-        projectiles = new ArrayList<>();
-        enemies = new ArrayList<>();
-        ammoPacks = new ArrayList<>();
-        random = new Random();
-        killCount = 0;
-        gameSpeed = 0.5;
-        hasExtraLife = false;
-        isAmmoPackPresent = false;
-        player = new Player(100, 100);
-        root.getChildren().add(player.getShape());
-
-        gameEventHandler = new GameEventHandler(player, scene.getWidth(), scene.getHeight(), gameSpeed);
+    private Scene createGameScene(Stage stage) {
+        root = new Pane();
+        Scene scene = new Scene(root, World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+
+        InputEventQueue inputQueue = new InputEventQueue(INPUT_QUEUE_CAPACITY);
+        gameEventHandler = new GameEventHandler(inputQueue);
         scene.setOnKeyPressed(gameEventHandler.getKeyPressedHandler());
         scene.setOnKeyReleased(gameEventHandler.getKeyReleasedHandler());
+        profilerOverlay = new ProfilerOverlay(profiler);
+        scene.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.F3) {
+                profilerOverlay.toggle();
+            }
+        });
 
-        inputHandler = new InputHandler(player, root, this);
+        inputHandler = new InputHandler(inputQueue, camera);
         scene.setOnMouseClicked(event -> inputHandler.handleMouseClick(event));
 
         // Affichage du compteur de kills
-        killCountText = new Text("Kills: " + killCount);
+        killCountText = new Text();
         killCountText.setFont(new Font(20));
         killCountText.setFill(Color.BLACK);
         killCountText.setX(10);
         killCountText.setY(20);
-        root.getChildren().add(killCountText);
 
         // Affichage des munitions
-        ammoText = new Text("Ammo: " + player.getAmmo() + "/" + player.getMaxAmmo());
+        ammoText = new Text();
         ammoText.setFont(new Font(20));
         ammoText.setFill(Color.BLACK);
         ammoText.setX(10);
         ammoText.setY(40);
-        root.getChildren().add(ammoText);
-
-        spawnEnemy(root); // Ajoute le premier ennemi
+        root.getChildren().addAll(killCountText, ammoText, profilerOverlay.getView());
 
-        // Démarre la boucle de jeu pour mettre à jour l'état du jeu en continu
+        // Boucle de jeu, démarrée par startGame : la simulation avance à pas fixe, l'affichage interpole entre les deux derniers pas
+        // Chaque phase est mesurée : entrées et rendu ici, phases de la simulation dans World, intervalle entre deux pulses,
+        // et délai entre l'arrivée d'une entrée et l'image qui en tient compte
         gameLoop = new AnimationTimer() {
             @Override
             public void handle(long now) {
-                gameEventHandler.update(gameSpeed);
-                player.update();
+                long frameStart = System.nanoTime();
+                if (lastFrameStart != 0) {
+                    profiler.record(FrameProfiler.Phase.FRAME, frameStart - lastFrameStart);
+                }
+                lastFrameStart = frameStart;
 
-                updateProjectiles(scene);
-                updateEnemies(root);
-                checkForAmmoSpawn();
-                updateExtraLifeIndicatorPosition();
+                int steps = clock.advance(now);
+                if (steps > 0) {
+                    gameEventHandler.update(playerInput); // Les entrées arrivées depuis sont lues au début du premier pas de la frame
+                }
+                long inputEnd = System.nanoTime();
+                profiler.record(FrameProfiler.Phase.INPUT, inputEnd - frameStart);
+                for (int i = 0; i < steps; i++) {
+                    replayWriter.record(playerInput);
+                    world.step(playerInput);
+                    playerInput.clearShots(); // Les tirs ne sont appliqués qu'au premier pas
+
+                    if (world.isGameOver()) {
+                        endGame(stage); // Fin de jeu
+                        return;
+                    }
+                }
+                long renderStart = System.nanoTime();
+                render(clock.getAlpha());
+                long renderEnd = System.nanoTime();
+                profiler.record(FrameProfiler.Phase.RENDER, renderEnd - renderStart);
+                gameEventHandler.recordLatency(renderEnd, profiler);
+                profilerOverlay.update(now, world);
             }
         };
-        gameLoop.start();
 
-        stage.setScene(scene);
+        return scene;
     }
 
     /**
-     * Termine la partie, ajoute le score à la liste des meilleurs scores, et affiche le menu.
-     * @param stage Le stage où afficher le menu de fin de jeu
+     * Exécute une action au prochain pulse, celui qui dessine la scène affichée.
+     * @param action Action à exécuter une fois
      */
-    private void endGame(Stage stage) {
-        gameLoop.stop();  // Arrête la boucle de jeu
-        if (killCount > 0) {
-            highScores.add(killCount); // Ajoute le score final à la liste des meilleurs scores
-            highScores.sort((a, b) -> b - a); // Trie les scores en ordre décroissant
-            if (highScores.size() > 5) {
-                highScores = highScores.subList(0, 5); // Conserve les 5 meilleurs scores uniquement
+    private static void onNextPulse(Runnable action) {
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                action.run();
             }
-        }
-        showMenu(stage);  // Retour au menu principal
+        }.start();
     }
 
     /**
-     * Met à jour les projectiles, gère les collisions, et les supprime s'ils sortent des limites de la scène.
-     * @param scene La scène de jeu
+     * Entraînement de l'archive CDS (-Dgame.startupProbe=train) : joue quelques secondes de chaque mode sans commandes,
+     * pour charger les classes de la partie et des moteurs de rendu, puis quitte sans enregistrer de score.
+     * @param stage Le stage où le jeu est affiché
+     * @param index Indice du mode à jouer
      */
-    private void updateProjectiles(Scene scene) {
-        Iterator<Projectile> projectileIterator = projectiles.iterator();
-        while (projectileIterator.hasNext()) {
-            Projectile projectile = projectileIterator.next();
-            projectile.update();
-
-            if (projectile.isOutOfBounds(scene.getWidth(), scene.getHeight())) {
-                projectileIterator.remove();
-                root.getChildren().remove(projectile.getShape());
-                continue;
-            }
-
-            // Gère les collisions entre projectiles et ennemis
-            Iterator<Enemy> enemyIterator = enemies.iterator();
-            while (enemyIterator.hasNext()) {
-                Enemy currentEnemy = enemyIterator.next();
-                if (projectile.collidesWith(currentEnemy)) {
-                    enemyIterator.remove();
-                    root.getChildren().remove(currentEnemy.getShape());
-                    projectileIterator.remove();
-                    root.getChildren().remove(projectile.getShape());
-
-                    killCount++;
-                    updateKillCount();
-                    increaseGameSpeed();
-
-                    spawnEnemy(root);
-                    break;
-                }
-            }
+    private void train(Stage stage, int index) {
+        if (gameLoop != null) {
+            gameLoop.stop();
         }
-    }
-
-    /**
-     * Met à jour les ennemis et vérifie les collisions avec le joueur.
-     * @param root Le conteneur principal de la scène
-     */
-    private void updateEnemies(Pane root) {
-        for (Enemy enemy : enemies) {
-            if (enemy instanceof EnemyOrange) {
-                ((EnemyOrange) enemy).update(projectiles, player, gameSpeed);
-            } else {
-                enemy.moveTowards(player.getX(), player.getY(), gameSpeed);
-            }
-
-            // Vérifie la collision avec le joueur
-            if (enemy.collidesWithPlayer(player)) {
-                if (hasExtraLife) {
-                    hasExtraLife = false;
-                    root.getChildren().remove(extraLifeIndicator);
-                } else {
-                    endGame((Stage) root.getScene().getWindow()); // Fin de jeu
-                    return;
-                }
-                enemies.remove(enemy);
-                root.getChildren().remove(enemy.getShape());
-                spawnEnemy(root);
-                break;
-            }
-        }
-
-        // Vérifie la collecte des packs de munitions
-        Iterator<AmmoPack> ammoIterator = ammoPacks.iterator();
-        while (ammoIterator.hasNext()) {
-            AmmoPack ammoPack = ammoIterator.next();
-            if (player.getShape().getBoundsInParent().intersects(ammoPack.getShape().getBoundsInParent())) {
-                player.reload();
-                updateAmmoDisplay();
-                ammoIterator.remove();
-                root.getChildren().remove(ammoPack.getShape());
-                isAmmoPackPresent = false;
-            }
-        }
-
-        // Vérifie la collecte de la vie supplémentaire
-        if (extraLifeItem != null && player.getShape().getBoundsInParent().intersects(extraLifeItem.getShape().getBoundsInParent())) {
-            hasExtraLife = true;
-            root.getChildren().remove(extraLifeItem.getShape());
-            extraLifeItem = null;
-            displayExtraLifeIndicator();
+        if (index == GameMode.values().length) {
+            Platform.exit();
+            return;
         }
+        startGame(stage, GameMode.values()[index]);
+        PauseTransition pause = new PauseTransition(Duration.seconds(TRAINING_SECONDS));
+        pause.setOnFinished(event -> train(stage, index + 1));
+        pause.play();
     }
 
     /**
-     * Vérifie s'il est nécessaire de faire apparaître un pack de munitions pour le joueur.
+     * Termine la partie, enregistre le score dans le tableau des scores, et affiche le menu.
+     * @param stage Le stage où afficher le menu de fin de jeu
      */
-    private void checkForAmmoSpawn() {
-        if (player.needsAmmoPack() && !isAmmoPackPresent) {
-            spawnAmmoPack();
-            isAmmoPackPresent = true;
+    private void endGame(Stage stage) {
+        gameLoop.stop();  // Arrête la boucle de jeu
+        int killCount = world.getKillCount();
+        saveReplay(killCount);
+        lastScore = killCount;
+        lastMode = world.getMode();
+        Leaderboard leaderboard = leaderboards.get(lastMode);
+        if (killCount > 0 && killCount <= Leaderboard.MAX_SCORE && leaderboard != null) {
+            leaderboard.submit(killCount); // Écrit sur le disque en arrière-plan
         }
+        showMenu(stage);  // Retour au menu principal
     }
 
     /**
-     * Ajoute un projectile à la scène.
-     * @param projectile Le projectile à ajouter
-     */
-    public void addProjectile(Projectile projectile) {
-        projectiles.add(projectile);
-        root.getChildren().add(projectile.getShape());
-    }
-
-    /**
-     * Fait apparaître un nouvel ennemi à une distance minimale du joueur.
-     * @param root Le conteneur principal de la scène
+     * Écrit le replay de la partie terminée dans le dossier des replays, sous le nom partie-&lt;date&gt;.icfr.
+     * @param killCount Score de la partie, enregistré pour pouvoir être vérifié en rejouant la partie
      */
-    private void spawnEnemy(Pane root) {
-        double minDistance = 400;
-        double enemyX, enemyY;
-        do {
-            enemyX = random.nextDouble() * 800;
-            enemyY = random.nextDouble() * 600;
-        } while (Math.hypot(enemyX - player.getX(), enemyY - player.getY()) < minDistance);
-
-        Enemy enemy;
-        if (random.nextDouble() < 0.05 && !hasExtraLife && extraLifeItem == null) {
-            spawnExtraLifeItem();
+    private void saveReplay(int killCount) {
+        if (REPLAY_DIR.isEmpty()) {
+            return;
         }
-
-        if (random.nextDouble() < 0.05) {
-            enemy = new EnemyOrange(enemyX, enemyY);
-        } else {
-            enemy = new Enemy(enemyX, enemyY);
+        replayWriter.finish(killCount);
+        Path path = Path.of(REPLAY_DIR, "partie-" + System.currentTimeMillis() + ReplayFormat.FILE_EXTENSION);
+        try {
+            replayWriter.save(path);
+        } catch (IOException e) {
+            System.err.println("Impossible d'enregistrer le replay " + path + " : " + e.getMessage());
         }
-
-        enemies.add(enemy);
-        root.getChildren().add(enemy.getShape());
     }
 
     /**
-     * Fait apparaître un objet de vie supplémentaire à une distance minimale du joueur.
+     * Choisit le moteur de rendu d'une partie. Chaque moteur est créé au plus une fois, à la première partie qui l'utilise :
+     * passer d'un mode à l'autre ne fait qu'échanger sa vue dans la scène.
+     * @param mode Mode de jeu de la partie
      */
-    private void spawnExtraLifeItem() {
-        double minDistance = 400;
-        double itemX, itemY;
-        do {
-            itemX = random.nextDouble() * 800;
-            itemY = random.nextDouble() * 600;
-        } while (Math.hypot(itemX - player.getX(), itemY - player.getY()) < minDistance);
-
-        extraLifeItem = new ExtraLifeItem(itemX, itemY);
-        root.getChildren().add(extraLifeItem.getShape());
-    }
-
-    /**
-     * Fait apparaître un pack de munitions à une position aléatoire.
-     */
-    private void spawnAmmoPack() {
-        double ammoX = random.nextDouble() * 800;
-        double ammoY = random.nextDouble() * 600;
-        AmmoPack ammoPack = new AmmoPack(ammoX, ammoY);
-        ammoPacks.add(ammoPack);
-        root.getChildren().add(ammoPack.getShape());
-    }
-
-    /**
-     * Met à jour le texte du compteur de kills.
-     */
-    private void updateKillCount() {
-        killCountText.setText("Kills: " + killCount);
-    }
-
-    /**
-     * Met à jour l'affichage des munitions.
-     */
-    public void updateAmmoDisplay() {
-        ammoText.setText("Ammo: " + player.getAmmo() + "/" + player.getMaxAmmo());
-    }
-
-    /**
-     * Augmente progressivement la vitesse du jeu.
-     */
-    private void increaseGameSpeed() {
-        gameSpeed += 0.02;
+    private void selectRenderer(GameMode mode) {
+        String name = System.getProperty("game.renderer", mode == GameMode.HORDE ? "canvas" : "nodes").toLowerCase(Locale.ROOT);
+        Renderer selected = renderers.computeIfAbsent(name, key -> Renderer.create(key, World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT));
+        if (selected != renderer) {
+            if (renderer != null) {
+                root.getChildren().remove(renderer.getView());
+            }
+            renderer = selected;
+            root.getChildren().add(0, renderer.getView()); // Sous les compteurs
+        }
     }
 
     /**
-     * Affiche un indicateur visuel pour la vie supplémentaire.
+     * Met à jour l'affichage : la caméra suit le joueur, les entités visibles sont dessinées par le moteur de rendu,
+     * puis le texte des compteurs est actualisé, seulement quand leur valeur change pour ne pas créer de chaîne à chaque frame.
+     * @param alpha Fraction du pas suivant déjà écoulée (0 = état précédent, 1 = état courant)
      */
-    private void displayExtraLifeIndicator() {
-        extraLifeIndicator = new Rectangle(10, 10, Color.PINK);
-        root.getChildren().add(extraLifeIndicator);
-        updateExtraLifeIndicatorPosition();
+    private void render(double alpha) {
+        Player player = world.getPlayer();
+        double playerX = Renderer.lerp(player.getPreviousX(), player.getX(), alpha) + player.getWidth() / 2;
+        double playerY = Renderer.lerp(player.getPreviousY(), player.getY(), alpha) + player.getHeight() / 2;
+        camera.follow(playerX, playerY, world.getWidth(), world.getHeight());
+        renderer.render(world, camera, alpha);
+        boolean refresh = shownKills < 0; // Première image de la partie
+        if (refresh || world.getKillCount() != shownKills || world.getWave() != shownWave) {
+            shownKills = world.getKillCount();
+            shownWave = world.getWave();
+            if (world.getMode() == GameMode.HORDE) {
+                killCountText.setText("Kills: " + shownKills + "   Vague: " + shownWave);
+            } else {
+                killCountText.setText("Kills: " + shownKills);
+            }
+        }
+        if (refresh || player.getAmmo() != shownAmmo || player.getMaxAmmo() != shownMaxAmmo
+                || player.getHealth() != shownHealth) {
+            shownAmmo = player.getAmmo();
+            shownMaxAmmo = player.getMaxAmmo();
+            shownHealth = player.getHealth();
+            ammoText.setText("Ammo: " + shownAmmo + "/" + shownMaxAmmo + "   Vie: " + shownHealth);
+        }
     }
 
     /**
-     * Met à jour la position de l'indicateur de vie supplémentaire à côté du joueur.
+     * Ferme les tableaux des scores en terminant les écritures en attente, à la fermeture de l'application.
      */
-    private void updateExtraLifeIndicatorPosition() {
-        if (extraLifeIndicator != null) {
-            extraLifeIndicator.setTranslateX(player.getX() + player.getShape().getWidth() / 2 - 5);
-            extraLifeIndicator.setTranslateY(player.getY() - 15);
+    @Override
+    public void stop() {
+        for (Leaderboard leaderboard : leaderboards.values()) {
+            leaderboard.close();
         }
     }
 
     /**
-     * Retourne la vitesse actuelle du jeu.
-     * @return Vitesse du jeu
+     * Lit des dimensions au format largeurxhauteur, par exemple 8000x6000.
+     * @param size Dimensions à lire
+     * @return La largeur et la hauteur
      */
-    public double getGameSpeed() {
-        return gameSpeed;
+    private static double[] parseSize(String size) {
+        int separator = size.toLowerCase(Locale.ROOT).indexOf('x');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Dimensions invalides (attendu largeurxhauteur) : " + size);
+        }
+        return new double[]{Double.parseDouble(size.substring(0, separator)), Double.parseDouble(size.substring(separator + 1))};
     }
 
     /**
@@ -1,81 +1,153 @@
 package com.testgame.testgame;
 
-import com.testgame.testgame.entities.Player;
+import com.testgame.testgame.metrics.FrameProfiler;
+import com.testgame.testgame.world.PlayerInput;
 import javafx.event.EventHandler; // Import pour gérer les événements
 import javafx.scene.input.KeyCode; // Import pour les codes des touches
 import javafx.scene.input.KeyEvent; // Import pour gérer les événements de touche
 
-import java.util.HashSet;
-import java.util.Set; // Import pour utiliser des ensembles pour le suivi des touches actives
+import java.util.Arrays;
 
 /**
  * Classe GameEventHandler pour gérer les événements de touches du clavier.
- * Cette classe détecte les touches pressées et relâchées et met à jour la position du joueur
- * en fonction des touches actives et de la vitesse du jeu.
+ * <p>
+ * Les touches pressées et relâchées ne modifient pas directement l'état du jeu : elles sont horodatées et ajoutées
+ * à la file des entrées ({@link InputEventQueue}), avec les tirs de {@link InputHandler}. La boucle de jeu vide la file
+ * au début du premier pas de chaque frame (update) : l'état des touches, gardé dans un champ de bits indexé par KeyCode,
+ * est alors traduit en directions de déplacement et les tirs sont ajoutés aux commandes du joueur.
+ * <p>
+ * Les tirs peuvent être abandonnés si la file est pleine, pas l'état des touches : un appui ou un relâchement qui n'y trouve
+ * pas de place est reporté à la lecture suivante de la file, qui recopie alors les touches enfoncées vues par les gestionnaires
+ * (producteur et consommateur tournent tous deux sur le thread JavaFX).
+ * <p>
+ * Le délai entre l'arrivée d'un événement et la fin du rendu de la première image qui en tient compte
+ * est mesuré dans la phase {@link FrameProfiler.Phase#LATENCY} : c'est le délai ressenti par le joueur.
  */
 public class GameEventHandler {
-    private Player player; // Référence au joueur pour mettre à jour sa position
-    private Set<KeyCode> activeKeys; // Ensemble des touches actuellement enfoncées
-    private double sceneWidth; // Largeur de la scène pour limiter les déplacements du joueur
-    private double sceneHeight; // Hauteur de la scène pour limiter les déplacements du joueur
-    private double gameSpeed; // Vitesse du jeu, influence la vitesse de déplacement du joueur
+    private static final int CODE_COUNT = KeyCode.values().length; // Nombre de codes de touche
+    private static final int UP = KeyCode.Z.ordinal(); // Touches de déplacement
+    private static final int DOWN = KeyCode.S.ordinal();
+    private static final int LEFT = KeyCode.Q.ordinal();
+    private static final int RIGHT = KeyCode.D.ordinal();
+
+    private final InputEventQueue queue; // File des entrées, partagée avec InputHandler
+    private final long[] pressedKeys = new long[(CODE_COUNT + 63) / 64]; // Touches enfoncées, vues par la boucle de jeu
+    // Touches enfoncées, vues par les gestionnaires d'événements : la répétition automatique d'une touche tenue n'est pas mise en file
+    private final long[] heldKeys = new long[(CODE_COUNT + 63) / 64];
+    private boolean keysDropped = false; // Un appui ou un relâchement n'a pas trouvé de place dans la file
+    private final long[] pendingTimes; // Arrivée des événements lus, en attente de la prochaine image
+    private int pendingCount = 0; // Nombre d'événements lus en attente de la prochaine image
 
     /**
      * Constructeur de la classe GameEventHandler.
-     * Initialise le gestionnaire d'événements pour contrôler le joueur et limite ses mouvements aux dimensions de la scène.
-     * @param player Référence au joueur
-     * @param sceneWidth Largeur de la scène
-     * @param sceneHeight Hauteur de la scène
-     * @param gameSpeed Vitesse initiale du jeu
+     * Initialise le gestionnaire d'événements sans aucune touche enfoncée.
+     * @param queue File des entrées, vidée par update
      */
-    public GameEventHandler(Player player, double sceneWidth, double sceneHeight, double gameSpeed) {
-        this.player = player;
-        this.activeKeys = new HashSet<>(); // Initialise l'ensemble des touches actives
-        this.sceneWidth = sceneWidth;
-        this.sceneHeight = sceneHeight;
-        this.gameSpeed = gameSpeed;
+    public GameEventHandler(InputEventQueue queue) {
+        this.queue = queue;
+        this.pendingTimes = new long[queue.getCapacity()];
     }
 
     /**
      * Retourne un EventHandler pour détecter les touches pressées.
-     * @return EventHandler qui ajoute une touche à l'ensemble des touches actives lors de la pression
+     * @return EventHandler qui met en file la pression d'une touche qui n'était pas déjà enfoncée
      */
     public EventHandler<KeyEvent> getKeyPressedHandler() {
-        return event -> activeKeys.add(event.getCode());
+        return event -> {
+            int code = event.getCode().ordinal();
+            if (!isSet(heldKeys, code)) {
+                set(heldKeys, code, true);
+                keysDropped |= !queue.offer(InputEventQueue.KEY_PRESSED, code, 0, 0, System.nanoTime());
+            }
+        };
     }
 
     /**
      * Retourne un EventHandler pour détecter les touches relâchées.
-     * @return EventHandler qui retire une touche de l'ensemble des touches actives lors du relâchement
+     * @return EventHandler qui met en file le relâchement d'une touche
      */
     public EventHandler<KeyEvent> getKeyReleasedHandler() {
-        return event -> activeKeys.remove(event.getCode());
+        return event -> {
+            int code = event.getCode().ordinal();
+            set(heldKeys, code, false);
+            keysDropped |= !queue.offer(InputEventQueue.KEY_RELEASED, code, 0, 0, System.nanoTime());
+        };
     }
 
     /**
-     * Met à jour l'état du joueur en fonction des touches actives.
-     * La vitesse de déplacement est influencée par la vitesse de jeu actuelle.
-     * @param gameSpeed Nouvelle vitesse de jeu, influençant la vitesse de déplacement
+     * Oublie les touches enfoncées et les entrées en attente, au début d'une partie :
+     * une touche relâchée pendant que le menu était affiché ne reste pas enfoncée dans la partie suivante.
      */
-    public void update(double gameSpeed) {
-        // Met à jour la vitesse du jeu pour ajuster la vitesse de déplacement
-        this.gameSpeed = gameSpeed;
+    public void reset() {
+        Arrays.fill(pressedKeys, 0);
+        Arrays.fill(heldKeys, 0);
+        keysDropped = false;
+        while (queue.poll()) {
+            // Entrées de la partie précédente, ignorées
+        }
+        pendingCount = 0;
+    }
 
-        // Déplace le joueur vers le haut si la touche Z est enfoncée
-        if (activeKeys.contains(KeyCode.Z)) {
-            player.move(0, -1, sceneWidth, sceneHeight, gameSpeed);
+    /**
+     * Vide la file des entrées et reporte son contenu dans les commandes du joueur : touches actives et tirs.
+     * Si un événement de touche a été abandonné faute de place, les touches enfoncées sont recopiées depuis celles
+     * des gestionnaires, plus récentes que tous les événements lus : aucune touche ne reste enfoncée à tort.
+     * Z, S, Q et D déplacent respectivement le joueur vers le haut, le bas, la gauche et la droite.
+     * @param input Commandes du joueur à mettre à jour pour le prochain pas de simulation
+     */
+    public void update(PlayerInput input) {
+        while (queue.poll()) {
+            switch (queue.getType()) {
+                case InputEventQueue.KEY_PRESSED -> set(pressedKeys, queue.getCode(), true);
+                case InputEventQueue.KEY_RELEASED -> set(pressedKeys, queue.getCode(), false);
+                case InputEventQueue.SHOT -> input.addShot(queue.getCode(), queue.getX(), queue.getY());
+                default -> {
+                }
+            }
+            if (pendingCount < pendingTimes.length) {
+                pendingTimes[pendingCount++] = queue.getTime();
+            }
         }
-        // Déplace le joueur vers le bas si la touche S est enfoncée
-        if (activeKeys.contains(KeyCode.S)) {
-            player.move(0, 1, sceneWidth, sceneHeight, gameSpeed);
+        if (keysDropped) {
+            System.arraycopy(heldKeys, 0, pressedKeys, 0, pressedKeys.length);
+            keysDropped = false;
         }
-        // Déplace le joueur vers la gauche si la touche Q est enfoncée
-        if (activeKeys.contains(KeyCode.Q)) {
-            player.move(-1, 0, sceneWidth, sceneHeight, gameSpeed);
+        input.setDirections(isSet(pressedKeys, UP), isSet(pressedKeys, DOWN), isSet(pressedKeys, LEFT), isSet(pressedKeys, RIGHT));
+    }
+
+    /**
+     * Enregistre le délai des événements lus depuis la dernière image, une fois l'image qui en tient compte dessinée.
+     * @param frameTime Fin du rendu de l'image, en nanosecondes (System.nanoTime)
+     * @param profiler Mesures dans lesquelles enregistrer les délais
+     */
+    public void recordLatency(long frameTime, FrameProfiler profiler) {
+        for (int i = 0; i < pendingCount; i++) {
+            profiler.record(FrameProfiler.Phase.LATENCY, frameTime - pendingTimes[i]);
         }
-        // Déplace le joueur vers la droite si la touche D est enfoncée
-        if (activeKeys.contains(KeyCode.D)) {
-            player.move(1, 0, sceneWidth, sceneHeight, gameSpeed);
+        pendingCount = 0;
+    }
+
+    /**
+     * Vérifie si un bit est à 1.
+     * @param bits Champ de bits
+     * @param index Indice du bit
+     * @return true si le bit est à 1
+     */
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Met un bit à 1 ou à 0.
+     * @param bits Champ de bits
+     * @param index Indice du bit
+     * @param value Nouvelle valeur du bit
+     */
+    private static void set(long[] bits, int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
         }
     }
 }
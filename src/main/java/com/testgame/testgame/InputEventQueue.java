@@ -0,0 +1,151 @@
+package com.testgame.testgame;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe InputEventQueue : file circulaire sans verrou des événements clavier et souris, à un seul producteur
+ * (les gestionnaires d'événements JavaFX) et un seul consommateur (la boucle de jeu).
+ * <p>
+ * Chaque événement est horodaté à son arrivée et rangé dans des tableaux préalloués : ni l'ajout ni la lecture n'allouent.
+ * Le producteur publie un événement en avançant la fin de la file, le consommateur le libère en avançant le début ;
+ * chacun ne modifie que son propre compteur, publié avec une écriture ordonnée ({@link AtomicLong#lazySet}).
+ * Si la file est pleine, l'événement est abandonné et compté ; pour une touche, {@link GameEventHandler} rattrape l'état
+ * à la lecture suivante.
+ */
+public class InputEventQueue {
+    public static final int KEY_PRESSED = 0; // Touche enfoncée, code : ordinal du KeyCode
+    public static final int KEY_RELEASED = 1; // Touche relâchée, code : ordinal du KeyCode
+    public static final int SHOT = 2; // Tir, code : type du tir ; x et y : cible dans le monde
+
+    private final int mask; // Capacité - 1, la capacité étant une puissance de deux
+    private final int[] types; // Type de chaque événement
+    private final int[] codes; // Code de chaque événement
+    private final double[] xs; // Coordonnée x de chaque événement
+    private final double[] ys; // Coordonnée y de chaque événement
+    private final long[] times; // Horodatage d'arrivée de chaque événement, en nanosecondes
+    private final AtomicLong head = new AtomicLong(); // Prochain événement à lire, avancé par le consommateur
+    private final AtomicLong tail = new AtomicLong(); // Prochain emplacement à écrire, avancé par le producteur
+    private long cachedHead = 0; // Dernier début de file lu par le producteur
+    private long dropped = 0; // Événements abandonnés faute de place, compté par le producteur
+
+    private int type, code; // Événement lu par poll : type et code
+    private double x, y; // Événement lu par poll : position
+    private long time; // Événement lu par poll : horodatage
+
+    /**
+     * Constructeur de la classe InputEventQueue.
+     * @param capacity Nombre maximal d'événements en attente, arrondi à la puissance de deux supérieure
+     */
+    public InputEventQueue(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.types = new int[size];
+        this.codes = new int[size];
+        this.xs = new double[size];
+        this.ys = new double[size];
+        this.times = new long[size];
+    }
+
+    /**
+     * Ajoute un événement à la fin de la file. À n'appeler que depuis le thread producteur.
+     * @param eventType Type de l'événement (KEY_PRESSED, KEY_RELEASED ou SHOT)
+     * @param eventCode Code de l'événement
+     * @param eventX Coordonnée x (tirs)
+     * @param eventY Coordonnée y (tirs)
+     * @param eventTime Horodatage d'arrivée, en nanosecondes (System.nanoTime)
+     * @return false si la file était pleine et que l'événement a été abandonné
+     */
+    public boolean offer(int eventType, int eventCode, double eventX, double eventY, long eventTime) {
+        long position = tail.get();
+        if (position - cachedHead > mask) {
+            cachedHead = head.get(); // Relu seulement quand la file semble pleine
+            if (position - cachedHead > mask) {
+                dropped++;
+                return false;
+            }
+        }
+        int index = (int) position & mask;
+        types[index] = eventType;
+        codes[index] = eventCode;
+        xs[index] = eventX;
+        ys[index] = eventY;
+        times[index] = eventTime;
+        tail.lazySet(position + 1); // Publie l'événement après l'écriture de ses champs
+        return true;
+    }
+
+    /**
+     * Retire le premier événement de la file, lu ensuite avec les getters. À n'appeler que depuis le thread consommateur.
+     * @return false si la file est vide
+     */
+    public boolean poll() {
+        long position = head.get();
+        if (position == tail.get()) {
+            return false;
+        }
+        int index = (int) position & mask;
+        type = types[index];
+        code = codes[index];
+        x = xs[index];
+        y = ys[index];
+        time = times[index];
+        head.lazySet(position + 1); // Libère l'emplacement après la lecture de ses champs
+        return true;
+    }
+
+    /**
+     * Getter pour le type du dernier événement lu.
+     * @return Le type (KEY_PRESSED, KEY_RELEASED ou SHOT)
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Getter pour le code du dernier événement lu.
+     * @return L'ordinal du KeyCode pour une touche, le type du tir pour un tir
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Getter pour la coordonnée x du dernier événement lu.
+     * @return La coordonnée x de la cible d'un tir
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Getter pour la coordonnée y du dernier événement lu.
+     * @return La coordonnée y de la cible d'un tir
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Getter pour l'horodatage du dernier événement lu.
+     * @return L'instant d'arrivée de l'événement, en nanosecondes
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Getter pour la capacité de la file.
+     * @return Le nombre maximal d'événements en attente
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Getter pour le nombre d'événements abandonnés. À ne lire que depuis le thread producteur.
+     * @return Le nombre d'événements abandonnés faute de place
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
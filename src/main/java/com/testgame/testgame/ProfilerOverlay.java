@@ -0,0 +1,85 @@
+package com.testgame.testgame;
+
+import com.testgame.testgame.metrics.FrameProfiler;
+import com.testgame.testgame.metrics.PhaseHistogram;
+import com.testgame.testgame.world.World;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.Locale;
+
+/**
+ * Classe ProfilerOverlay : affichage des durées des phases de la boucle de jeu (p50, p99 et max en microsecondes)
+ * et du nombre d'entités, activé et désactivé avec F3.
+ * Le texte est recalculé une fois par seconde sur les mesures de la dernière seconde, pas à chaque frame.
+ */
+public class ProfilerOverlay {
+    private static final long REFRESH_NANOS = 1_000_000_000L; // Durée d'une fenêtre de mesure
+
+    private final FrameProfiler profiler; // Mesures affichées
+    private final Text text = new Text(); // Nœud du texte affiché
+    private long windowStart = 0; // Début de la fenêtre de mesure en cours
+
+    /**
+     * Constructeur de la classe ProfilerOverlay, masqué au départ.
+     * @param profiler Mesures à afficher
+     */
+    public ProfilerOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+        text.setFont(Font.font("Monospaced", 12));
+        text.setFill(Color.DARKGREEN);
+        text.setX(10);
+        text.setY(70);
+        text.setVisible(false);
+    }
+
+    /**
+     * Getter pour le nœud à ajouter à la scène.
+     * @return Le texte de l'overlay
+     */
+    public Text getView() {
+        return text;
+    }
+
+    /**
+     * Affiche ou masque l'overlay. À l'affichage, une nouvelle fenêtre de mesure commence.
+     */
+    public void toggle() {
+        text.setVisible(!text.isVisible());
+        windowStart = 0;
+    }
+
+    /**
+     * Met à jour le texte si la fenêtre de mesure est écoulée, puis vide les mesures.
+     * @param now Instant de la frame, en nanosecondes
+     * @param world Monde dont les entités sont comptées
+     */
+    public void update(long now, World world) {
+        if (!text.isVisible()) {
+            return;
+        }
+        if (windowStart == 0) {
+            windowStart = now;
+            profiler.reset();
+            return;
+        }
+        if (now - windowStart < REFRESH_NANOS) {
+            return;
+        }
+        StringBuilder builder = new StringBuilder(String.format(Locale.ROOT, "%-14s %8s %8s %8s %6s%n",
+                "Phase (µs)", "p50", "p99", "max", "n"));
+        for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+            PhaseHistogram histogram = profiler.get(phase);
+            builder.append(String.format(Locale.ROOT, "%-14s %8.1f %8.1f %8.1f %6d%n", phase.getLabel(),
+                    histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                    histogram.getMax() / 1e3, histogram.getCount()));
+        }
+        builder.append(String.format(Locale.ROOT, "Ennemis %d, projectiles %d, packs %d",
+                world.getEntities().getEnemies().size(), world.getEntities().getProjectiles().size(),
+                world.getAmmoPacks().size()));
+        text.setText(builder.toString());
+        windowStart = now;
+        profiler.reset();
+    }
+}
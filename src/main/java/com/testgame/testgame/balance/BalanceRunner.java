@@ -0,0 +1,194 @@
+package com.testgame.testgame.balance;
+
+import com.testgame.testgame.CommandLineOptions;
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Outil d'équilibrage : joue un grand nombre de parties sans affichage avec {@link BotPlayer},
+ * sur tous les cœurs, pour chaque combinaison d'une grille de réglages, et écrit les statistiques de survie
+ * et de kills dans un fichier CSV (une ligne par réglage, écrite dès que le réglage est terminé).
+ * <p>
+ * Utilisation : java -cp InfiniteCubeFrenzy.jar com.testgame.testgame.balance.BalanceRunner [options]
+ * <ul>
+ *     <li>--games=1000 : parties par réglage ; --seed=1 : graine de la série ; --max-seconds=300 : durée maximale d'une partie ;</li>
+ *     <li>--out=balance.csv : fichier de sortie ; --mode=classic ou horde : mode de jeu, dont les règles servent de base ;</li>
+ *     <li>--orange, --extra-life, --evade, --max-ammo, --ammo-threshold, --speed-step, --neighbors, --obstacles : valeurs séparées par des virgules,
+ *     par exemple --orange=0.02,0.05,0.1 (valeurs du jeu par défaut).</li>
+ * </ul>
+ * Toutes les parties d'une série utilisent les mêmes graines d'un réglage à l'autre, pour que les écarts mesurés
+ * viennent des réglages et non du hasard. Les graines sont tirées d'un SplittableRandom ; chaque partie a ses propres flux.
+ */
+public final class BalanceRunner {
+    private static final String HEADER = "mode,orangeChance,extraLifeChance,evadeSpeed,maxAmmo,ammoPackThreshold,speedStep,neighborCap,obstacles,"
+            + "games,meanKills,stdKills,medianKills,p90Kills,meanSeconds,medianSeconds,p90Seconds,timeoutRate";
+
+    private BalanceRunner() {
+    }
+
+    /**
+     * Point d'entrée de l'outil d'équilibrage.
+     * @param args Options de la série, au format --nom=valeur
+     * @throws IOException Si le fichier CSV ne peut pas être écrit
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = CommandLineOptions.parse(args);
+        int games = Integer.parseInt(options.getOrDefault("games", "1000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        int maxTicks = Integer.parseInt(options.getOrDefault("max-seconds", "300")) * World.REFERENCE_TICK_RATE;
+        Path out = Path.of(options.getOrDefault("out", "balance.csv"));
+        List<GameRules> grid = buildGrid(options);
+
+        // Mêmes graines pour tous les réglages
+        SplittableRandom root = new SplittableRandom(seed);
+        long[] worldSeeds = new long[games];
+        long[] botSeeds = new long[games];
+        for (int i = 0; i < games; i++) {
+            worldSeeds[i] = root.nextLong();
+            botSeeds[i] = root.nextLong();
+        }
+
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(out))) {
+            csv.println(HEADER);
+            long start = System.nanoTime();
+            long played = 0;
+            for (int r = 0; r < grid.size(); r++) {
+                GameRules rules = grid.get(r);
+                int[] kills = new int[games];
+                int[] ticks = new int[games];
+                IntStream.range(0, games).parallel().forEach(i -> {
+                    World world = playGame(rules, worldSeeds[i], botSeeds[i], maxTicks);
+                    kills[i] = world.getKillCount();
+                    ticks[i] = (int) world.getTick();
+                });
+                csv.println(summarize(rules, kills, ticks, maxTicks));
+                csv.flush();
+
+                played += games;
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.err.printf(Locale.ROOT, "Réglage %d/%d terminé, %.0f parties par seconde%n",
+                        r + 1, grid.size(), played / seconds);
+            }
+        }
+    }
+
+    /**
+     * Joue une partie complète avec le bot, sur le thread appelant.
+     * @param rules Réglages de la partie
+     * @param worldSeed Graine du monde
+     * @param botSeed Graine du bot
+     * @param maxTicks Nombre maximal de pas avant d'arrêter la partie
+     * @return Le monde dans son état final
+     */
+    public static World playGame(GameRules rules, long worldSeed, long botSeed, int maxTicks) {
+        World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, worldSeed, World.REFERENCE_TICK_RATE, rules);
+        world.setSteeringPool(null); // Les parties tournent déjà en parallèle
+        BotPlayer bot = new BotPlayer(new SplittableRandom(botSeed));
+        PlayerInput input = new PlayerInput();
+        while (!world.isGameOver() && world.getTick() < maxTicks) {
+            bot.decide(world, input);
+            world.step(input);
+            input.clearShots();
+        }
+        return world;
+    }
+
+    /**
+     * Calcule la ligne CSV d'un réglage.
+     * @param rules Réglage joué
+     * @param kills Kills de chaque partie
+     * @param ticks Durée de chaque partie, en pas
+     * @param maxTicks Durée maximale d'une partie
+     * @return La ligne CSV
+     */
+    private static String summarize(GameRules rules, int[] kills, int[] ticks, int maxTicks) {
+        int games = kills.length;
+        double meanKills = Arrays.stream(kills).average().orElse(0);
+        double variance = Arrays.stream(kills).mapToDouble(k -> (k - meanKills) * (k - meanKills)).sum() / Math.max(1, games - 1);
+        double meanTicks = Arrays.stream(ticks).average().orElse(0);
+        long timeouts = Arrays.stream(ticks).filter(t -> t >= maxTicks).count();
+        int[] sortedKills = kills.clone();
+        int[] sortedTicks = ticks.clone();
+        Arrays.sort(sortedKills);
+        Arrays.sort(sortedTicks);
+        double tickRate = World.REFERENCE_TICK_RATE;
+        return String.format(Locale.ROOT, "%s,%s,%s,%s,%d,%d,%s,%d,%b,%d,%.3f,%.3f,%d,%d,%.2f,%.2f,%.2f,%.4f",
+                rules.getMode(), rules.getOrangeChance(), rules.getExtraLifeChance(), rules.getEvadeSpeed(), rules.getMaxAmmo(),
+                rules.getAmmoPackThreshold(), rules.getSpeedStep(), rules.getNeighborCap(), rules.hasObstacles(), games, meanKills, Math.sqrt(variance),
+                percentile(sortedKills, 0.5), percentile(sortedKills, 0.9), meanTicks / tickRate,
+                percentile(sortedTicks, 0.5) / tickRate, percentile(sortedTicks, 0.9) / tickRate,
+                (double) timeouts / games);
+    }
+
+    /**
+     * Retourne un percentile d'un tableau trié (méthode du rang le plus proche).
+     * @param sorted Valeurs triées
+     * @param fraction Percentile voulu, entre 0 et 1
+     * @return La valeur du percentile
+     */
+    private static int percentile(int[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+
+    /**
+     * Construit toutes les combinaisons de réglages demandées.
+     * @param options Options de la ligne de commande
+     * @return La liste des réglages, un par combinaison
+     */
+    private static List<GameRules> buildGrid(Map<String, String> options) {
+        GameMode mode = GameMode.valueOf(options.getOrDefault("mode", "classic").toUpperCase(Locale.ROOT));
+        GameRules defaults = GameRules.forMode(mode);
+        List<GameRules> grid = new ArrayList<>();
+        grid.add(defaults);
+        grid = expand(grid, options.get("orange"), (rules, value) -> rules.setOrangeChance(Double.parseDouble(value)));
+        grid = expand(grid, options.get("extra-life"), (rules, value) -> rules.setExtraLifeChance(Double.parseDouble(value)));
+        grid = expand(grid, options.get("evade"), (rules, value) -> rules.setEvadeSpeed(Double.parseDouble(value)));
+        grid = expand(grid, options.get("max-ammo"), (rules, value) -> rules.setMaxAmmo(Integer.parseInt(value)));
+        grid = expand(grid, options.get("ammo-threshold"), (rules, value) -> rules.setAmmoPackThreshold(Integer.parseInt(value)));
+        grid = expand(grid, options.get("speed-step"), (rules, value) -> rules.setSpeedStep(Double.parseDouble(value)));
+        grid = expand(grid, options.get("neighbors"), (rules, value) -> rules.setNeighborCap(Integer.parseInt(value)));
+        grid = expand(grid, options.get("obstacles"), (rules, value) -> rules.setObstacles(Boolean.parseBoolean(value)));
+        return grid;
+    }
+
+    /**
+     * Multiplie chaque réglage de la grille par les valeurs d'un paramètre.
+     * @param grid Réglages déjà construits
+     * @param values Valeurs séparées par des virgules, ou null pour garder la valeur du jeu
+     * @param setter Application d'une valeur à un réglage
+     * @return La nouvelle grille
+     */
+    private static List<GameRules> expand(List<GameRules> grid, String values, BiConsumer<GameRules, String> setter) {
+        if (values == null) {
+            return grid;
+        }
+        List<GameRules> expanded = new ArrayList<>();
+        for (GameRules rules : grid) {
+            for (String value : values.split(",")) {
+                GameRules variant = new GameRules(rules);
+                setter.accept(variant, value.trim());
+                expanded.add(variant);
+            }
+        }
+        return expanded;
+    }
+}
@@ -0,0 +1,100 @@
+package com.testgame.testgame.balance;
+
+import com.testgame.testgame.entities.AmmoPack;
+import com.testgame.testgame.entities.Archetype;
+import com.testgame.testgame.entities.ExtraLifeItem;
+import com.testgame.testgame.entities.Player;
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
+
+import java.util.SplittableRandom;
+
+/**
+ * Classe BotPlayer : joueur automatique simple, utilisé pour jouer des parties sans affichage.
+ * À chaque pas, il fuit l'ennemi le plus proche s'il est trop près, sinon va chercher les bonus utiles,
+ * et tire sur l'ennemi le plus proche à une cadence limitée, avec une petite imprécision.
+ * Il ne tire jamais sans munitions, pour ne pas déclencher les messages du jeu.
+ */
+public class BotPlayer {
+    private static final double FLEE_DISTANCE = 150; // Distance en dessous de laquelle le bot fuit un ennemi
+    private static final double CROWD_DISTANCE = 120; // Rayon dans lequel les ennemis comptent pour l'attaque spéciale
+    private static final int CROWD_SIZE = 3; // Nombre d'ennemis proches déclenchant l'attaque spéciale
+    private static final int SHOT_COOLDOWN = 12; // Pas entre deux tirs (5 tirs par seconde à 60 pas par seconde)
+    private static final double AIM_ERROR = 4; // Écart type de la visée, en pixels
+
+    private final SplittableRandom random; // Tirages du bot, indépendants de ceux du monde
+    private int cooldown = 0; // Pas restants avant le prochain tir
+
+    /**
+     * Constructeur de la classe BotPlayer.
+     * @param random Générateur aléatoire propre au bot
+     */
+    public BotPlayer(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Choisit les commandes du prochain pas.
+     * @param world Monde à observer
+     * @param input Commandes à remplir (les tirs doivent avoir été vidés après le pas précédent)
+     */
+    public void decide(World world, PlayerInput input) {
+        Player player = world.getPlayer();
+        double playerX = player.getX() + player.getWidth() / 2;
+        double playerY = player.getY() + player.getHeight() / 2;
+
+        // Ennemi le plus proche et nombre d'ennemis proches
+        Archetype enemies = world.getEntities().getEnemies();
+        int nearest = -1;
+        double nearestDistance = Double.MAX_VALUE;
+        int crowd = 0;
+        for (int e = 0; e < enemies.size(); e++) {
+            double radius = enemies.getRadius(e);
+            double distance = Math.hypot(enemies.getX(e) + radius - playerX, enemies.getY(e) + radius - playerY);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = e;
+            }
+            if (distance < CROWD_DISTANCE) {
+                crowd++;
+            }
+        }
+
+        // Tir vers l'ennemi le plus proche
+        if (cooldown > 0) {
+            cooldown--;
+        } else if (nearest >= 0 && player.getAmmo() > 0) {
+            double radius = enemies.getRadius(nearest);
+            double targetX = enemies.getX(nearest) + radius + random.nextGaussian() * AIM_ERROR;
+            double targetY = enemies.getY(nearest) + radius + random.nextGaussian() * AIM_ERROR;
+            boolean special = crowd >= CROWD_SIZE && player.getAmmo() >= 10;
+            input.addShot(special ? PlayerInput.SHOT_SPECIAL : PlayerInput.SHOT_NORMAL, targetX, targetY);
+            cooldown = SHOT_COOLDOWN;
+        }
+
+        // Déplacement : fuite, puis bonus, puis retour vers le centre de l'arène
+        double moveX;
+        double moveY;
+        if (nearest >= 0 && nearestDistance < FLEE_DISTANCE) {
+            double radius = enemies.getRadius(nearest);
+            moveX = (playerX - enemies.getX(nearest) - radius) / nearestDistance;
+            moveY = (playerY - enemies.getY(nearest) - radius) / nearestDistance;
+            // Attirance vers le centre, pour ne pas se bloquer contre un bord
+            moveX += (world.getWidth() / 2 - playerX) / world.getWidth();
+            moveY += (world.getHeight() / 2 - playerY) / world.getHeight();
+        } else if (!world.getAmmoPacks().isEmpty() && player.getAmmo() < player.getMaxAmmo() / 2) {
+            AmmoPack ammoPack = world.getAmmoPacks().get(0);
+            moveX = ammoPack.getX() + ammoPack.getSize() / 2 - playerX;
+            moveY = ammoPack.getY() + ammoPack.getSize() / 2 - playerY;
+        } else if (world.getExtraLifeItem() != null && !world.hasExtraLife()) {
+            ExtraLifeItem item = world.getExtraLifeItem();
+            moveX = item.getX() - playerX;
+            moveY = item.getY() - playerY;
+        } else {
+            moveX = world.getWidth() / 2 - playerX + random.nextDouble(-50, 50);
+            moveY = world.getHeight() / 2 - playerY + random.nextDouble(-50, 50);
+        }
+        double deadZone = 0.3 * Math.max(Math.abs(moveX), Math.abs(moveY)); // Évite de zigzaguer sur un axe presque nul
+        input.setDirections(moveY < -deadZone, moveY > deadZone, moveX < -deadZone, moveX > deadZone);
+    }
+}
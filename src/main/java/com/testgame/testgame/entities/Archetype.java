@@ -0,0 +1,300 @@
+package com.testgame.testgame.entities;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Classe Archetype : table d'entités de même nature stockée en colonnes (structure de tableaux).
+ * Position, position précédente, vitesse, rayon et type de chaque entité sont rangés dans des tableaux
+ * de primitives contigus, pour que les boucles de mise à jour parcourent la mémoire linéairement.
+ * Les lignes restent compactes : une suppression déplace la dernière ligne à la place de la ligne supprimée,
+ * et le {@link EntityStore} met à jour le handle de l'entité déplacée.
+ */
+public class Archetype {
+    private static final int ROW_WORDS = 6; // Valeurs de 8 octets écrites par ligne : position, vitesse, rayon, type et handle
+    private final EntityStore store; // Magasin propriétaire, prévenu quand une ligne est déplacée
+    private final int maxSize; // Nombre maximal d'entités dans la table
+    private int size = 0; // Nombre de lignes occupées
+    private double[] x, y; // Position de chaque entité
+    private double[] previousX, previousY; // Position au pas précédent, pour l'interpolation de l'affichage
+    private double[] velocityX, velocityY; // Déplacement de chaque entité au dernier pas
+    private double[] radius; // Rayon (ou demi-côté) de chaque entité
+    private byte[] type; // Type de chaque entité (voir les constantes TYPE_ de EntityStore)
+    private int[] handle; // Handle stable de chaque entité
+
+    /**
+     * Constructeur de la classe Archetype.
+     * @param store Magasin propriétaire de la table
+     * @param capacity Capacité initiale de la table
+     * @param maxSize Nombre maximal d'entités ; si égal à la capacité, la table ne s'agrandit jamais
+     */
+    Archetype(EntityStore store, int capacity, int maxSize) {
+        this.store = store;
+        this.maxSize = maxSize;
+        x = new double[capacity];
+        y = new double[capacity];
+        previousX = new double[capacity];
+        previousY = new double[capacity];
+        velocityX = new double[capacity];
+        velocityY = new double[capacity];
+        radius = new double[capacity];
+        type = new byte[capacity];
+        handle = new int[capacity];
+    }
+
+    /**
+     * Ajoute une ligne à la fin de la table.
+     * @return L'indice de la nouvelle ligne
+     */
+    int add(int entityHandle, byte entityType, double posX, double posY, double speedX, double speedY, double entityRadius) {
+        if (size == maxSize) {
+            throw new IllegalStateException("Archétype plein (" + maxSize + " entités)");
+        }
+        if (size == x.length) {
+            grow((int) Math.min(maxSize, size * 2L));
+        }
+        int row = size++;
+        x[row] = posX;
+        y[row] = posY;
+        previousX[row] = posX;
+        previousY[row] = posY;
+        velocityX[row] = speedX;
+        velocityY[row] = speedY;
+        radius[row] = entityRadius;
+        type[row] = entityType;
+        handle[row] = entityHandle;
+        return row;
+    }
+
+    /**
+     * Supprime une ligne en la remplaçant par la dernière ligne de la table.
+     * @param row Indice de la ligne à supprimer
+     */
+    void removeRow(int row) {
+        int last = --size;
+        if (row != last) {
+            x[row] = x[last];
+            y[row] = y[last];
+            previousX[row] = previousX[last];
+            previousY[row] = previousY[last];
+            velocityX[row] = velocityX[last];
+            velocityY[row] = velocityY[last];
+            radius[row] = radius[last];
+            type[row] = type[last];
+            handle[row] = handle[last];
+            store.onRowMoved(handle[row], row);
+        }
+    }
+
+    /**
+     * Vide la table sans libérer sa mémoire.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Agrandit les colonnes de la table.
+     * @param capacity Nouvelle capacité
+     */
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        type = Arrays.copyOf(type, capacity);
+        handle = Arrays.copyOf(handle, capacity);
+    }
+
+    /**
+     * Calcule la taille des lignes écrites par writeRows.
+     * @return Le nombre d'octets écrits
+     */
+    int stateSize() {
+        return Long.BYTES * (1 + size * ROW_WORDS);
+    }
+
+    /**
+     * Écrit les lignes de la table dans l'état du monde, ligne par ligne : une suppression ne décale que les dernières valeurs.
+     * @param out Tampon de destination
+     */
+    void writeRows(ByteBuffer out) {
+        out.putLong(size);
+        for (int row = 0; row < size; row++) {
+            out.putDouble(x[row]);
+            out.putDouble(y[row]);
+            out.putDouble(velocityX[row]);
+            out.putDouble(velocityY[row]);
+            out.putDouble(radius[row]);
+            out.putLong((long) type[row] << 32 | (handle[row] & 0xFFFFFFFFL));
+        }
+    }
+
+    /**
+     * Rétablit les lignes écrites par writeRows. La position précédente est ramenée à la position rétablie.
+     * Les handles ne sont pas enregistrés auprès du magasin : c'est à l'appelant de le faire.
+     * @param in Tampon source
+     * @throws IllegalArgumentException si le nombre de lignes dépasse la taille maximale de la table
+     */
+    void readRows(ByteBuffer in) {
+        int count = (int) in.getLong();
+        if (count < 0 || count > maxSize) {
+            throw new IllegalArgumentException("Nombre d'entités invalide : " + count);
+        }
+        if (count > x.length) {
+            grow(count);
+        }
+        size = count;
+        for (int row = 0; row < size; row++) {
+            x[row] = in.getDouble();
+            y[row] = in.getDouble();
+            velocityX[row] = in.getDouble();
+            velocityY[row] = in.getDouble();
+            radius[row] = in.getDouble();
+            long typeAndHandle = in.getLong();
+            type[row] = (byte) (typeAndHandle >> 32);
+            handle[row] = (int) typeAndHandle;
+        }
+        savePreviousPositions();
+    }
+
+    /**
+     * Mémorise la position actuelle de toutes les entités comme position précédente.
+     */
+    public void savePreviousPositions() {
+        System.arraycopy(x, 0, previousX, 0, size);
+        System.arraycopy(y, 0, previousY, 0, size);
+    }
+
+    /**
+     * Déplace toutes les entités de leur vitesse, en un seul parcours linéaire.
+     */
+    public void integrate() {
+        for (int row = 0; row < size; row++) {
+            x[row] += velocityX[row];
+            y[row] += velocityY[row];
+        }
+    }
+
+    /**
+     * Getter pour le nombre d'entités de la table.
+     * @return Le nombre de lignes occupées
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retourne le nombre d'entités qui peuvent encore être ajoutées à la table.
+     * @return La place restante
+     */
+    public int remainingCapacity() {
+        return maxSize - size;
+    }
+
+    /**
+     * Getter pour la coordonnée x d'une entité.
+     * @param row Indice de la ligne
+     * @return La coordonnée x
+     */
+    public double getX(int row) {
+        return x[row];
+    }
+
+    /**
+     * Getter pour la coordonnée y d'une entité.
+     * @param row Indice de la ligne
+     * @return La coordonnée y
+     */
+    public double getY(int row) {
+        return y[row];
+    }
+
+    /**
+     * Déplace une entité.
+     * @param row Indice de la ligne
+     * @param posX Nouvelle coordonnée x
+     * @param posY Nouvelle coordonnée y
+     */
+    public void setPosition(int row, double posX, double posY) {
+        x[row] = posX;
+        y[row] = posY;
+    }
+
+    /**
+     * Getter pour la coordonnée x d'une entité au pas précédent.
+     * @param row Indice de la ligne
+     * @return La coordonnée x précédente
+     */
+    public double getPreviousX(int row) {
+        return previousX[row];
+    }
+
+    /**
+     * Getter pour la coordonnée y d'une entité au pas précédent.
+     * @param row Indice de la ligne
+     * @return La coordonnée y précédente
+     */
+    public double getPreviousY(int row) {
+        return previousY[row];
+    }
+
+    /**
+     * Getter pour la vitesse en x d'une entité.
+     * @param row Indice de la ligne
+     * @return Le déplacement en x par pas
+     */
+    public double getVelocityX(int row) {
+        return velocityX[row];
+    }
+
+    /**
+     * Getter pour la vitesse en y d'une entité.
+     * @param row Indice de la ligne
+     * @return Le déplacement en y par pas
+     */
+    public double getVelocityY(int row) {
+        return velocityY[row];
+    }
+
+    /**
+     * Définit la vitesse d'une entité.
+     * @param row Indice de la ligne
+     * @param speedX Déplacement en x par pas
+     * @param speedY Déplacement en y par pas
+     */
+    public void setVelocity(int row, double speedX, double speedY) {
+        velocityX[row] = speedX;
+        velocityY[row] = speedY;
+    }
+
+    /**
+     * Getter pour le rayon (ou demi-côté) d'une entité.
+     * @param row Indice de la ligne
+     * @return Le rayon
+     */
+    public double getRadius(int row) {
+        return radius[row];
+    }
+
+    /**
+     * Getter pour le type d'une entité.
+     * @param row Indice de la ligne
+     * @return Le type (constante TYPE_ de EntityStore)
+     */
+    public byte getType(int row) {
+        return type[row];
+    }
+
+    /**
+     * Getter pour le handle stable d'une entité.
+     * @param row Indice de la ligne
+     * @return Le handle de l'entité
+     */
+    public int getHandle(int row) {
+        return handle[row];
+    }
+}
@@ -1,87 +1,105 @@
 package com.testgame.testgame.entities;
 
-import javafx.scene.paint.Color; // Import pour gérer la couleur de l'ennemi
-
-
 /**
- * Classe Enemy représentant un ennemi dans le jeu.
- * Hérite de la classe Entity et dispose d'une vitesse de base et de méthodes pour se déplacer vers une cible et détecter les collisions.
+ * Classe Enemy regroupant le comportement des ennemis standard.
+ * Les ennemis sont stockés dans l'archétype des ennemis d'un {@link EntityStore} ; leur position (x, y)
+ * désigne le coin supérieur gauche d'un carré de 30x30 pixels.
  */
-public class Enemy extends Entity {
-    protected double baseSpeed = 2; // Vitesse de base de l'ennemi
+public final class Enemy {
+    public static final double BASE_SPEED = 2; // Vitesse de base de l'ennemi
+    public static final double SIZE = 30; // Côté du carré représentant l'ennemi
 
-    /**
-     * Constructeur de la classe Enemy.
-     * Initialise un ennemi sous forme d'un carré rouge de 30x30 pixels à une position donnée.
-     * @param x Coordonnée x initiale de l'ennemi
-     * @param y Coordonnée y initiale de l'ennemi
-     */
-    public Enemy(double x, double y) {
-        super(x, y, 30, 30, Color.RED); // L'ennemi est un carré rouge de taille 30x30
+    private Enemy() {
     }
 
     /**
-     * Méthode de mise à jour de l'ennemi.
-     * Actuellement, cette méthode est vide mais pourrait être utilisée pour définir des comportements spécifiques à chaque mise à jour du jeu.
+     * Fait apparaître un ennemi standard à une position donnée.
+     * @param store Magasin d'entités
+     * @param x Coordonnée x initiale de l'ennemi
+     * @param y Coordonnée y initiale de l'ennemi
+     * @return Le handle de l'ennemi
      */
-    @Override
-    public void update() {
-        // Logique de mise à jour de l'ennemi (aucune action pour l'instant)
+    public static int spawn(EntityStore store, double x, double y) {
+        return store.spawn(store.getEnemies(), EntityStore.TYPE_ENEMY, x, y, 0, 0, SIZE / 2);
     }
 
     /**
-     * Déplace l'ennemi vers une position cible, en fonction de la vitesse de jeu.
+     * Déplace un ennemi vers une position cible, en fonction de la vitesse de jeu.
+     * @param enemies Archétype des ennemis
+     * @param row Ligne de l'ennemi
      * @param targetX Coordonnée x de la cible
      * @param targetY Coordonnée y de la cible
      * @param gameSpeed Facteur de vitesse du jeu qui influence la vitesse de déplacement de l'ennemi
      */
-    public void moveTowards(double targetX, double targetY, double gameSpeed) {
+    public static void moveTowards(Archetype enemies, int row, double targetX, double targetY, double gameSpeed) {
+        double x = enemies.getX(row);
+        double y = enemies.getY(row);
+
         // Calcul des différences de position entre l'ennemi et la cible
         double deltaX = targetX - x;
         double deltaY = targetY - y;
         double distance = Math.hypot(deltaX, deltaY); // Calcul de la distance jusqu'à la cible
 
-        // Calcul de la direction unitaire et ajustement de la vitesse avec gameSpeed
-        double directionX = deltaX / distance;
-        double directionY = deltaY / distance;
-
-        // Mise à jour de la position de l'ennemi en fonction de la direction et de la vitesse
-        x += directionX * baseSpeed * gameSpeed;
-        y += directionY * baseSpeed * gameSpeed;
+        // Calcul du déplacement à partir de la direction unitaire et de la vitesse
+        double velocityX = deltaX / distance * BASE_SPEED * gameSpeed;
+        double velocityY = deltaY / distance * BASE_SPEED * gameSpeed;
 
-        // Mise à jour de la position graphique
-        shape.setTranslateX(x);
-        shape.setTranslateY(y);
+        enemies.setVelocity(row, velocityX, velocityY);
+        enemies.setPosition(row, x + velocityX, y + velocityY);
     }
 
     /**
-     * Vérifie si l'ennemi entre en collision avec le joueur.
-     * @param player L'instance du joueur à vérifier pour la collision
-     * @return true si l'ennemi est en collision avec le joueur, sinon false
+     * Déplace un ennemi vers une position cible en ajoutant une correction à sa direction,
+     * par exemple pour s'écarter de ses voisins. La correction s'ajoute à la direction unitaire vers la cible,
+     * puis la direction obtenue est ramenée à la vitesse de {@link #moveTowards}. Sans correction,
+     * le déplacement est exactement celui de moveTowards.
+     * @param enemies Archétype des ennemis
+     * @param row Ligne de l'ennemi
+     * @param targetX Coordonnée x de la cible
+     * @param targetY Coordonnée y de la cible
+     * @param steerX Correction en x de la direction
+     * @param steerY Correction en y de la direction
+     * @param gameSpeed Facteur de vitesse du jeu qui influence la vitesse de déplacement de l'ennemi
      */
-    public boolean collidesWithPlayer(Player player) {
-        // Calcul des distances entre l'ennemi et le joueur
-        double distanceX = x - (player.getX() + player.getShape().getWidth() / 2);
-        double distanceY = y - (player.getY() + player.getShape().getHeight() / 2);
-        double distance = Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+    public static void steer(Archetype enemies, int row, double targetX, double targetY, double steerX, double steerY,
+                             double gameSpeed) {
+        if (steerX == 0 && steerY == 0) {
+            moveTowards(enemies, row, targetX, targetY, gameSpeed);
+            return;
+        }
+        double x = enemies.getX(row);
+        double y = enemies.getY(row);
+        double deltaX = targetX - x;
+        double deltaY = targetY - y;
+        double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+        double directionX = (distance > 0 ? deltaX / distance : 0) + steerX;
+        double directionY = (distance > 0 ? deltaY / distance : 0) + steerY;
+        double length = Math.sqrt(directionX * directionX + directionY * directionY);
+        if (length == 0) {
+            enemies.setVelocity(row, 0, 0); // La correction annule exactement la direction : l'ennemi reste sur place
+            return;
+        }
 
-        // Retourne true si la distance est inférieure à la somme des rayons (collision)
-        return distance < (shape.getWidth() / 2 + player.getShape().getWidth() / 2);
+        double velocityX = directionX / length * BASE_SPEED * gameSpeed;
+        double velocityY = directionY / length * BASE_SPEED * gameSpeed;
+        enemies.setVelocity(row, velocityX, velocityY);
+        enemies.setPosition(row, x + velocityX, y + velocityY);
     }
 
     /**
-     * Getter pour la coordonnée x de l'ennemi.
-     * @return La coordonnée x de l'ennemi
+     * Vérifie si un ennemi entre en collision avec le joueur.
+     * @param enemies Archétype des ennemis
+     * @param row Ligne de l'ennemi
+     * @param player L'instance du joueur à vérifier pour la collision
+     * @return true si l'ennemi est en collision avec le joueur, sinon false
      */
-    public double getX() {
-        return x;
-    }
+    public static boolean collidesWithPlayer(Archetype enemies, int row, Player player) {
+        // Calcul des distances entre l'ennemi et le joueur
+        double distanceX = enemies.getX(row) - (player.getX() + player.getWidth() / 2);
+        double distanceY = enemies.getY(row) - (player.getY() + player.getHeight() / 2);
+        double radii = enemies.getRadius(row) + player.getWidth() / 2;
 
-    /**
-     * Getter pour la coordonnée y de l'ennemi.
-     * @return La coordonnée y de l'ennemi
-     */
-    public double getY() {
-        return y;
+        // Retourne true si la distance est inférieure à la somme des rayons (collision)
+        return distanceX * distanceX + distanceY * distanceY < radii * radii;
     }
 }
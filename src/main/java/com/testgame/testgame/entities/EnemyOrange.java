@@ -1,88 +1,56 @@
 package com.testgame.testgame.entities;
 
-import javafx.scene.paint.Color; // Import pour la gestion des couleurs
-import java.util.List; // Import pour l'utilisation des listes de projectiles
-
 /**
- * Classe EnemyOrange représentant un ennemi orange dans le jeu.
- * Cet ennemi possède une capacité d'esquive des projectiles et se dirige vers le joueur
+ * Classe EnemyOrange regroupant le comportement des ennemis orange.
+ * Cet ennemi possède une capacité d'esquive des projectiles et se dirige vers sa cible (le joueur, ou un point sur le chemin du joueur)
  * lorsqu'il n'a aucun projectile à éviter.
  */
-public class EnemyOrange extends Enemy {
+public final class EnemyOrange {
+    public static final double EVADE_SPEED = 3; // Vitesse d'esquive, plus rapide que la vitesse de déplacement de base
+    public static final double EVADE_RADIUS = 50; // Distance en dessous de laquelle un projectile est esquivé
 
-    private double evadeSpeed = 3; // Vitesse d'esquive, plus rapide que la vitesse de déplacement de base
+    private EnemyOrange() {
+    }
 
     /**
-     * Constructeur de la classe EnemyOrange.
-     * Initialise l'ennemi à une position donnée et lui attribue une couleur orange.
+     * Fait apparaître un ennemi orange à une position donnée.
+     * @param store Magasin d'entités
      * @param x Coordonnée x initiale de l'ennemi
      * @param y Coordonnée y initiale de l'ennemi
+     * @return Le handle de l'ennemi
      */
-    public EnemyOrange(double x, double y) {
-        super(x, y);
-        this.shape.setFill(Color.ORANGE); // Définit la couleur de l'ennemi en orange
+    public static int spawn(EntityStore store, double x, double y) {
+        return store.spawn(store.getEnemies(), EntityStore.TYPE_ENEMY_ORANGE, x, y, 0, 0, Enemy.SIZE / 2);
     }
 
     /**
-     * Méthode de mise à jour de l'état de l'ennemi.
-     * Si un projectile est détecté dans un rayon de 50 pixels, l'ennemi esquive le projectile.
-     * Sinon, il se déplace en direction du joueur.
-     * @param projectiles Liste des projectiles à esquiver
-     * @param player Le joueur vers lequel l'ennemi se dirige
+     * Met à jour un ennemi orange.
+     * Si un projectile menace l'ennemi, celui-ci fuit dans la direction de fuite fournie, calculée une seule fois par pas
+     * pour tous les ennemis à partir de l'ensemble des projectiles (voir ThreatField).
+     * Sinon, il se déplace en direction de sa cible, avec la correction donnée par ses voisins.
+     * @param enemies Archétype des ennemis
+     * @param row Ligne de l'ennemi
+     * @param escapeX Composante x de la direction de fuite normalisée (0 s'il n'y a rien à esquiver)
+     * @param escapeY Composante y de la direction de fuite normalisée (0 s'il n'y a rien à esquiver)
+     * @param targetX Coordonnée x de la cible vers laquelle l'ennemi se dirige
+     * @param targetY Coordonnée y de la cible vers laquelle l'ennemi se dirige
+     * @param steerX Correction en x de la direction vers la cible (voir {@link Enemy#steer})
+     * @param steerY Correction en y de la direction vers la cible
      * @param gameSpeed Vitesse du jeu qui influence la vitesse de l'ennemi
+     * @param evadeSpeed Vitesse d'esquive, {@link #EVADE_SPEED} avec les règles du jeu
      */
-    public void update(List<Projectile> projectiles, Player player, double gameSpeed) {
-        boolean evaded = false; // Indicateur pour savoir si une esquive a été effectuée
-
-        // Parcourt les projectiles pour vérifier s'il y en a un à esquiver
-        for (Projectile projectile : projectiles) {
-            double distanceX = projectile.getX() - x;
-            double distanceY = projectile.getY() - y;
-            double distance = Math.sqrt(distanceX * distanceX + distanceY * distanceY);
-
-            // Si un projectile est proche (rayon de 50 pixels), l'ennemi esquive
-            if (distance < 50) {
-                double evadeDirectionX = -distanceX / distance;
-                double evadeDirectionY = -distanceY / distance;
-
-                // Déplacement dans la direction opposée au projectile
-                x += evadeDirectionX * evadeSpeed * gameSpeed;
-                y += evadeDirectionY * evadeSpeed * gameSpeed;
-                shape.setTranslateX(x);
-                shape.setTranslateY(y);
-
-                evaded = true; // L'ennemi a esquivé, on peut sortir de la boucle
-                break; // Esquive seulement le premier projectile détecté
-            }
-        }
-
-        // Si aucun projectile n'a été esquivé, se dirige vers le joueur
-        if (!evaded) {
-            moveTowardsPlayer(player, gameSpeed);
+    public static void update(Archetype enemies, int row, double escapeX, double escapeY, double targetX, double targetY,
+                              double steerX, double steerY, double gameSpeed, double evadeSpeed) {
+        if (escapeX == 0 && escapeY == 0) {
+            // Aucun projectile à esquiver : se dirige vers sa cible
+            Enemy.steer(enemies, row, targetX, targetY, steerX, steerY, gameSpeed);
+            return;
         }
-    }
-
-    /**
-     * Déplace l'ennemi vers le joueur si aucun projectile n'est à esquiver.
-     * @param player Le joueur cible
-     * @param gameSpeed Facteur de vitesse du jeu qui influence la vitesse de l'ennemi
-     */
-    private void moveTowardsPlayer(Player player, double gameSpeed) {
-        // Calcul des différences de position entre l'ennemi et le joueur
-        double deltaX = player.getX() - x;
-        double deltaY = player.getY() - y;
-        double distance = Math.hypot(deltaX, deltaY);
-
-        // Calcul de la direction unitaire et ajustement de la vitesse
-        double directionX = deltaX / distance;
-        double directionY = deltaY / distance;
-
-        // Mise à jour de la position de l'ennemi
-        x += directionX * baseSpeed * gameSpeed;
-        y += directionY * baseSpeed * gameSpeed;
 
-        // Mise à jour de la position graphique
-        shape.setTranslateX(x);
-        shape.setTranslateY(y);
+        // Déplacement dans la direction de fuite, à la vitesse d'esquive
+        double velocityX = escapeX * evadeSpeed * gameSpeed;
+        double velocityY = escapeY * evadeSpeed * gameSpeed;
+        enemies.setVelocity(row, velocityX, velocityY);
+        enemies.setPosition(row, enemies.getX(row) + velocityX, enemies.getY(row) + velocityY);
     }
 }
@@ -1,33 +1,30 @@
 package com.testgame.testgame.entities;
 
-import javafx.scene.shape.Rectangle; // Import pour utiliser des formes rectangulaires
-import javafx.scene.paint.Color; // Import pour gérer les couleurs
-
 /**
  * Classe abstraite Entity qui représente une entité générique dans le jeu.
- * Elle fournit des attributs et des méthodes de base pour toutes les entités visibles,
- * comme leur forme, position et couleur.
+ * Elle fournit des attributs et des méthodes de base pour toutes les entités,
+ * comme leur position et leur taille. Aucune dépendance graphique : l'affichage est géré par la vue.
  */
 public abstract class Entity {
-    protected Rectangle shape; // Forme de l'entité
     protected double x, y; // Position de l'entité
+    protected double previousX, previousY; // Position au pas de simulation précédent, pour l'interpolation de l'affichage
+    protected double width, height; // Taille de l'entité
 
     /**
      * Constructeur de la classe Entity.
-     * Initialise une entité avec une position, une taille et une couleur données.
+     * Initialise une entité avec une position et une taille données.
      * @param x Coordonnée x initiale de l'entité
      * @param y Coordonnée y initiale de l'entité
      * @param width Largeur de l'entité
      * @param height Hauteur de l'entité
-     * @param color Couleur de l'entité
      */
-    public Entity(double x, double y, double width, double height, Color color) {
-        this.shape = new Rectangle(width, height); // Crée un rectangle pour représenter visuellement l'entité
-        this.shape.setFill(color); // Définit la couleur de l'entité
+    public Entity(double x, double y, double width, double height) {
         this.x = x;
         this.y = y;
-        shape.setTranslateX(x); // Positionne l'entité en x
-        shape.setTranslateY(y); // Positionne l'entité en y
+        this.previousX = x;
+        this.previousY = y;
+        this.width = width;
+        this.height = height;
     }
 
     /**
@@ -38,11 +35,43 @@ public abstract class Entity {
     public abstract void update();
 
     /**
-     * Getter pour obtenir la forme de l'entité.
-     * @return La forme Rectangle de l'entité
+     * Mémorise la position actuelle comme position précédente, au début d'un pas de simulation.
+     */
+    public void savePreviousPosition() {
+        previousX = x;
+        previousY = y;
+    }
+
+    /**
+     * Getter pour obtenir la coordonnée x de l'entité au pas précédent.
+     * @return La coordonnée x précédente de l'entité
+     */
+    public double getPreviousX() {
+        return previousX;
+    }
+
+    /**
+     * Getter pour obtenir la coordonnée y de l'entité au pas précédent.
+     * @return La coordonnée y précédente de l'entité
+     */
+    public double getPreviousY() {
+        return previousY;
+    }
+
+    /**
+     * Getter pour obtenir la largeur de l'entité.
+     * @return La largeur de l'entité
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter pour obtenir la hauteur de l'entité.
+     * @return La hauteur de l'entité
      */
-    public Rectangle getShape() {
-        return shape;
+    public double getHeight() {
+        return height;
     }
 
     /**
@@ -0,0 +1,271 @@
+package com.testgame.testgame.entities;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Classe EntityStore : magasin d'entités regroupées par archétype (ennemis, projectiles).
+ * Chaque entité reçoit un handle stable qui reste valide tant qu'elle existe, même si sa ligne
+ * est déplacée dans son archétype lors d'une suppression. Un handle combine un emplacement et une génération :
+ * une fois l'entité détruite, son ancien handle n'est plus reconnu, même si l'emplacement est réutilisé.
+ */
+public class EntityStore {
+    public static final byte TYPE_ENEMY = 0; // Ennemi standard qui fonce vers le joueur
+    public static final byte TYPE_ENEMY_ORANGE = 1; // Ennemi orange qui esquive les projectiles
+    public static final byte TYPE_PROJECTILE = 2; // Projectile tiré par le joueur
+
+    private static final int SLOT_BITS = 20; // Nombre de bits du handle réservés à l'emplacement
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    public static final int MAX_SLOTS = 1 << SLOT_BITS; // Nombre maximal d'emplacements : un handle vaut génération * MAX_SLOTS + emplacement
+    private static final int GENERATION_MASK = (1 << (31 - SLOT_BITS)) - 1;
+
+    private final Archetype enemies = new Archetype(this, 64, Integer.MAX_VALUE); // Table des ennemis
+    // Table des projectiles, allouée une fois à sa taille maximale : elle sert de réserve bornée sans allocation en jeu
+    private final Archetype projectiles = new Archetype(this, Projectile.MAX_PROJECTILES, Projectile.MAX_PROJECTILES);
+
+    private Archetype[] slotArchetype = new Archetype[128]; // Archétype de l'entité de chaque emplacement (null si libre)
+    private int[] slotRow = new int[128]; // Ligne de l'entité de chaque emplacement
+    private int[] slotGeneration = new int[128]; // Génération courante de chaque emplacement
+    private int[] freeSlots = new int[128]; // Pile des emplacements libérés
+    private int freeCount = 0; // Nombre d'emplacements libérés
+    private int slotCount = 0; // Nombre d'emplacements déjà utilisés au moins une fois
+
+    /**
+     * Crée une entité dans un archétype.
+     * @param archetype Archétype de l'entité (getEnemies() ou getProjectiles())
+     * @param type Type de l'entité (constante TYPE_)
+     * @param x Coordonnée x initiale
+     * @param y Coordonnée y initiale
+     * @param velocityX Déplacement initial en x par pas
+     * @param velocityY Déplacement initial en y par pas
+     * @param radius Rayon (ou demi-côté) de l'entité
+     * @return Le handle de la nouvelle entité
+     * @throws IllegalStateException si l'archétype est plein
+     */
+    public int spawn(Archetype archetype, byte type, double x, double y, double velocityX, double velocityY, double radius) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount > SLOT_MASK) {
+                throw new IllegalStateException("Trop d'entités simultanées");
+            }
+            reserveSlots(1);
+            slot = slotCount++;
+        }
+        int handle = (slotGeneration[slot] << SLOT_BITS) | slot;
+        slotArchetype[slot] = archetype;
+        slotRow[slot] = archetype.add(handle, type, x, y, velocityX, velocityY, radius);
+        return handle;
+    }
+
+    /**
+     * Prépare l'ajout de plusieurs entités d'un coup : vérifie la place restante dans l'archétype
+     * et agrandit si besoin la table des handles une seule fois pour tout le lot.
+     * @param archetype Archétype qui va recevoir les entités
+     * @param count Nombre d'entités à ajouter
+     * @return true si les entités peuvent être ajoutées, false si l'archétype n'a plus assez de place
+     */
+    public boolean reserve(Archetype archetype, int count) {
+        if (archetype.remainingCapacity() < count) {
+            return false;
+        }
+        reserveSlots(count - freeCount);
+        return true;
+    }
+
+    /**
+     * Agrandit la table des handles pour accueillir de nouveaux emplacements.
+     * @param count Nombre d'emplacements neufs nécessaires
+     */
+    private void reserveSlots(int count) {
+        if (count <= 0 || slotCount + count <= slotRow.length) {
+            return;
+        }
+        int capacity = Math.max(slotCount + count, slotRow.length * 2);
+        slotArchetype = Arrays.copyOf(slotArchetype, capacity);
+        slotRow = Arrays.copyOf(slotRow, capacity);
+        slotGeneration = Arrays.copyOf(slotGeneration, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+
+    /**
+     * Détruit une entité. Son handle devient invalide.
+     * @param handle Handle de l'entité à détruire
+     */
+    public void destroy(int handle) {
+        if (!isAlive(handle)) {
+            return;
+        }
+        int slot = handle & SLOT_MASK;
+        slotArchetype[slot].removeRow(slotRow[slot]);
+        slotArchetype[slot] = null;
+        slotGeneration[slot] = (slotGeneration[slot] + 1) & GENERATION_MASK;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Détruit l'entité rangée à une ligne d'un archétype.
+     * La dernière ligne de l'archétype prend sa place.
+     * @param archetype Archétype de l'entité
+     * @param row Ligne de l'entité
+     */
+    public void destroyRow(Archetype archetype, int row) {
+        destroy(archetype.getHandle(row));
+    }
+
+    /**
+     * Indique si un handle désigne une entité encore présente.
+     * @param handle Handle à vérifier
+     * @return true si l'entité existe toujours
+     */
+    public boolean isAlive(int handle) {
+        int slot = handle & SLOT_MASK;
+        return slot < slotCount && slotArchetype[slot] != null && slotGeneration[slot] == handle >>> SLOT_BITS;
+    }
+
+    /**
+     * Retourne la ligne actuelle d'une entité dans son archétype.
+     * @param handle Handle d'une entité présente
+     * @return L'indice de la ligne
+     */
+    public int getRow(int handle) {
+        return slotRow[handle & SLOT_MASK];
+    }
+
+    /**
+     * Retourne l'emplacement d'un handle, utile pour indexer des données annexes (formes affichées par exemple).
+     * @param handle Handle d'une entité
+     * @return L'emplacement du handle
+     */
+    public static int slotOf(int handle) {
+        return handle & SLOT_MASK;
+    }
+
+    /**
+     * Met à jour la ligne d'une entité déplacée par une suppression dans son archétype.
+     * @param handle Handle de l'entité déplacée
+     * @param row Nouvelle ligne de l'entité
+     */
+    void onRowMoved(int handle, int row) {
+        slotRow[handle & SLOT_MASK] = row;
+    }
+
+    /**
+     * Supprime toutes les entités. Les handles existants deviennent invalides.
+     */
+    public void clear() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slotArchetype[slot] != null) {
+                slotArchetype[slot] = null;
+                slotGeneration[slot] = (slotGeneration[slot] + 1) & GENERATION_MASK;
+                freeSlots[freeCount++] = slot;
+            }
+        }
+        enemies.clear();
+        projectiles.clear();
+    }
+
+    /**
+     * Remet le stockage dans l'état d'un stockage neuf, en gardant ses tableaux : les handles sont de nouveau attribués
+     * à partir du premier emplacement, comme dans un monde neuf. Aucun handle existant ne doit être conservé.
+     */
+    public void reset() {
+        Arrays.fill(slotArchetype, 0, slotCount, null);
+        Arrays.fill(slotGeneration, 0, slotCount, 0);
+        slotCount = 0;
+        freeCount = 0;
+        enemies.clear();
+        projectiles.clear();
+    }
+
+    /**
+     * Calcule la taille de l'état écrit par writeState.
+     * @return Le nombre d'octets écrits
+     */
+    public int stateSize() {
+        return Long.BYTES * (2 + freeCount) + enemies.stateSize() + projectiles.stateSize();
+    }
+
+    /**
+     * Écrit toutes les entités dans l'état du monde : lignes des ennemis, puis des projectiles, puis pile des emplacements libres
+     * avec leur génération. Les emplacements occupés se déduisent des handles des lignes, l'ordre de la pile fixe ceux
+     * que recevront les prochaines entités.
+     * @param out Tampon de destination
+     */
+    public void writeState(ByteBuffer out) {
+        out.putLong(slotCount);
+        enemies.writeRows(out);
+        projectiles.writeRows(out);
+        out.putLong(freeCount);
+        for (int i = 0; i < freeCount; i++) {
+            out.putLong((long) slotGeneration[freeSlots[i]] << 32 | freeSlots[i]);
+        }
+    }
+
+    /**
+     * Rétablit les entités écrites par writeState, avec les mêmes handles.
+     * @param in Tampon source
+     * @throws IllegalArgumentException si l'état décrit plus d'emplacements que le magasin ne peut en contenir
+     */
+    public void readState(ByteBuffer in) {
+        int slots = (int) in.getLong();
+        if (slots < 0 || slots > MAX_SLOTS) {
+            throw new IllegalArgumentException("Nombre d'emplacements invalide : " + slots);
+        }
+        Arrays.fill(slotArchetype, 0, slotCount, null);
+        Arrays.fill(slotGeneration, 0, slotCount, 0);
+        freeCount = 0;
+        reserveSlots(slots - slotCount);
+        slotCount = slots;
+        enemies.readRows(in);
+        projectiles.readRows(in);
+        linkRows(enemies);
+        linkRows(projectiles);
+        freeCount = (int) in.getLong();
+        for (int i = 0; i < freeCount; i++) {
+            long slotAndGeneration = in.getLong();
+            int slot = (int) slotAndGeneration;
+            freeSlots[i] = slot;
+            slotGeneration[slot] = (int) (slotAndGeneration >>> 32);
+        }
+    }
+
+    /**
+     * Enregistre les handles des lignes d'un archétype rétabli.
+     * @param archetype Archétype dont les lignes viennent d'être lues
+     */
+    private void linkRows(Archetype archetype) {
+        for (int row = 0; row < archetype.size(); row++) {
+            int handle = archetype.getHandle(row);
+            int slot = handle & SLOT_MASK;
+            slotArchetype[slot] = archetype;
+            slotRow[slot] = row;
+            slotGeneration[slot] = handle >>> SLOT_BITS;
+        }
+    }
+
+    /**
+     * Getter pour la table des ennemis.
+     * @return L'archétype des ennemis
+     */
+    public Archetype getEnemies() {
+        return enemies;
+    }
+
+    /**
+     * Getter pour la table des projectiles.
+     * @return L'archétype des projectiles
+     */
+    public Archetype getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * Getter pour le nombre d'emplacements de handle déjà utilisés.
+     * @return La borne supérieure (exclue) des emplacements de handle
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+}
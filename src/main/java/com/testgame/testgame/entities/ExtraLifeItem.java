@@ -1,36 +1,40 @@
 package com.testgame.testgame.entities;
 
-import javafx.scene.paint.Color; // Import pour gérer les couleurs
-import javafx.scene.shape.Circle; // Import pour créer des formes circulaires
-
 /**
  * Classe ExtraLifeItem représentant un objet qui ajoute une vie supplémentaire dans le jeu.
- * Cet objet est représenté par un cercle de couleur rose et possède une position définie.
+ * Cet objet est un cercle de rayon 10 pixels centré sur sa position.
  */
 public class ExtraLifeItem {
-    private Circle shape; // Forme circulaire représentant l'objet de vie supplémentaire
-    private double x, y;  // Position de l'objet
+    private double x, y;  // Position (centre) de l'objet
+    private double radius = 10; // Rayon de l'objet
 
     /**
      * Constructeur de la classe ExtraLifeItem.
-     * Initialise la position et la représentation graphique de l'objet de vie supplémentaire.
+     * Initialise la position de l'objet de vie supplémentaire.
      * @param x Coordonnée x initiale de l'objet
      * @param y Coordonnée y initiale de l'objet
      */
     public ExtraLifeItem(double x, double y) {
         this.x = x;
         this.y = y;
-        shape = new Circle(10, Color.PINK);  // Crée un cercle rose avec un rayon de 10 pixels
-        shape.setTranslateX(x); // Positionne le cercle en x
-        shape.setTranslateY(y); // Positionne le cercle en y
     }
 
     /**
-     * Getter pour obtenir la forme de l'objet de vie supplémentaire.
-     * @return La forme circulaire de l'objet
+     * Déplace l'objet, pour le réutiliser quand un état de la partie est rétabli.
+     * @param x Nouvelle coordonnée x de l'objet
+     * @param y Nouvelle coordonnée y de l'objet
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Getter pour obtenir le rayon de l'objet de vie supplémentaire.
+     * @return Le rayon de l'objet
      */
-    public Circle getShape() {
-        return shape;
+    public double getRadius() {
+        return radius;
     }
 
     /**
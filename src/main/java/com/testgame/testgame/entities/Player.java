@@ -1,6 +1,6 @@
 package com.testgame.testgame.entities;
 
-import javafx.scene.paint.Color; // Import pour gérer la couleur du joueur
+import java.nio.ByteBuffer;
 
 /**
  * Classe Player représentant le joueur dans le jeu.
@@ -8,19 +8,37 @@ import javafx.scene.paint.Color; // Import pour gérer la couleur du joueur
  * le tir, le rechargement et les déplacements.
  */
 public class Player extends Entity {
-    private int health = 100; // Santé initiale du joueur
+    public static final int STATE_BYTES = 4 * Long.BYTES; // Taille de l'état écrit par writeState
+
+    private static final int INITIAL_HEALTH = 100; // Santé initiale du joueur
+
+    private int health = INITIAL_HEALTH; // Santé du joueur
     private int ammo; // Munitions actuelles du joueur
-    private int maxAmmo = 20; // Capacité maximale de munitions
+    private final int maxAmmo; // Capacité maximale de munitions
+    private final int ammoPackThreshold; // Munitions à partir desquelles le joueur a besoin d'un pack
     private double baseSpeed = 2.0; // Vitesse de base du joueur
 
     /**
      * Constructeur de la classe Player.
-     * Initialise le joueur à une position donnée avec un chargeur plein et une couleur bleue.
+     * Initialise le joueur à une position donnée avec un chargeur plein.
      * @param x Coordonnée x initiale du joueur
      * @param y Coordonnée y initiale du joueur
      */
     public Player(double x, double y) {
-        super(x, y, 30, 30, Color.BLUE); // Définit le joueur comme un carré bleu de 30x30 pixels
+        this(x, y, 20, 5);
+    }
+
+    /**
+     * Constructeur de la classe Player avec des réglages de munitions.
+     * @param x Coordonnée x initiale du joueur
+     * @param y Coordonnée y initiale du joueur
+     * @param maxAmmo Capacité maximale de munitions
+     * @param ammoPackThreshold Munitions à partir desquelles le joueur a besoin d'un pack
+     */
+    public Player(double x, double y, int maxAmmo, int ammoPackThreshold) {
+        super(x, y, 30, 30); // Définit le joueur comme un carré de 30x30 pixels
+        this.maxAmmo = maxAmmo;
+        this.ammoPackThreshold = ammoPackThreshold;
         this.ammo = maxAmmo; // Chargeur plein au début
     }
 
@@ -42,10 +60,8 @@ public class Player extends Entity {
         if (ammo > 0) {
             ammo--;
             return true;
-        } else {
-            System.out.println("Plus de munitions !");
-            return false;
         }
+        return false;
     }
 
     /**
@@ -63,6 +79,14 @@ public class Player extends Entity {
         return ammo;
     }
 
+    /**
+     * Getter pour obtenir la santé actuelle du joueur.
+     * @return La santé restante du joueur
+     */
+    public int getHealth() {
+        return health;
+    }
+
     /**
      * Getter pour obtenir le nombre maximal de munitions.
      * @return Le nombre maximal de munitions
@@ -87,30 +111,75 @@ public class Player extends Entity {
         double newY = y + dy * speed;
 
         // Vérifie les limites de l'écran pour s'assurer que le joueur reste visible
-        if (newX >= 0 && newX <= sceneWidth - shape.getWidth()) {
+        if (newX >= 0 && newX <= sceneWidth - width) {
             x = newX;
-            shape.setTranslateX(x);
         }
-        if (newY >= 0 && newY <= sceneHeight - shape.getHeight()) {
+        if (newY >= 0 && newY <= sceneHeight - height) {
             y = newY;
-            shape.setTranslateY(y);
         }
     }
 
+    /**
+     * Place le joueur à une position donnée, par exemple pour le ramener contre un mur qu'il allait traverser.
+     * La position du pas précédent, utilisée pour l'interpolation de l'affichage, n'est pas modifiée.
+     * @param x Nouvelle coordonnée x
+     * @param y Nouvelle coordonnée y
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Remet le joueur à une position donnée avec sa santé initiale et un chargeur plein, pour une nouvelle partie.
+     * @param x Coordonnée x du joueur
+     * @param y Coordonnée y du joueur
+     */
+    public void reset(double x, double y) {
+        this.x = x;
+        this.y = y;
+        savePreviousPosition();
+        health = INITIAL_HEALTH;
+        ammo = maxAmmo;
+    }
+
     /**
      * Réduit la santé du joueur en fonction de la quantité de dégâts reçus.
      * @param amount Quantité de dégâts infligés au joueur
      */
     public void takeDamage(int amount) {
         health -= amount;
-        System.out.println("Player health: " + health);
+    }
+
+    /**
+     * Écrit la position, la santé et les munitions du joueur dans l'état du monde.
+     * @param out Tampon de destination
+     */
+    public void writeState(ByteBuffer out) {
+        out.putDouble(x);
+        out.putDouble(y);
+        out.putLong(health);
+        out.putLong(ammo);
+    }
+
+    /**
+     * Rétablit l'état écrit par writeState. La position précédente, qui ne sert qu'à l'interpolation de l'affichage,
+     * est ramenée à la position rétablie.
+     * @param in Tampon source
+     */
+    public void readState(ByteBuffer in) {
+        x = in.getDouble();
+        y = in.getDouble();
+        health = (int) in.getLong();
+        ammo = (int) in.getLong();
+        savePreviousPosition();
     }
 
     /**
      * Vérifie si le joueur a besoin d'un pack de munitions (si les munitions sont faibles).
-     * @return true si les munitions sont de 5 ou moins, false sinon
+     * @return true si les munitions sont au seuil ou en dessous (5 par défaut), false sinon
      */
     public boolean needsAmmoPack() {
-        return ammo <= 5;
+        return ammo <= ammoPackThreshold;
     }
 }
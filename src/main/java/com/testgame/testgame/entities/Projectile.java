@@ -1,102 +1,134 @@
 package com.testgame.testgame.entities;
 
-import javafx.scene.paint.Color; // Import pour gérer la couleur du projectile
-import javafx.scene.shape.Circle; // Import pour créer une forme circulaire pour le projectile
-
 /**
- * Classe Projectile représentant un projectile lancé dans le jeu.
- * Chaque projectile a une position, une direction, une vitesse et peut détecter des collisions avec des ennemis.
+ * Classe Projectile regroupant le comportement des projectiles lancés par le joueur.
+ * Les projectiles sont stockés dans l'archétype des projectiles d'un {@link EntityStore} ;
+ * leur position (x, y) désigne le centre d'un cercle de rayon 5 pixels, et leur vitesse est fixée au tir.
  */
-public class Projectile {
-    private Circle shape; // Forme circulaire du projectile
-    private double x, y; // Position actuelle du projectile
-    private double directionX, directionY; // Direction normalisée du projectile
-    private double baseSpeed = 10; // Vitesse de base du projectile
+public final class Projectile {
+    public static final double BASE_SPEED = 10; // Vitesse de base du projectile
+    public static final double RADIUS = 5; // Rayon du projectile
+    public static final int MAX_PROJECTILES = 512; // Nombre maximal de projectiles simultanés (taille de la réserve)
+
+    private Projectile() {
+    }
 
     /**
-     * Constructeur de la classe Projectile.
-     * Initialise un projectile à une position de départ et le dirige vers une cible.
+     * Fait apparaître un projectile à une position de départ, dirigé vers une cible.
      * La vitesse est influencée par le facteur de vitesse du jeu.
+     * @param store Magasin d'entités
      * @param startX Coordonnée x de départ
      * @param startY Coordonnée y de départ
      * @param targetX Coordonnée x de la cible
      * @param targetY Coordonnée y de la cible
      * @param gameSpeed Vitesse du jeu pour ajuster la vitesse du projectile
+     * @return Le handle du projectile
      */
-    public Projectile(double startX, double startY, double targetX, double targetY, double gameSpeed) {
-        this.shape = new Circle(5, Color.ORANGE); // Crée un cercle orange de rayon 5 pour représenter le projectile
-        this.x = startX;
-        this.y = startY;
-        this.shape.setTranslateX(x);
-        this.shape.setTranslateY(y);
-
+    public static int spawn(EntityStore store, double startX, double startY, double targetX, double targetY, double gameSpeed) {
         // Calcul de la direction normalisée
         double deltaX = targetX - startX;
         double deltaY = targetY - startY;
         double length = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
-        this.directionX = deltaX / length;
-        this.directionY = deltaY / length;
-
-        // Applique la vitesse de jeu pour ajuster la vitesse du projectile
-        this.baseSpeed *= gameSpeed;
-    }
-
-    /**
-     * Met à jour la position du projectile en fonction de sa direction et de sa vitesse.
-     */
-    public void update() {
-        x += directionX * baseSpeed;
-        y += directionY * baseSpeed;
-        shape.setTranslateX(x);
-        shape.setTranslateY(y);
+        double speed = BASE_SPEED * gameSpeed;
+        return store.spawn(store.getProjectiles(), EntityStore.TYPE_PROJECTILE, startX, startY,
+                deltaX / length * speed, deltaY / length * speed, RADIUS);
     }
 
     /**
-     * Getter pour obtenir la forme du projectile.
-     * @return La forme circulaire du projectile
+     * Fait apparaître un lot de projectiles en éventail en un seul appel, par exemple pour l'attaque spéciale.
+     * La place est réservée pour tout le lot avant la création : soit tous les projectiles partent, soit aucun.
+     * @param store Magasin d'entités
+     * @param startX Coordonnée x de départ
+     * @param startY Coordonnée y de départ
+     * @param baseAngle Angle central de l'éventail, en radians
+     * @param angleOffsets Décalage de chaque projectile par rapport à l'angle central, en radians
+     * @param gameSpeed Vitesse du jeu pour ajuster la vitesse des projectiles
+     * @return true si le lot a été créé, false si la réserve de projectiles est pleine
      */
-    public Circle getShape() {
-        return shape;
+    public static boolean spawnFan(EntityStore store, double startX, double startY, double baseAngle,
+                                   double[] angleOffsets, double gameSpeed) {
+        Archetype projectiles = store.getProjectiles();
+        if (!store.reserve(projectiles, angleOffsets.length)) {
+            return false;
+        }
+        double speed = BASE_SPEED * gameSpeed;
+        for (double angleOffset : angleOffsets) {
+            double angle = baseAngle + angleOffset;
+            store.spawn(projectiles, EntityStore.TYPE_PROJECTILE, startX, startY,
+                    Math.cos(angle) * speed, Math.sin(angle) * speed, RADIUS);
+        }
+        return true;
     }
 
     /**
-     * Vérifie si le projectile est en dehors des limites de la scène.
+     * Vérifie si un projectile est en dehors des limites de la scène.
+     * @param projectiles Archétype des projectiles
+     * @param row Ligne du projectile
      * @param sceneWidth Largeur de la scène
      * @param sceneHeight Hauteur de la scène
      * @return true si le projectile est en dehors des limites, false sinon
      */
-    public boolean isOutOfBounds(double sceneWidth, double sceneHeight) {
+    public static boolean isOutOfBounds(Archetype projectiles, int row, double sceneWidth, double sceneHeight) {
+        double x = projectiles.getX(row);
+        double y = projectiles.getY(row);
         return x < 0 || x > sceneWidth || y < 0 || y > sceneHeight;
     }
 
     /**
-     * Vérifie si le projectile entre en collision avec un ennemi.
+     * Vérifie si un projectile entre en collision avec un ennemi.
      * La collision est détectée si la distance entre le centre du projectile et celui de l'ennemi est inférieure à la somme de leurs rayons.
-     * @param enemy L'ennemi avec lequel vérifier la collision
+     * @param projectiles Archétype des projectiles
+     * @param row Ligne du projectile
+     * @param enemies Archétype des ennemis
+     * @param enemyRow Ligne de l'ennemi
      * @return true si le projectile est en collision avec l'ennemi, false sinon
      */
-    public boolean collidesWith(Enemy enemy) {
-        double distanceX = x - (enemy.getX() + enemy.getShape().getWidth() / 2);
-        double distanceY = y - (enemy.getY() + enemy.getShape().getHeight() / 2);
-        double distance = Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+    public static boolean collidesWith(Archetype projectiles, int row, Archetype enemies, int enemyRow) {
+        double enemyRadius = enemies.getRadius(enemyRow);
+        double distanceX = projectiles.getX(row) - (enemies.getX(enemyRow) + enemyRadius);
+        double distanceY = projectiles.getY(row) - (enemies.getY(enemyRow) + enemyRadius);
+        double radii = projectiles.getRadius(row) + enemyRadius;
 
-        // Collision si la distance est inférieure à la somme des rayons
-        return distance < (shape.getRadius() + enemy.getShape().getWidth() / 2);
+        // Collision si la distance est inférieure à la somme des rayons (comparée au carré, sans racine)
+        return distanceX * distanceX + distanceY * distanceY < radii * radii;
     }
 
     /**
-     * Getter pour obtenir la coordonnée x du projectile.
-     * @return La coordonnée x du projectile
+     * Calcule l'instant où un projectile touche un ennemi pendant le dernier pas, en testant tout le segment parcouru
+     * (de la position précédente à la position courante) et non seulement le point d'arrivée.
+     * Un projectile rapide ne peut ainsi plus traverser un ennemi entre deux pas.
+     * Le test revient à intersecter le segment avec un cercle centré sur l'ennemi, de rayon égal à la somme des rayons.
+     * @param projectiles Archétype des projectiles
+     * @param row Ligne du projectile
+     * @param enemies Archétype des ennemis
+     * @param enemyRow Ligne de l'ennemi
+     * @return La fraction du pas (entre 0 et 1) à laquelle le contact commence, ou -1 s'il n'y a pas de contact
      */
-    public double getX() {
-        return x;
-    }
+    public static double sweep(Archetype projectiles, int row, Archetype enemies, int enemyRow) {
+        double enemyRadius = enemies.getRadius(enemyRow);
+        double startX = projectiles.getPreviousX(row);
+        double startY = projectiles.getPreviousY(row);
+        double offsetX = startX - (enemies.getX(enemyRow) + enemyRadius);
+        double offsetY = startY - (enemies.getY(enemyRow) + enemyRadius);
+        double radii = projectiles.getRadius(row) + enemyRadius;
 
-    /**
-     * Getter pour obtenir la coordonnée y du projectile.
-     * @return La coordonnée y du projectile
-     */
-    public double getY() {
-        return y;
+        double c = offsetX * offsetX + offsetY * offsetY - radii * radii;
+        if (c < 0) {
+            return 0; // Déjà en contact au début du pas
+        }
+        double moveX = projectiles.getX(row) - startX;
+        double moveY = projectiles.getY(row) - startY;
+        double a = moveX * moveX + moveY * moveY;
+        if (a == 0) {
+            return -1; // Projectile immobile et hors de contact
+        }
+        // Résout |offset + t * move|² = radii², en gardant la première racine
+        double b = offsetX * moveX + offsetY * moveY;
+        double discriminant = b * b - a * c;
+        if (b >= 0 || discriminant <= 0) {
+            return -1; // Le projectile s'éloigne de l'ennemi, ou passe à côté
+        }
+        double t = (-b - Math.sqrt(discriminant)) / a;
+        return t <= 1 ? t : -1;
     }
 }
@@ -0,0 +1,73 @@
+package com.testgame.testgame.metrics;
+
+/**
+ * Classe FrameProfiler : un histogramme de durées par phase de la boucle de jeu.
+ * Les phases de la simulation sont mesurées par World, les autres par la boucle d'affichage.
+ */
+public class FrameProfiler {
+
+    /**
+     * Phases mesurées de la boucle de jeu.
+     */
+    public enum Phase {
+        INPUT("Entrées"),
+        PROJECTILES("Projectiles"),
+        ENEMIES("Ennemis"),
+        AMMO_SPAWN("Apparitions"),
+        RENDER("Rendu"),
+        FRAME("Frame (pulse)"),
+        LATENCY("Entrée→image"); // De l'arrivée d'un événement clavier ou souris à la fin du rendu qui en tient compte
+
+        private final String label; // Nom affiché
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Getter pour le nom affiché de la phase.
+         * @return Le nom de la phase
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final PhaseHistogram[] histograms = new PhaseHistogram[Phase.values().length]; // Un histogramme par phase
+
+    /**
+     * Constructeur de la classe FrameProfiler.
+     */
+    public FrameProfiler() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new PhaseHistogram();
+        }
+    }
+
+    /**
+     * Enregistre la durée d'une phase.
+     * @param phase Phase mesurée
+     * @param nanos Durée en nanosecondes
+     */
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Getter pour l'histogramme d'une phase.
+     * @param phase Phase voulue
+     * @return L'histogramme des durées de la phase
+     */
+    public PhaseHistogram get(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /**
+     * Efface les mesures de toutes les phases, pour commencer une nouvelle fenêtre de mesure.
+     */
+    public void reset() {
+        for (PhaseHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+}
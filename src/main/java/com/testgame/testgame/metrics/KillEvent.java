@@ -0,0 +1,31 @@
+package com.testgame.testgame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événement JFR émis quand un projectile élimine un ennemi.
+ */
+@Name("com.testgame.Kill")
+@Label("Ennemi éliminé")
+@Category({"Infinite Cube Frenzy", "Simulation"})
+@Description("Un ennemi touché par un projectile")
+public class KillEvent extends Event {
+    public static final EventType TYPE = EventType.getEventType(KillEvent.class); // Pour tester l'activation sans créer d'événement
+
+    @Label("Pas")
+    public long tick;
+
+    @Label("Type d'ennemi")
+    public int enemyType;
+
+    @Label("Kills")
+    public int killCount;
+
+    @Label("Vitesse du jeu")
+    public double gameSpeed;
+}
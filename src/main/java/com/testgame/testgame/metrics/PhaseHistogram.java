@@ -0,0 +1,106 @@
+package com.testgame.testgame.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Classe PhaseHistogram : histogramme de durées à précision relative constante, dans l'esprit de HdrHistogram.
+ * Les durées sont rangées dans 32 cases par puissance de deux (précision d'environ 3 %) de la nanoseconde
+ * à plusieurs jours : l'ajout d'une mesure ne coûte que quelques opérations et n'alloue rien.
+ */
+public class PhaseHistogram {
+    private static final int SUB_BUCKET_BITS = 5; // 2^5 cases par puissance de deux
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS; // Couvre toutes les valeurs positives d'un long
+
+    private final long[] counts = new long[BUCKETS]; // Nombre de mesures par case
+    private long count = 0; // Nombre total de mesures
+    private long max = 0; // Plus grande mesure
+
+    /**
+     * Ajoute une mesure.
+     * @param nanos Durée en nanosecondes (les valeurs négatives comptent pour 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[indexOf(value)]++;
+        count++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Calcule un percentile des mesures.
+     * @param percentile Percentile voulu, entre 0 et 100
+     * @return La borne haute de la case contenant le percentile (au plus la plus grande mesure), 0 sans mesure
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(max, highestValueOf(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Getter pour la plus grande mesure.
+     * @return La plus grande durée enregistrée, en nanosecondes
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Getter pour le nombre de mesures.
+     * @return Le nombre de mesures enregistrées
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Efface toutes les mesures.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+    }
+
+    /**
+     * Calcule la case d'une valeur : les 32 premières valeurs ont chacune leur case, puis chaque puissance de deux
+     * est découpée en 32 cases de même largeur.
+     * @param value Valeur positive
+     * @return L'indice de la case
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // Au moins SUB_BUCKET_BITS
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS; // Bits suivant le bit de poids fort
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Calcule la plus grande valeur rangée dans une case.
+     * @param index Indice de la case
+     * @return La borne haute de la case
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.testgame.testgame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événement JFR émis à l'apparition d'un ennemi, avec le nombre de positions tirées avant d'en trouver une valide.
+ */
+@Name("com.testgame.Spawn")
+@Label("Apparition d'ennemi")
+@Category({"Infinite Cube Frenzy", "Simulation"})
+@Description("Un ennemi ajouté par World")
+public class SpawnEvent extends Event {
+    public static final EventType TYPE = EventType.getEventType(SpawnEvent.class); // Pour tester l'activation sans créer d'événement
+
+    @Label("Pas")
+    public long tick;
+
+    @Label("Type d'ennemi")
+    public int enemyType;
+
+    @Label("X")
+    public double x;
+
+    @Label("Y")
+    public double y;
+
+    @Label("Tirages")
+    public int attempts;
+}
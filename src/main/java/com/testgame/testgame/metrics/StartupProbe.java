@@ -0,0 +1,62 @@
+package com.testgame.testgame.metrics;
+
+import java.time.Instant;
+
+/**
+ * Classe StartupProbe : mesure du temps de démarrage du jeu, affichée dans la console.
+ * <p>
+ * Deux durées sont mesurées : du lancement de la JVM au premier affichage du menu, puis du clic sur un mode de jeu
+ * au premier affichage de la partie. L'heure de lancement de la JVM est celle du processus donnée par le système
+ * (ProcessHandle, sans charger java.management), à la dizaine de millisecondes près.
+ */
+public final class StartupProbe {
+    private final long processStartMillis; // Lancement de la JVM (-1 si le système ne le donne pas)
+    private final long launchMillis; // Appel de Application.start, après le démarrage de JavaFX
+    private long menuMillis = -1; // Premier affichage du menu, depuis le lancement de la JVM
+    private long gameRequestNanos = 0; // Clic sur un mode de jeu (0 : aucune partie demandée)
+
+    /**
+     * Constructeur de la classe StartupProbe, à appeler au début de Application.start.
+     */
+    public StartupProbe() {
+        this.launchMillis = System.currentTimeMillis();
+        this.processStartMillis = ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli).orElse(-1L);
+    }
+
+    /**
+     * Enregistre le premier affichage du menu. Seul le premier appel est mesuré.
+     */
+    public void menuShown() {
+        if (menuMillis >= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (processStartMillis < 0) {
+            menuMillis = now - launchMillis;
+            System.out.printf("Démarrage : menu affiché %d ms après Application.start%n", menuMillis);
+            return;
+        }
+        menuMillis = now - processStartMillis;
+        System.out.printf("Démarrage : menu affiché %d ms après le lancement de la JVM (Application.start à %d ms)%n",
+                menuMillis, launchMillis - processStartMillis);
+    }
+
+    /**
+     * Enregistre le clic qui lance une partie.
+     */
+    public void gameRequested() {
+        gameRequestNanos = System.nanoTime();
+    }
+
+    /**
+     * Enregistre le premier affichage de la partie demandée.
+     * @param label Nom du mode de jeu, affiché avec la mesure
+     */
+    public void gameShown(String label) {
+        if (gameRequestNanos == 0) {
+            return;
+        }
+        System.out.printf("Démarrage : partie %s affichée %.1f ms après le clic%n", label, (System.nanoTime() - gameRequestNanos) / 1e6);
+        gameRequestNanos = 0;
+    }
+}
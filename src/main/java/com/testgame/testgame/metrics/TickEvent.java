@@ -0,0 +1,41 @@
+package com.testgame.testgame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Événement JFR émis à chaque pas de simulation, avec la durée de chaque phase et le nombre d'entités.
+ */
+@Name("com.testgame.Tick")
+@Label("Pas de simulation")
+@Category({"Infinite Cube Frenzy", "Simulation"})
+@Description("Un pas de World.step")
+public class TickEvent extends Event {
+    public static final EventType TYPE = EventType.getEventType(TickEvent.class); // Pour tester l'activation sans créer d'événement
+
+    @Label("Pas")
+    public long tick;
+
+    @Label("Ennemis")
+    public int enemies;
+
+    @Label("Projectiles")
+    public int projectiles;
+
+    @Label("Projectiles (durée)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long projectilesDuration;
+
+    @Label("Ennemis (durée)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long enemiesDuration;
+
+    @Label("Apparitions (durée)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long ammoSpawnDuration;
+}
@@ -0,0 +1,355 @@
+package com.testgame.testgame.net;
+
+import com.testgame.testgame.entities.EntityStore;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Classe EntitySnapshot : ennemis et projectiles d'un snapshot, triés par emplacement de handle,
+ * avec des positions arrondies à la précision du réseau.
+ * <p>
+ * Le serveur et le client en gardent un historique : le serveur n'envoie que l'écart entre l'état courant
+ * et le dernier snapshot reçu par le client, que le client applique à sa propre copie de ce snapshot.
+ * L'écart est une suite d'opérations triées par emplacement, chacune précédée de l'écart d'emplacement avec la précédente :
+ * <ul>
+ *     <li>{@link #MOVE} : l'entité s'est déplacée, suivi de l'écart de position en x et en y ;</li>
+ *     <li>{@link #ADD} : nouvelle entité (ou nouvelle génération de l'emplacement), suivie de sa génération, son type et sa position ;</li>
+ *     <li>{@link #REMOVE} : l'entité a disparu ou est sortie de la zone envoyée.</li>
+ * </ul>
+ * Une entité qui n'a pas bougé n'est pas écrite. Si le datagramme est plein, l'écart s'arrête et le reste
+ * des entités garde l'état du snapshot de référence ; le parcours commence à un emplacement donné et reprend au début
+ * après le dernier, pour que le snapshot suivant reparte de là où celui-ci s'est arrêté.
+ * Chaque écart se termine par une somme de contrôle de l'état obtenu, qui permet au client de détecter une désynchronisation.
+ */
+final class EntitySnapshot {
+    static final int MOVE = 0; // Déplacement d'une entité connue
+    static final int ADD = 1; // Ajout ou remplacement d'une entité
+    static final int REMOVE = 2; // Suppression d'une entité
+    private static final int KEY_MASK = EntityStore.MAX_SLOTS - 1;
+    private static final int MAX_OPERATION_BYTES = 24; // Taille maximale d'une opération, plus la somme de contrôle
+
+    private int tick = 0; // Pas du monde du snapshot (0 : aucun)
+    private int count = 0; // Nombre d'entités
+    private int[] handles = new int[64]; // Handle de chaque entité
+    private byte[] types = new byte[64]; // Type de chaque entité
+    private int[] xs = new int[64]; // Coordonnée x arrondie de chaque entité
+    private int[] ys = new int[64]; // Coordonnée y arrondie de chaque entité
+    private int[] scratchHandles = new int[64]; // Tableaux de travail du retour à l'ordre des emplacements
+    private byte[] scratchTypes = new byte[64];
+    private int[] scratchXs = new int[64];
+    private int[] scratchYs = new int[64];
+
+    /**
+     * Vide le snapshot.
+     * @param tick Pas du monde du nouveau contenu (0 : aucun)
+     */
+    void clear(int tick) {
+        this.tick = tick;
+        this.count = 0;
+    }
+
+    /**
+     * Ajoute une entité à la fin du snapshot.
+     * @param handle Handle de l'entité
+     * @param type Type de l'entité
+     * @param x Coordonnée x arrondie
+     * @param y Coordonnée y arrondie
+     */
+    void add(int handle, byte type, int x, int y) {
+        if (count == handles.length) {
+            int capacity = count * 2;
+            handles = Arrays.copyOf(handles, capacity);
+            types = Arrays.copyOf(types, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        handles[count] = handle;
+        types[count] = type;
+        xs[count] = x;
+        ys[count] = y;
+        count++;
+    }
+
+    /**
+     * Recopie l'entité d'un autre snapshot à la fin de celui-ci.
+     * @param other Snapshot source
+     * @param index Indice de l'entité dans le snapshot source
+     */
+    private void addFrom(EntitySnapshot other, int index) {
+        add(other.handles[index], other.types[index], other.xs[index], other.ys[index]);
+    }
+
+    /**
+     * Écrit l'écart entre un snapshot de référence et un snapshot cible, et construit l'état que le client obtiendra.
+     * @param base Snapshot de référence, connu du client (vide pour un snapshot complet)
+     * @param target État courant du monde
+     * @param start Emplacement à partir duquel le parcours commence
+     * @param out Tampon du datagramme
+     * @param result Snapshot qui reçoit l'état obtenu par le client, y compris si l'écart a été coupé
+     * @return L'emplacement où l'écart a été coupé, à passer comme départ du snapshot suivant, ou 0 s'il est complet
+     */
+    static int encode(EntitySnapshot base, EntitySnapshot target, int start, ByteBuffer out, EntitySnapshot result) {
+        result.clear(target.tick);
+        int countPosition = out.position();
+        out.putShort((short) 0);
+        int baseSplit = base.lowerBound(start);
+        int targetSplit = target.lowerBound(start);
+        int b = 0, t = 0, operations = 0, previousKey = -1, cut = 0;
+        while (b < base.count || t < target.count) {
+            int baseIndex = base.rotated(baseSplit, b);
+            int targetIndex = target.rotated(targetSplit, t);
+            int baseKey = b < base.count ? key(base.handles[baseIndex], start) : Integer.MAX_VALUE;
+            int targetKey = t < target.count ? key(target.handles[targetIndex], start) : Integer.MAX_VALUE;
+            int key = Math.min(baseKey, targetKey);
+            if (out.remaining() < MAX_OPERATION_BYTES || operations == 0xFFFF) {
+                cut = (key + start) & KEY_MASK; // Datagramme plein : la suite attendra le snapshot suivant
+                break;
+            }
+            if (baseKey == targetKey && base.handles[baseIndex] == target.handles[targetIndex]) {
+                int dx = target.xs[targetIndex] - base.xs[baseIndex];
+                int dy = target.ys[targetIndex] - base.ys[baseIndex];
+                if (dx != 0 || dy != 0) {
+                    NetFormat.putVarInt(out, (key - previousKey - 1) << 2 | MOVE);
+                    NetFormat.putSignedVarInt(out, dx);
+                    NetFormat.putSignedVarInt(out, dy);
+                    previousKey = key;
+                    operations++;
+                }
+                result.addFrom(target, targetIndex);
+                b++;
+                t++;
+            } else if (targetKey <= baseKey) {
+                NetFormat.putVarInt(out, (key - previousKey - 1) << 2 | ADD);
+                NetFormat.putVarInt(out, target.handles[targetIndex] / EntityStore.MAX_SLOTS);
+                out.put(target.types[targetIndex]);
+                NetFormat.putSignedVarInt(out, target.xs[targetIndex]);
+                NetFormat.putSignedVarInt(out, target.ys[targetIndex]);
+                previousKey = key;
+                operations++;
+                result.addFrom(target, targetIndex);
+                if (baseKey == targetKey) {
+                    b++; // L'emplacement a changé de génération : l'ancienne entité est remplacée
+                }
+                t++;
+            } else {
+                NetFormat.putVarInt(out, (key - previousKey - 1) << 2 | REMOVE);
+                previousKey = key;
+                operations++;
+                b++;
+            }
+        }
+        for (; b < base.count; b++) {
+            result.addFrom(base, base.rotated(baseSplit, b));
+        }
+        result.restoreOrder(start);
+        out.putShort(countPosition, (short) operations);
+        out.putInt(result.checksum());
+        return cut;
+    }
+
+    /**
+     * Applique un écart écrit par encode à un snapshot de référence.
+     * @param base Snapshot de référence (vide pour un snapshot complet)
+     * @param start Emplacement de départ du parcours, reçu avec l'écart
+     * @param in Tampon positionné au début de l'écart
+     * @param result Snapshot qui reçoit l'état obtenu
+     * @return true si la somme de contrôle de l'état obtenu correspond à celle du serveur
+     */
+    static boolean decode(EntitySnapshot base, int start, ByteBuffer in, EntitySnapshot result) {
+        int operations = in.getShort() & 0xFFFF;
+        int baseSplit = base.lowerBound(start);
+        int b = 0, previousKey = -1;
+        for (int i = 0; i < operations; i++) {
+            int header = NetFormat.getVarInt(in);
+            int key = previousKey + 1 + (header >>> 2);
+            previousKey = key;
+            int baseIndex = base.rotated(baseSplit, b);
+            while (b < base.count && key(base.handles[baseIndex], start) < key) {
+                result.addFrom(base, baseIndex);
+                baseIndex = base.rotated(baseSplit, ++b);
+            }
+            boolean known = b < base.count && key(base.handles[baseIndex], start) == key;
+            switch (header & 3) {
+                case MOVE -> {
+                    if (!known) {
+                        return false;
+                    }
+                    result.add(base.handles[baseIndex], base.types[baseIndex],
+                            base.xs[baseIndex] + NetFormat.getSignedVarInt(in), base.ys[baseIndex] + NetFormat.getSignedVarInt(in));
+                    b++;
+                }
+                case ADD -> {
+                    int handle = NetFormat.getVarInt(in) * EntityStore.MAX_SLOTS + ((key + start) & KEY_MASK);
+                    byte type = in.get();
+                    int x = NetFormat.getSignedVarInt(in);
+                    result.add(handle, type, x, NetFormat.getSignedVarInt(in));
+                    if (known) {
+                        b++;
+                    }
+                }
+                case REMOVE -> {
+                    if (known) {
+                        b++;
+                    }
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+        for (; b < base.count; b++) {
+            result.addFrom(base, base.rotated(baseSplit, b));
+        }
+        result.restoreOrder(start);
+        return in.getInt() == result.checksum();
+    }
+
+    /**
+     * Calcule la position d'un emplacement dans l'ordre du parcours, qui commence à start et reprend au début après le dernier.
+     * @param handle Handle de l'entité
+     * @param start Emplacement de départ du parcours
+     * @return La position dans le parcours
+     */
+    private static int key(int handle, int start) {
+        return (EntityStore.slotOf(handle) - start) & KEY_MASK;
+    }
+
+    /**
+     * Cherche la première entité dont l'emplacement est au moins start.
+     * @param start Emplacement cherché
+     * @return L'indice de cette entité, ou count si aucune
+     */
+    private int lowerBound(int start) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (EntityStore.slotOf(handles[middle]) < start) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Convertit une position dans l'ordre du parcours en indice.
+     * @param split Indice de la première entité du parcours (lowerBound du départ)
+     * @param position Position dans le parcours
+     * @return L'indice de l'entité
+     */
+    private int rotated(int split, int position) {
+        int index = split + position;
+        return index < count ? index : index - count;
+    }
+
+    /**
+     * Remet dans l'ordre des emplacements des entités ajoutées dans l'ordre du parcours.
+     * @param start Emplacement de départ du parcours
+     */
+    private void restoreOrder(int start) {
+        int split = 0;
+        while (split < count && EntityStore.slotOf(handles[split]) >= start) {
+            split++;
+        }
+        if (split == 0 || split == count) {
+            return;
+        }
+        if (scratchHandles.length < count) {
+            scratchHandles = new int[handles.length];
+            scratchTypes = new byte[handles.length];
+            scratchXs = new int[handles.length];
+            scratchYs = new int[handles.length];
+        }
+        int tail = count - split;
+        System.arraycopy(handles, split, scratchHandles, 0, tail);
+        System.arraycopy(types, split, scratchTypes, 0, tail);
+        System.arraycopy(xs, split, scratchXs, 0, tail);
+        System.arraycopy(ys, split, scratchYs, 0, tail);
+        System.arraycopy(handles, 0, scratchHandles, tail, split);
+        System.arraycopy(types, 0, scratchTypes, tail, split);
+        System.arraycopy(xs, 0, scratchXs, tail, split);
+        System.arraycopy(ys, 0, scratchYs, tail, split);
+        int[] swapHandles = handles;
+        handles = scratchHandles;
+        scratchHandles = swapHandles;
+        byte[] swapTypes = types;
+        types = scratchTypes;
+        scratchTypes = swapTypes;
+        int[] swapXs = xs;
+        xs = scratchXs;
+        scratchXs = swapXs;
+        int[] swapYs = ys;
+        ys = scratchYs;
+        scratchYs = swapYs;
+    }
+
+    /**
+     * Calcule la somme de contrôle du snapshot.
+     * @return Une empreinte des handles, types et positions de toutes les entités
+     */
+    int checksum() {
+        int hash = count;
+        for (int i = 0; i < count; i++) {
+            hash = hash * 31 + handles[i];
+            hash = hash * 31 + types[i];
+            hash = hash * 31 + xs[i];
+            hash = hash * 31 + ys[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Getter pour le pas du monde du snapshot.
+     * @return Le pas du monde, 0 si le snapshot est vide
+     */
+    int getTick() {
+        return tick;
+    }
+
+    /**
+     * Getter pour le nombre d'entités.
+     * @return Le nombre d'entités
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Getter pour le handle d'une entité.
+     * @param index Indice de l'entité
+     * @return Le handle
+     */
+    int getHandle(int index) {
+        return handles[index];
+    }
+
+    /**
+     * Getter pour le type d'une entité.
+     * @param index Indice de l'entité
+     * @return Le type (constante TYPE_ de EntityStore)
+     */
+    byte getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Getter pour la coordonnée x arrondie d'une entité.
+     * @param index Indice de l'entité
+     * @return La coordonnée x, en 1/{@link NetFormat#POSITION_SCALE} de pixel
+     */
+    int getX(int index) {
+        return xs[index];
+    }
+
+    /**
+     * Getter pour la coordonnée y arrondie d'une entité.
+     * @param index Indice de l'entité
+     * @return La coordonnée y, en 1/{@link NetFormat#POSITION_SCALE} de pixel
+     */
+    int getY(int index) {
+        return ys[index];
+    }
+}
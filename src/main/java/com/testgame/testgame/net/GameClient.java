@@ -0,0 +1,613 @@
+package com.testgame.testgame.net;
+
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.Obstacles;
+import com.testgame.testgame.world.PlayerInput;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.SplittableRandom;
+
+/**
+ * Classe GameClient : client réseau non bloquant d'un {@link GameServer}.
+ * <p>
+ * Le client envoie ses commandes avec sendInput, une fois par pas de son affichage, et lit les snapshots reçus avec poll.
+ * Chaque snapshot est appliqué à la copie locale du snapshot qui lui sert de référence ; le pas du dernier snapshot
+ * appliqué est renvoyé au serveur avec les commandes suivantes, comme accusé de réception.
+ * Les tirs sont numérotés et renvoyés tant que le serveur ne les a pas pris en compte, pour qu'un datagramme perdu
+ * ne fasse pas perdre de tir. La demande de connexion est complétée jusqu'à {@link NetFormat#HELLO_SIZE} octets,
+ * et le jeton reçu avec le WELCOME accompagne chaque datagramme suivant. Si la somme de contrôle d'un snapshot ne correspond pas, le client oublie son historique
+ * et le serveur lui envoie un snapshot complet.
+ */
+public class GameClient implements AutoCloseable {
+    public static final long HELLO_INTERVAL_NANOS = 250_000_000L; // Délai avant de renvoyer une demande de connexion
+    private static final int MAX_PENDING_SHOTS = 16; // Nombre maximal de tirs en attente d'accusé
+
+    private final DatagramChannel channel; // Canal UDP non bloquant, connecté au serveur
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(NetFormat.MAX_PACKET); // Datagramme reçu
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(NetFormat.MAX_PACKET); // Datagramme à envoyer
+    private final EntitySnapshot[] history = new EntitySnapshot[NetFormat.HISTORY]; // Snapshots reçus, par pas
+    private final EntitySnapshot empty = new EntitySnapshot(); // Référence d'un snapshot complet
+    private EntitySnapshot latest = empty; // Dernier snapshot appliqué
+    private long lastHello = Long.MIN_VALUE; // Horodatage de la dernière demande de connexion
+    private boolean welcomed = false; // Indique si le serveur a accepté le client
+    private int clientId; // Identifiant donné par le serveur
+    private long nonce; // Jeton donné par le serveur, renvoyé avec les commandes
+    private int tickRate; // Nombre de pas du serveur par seconde
+    private double worldWidth, worldHeight; // Dimensions du monde
+    private GameMode mode = GameMode.CLASSIC; // Mode de jeu du serveur
+    private Obstacles obstacles; // Murs du monde, reconstruits à partir des dimensions
+    private int session = 0; // Partie du dernier snapshot appliqué
+    private int ackTick = 0; // Pas du dernier snapshot appliqué (0 : aucun)
+    private int sequence = 0; // Numéro du dernier datagramme de commandes envoyé
+
+    private final int[] shotIds = new int[MAX_PENDING_SHOTS]; // Tirs en attente d'accusé : identifiant
+    private final byte[] shotTypes = new byte[MAX_PENDING_SHOTS]; // Type de chaque tir en attente
+    private final int[] shotXs = new int[MAX_PENDING_SHOTS]; // Cible x de chaque tir, en 1/SHOT_PRECISION de pixel
+    private final int[] shotYs = new int[MAX_PENDING_SHOTS]; // Cible y de chaque tir
+    private int shotCount = 0; // Nombre de tirs en attente
+    private int nextShotId = 1; // Identifiant du prochain tir
+
+    private int flags; // Indicateurs du dernier snapshot (fin de partie, vie supplémentaire, pilote, objet vie)
+    private double playerX, playerY; // Position du joueur
+    private int ammo, kills, wave; // Munitions, kills et vague du joueur
+    private double extraLifeX, extraLifeY; // Position de la vie supplémentaire à ramasser
+    private double[] ammoPackXs = new double[4], ammoPackYs = new double[4]; // Position des packs de munitions
+    private int ammoPackCount = 0; // Nombre de packs de munitions
+
+    private long bytesSent = 0, bytesReceived = 0; // Octets échangés, en-têtes IP et UDP non compris
+    private long snapshotsReceived = 0; // Snapshots appliqués
+    private long desyncs = 0; // Snapshots dont la somme de contrôle ne correspondait pas
+    private SplittableRandom lossRandom; // Tirage des pertes simulées (null : aucune)
+    private double lossRate = 0; // Proportion des datagrammes perdus volontairement
+
+    /**
+     * Constructeur de la classe GameClient : ouvre un canal vers le serveur et envoie la demande de connexion.
+     * @param server Adresse du serveur
+     * @throws IOException Si le canal ne peut pas être ouvert
+     */
+    public GameClient(InetSocketAddress server) throws IOException {
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new EntitySnapshot();
+        }
+        this.channel = DatagramChannel.open();
+        this.channel.connect(server);
+        this.channel.configureBlocking(false);
+        sendHello(System.nanoTime());
+    }
+
+    /**
+     * Simule des pertes de datagrammes dans les deux sens, pour les essais en boucle locale.
+     * @param rate Proportion des datagrammes perdus, entre 0 et 1
+     * @param seed Graine du tirage des pertes
+     */
+    public void setLossRate(double rate, long seed) {
+        this.lossRate = rate;
+        this.lossRandom = rate > 0 ? new SplittableRandom(seed) : null;
+    }
+
+    /**
+     * Lit tous les datagrammes reçus, sans bloquer, et renvoie la demande de connexion tant qu'elle reste sans réponse.
+     * @return Le nombre de snapshots appliqués
+     * @throws IOException En cas d'erreur du canal
+     */
+    public int poll() throws IOException {
+        long now = System.nanoTime();
+        if (!welcomed && now - lastHello >= HELLO_INTERVAL_NANOS) {
+            sendHello(now);
+        }
+        int applied = 0;
+        while (true) {
+            receiveBuffer.clear();
+            if (channel.receive(receiveBuffer) == null) {
+                return applied;
+            }
+            receiveBuffer.flip();
+            if (dropped()) {
+                continue;
+            }
+            bytesReceived += receiveBuffer.remaining();
+            try {
+                int type = NetFormat.readHeader(receiveBuffer);
+                if (type == NetFormat.WELCOME) {
+                    readWelcome(receiveBuffer);
+                } else if (type == NetFormat.SNAPSHOT && welcomed && readSnapshot(receiveBuffer)) {
+                    applied++;
+                }
+            } catch (RuntimeException e) {
+                // Datagramme tronqué ou mal formé : ignoré, comme un datagramme perdu
+            }
+        }
+    }
+
+    /**
+     * Ajoute un tir, envoyé avec les prochaines commandes jusqu'à ce que le serveur l'ait pris en compte.
+     * Au-delà de {@link #MAX_PENDING_SHOTS} tirs en attente, le tir est ignoré.
+     * @param type Type du tir (SHOT_NORMAL ou SHOT_SPECIAL de PlayerInput)
+     * @param targetX Coordonnée x de la cible
+     * @param targetY Coordonnée y de la cible
+     */
+    public void shoot(int type, double targetX, double targetY) {
+        if (shotCount == MAX_PENDING_SHOTS) {
+            return;
+        }
+        shotIds[shotCount] = nextShotId++;
+        shotTypes[shotCount] = (byte) type;
+        shotXs[shotCount] = (int) Math.round(targetX * PlayerInput.SHOT_PRECISION);
+        shotYs[shotCount] = (int) Math.round(targetY * PlayerInput.SHOT_PRECISION);
+        shotCount++;
+    }
+
+    /**
+     * Envoie les directions de déplacement, les tirs en attente et l'accusé du dernier snapshot appliqué.
+     * @param up true si le joueur monte
+     * @param down true si le joueur descend
+     * @param left true si le joueur va à gauche
+     * @param right true si le joueur va à droite
+     * @throws IOException En cas d'erreur d'envoi
+     */
+    public void sendInput(boolean up, boolean down, boolean left, boolean right) throws IOException {
+        if (!welcomed) {
+            return;
+        }
+        sendBuffer.clear();
+        NetFormat.putHeader(sendBuffer, NetFormat.INPUT);
+        sendBuffer.putLong(nonce);
+        NetFormat.putVarInt(sendBuffer, ++sequence);
+        NetFormat.putVarInt(sendBuffer, session);
+        NetFormat.putVarInt(sendBuffer, ackTick);
+        sendBuffer.put((byte) ((up ? 1 : 0) | (down ? 2 : 0) | (left ? 4 : 0) | (right ? 8 : 0)));
+        NetFormat.putVarInt(sendBuffer, shotCount);
+        for (int i = 0; i < shotCount; i++) {
+            NetFormat.putVarInt(sendBuffer, shotIds[i]);
+            sendBuffer.put(shotTypes[i]);
+            NetFormat.putSignedVarInt(sendBuffer, shotXs[i]);
+            NetFormat.putSignedVarInt(sendBuffer, shotYs[i]);
+        }
+        send();
+    }
+
+    /**
+     * Prévient le serveur que le client quitte la partie, puis ferme le canal.
+     * @throws IOException En cas d'erreur à la fermeture
+     */
+    @Override
+    public void close() throws IOException {
+        if (welcomed && channel.isOpen()) {
+            sendBuffer.clear();
+            NetFormat.putHeader(sendBuffer, NetFormat.BYE);
+            sendBuffer.putLong(nonce);
+            send();
+        }
+        channel.close();
+    }
+
+    /**
+     * Envoie une demande de connexion.
+     * @param now Horodatage courant en nanosecondes
+     * @throws IOException En cas d'erreur d'envoi
+     */
+    private void sendHello(long now) throws IOException {
+        lastHello = now;
+        sendBuffer.clear();
+        NetFormat.putHeader(sendBuffer, NetFormat.HELLO);
+        while (sendBuffer.position() < NetFormat.HELLO_SIZE) {
+            sendBuffer.put((byte) 0); // Le serveur ne répond pas à une demande plus courte que sa réponse
+        }
+        send();
+    }
+
+    /**
+     * Envoie le contenu du tampon d'envoi, sauf perte simulée.
+     * @throws IOException En cas d'erreur d'envoi
+     */
+    private void send() throws IOException {
+        sendBuffer.flip();
+        if (dropped()) {
+            return;
+        }
+        bytesSent += sendBuffer.remaining();
+        channel.write(sendBuffer);
+    }
+
+    /**
+     * Tire une perte simulée.
+     * @return true si le datagramme doit être perdu
+     */
+    private boolean dropped() {
+        return lossRandom != null && lossRandom.nextDouble() < lossRate;
+    }
+
+    /**
+     * Lit la réponse du serveur à la demande de connexion.
+     * @param buffer Contenu du datagramme, après l'en-tête
+     */
+    private void readWelcome(ByteBuffer buffer) {
+        if (welcomed) {
+            return; // Réponse à une demande renvoyée
+        }
+        clientId = NetFormat.getVarInt(buffer);
+        nonce = buffer.getLong();
+        tickRate = NetFormat.getVarInt(buffer);
+        worldWidth = buffer.getDouble();
+        worldHeight = buffer.getDouble();
+        mode = GameMode.values()[buffer.get()];
+        obstacles = buffer.get() != 0 ? Obstacles.standard(worldWidth, worldHeight) : new Obstacles(worldWidth, worldHeight);
+        welcomed = true;
+    }
+
+    /**
+     * Lit un snapshot et l'applique à sa référence.
+     * @param buffer Contenu du datagramme, après l'en-tête
+     * @return true si le snapshot a été appliqué
+     */
+    private boolean readSnapshot(ByteBuffer buffer) {
+        int snapshotSession = NetFormat.getVarInt(buffer);
+        int tick = NetFormat.getVarInt(buffer);
+        int baseTick = NetFormat.getVarInt(buffer);
+        if (snapshotSession != session) {
+            if (baseTick != 0) {
+                return false; // Écart d'une partie dont le client n'a pas encore reçu de snapshot complet
+            }
+            session = snapshotSession;
+            resetHistory();
+        } else if (tick <= ackTick) {
+            return false; // Snapshot arrivé après un plus récent
+        }
+        EntitySnapshot base = empty;
+        if (baseTick != 0) {
+            base = historyAt(baseTick);
+            if (base.getTick() != baseTick) {
+                return false; // Référence oubliée après une désynchronisation
+            }
+        }
+        int lastShotId = NetFormat.getVarInt(buffer);
+        int newFlags = buffer.get();
+        double newPlayerX = NetFormat.dequantize(NetFormat.getSignedVarInt(buffer));
+        double newPlayerY = NetFormat.dequantize(NetFormat.getSignedVarInt(buffer));
+        int newAmmo = NetFormat.getVarInt(buffer);
+        int newKills = NetFormat.getVarInt(buffer);
+        int newWave = NetFormat.getVarInt(buffer);
+        if ((newFlags & 8) != 0) {
+            extraLifeX = NetFormat.dequantize(NetFormat.getSignedVarInt(buffer));
+            extraLifeY = NetFormat.dequantize(NetFormat.getSignedVarInt(buffer));
+        }
+        int packs = NetFormat.getVarInt(buffer);
+        if (packs > buffer.remaining() / 2) {
+            return false; // Chaque pack prend au moins deux octets : le nombre annoncé ne tient pas dans le datagramme
+        }
+        if (ammoPackXs.length < packs) {
+            ammoPackXs = new double[packs];
+            ammoPackYs = new double[packs];
+        }
+        for (int i = 0; i < packs; i++) {
+            ammoPackXs[i] = NetFormat.dequantize(NetFormat.getSignedVarInt(buffer));
+            ammoPackYs[i] = NetFormat.dequantize(NetFormat.getSignedVarInt(buffer));
+        }
+        int start = NetFormat.getVarInt(buffer);
+        EntitySnapshot result = historyAt(tick);
+        if (result == base) {
+            return false;
+        }
+        result.clear(tick);
+        if (!EntitySnapshot.decode(base, start, buffer, result)) {
+            desyncs++;
+            resetHistory(); // Le prochain accusé est vide : le serveur renverra un snapshot complet
+            return false;
+        }
+        ammoPackCount = packs;
+        flags = newFlags;
+        playerX = newPlayerX;
+        playerY = newPlayerY;
+        ammo = newAmmo;
+        kills = newKills;
+        wave = newWave;
+        acknowledgeShots(lastShotId);
+        latest = result;
+        ackTick = tick;
+        snapshotsReceived++;
+        return true;
+    }
+
+    /**
+     * Retire des tirs en attente ceux que le serveur a pris en compte.
+     * @param lastShotId Identifiant du dernier tir pris en compte par le serveur
+     */
+    private void acknowledgeShots(int lastShotId) {
+        int kept = 0;
+        for (int i = 0; i < shotCount; i++) {
+            if (shotIds[i] - lastShotId > 0) {
+                shotIds[kept] = shotIds[i];
+                shotTypes[kept] = shotTypes[i];
+                shotXs[kept] = shotXs[i];
+                shotYs[kept] = shotYs[i];
+                kept++;
+            }
+        }
+        shotCount = kept;
+    }
+
+    /**
+     * Retourne l'emplacement de l'historique d'un pas.
+     * @param tick Pas du snapshot
+     * @return Le snapshot de l'historique correspondant
+     */
+    private EntitySnapshot historyAt(int tick) {
+        return history[tick / NetFormat.SNAPSHOT_INTERVAL % history.length];
+    }
+
+    /**
+     * Oublie les snapshots reçus, à la désynchronisation ou au changement de partie.
+     */
+    private void resetHistory() {
+        for (EntitySnapshot snapshot : history) {
+            snapshot.clear(0);
+        }
+        ackTick = 0;
+        latest = empty;
+    }
+
+    /**
+     * Getter pour l'état de la connexion.
+     * @return true si le serveur a accepté le client
+     */
+    public boolean isWelcomed() {
+        return welcomed;
+    }
+
+    /**
+     * Getter pour l'identifiant du client.
+     * @return L'identifiant donné par le serveur
+     */
+    public int getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Getter pour la fréquence du serveur.
+     * @return Le nombre de pas du serveur par seconde
+     */
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * Getter pour le mode de jeu.
+     * @return Le mode de jeu du serveur
+     */
+    public GameMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Getter pour les murs du monde.
+     * @return Les murs, ou null avant la réponse du serveur
+     */
+    public Obstacles getObstacles() {
+        return obstacles;
+    }
+
+    /**
+     * Getter pour la largeur du monde.
+     * @return La largeur du monde
+     */
+    public double getWorldWidth() {
+        return worldWidth;
+    }
+
+    /**
+     * Getter pour la hauteur du monde.
+     * @return La hauteur du monde
+     */
+    public double getWorldHeight() {
+        return worldHeight;
+    }
+
+    /**
+     * Getter pour le pas du dernier snapshot appliqué.
+     * @return Le pas du serveur dans la partie en cours (0 : aucun)
+     */
+    public int getTick() {
+        return ackTick;
+    }
+
+    /**
+     * Getter pour le rôle du client.
+     * @return true si les commandes de ce client pilotent le joueur
+     */
+    public boolean isPilot() {
+        return (flags & 4) != 0;
+    }
+
+    /**
+     * Getter pour la fin de partie.
+     * @return true si la partie est terminée (une nouvelle partie commence quelques secondes plus tard)
+     */
+    public boolean isGameOver() {
+        return (flags & 1) != 0;
+    }
+
+    /**
+     * Getter pour la vie supplémentaire du joueur.
+     * @return true si le joueur possède une vie supplémentaire
+     */
+    public boolean hasExtraLife() {
+        return (flags & 2) != 0;
+    }
+
+    /**
+     * Getter pour la présence de la vie supplémentaire à ramasser.
+     * @return true si une vie supplémentaire est dans l'arène
+     */
+    public boolean hasExtraLifeItem() {
+        return (flags & 8) != 0;
+    }
+
+    /**
+     * Getter pour la coordonnée x de la vie supplémentaire à ramasser.
+     * @return La coordonnée x, valable si hasExtraLifeItem
+     */
+    public double getExtraLifeX() {
+        return extraLifeX;
+    }
+
+    /**
+     * Getter pour la coordonnée y de la vie supplémentaire à ramasser.
+     * @return La coordonnée y, valable si hasExtraLifeItem
+     */
+    public double getExtraLifeY() {
+        return extraLifeY;
+    }
+
+    /**
+     * Getter pour la coordonnée x du joueur.
+     * @return La coordonnée x du coin supérieur gauche du joueur
+     */
+    public double getPlayerX() {
+        return playerX;
+    }
+
+    /**
+     * Getter pour la coordonnée y du joueur.
+     * @return La coordonnée y du coin supérieur gauche du joueur
+     */
+    public double getPlayerY() {
+        return playerY;
+    }
+
+    /**
+     * Getter pour les munitions du joueur.
+     * @return Le nombre de munitions
+     */
+    public int getAmmo() {
+        return ammo;
+    }
+
+    /**
+     * Getter pour le score.
+     * @return Le nombre d'ennemis éliminés
+     */
+    public int getKillCount() {
+        return kills;
+    }
+
+    /**
+     * Getter pour la vague du mode horde.
+     * @return Le numéro de la vague, 0 en mode classique
+     */
+    public int getWave() {
+        return wave;
+    }
+
+    /**
+     * Getter pour le nombre de packs de munitions.
+     * @return Le nombre de packs dans l'arène
+     */
+    public int getAmmoPackCount() {
+        return ammoPackCount;
+    }
+
+    /**
+     * Getter pour la coordonnée x d'un pack de munitions.
+     * @param index Indice du pack
+     * @return La coordonnée x
+     */
+    public double getAmmoPackX(int index) {
+        return ammoPackXs[index];
+    }
+
+    /**
+     * Getter pour la coordonnée y d'un pack de munitions.
+     * @param index Indice du pack
+     * @return La coordonnée y
+     */
+    public double getAmmoPackY(int index) {
+        return ammoPackYs[index];
+    }
+
+    /**
+     * Getter pour le nombre d'entités reçues (ennemis et projectiles proches du joueur).
+     * @return Le nombre d'entités du dernier snapshot
+     */
+    public int getEntityCount() {
+        return latest.size();
+    }
+
+    /**
+     * Getter pour le handle d'une entité, stable tant que l'entité existe.
+     * @param index Indice de l'entité
+     * @return Le handle de l'entité sur le serveur
+     */
+    public int getEntityHandle(int index) {
+        return latest.getHandle(index);
+    }
+
+    /**
+     * Getter pour le type d'une entité.
+     * @param index Indice de l'entité
+     * @return Le type (constante TYPE_ de EntityStore)
+     */
+    public byte getEntityType(int index) {
+        return latest.getType(index);
+    }
+
+    /**
+     * Getter pour la coordonnée x d'une entité.
+     * @param index Indice de l'entité
+     * @return La coordonnée x, arrondie au 1/{@link NetFormat#POSITION_SCALE} de pixel
+     */
+    public double getEntityX(int index) {
+        return NetFormat.dequantize(latest.getX(index));
+    }
+
+    /**
+     * Getter pour la coordonnée y d'une entité.
+     * @param index Indice de l'entité
+     * @return La coordonnée y, arrondie au 1/{@link NetFormat#POSITION_SCALE} de pixel
+     */
+    public double getEntityY(int index) {
+        return NetFormat.dequantize(latest.getY(index));
+    }
+
+    /**
+     * Getter pour la somme de contrôle des entités reçues.
+     * @return L'empreinte du dernier snapshot appliqué
+     */
+    public int getEntityChecksum() {
+        return latest.checksum();
+    }
+
+    /**
+     * Getter pour le nombre d'octets envoyés.
+     * @return Les octets envoyés, en-têtes IP et UDP non compris
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Getter pour le nombre d'octets reçus.
+     * @return Les octets reçus, en-têtes IP et UDP non compris
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Getter pour le nombre de snapshots appliqués.
+     * @return Le nombre de snapshots appliqués
+     */
+    public long getSnapshotsReceived() {
+        return snapshotsReceived;
+    }
+
+    /**
+     * Getter pour le nombre de désynchronisations détectées.
+     * @return Le nombre de snapshots dont la somme de contrôle ne correspondait pas
+     */
+    public long getDesyncs() {
+        return desyncs;
+    }
+}
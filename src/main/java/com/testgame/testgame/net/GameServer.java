@@ -0,0 +1,541 @@
+package com.testgame.testgame.net;
+
+import com.testgame.testgame.CommandLineOptions;
+import com.testgame.testgame.entities.AmmoPack;
+import com.testgame.testgame.entities.Archetype;
+import com.testgame.testgame.entities.EntityStore;
+import com.testgame.testgame.entities.ExtraLifeItem;
+import com.testgame.testgame.entities.Player;
+import com.testgame.testgame.world.FixedStepClock;
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe GameServer : serveur de jeu qui fait autorité, sans affichage.
+ * <p>
+ * Le serveur avance un {@link World} à fréquence fixe et reçoit les commandes des clients sur un {@link DatagramChannel}
+ * non bloquant. Le monde n'a qu'un joueur : le premier client connecté le pilote, les suivants regardent la partie,
+ * et le plus ancien spectateur prend la main si le pilote part. Une partie terminée est relancée après quelques secondes.
+ * <p>
+ * Tous les {@link NetFormat#SNAPSHOT_INTERVAL} pas, chaque client reçoit un snapshot : les entités proches du joueur,
+ * arrondies au 1/{@link NetFormat#POSITION_SCALE} de pixel, en écart avec le dernier snapshot que le client a accusé
+ * (voir {@link EntitySnapshot}). Un client qui n'a encore rien accusé, ou dont le snapshot accusé est trop ancien,
+ * reçoit un snapshot complet ; un snapshot perdu n'est jamais renvoyé, le suivant part simplement d'une référence plus ancienne.
+ * <p>
+ * Un client n'est compté qu'après avoir renvoyé, dans ses commandes, le jeton reçu avec le WELCOME : jusque-là il ne reçoit
+ * aucun snapshot et ne peut pas piloter. Le serveur accepte au plus {@link #MAX_CLIENTS} clients, en attente compris,
+ * et ignore les HELLO plus courts que {@link NetFormat#HELLO_SIZE}.
+ * <p>
+ * Utilisation : java -cp target/classes com.testgame.testgame.net.GameServer --port=7777 --mode=horde --seed=1
+ */
+public class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7777; // Port d'écoute par défaut
+    public static final double INTEREST_RANGE_X = 640; // Écart maximal en x entre le joueur et une entité envoyée
+    public static final double INTEREST_RANGE_Y = 480; // Écart maximal en y entre le joueur et une entité envoyée
+    public static final long CLIENT_TIMEOUT_NANOS = 5_000_000_000L; // Silence au-delà duquel un client est oublié
+    public static final double RESTART_DELAY = 3; // Secondes entre la fin d'une partie et la suivante
+    public static final int MAX_CLIENTS = 16; // Nombre maximal de clients, en attente du jeton compris
+    private static final int MAX_SHOTS = 16; // Nombre maximal de tirs pris dans un même datagramme
+
+    private final DatagramChannel channel; // Canal UDP non bloquant
+    private final Selector selector; // Attente des datagrammes entre deux pas
+    private final GameRules rules; // Règles des parties
+    private final int tickRate; // Nombre de pas par seconde
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(NetFormat.MAX_PACKET); // Datagramme reçu
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(NetFormat.MAX_PACKET); // Datagramme à envoyer
+    private final Map<SocketAddress, ClientState> clients = new HashMap<>(); // Clients connectés, par adresse
+    private final List<ClientState> order = new ArrayList<>(); // Clients vérifiés dans l'ordre d'arrivée, le pilote en premier
+    private final List<ClientState> pending = new ArrayList<>(); // Clients qui n'ont pas encore renvoyé leur jeton
+    private final SecureRandom nonces = new SecureRandom(); // Tirage des jetons donnés aux clients
+    private final PlayerInput input = new PlayerInput(); // Commandes du pilote pour le prochain pas
+    private final EntitySnapshot current = new EntitySnapshot(); // État du monde au dernier snapshot
+    private final EntitySnapshot empty = new EntitySnapshot(); // Référence d'un snapshot complet
+    private long[] sortKeys = new long[256]; // Emplacement et ligne des entités envoyées, à trier
+    private World world; // Partie en cours
+    private long seed; // Graine de la partie en cours
+    private int session = 1; // Numéro de la partie en cours, change à chaque relance
+    private int tick = 0; // Pas du serveur dans la partie en cours, qui continue après la fin de la partie
+    private int gameOverTicks = 0; // Pas écoulés depuis la fin de la partie
+    private int nextClientId = 1; // Identifiant du prochain client
+    private int extraEnemies = 0; // Ennemis ajoutés au début de chaque partie
+    private volatile boolean running = false; // Indique si la boucle du serveur tourne
+    private long bytesSent = 0; // Octets envoyés depuis le démarrage
+    private long snapshotsSent = 0; // Snapshots envoyés depuis le démarrage
+
+    /**
+     * Constructeur de la classe GameServer : ouvre le port et crée la première partie.
+     * @param port Port UDP d'écoute (0 : port libre choisi par le système)
+     * @param rules Règles des parties
+     * @param seed Graine de la première partie, incrémentée à chaque relance
+     * @param tickRate Nombre de pas de simulation par seconde
+     * @throws IOException Si le port ne peut pas être ouvert
+     */
+    public GameServer(int port, GameRules rules, long seed, int tickRate) throws IOException {
+        this.rules = new GameRules(rules);
+        this.tickRate = tickRate;
+        this.seed = seed;
+        this.world = newWorld();
+        this.channel = DatagramChannel.open();
+        this.channel.bind(new InetSocketAddress(port));
+        this.channel.configureBlocking(false);
+        this.selector = Selector.open();
+        this.channel.register(selector, SelectionKey.OP_READ);
+    }
+
+    /**
+     * Crée une partie avec la graine courante.
+     * @return Le nouveau monde
+     */
+    private World newWorld() {
+        World created = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, seed, tickRate, rules);
+        created.spawnEnemies(extraEnemies);
+        return created;
+    }
+
+    /**
+     * Ajoute des ennemis au début de chaque partie, y compris celle déjà créée, pour mesurer le débit avec une foule.
+     * À appeler avant run.
+     * @param count Nombre d'ennemis ajoutés
+     */
+    public void setExtraEnemies(int count) {
+        world.spawnEnemies(count - extraEnemies);
+        extraEnemies = count;
+    }
+
+    /**
+     * Fait tourner le serveur jusqu'à l'appel de stop : lit les datagrammes reçus, avance le monde au rythme
+     * de l'horloge et envoie les snapshots.
+     * @throws IOException En cas d'erreur du canal
+     */
+    public void run() throws IOException {
+        running = true;
+        FixedStepClock clock = new FixedStepClock(tickRate, 5);
+        while (running) {
+            receiveAll();
+            long now = System.nanoTime();
+            int steps = clock.advance(now);
+            for (int i = 0; i < steps; i++) {
+                step();
+            }
+            dropSilentClients(now);
+            if (steps == 0) {
+                selector.select(1); // Attend un datagramme, au plus une milliseconde pour ne pas retarder le pas suivant
+                selector.selectedKeys().clear();
+            }
+        }
+    }
+
+    /**
+     * Demande l'arrêt de la boucle du serveur, depuis n'importe quel thread.
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Ferme le port du serveur.
+     * @throws IOException En cas d'erreur à la fermeture
+     */
+    @Override
+    public void close() throws IOException {
+        selector.close();
+        channel.close();
+    }
+
+    /**
+     * Avance la partie d'un pas, relance une partie terminée, et envoie les snapshots si c'est le moment.
+     * @throws IOException En cas d'erreur d'envoi
+     */
+    private void step() throws IOException {
+        if (world.isGameOver() && ++gameOverTicks >= RESTART_DELAY * tickRate) {
+            seed++;
+            session++;
+            gameOverTicks = 0;
+            tick = 0;
+            world = newWorld();
+            for (ClientState client : order) {
+                client.resetHistory(); // Les snapshots de l'ancienne partie ne peuvent plus servir de référence
+            }
+        }
+        world.step(input);
+        input.clearShots();
+        if (++tick % NetFormat.SNAPSHOT_INTERVAL == 0 && !order.isEmpty()) {
+            captureEntities();
+            for (ClientState client : order) {
+                sendSnapshot(client);
+            }
+        }
+    }
+
+    /**
+     * Lit tous les datagrammes en attente, sans bloquer.
+     * @throws IOException En cas d'erreur de lecture
+     */
+    private void receiveAll() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress address = channel.receive(receiveBuffer);
+            if (address == null) {
+                return;
+            }
+            receiveBuffer.flip();
+            try {
+                handle(address, receiveBuffer);
+            } catch (RuntimeException e) {
+                // Datagramme tronqué ou mal formé : ignoré, comme un datagramme perdu
+            }
+        }
+    }
+
+    /**
+     * Traite un datagramme reçu.
+     * @param address Adresse de l'expéditeur
+     * @param buffer Contenu du datagramme
+     * @throws IOException En cas d'erreur d'envoi de la réponse
+     */
+    private void handle(SocketAddress address, ByteBuffer buffer) throws IOException {
+        int type = NetFormat.readHeader(buffer);
+        ClientState client = clients.get(address);
+        if (type == NetFormat.HELLO) {
+            if (buffer.limit() < NetFormat.HELLO_SIZE) {
+                return; // La réponse serait plus grande que la demande
+            }
+            if (client == null) {
+                if (clients.size() >= MAX_CLIENTS) {
+                    return;
+                }
+                client = new ClientState(address, nextClientId++, nonces.nextLong());
+                clients.put(address, client);
+                pending.add(client);
+            }
+            client.lastHeard = System.nanoTime();
+            sendWelcome(client);
+        } else if (client != null && (type == NetFormat.INPUT || type == NetFormat.BYE)) {
+            if (buffer.getLong() != client.nonce) {
+                return; // Datagramme qui ne vient pas du client accueilli
+            }
+            client.lastHeard = System.nanoTime();
+            if (type == NetFormat.BYE) {
+                remove(client);
+                return;
+            }
+            if (pending.remove(client)) {
+                order.add(client); // Le client a reçu le WELCOME : son adresse est vérifiée
+            }
+            readInput(client, buffer);
+        }
+    }
+
+    /**
+     * Lit les commandes d'un client. Seules celles du pilote agissent sur le monde ; l'accusé de réception
+     * du dernier snapshot compte pour tous les clients.
+     * @param client Client expéditeur
+     * @param buffer Contenu du datagramme, après l'en-tête
+     */
+    private void readInput(ClientState client, ByteBuffer buffer) {
+        int sequence = NetFormat.getVarInt(buffer);
+        if (sequence - client.lastSequence <= 0) {
+            return; // Datagramme en retard sur un plus récent
+        }
+        client.lastSequence = sequence;
+        int ackSession = NetFormat.getVarInt(buffer);
+        int ackTick = NetFormat.getVarInt(buffer);
+        // Un accusé vide (client désynchronisé) ou d'une partie précédente demande un snapshot complet
+        client.ackTick = ackSession == session ? ackTick : 0;
+        int directions = buffer.get();
+        int shotCount = Math.min(NetFormat.getVarInt(buffer), MAX_SHOTS);
+        boolean pilot = client == order.get(0);
+        if (pilot) {
+            input.setDirections((directions & 1) != 0, (directions & 2) != 0, (directions & 4) != 0, (directions & 8) != 0);
+        }
+        for (int i = 0; i < shotCount; i++) {
+            int id = NetFormat.getVarInt(buffer);
+            int shotType = buffer.get();
+            double x = (double) NetFormat.getSignedVarInt(buffer) / PlayerInput.SHOT_PRECISION;
+            double y = (double) NetFormat.getSignedVarInt(buffer) / PlayerInput.SHOT_PRECISION;
+            if (id - client.lastShotId > 0) {
+                client.lastShotId = id; // Un tir renvoyé parce que son accusé s'est perdu n'est appliqué qu'une fois
+                if (pilot) {
+                    input.addShot(shotType, x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Relève les entités proches du joueur, triées par emplacement, une fois pour tous les clients.
+     */
+    private void captureEntities() {
+        Player player = world.getPlayer();
+        double centerX = player.getX() + player.getWidth() / 2;
+        double centerY = player.getY() + player.getHeight() / 2;
+        EntityStore entities = world.getEntities();
+        int total = entities.getEnemies().size() + entities.getProjectiles().size();
+        if (sortKeys.length < total) {
+            sortKeys = new long[Math.max(total, sortKeys.length * 2)];
+        }
+        int count = collect(entities.getEnemies(), 0, centerX, centerY, 0);
+        count = collect(entities.getProjectiles(), 1, centerX, centerY, count);
+        Arrays.sort(sortKeys, 0, count);
+        current.clear(tick);
+        for (int i = 0; i < count; i++) {
+            long key = sortKeys[i];
+            Archetype archetype = (key & 1) == 0 ? entities.getEnemies() : entities.getProjectiles();
+            int row = (int) key >>> 1;
+            current.add(archetype.getHandle(row), archetype.getType(row),
+                    NetFormat.quantize(archetype.getX(row)), NetFormat.quantize(archetype.getY(row)));
+        }
+    }
+
+    /**
+     * Ajoute aux clés de tri les entités d'un archétype proches du joueur.
+     * @param archetype Archétype parcouru
+     * @param tag Numéro de l'archétype dans la clé (0 : ennemis, 1 : projectiles)
+     * @param centerX Coordonnée x du centre du joueur
+     * @param centerY Coordonnée y du centre du joueur
+     * @param count Nombre de clés déjà remplies
+     * @return Le nouveau nombre de clés
+     */
+    private int collect(Archetype archetype, int tag, double centerX, double centerY, int count) {
+        for (int row = 0; row < archetype.size(); row++) {
+            if (Math.abs(archetype.getX(row) - centerX) <= INTEREST_RANGE_X
+                    && Math.abs(archetype.getY(row) - centerY) <= INTEREST_RANGE_Y) {
+                sortKeys[count++] = (long) EntityStore.slotOf(archetype.getHandle(row)) << 32 | (long) row << 1 | tag;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Envoie à un client le snapshot courant, en écart avec le dernier snapshot qu'il a accusé.
+     * @param client Client destinataire
+     * @throws IOException En cas d'erreur d'envoi
+     */
+    private void sendSnapshot(ClientState client) throws IOException {
+        int tick = current.getTick();
+        EntitySnapshot recorded = client.historyAt(tick);
+        EntitySnapshot base = client.findAcked();
+        if (base == null || base == recorded) {
+            base = empty;
+        }
+        Player player = world.getPlayer();
+        sendBuffer.clear();
+        NetFormat.putHeader(sendBuffer, NetFormat.SNAPSHOT);
+        NetFormat.putVarInt(sendBuffer, session);
+        NetFormat.putVarInt(sendBuffer, tick);
+        NetFormat.putVarInt(sendBuffer, base.getTick());
+        NetFormat.putVarInt(sendBuffer, client.lastShotId);
+        ExtraLifeItem item = world.getExtraLifeItem();
+        int flags = (world.isGameOver() ? 1 : 0) | (world.hasExtraLife() ? 2 : 0)
+                | (client == order.get(0) ? 4 : 0) | (item != null ? 8 : 0);
+        sendBuffer.put((byte) flags);
+        NetFormat.putSignedVarInt(sendBuffer, NetFormat.quantize(player.getX()));
+        NetFormat.putSignedVarInt(sendBuffer, NetFormat.quantize(player.getY()));
+        NetFormat.putVarInt(sendBuffer, player.getAmmo());
+        NetFormat.putVarInt(sendBuffer, world.getKillCount());
+        NetFormat.putVarInt(sendBuffer, world.getWave());
+        if (item != null) {
+            NetFormat.putSignedVarInt(sendBuffer, NetFormat.quantize(item.getX()));
+            NetFormat.putSignedVarInt(sendBuffer, NetFormat.quantize(item.getY()));
+        }
+        List<AmmoPack> packs = world.getAmmoPacks();
+        NetFormat.putVarInt(sendBuffer, packs.size());
+        for (AmmoPack pack : packs) {
+            NetFormat.putSignedVarInt(sendBuffer, NetFormat.quantize(pack.getX()));
+            NetFormat.putSignedVarInt(sendBuffer, NetFormat.quantize(pack.getY()));
+        }
+        NetFormat.putVarInt(sendBuffer, client.nextStart);
+        client.nextStart = EntitySnapshot.encode(base, current, client.nextStart, sendBuffer, recorded);
+        sendBuffer.flip();
+        bytesSent += sendBuffer.remaining();
+        snapshotsSent++;
+        channel.send(sendBuffer, client.address);
+    }
+
+    /**
+     * Répond à une demande de connexion, y compris si la réponse précédente s'est perdue.
+     * @param client Client à accueillir
+     * @throws IOException En cas d'erreur d'envoi
+     */
+    private void sendWelcome(ClientState client) throws IOException {
+        sendBuffer.clear();
+        NetFormat.putHeader(sendBuffer, NetFormat.WELCOME);
+        NetFormat.putVarInt(sendBuffer, client.id);
+        sendBuffer.putLong(client.nonce);
+        NetFormat.putVarInt(sendBuffer, tickRate);
+        sendBuffer.putDouble(world.getWidth());
+        sendBuffer.putDouble(world.getHeight());
+        sendBuffer.put((byte) rules.getMode().ordinal());
+        sendBuffer.put((byte) (rules.hasObstacles() ? 1 : 0));
+        sendBuffer.flip();
+        bytesSent += sendBuffer.remaining();
+        channel.send(sendBuffer, client.address);
+    }
+
+    /**
+     * Oublie les clients qui n'ont rien envoyé depuis {@link #CLIENT_TIMEOUT_NANOS}.
+     * @param now Horodatage courant en nanosecondes
+     */
+    private void dropSilentClients(long now) {
+        for (int i = order.size() - 1; i >= 0; i--) {
+            if (now - order.get(i).lastHeard > CLIENT_TIMEOUT_NANOS) {
+                remove(order.get(i));
+            }
+        }
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            if (now - pending.get(i).lastHeard > CLIENT_TIMEOUT_NANOS) {
+                remove(pending.get(i));
+            }
+        }
+    }
+
+    /**
+     * Retire un client ; si c'était le pilote, le joueur s'arrête jusqu'aux commandes du suivant.
+     * @param client Client à retirer
+     */
+    private void remove(ClientState client) {
+        if (!order.isEmpty() && order.get(0) == client) {
+            input.setDirections(false, false, false, false);
+        }
+        clients.remove(client.address);
+        order.remove(client);
+        pending.remove(client);
+    }
+
+    /**
+     * Getter pour le port d'écoute.
+     * @return Le port UDP effectivement ouvert
+     * @throws IOException Si l'adresse du canal ne peut pas être lue
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Getter pour le nombre de clients connectés.
+     * @return Le nombre de clients qui ont renvoyé leur jeton
+     */
+    public int getClientCount() {
+        return order.size();
+    }
+
+    /**
+     * Getter pour le nombre d'octets envoyés.
+     * @return Les octets envoyés depuis le démarrage, en-têtes IP et UDP non compris
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Getter pour le nombre de snapshots envoyés.
+     * @return Les snapshots envoyés depuis le démarrage, tous clients confondus
+     */
+    public long getSnapshotsSent() {
+        return snapshotsSent;
+    }
+
+    /**
+     * Getter pour la partie en cours. À ne lire que depuis le thread du serveur, ou une fois celui-ci arrêté.
+     * @return Le monde simulé
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Point d'entrée du serveur.
+     * @param args Options au format --nom=valeur : port, mode (classic ou horde), seed, tick-rate
+     * @throws IOException Si le port ne peut pas être ouvert
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = CommandLineOptions.parse(args);
+        int port = Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT)));
+        GameMode mode = GameMode.valueOf(options.getOrDefault("mode", "classic").toUpperCase());
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime())));
+        int tickRate = Integer.parseInt(options.getOrDefault("tick-rate", String.valueOf(World.REFERENCE_TICK_RATE)));
+        try (GameServer server = new GameServer(port, GameRules.forMode(mode), seed, tickRate)) {
+            System.out.printf("Serveur %s en écoute sur le port %d (%d pas par seconde)%n", mode, server.getPort(), tickRate);
+            server.run();
+        }
+    }
+
+    /**
+     * État du serveur propre à un client : accusés de réception et historique des snapshots envoyés.
+     */
+    private static final class ClientState {
+        private final SocketAddress address; // Adresse du client
+        private final int id; // Identifiant du client
+        private final long nonce; // Jeton envoyé avec le WELCOME, que le client doit renvoyer
+        private final EntitySnapshot[] history = new EntitySnapshot[NetFormat.HISTORY]; // Snapshots envoyés, par pas
+        private long lastHeard; // Horodatage du dernier datagramme reçu
+        private int lastSequence = 0; // Numéro du dernier datagramme de commandes pris en compte
+        private int ackTick = 0; // Pas du dernier snapshot reçu par le client (0 : aucun)
+        private int lastShotId = 0; // Identifiant du dernier tir pris en compte
+        private int nextStart = 0; // Emplacement de départ du prochain écart
+
+        /**
+         * Constructeur de la classe ClientState.
+         * @param address Adresse du client
+         * @param id Identifiant du client
+         * @param nonce Jeton du client
+         */
+        private ClientState(SocketAddress address, int id, long nonce) {
+            this.address = address;
+            this.id = id;
+            this.nonce = nonce;
+            for (int i = 0; i < history.length; i++) {
+                history[i] = new EntitySnapshot();
+            }
+        }
+
+        /**
+         * Retourne l'emplacement de l'historique d'un pas, à remplir par le snapshot envoyé.
+         * @param tick Pas du snapshot
+         * @return Le snapshot de l'historique à réutiliser
+         */
+        private EntitySnapshot historyAt(int tick) {
+            return history[tick / NetFormat.SNAPSHOT_INTERVAL % history.length];
+        }
+
+        /**
+         * Cherche dans l'historique le dernier snapshot accusé par le client.
+         * @return Le snapshot accusé, ou null s'il n'y en a pas ou s'il a déjà été remplacé
+         */
+        private EntitySnapshot findAcked() {
+            if (ackTick == 0) {
+                return null;
+            }
+            EntitySnapshot acked = historyAt(ackTick);
+            return acked.getTick() == ackTick ? acked : null;
+        }
+
+        /**
+         * Oublie les snapshots envoyés, au changement de partie.
+         */
+        private void resetHistory() {
+            for (EntitySnapshot snapshot : history) {
+                snapshot.clear(0);
+            }
+            ackTick = 0;
+            nextStart = 0;
+        }
+    }
+}
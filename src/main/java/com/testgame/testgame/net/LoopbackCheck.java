@@ -0,0 +1,118 @@
+package com.testgame.testgame.net;
+
+import com.testgame.testgame.CommandLineOptions;
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Outil en ligne de commande qui lance un {@link GameServer} et plusieurs {@link GameClient} dans le même processus,
+ * en boucle locale : le premier client pilote le joueur avec des commandes aléatoires à graine fixe, les autres regardent.
+ * <p>
+ * L'outil affiche pour chaque client le débit reçu, la taille moyenne d'un snapshot et le nombre moyen d'entités reçues,
+ * et se termine en erreur si un client n'a reçu aucun snapshot ou a détecté une désynchronisation.
+ * <p>
+ * Utilisation : java -cp target/classes com.testgame.testgame.net.LoopbackCheck --clients=4 --seconds=20 --mode=horde --enemies=500 --loss=0.05
+ */
+public final class LoopbackCheck {
+    private static final int BYTES_PER_ENTITY = 13; // Taille d'une entité envoyée sans compression (handle, type, x et y)
+
+    private LoopbackCheck() {
+    }
+
+    /**
+     * Point d'entrée de l'outil.
+     * @param args Options au format --nom=valeur : clients, seconds, mode, seed, loss, enemies (ajoutés au début de chaque partie)
+     * @throws Exception En cas d'erreur réseau ou d'arrêt du serveur
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = CommandLineOptions.parse(args);
+        int clientCount = Integer.parseInt(options.getOrDefault("clients", "4"));
+        double seconds = Double.parseDouble(options.getOrDefault("seconds", "20"));
+        GameMode mode = GameMode.valueOf(options.getOrDefault("mode", "horde").toUpperCase());
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        double loss = Double.parseDouble(options.getOrDefault("loss", "0"));
+        int enemies = Integer.parseInt(options.getOrDefault("enemies", "500"));
+        int tickRate = World.REFERENCE_TICK_RATE;
+
+        GameServer server = new GameServer(0, GameRules.forMode(mode), seed, tickRate);
+        server.setExtraEnemies(enemies);
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "game-server");
+        serverThread.start();
+
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        GameClient[] clients = new GameClient[clientCount];
+        long[] entitySums = new long[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            clients[i] = new GameClient(address);
+            clients[i].setLossRate(loss, seed + i);
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        boolean up = false, down = false, left = false, right = false;
+        long stepNanos = 1_000_000_000L / tickRate;
+        long ticks = (long) (seconds * tickRate);
+        long start = System.nanoTime();
+        for (long tick = 0; tick < ticks; tick++) {
+            for (int i = 0; i < clientCount; i++) {
+                GameClient client = clients[i];
+                if (client.poll() > 0) {
+                    entitySums[i] += client.getEntityCount();
+                }
+                if (client.isPilot()) {
+                    if (tick % 30 == 0) {
+                        up = random.nextInt(3) == 0;
+                        down = !up && random.nextInt(2) == 0;
+                        left = random.nextInt(3) == 0;
+                        right = !left && random.nextInt(2) == 0;
+                    }
+                    if (tick % 12 == 0) {
+                        client.shoot(random.nextInt(5) == 0 ? PlayerInput.SHOT_SPECIAL : PlayerInput.SHOT_NORMAL,
+                                client.getPlayerX() + random.nextDouble(-300, 300), client.getPlayerY() + random.nextDouble(-300, 300));
+                    }
+                    client.sendInput(up, down, left, right);
+                } else {
+                    client.sendInput(false, false, false, false); // Les spectateurs n'envoient que leur accusé
+                }
+            }
+            LockSupport.parkNanos(Math.max(0, start + (tick + 1) * stepNanos - System.nanoTime()));
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        server.stop();
+        serverThread.join();
+        server.close();
+
+        boolean valid = true;
+        for (int i = 0; i < clientCount; i++) {
+            GameClient client = clients[i];
+            long snapshots = client.getSnapshotsReceived();
+            double averageEntities = snapshots > 0 ? (double) entitySums[i] / snapshots : 0;
+            double averageSize = snapshots > 0 ? (double) client.getBytesReceived() / snapshots : 0;
+            System.out.printf("Client %d%s : %d snapshots, %.0f octets/s reçus, %.0f octets/s envoyés, %.0f octets par snapshot"
+                            + " (%.0f sans compression) pour %.0f entités, %d désynchronisations%n",
+                    client.getClientId(), i == 0 ? " (pilote)" : "", snapshots,
+                    client.getBytesReceived() / elapsed, client.getBytesSent() / elapsed, averageSize,
+                    averageEntities * BYTES_PER_ENTITY, averageEntities, client.getDesyncs());
+            valid &= snapshots > 0 && client.getDesyncs() == 0;
+            client.close();
+        }
+        System.out.printf("Serveur : %d snapshots, %.0f octets/s envoyés au total, partie finale : %d kills%n",
+                server.getSnapshotsSent(), server.getBytesSent() / elapsed, server.getWorld().getKillCount());
+        System.exit(valid ? 0 : 1);
+    }
+}
@@ -0,0 +1,128 @@
+package com.testgame.testgame.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constantes et encodage du protocole réseau entre {@link GameServer} et {@link GameClient}.
+ * <p>
+ * Chaque datagramme commence par {@link #MAGIC}, la {@link #VERSION} du protocole et son type :
+ * <ul>
+ *     <li>{@link #HELLO} : le client demande à rejoindre la partie (renvoyé tant qu'aucun WELCOME n'est reçu),
+ *     complété par des zéros jusqu'à {@link #HELLO_SIZE} octets ;</li>
+ *     <li>{@link #WELCOME} : le serveur accepte le client et lui donne son identifiant, un jeton et les dimensions du monde ;</li>
+ *     <li>{@link #INPUT} : le client renvoie le jeton, ses commandes, ses tirs pas encore pris en compte et le dernier snapshot reçu ;</li>
+ *     <li>{@link #SNAPSHOT} : le serveur envoie l'état du monde, en écart avec le dernier snapshot reçu par le client ;</li>
+ *     <li>{@link #BYE} : le client quitte la partie, en renvoyant le jeton.</li>
+ * </ul>
+ * Le serveur ne répond jamais à une adresse par plus d'octets qu'il n'en a reçus tant que cette adresse n'a pas
+ * renvoyé le jeton : une adresse usurpée ne reçoit pas le WELCOME et ne peut donc pas déclencher l'envoi de snapshots.
+ * Les entiers sont écrits en varint (7 bits par octet) et les entiers signés en zigzag, comme dans les replays ;
+ * les positions sont arrondies au 1/{@link #POSITION_SCALE} de pixel.
+ */
+public final class NetFormat {
+    public static final short MAGIC = 0x4943; // "IC", en tête de chaque datagramme
+    public static final byte VERSION = 1; // Version du protocole
+    public static final byte HELLO = 1; // Demande de connexion
+    public static final byte WELCOME = 2; // Réponse du serveur à une demande de connexion
+    public static final byte INPUT = 3; // Commandes du client
+    public static final byte SNAPSHOT = 4; // État du monde
+    public static final byte BYE = 5; // Déconnexion du client
+    public static final int POSITION_SCALE = 4; // Les positions sont envoyées au 1/4 de pixel
+    public static final int MAX_PACKET = 1200; // Taille maximale d'un datagramme, sous la MTU courante
+    public static final int HELLO_SIZE = 48; // Taille minimale d'un HELLO, au moins celle d'un WELCOME
+    public static final int HISTORY = 64; // Nombre de snapshots conservés pour servir de référence aux écarts
+    public static final int SNAPSHOT_INTERVAL = 3; // Nombre de pas entre deux snapshots (20 par seconde à 60 pas par seconde)
+
+    private NetFormat() {
+    }
+
+    /**
+     * Écrit l'en-tête d'un datagramme.
+     * @param buffer Tampon vidé au préalable
+     * @param type Type du datagramme
+     */
+    static void putHeader(ByteBuffer buffer, byte type) {
+        buffer.putShort(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(type);
+    }
+
+    /**
+     * Lit l'en-tête d'un datagramme.
+     * @param buffer Tampon positionné au début du datagramme
+     * @return Le type du datagramme, ou -1 s'il ne vient pas de ce protocole
+     */
+    static int readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < 4 || buffer.getShort() != MAGIC || buffer.get() != VERSION) {
+            return -1;
+        }
+        return buffer.get();
+    }
+
+    /**
+     * Arrondit une coordonnée à la précision du réseau.
+     * @param value Coordonnée en pixels
+     * @return La coordonnée en 1/{@link #POSITION_SCALE} de pixel
+     */
+    static int quantize(double value) {
+        return (int) Math.round(value * POSITION_SCALE);
+    }
+
+    /**
+     * Convertit une coordonnée reçue en pixels.
+     * @param value Coordonnée en 1/{@link #POSITION_SCALE} de pixel
+     * @return La coordonnée en pixels
+     */
+    static double dequantize(int value) {
+        return (double) value / POSITION_SCALE;
+    }
+
+    /**
+     * Écrit un entier positif sur 7 bits par octet, le bit de poids fort indiquant qu'un octet suit.
+     * @param buffer Tampon de destination
+     * @param value Valeur à écrire, traitée comme non signée
+     */
+    static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Lit un entier écrit par putVarInt.
+     * @param buffer Tampon source
+     * @return La valeur lue
+     */
+    static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint trop long");
+    }
+
+    /**
+     * Écrit un entier signé en zigzag, pour que les petites valeurs négatives restent courtes.
+     * @param buffer Tampon de destination
+     * @param value Valeur signée
+     */
+    static void putSignedVarInt(ByteBuffer buffer, int value) {
+        putVarInt(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Lit un entier écrit par putSignedVarInt.
+     * @param buffer Tampon source
+     * @return La valeur signée
+     */
+    static int getSignedVarInt(ByteBuffer buffer) {
+        int value = getVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
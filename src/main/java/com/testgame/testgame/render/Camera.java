@@ -0,0 +1,111 @@
+package com.testgame.testgame.render;
+
+/**
+ * Classe Camera : partie du monde affichée à l'écran, centrée sur le joueur et bornée aux limites du monde.
+ * Les moteurs de rendu décalent l'affichage de la position de la caméra et ne dessinent que les entités visibles,
+ * pour que le coût d'une frame dépende de ce qui est à l'écran et non de la taille du monde.
+ */
+public class Camera {
+    public static final double MARGIN = 64; // Marge autour de l'écran dans laquelle les entités sont quand même dessinées
+
+    private final double viewWidth; // Largeur de la zone affichée
+    private final double viewHeight; // Hauteur de la zone affichée
+    private double x = 0; // Coordonnée x du coin supérieur gauche de la zone affichée, dans le monde
+    private double y = 0; // Coordonnée y du coin supérieur gauche de la zone affichée, dans le monde
+
+    /**
+     * Constructeur de la classe Camera.
+     * @param viewWidth Largeur de la zone affichée
+     * @param viewHeight Hauteur de la zone affichée
+     */
+    public Camera(double viewWidth, double viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    /**
+     * Centre la caméra sur un point, sans sortir du monde. Un monde plus petit que l'écran est affiché depuis son coin.
+     * @param targetX Coordonnée x du point à suivre
+     * @param targetY Coordonnée y du point à suivre
+     * @param worldWidth Largeur du monde
+     * @param worldHeight Hauteur du monde
+     */
+    public void follow(double targetX, double targetY, double worldWidth, double worldHeight) {
+        x = Math.max(0, Math.min(targetX - viewWidth / 2, worldWidth - viewWidth));
+        y = Math.max(0, Math.min(targetY - viewHeight / 2, worldHeight - viewHeight));
+    }
+
+    /**
+     * Vérifie si un carré du monde est visible, marge comprise.
+     * @param minX Coordonnée x du coin supérieur gauche
+     * @param minY Coordonnée y du coin supérieur gauche
+     * @param size Côté du carré
+     * @return true si le carré recoupe la zone affichée
+     */
+    public boolean isVisible(double minX, double minY, double size) {
+        return isVisible(minX, minY, size, size);
+    }
+
+    /**
+     * Vérifie si un rectangle du monde est visible, marge comprise.
+     * @param minX Coordonnée x du coin supérieur gauche
+     * @param minY Coordonnée y du coin supérieur gauche
+     * @param width Largeur du rectangle
+     * @param height Hauteur du rectangle
+     * @return true si le rectangle recoupe la zone affichée
+     */
+    public boolean isVisible(double minX, double minY, double width, double height) {
+        return minX + width >= x - MARGIN && minX <= x + viewWidth + MARGIN
+                && minY + height >= y - MARGIN && minY <= y + viewHeight + MARGIN;
+    }
+
+    /**
+     * Convertit une coordonnée x de l'écran en coordonnée du monde (clic de souris).
+     * @param screenX Coordonnée x à l'écran
+     * @return La coordonnée x dans le monde
+     */
+    public double toWorldX(double screenX) {
+        return screenX + x;
+    }
+
+    /**
+     * Convertit une coordonnée y de l'écran en coordonnée du monde (clic de souris).
+     * @param screenY Coordonnée y à l'écran
+     * @return La coordonnée y dans le monde
+     */
+    public double toWorldY(double screenY) {
+        return screenY + y;
+    }
+
+    /**
+     * Getter pour la coordonnée x de la zone affichée.
+     * @return La coordonnée x du coin supérieur gauche, dans le monde
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Getter pour la coordonnée y de la zone affichée.
+     * @return La coordonnée y du coin supérieur gauche, dans le monde
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Getter pour la largeur de la zone affichée.
+     * @return La largeur de l'écran
+     */
+    public double getViewWidth() {
+        return viewWidth;
+    }
+
+    /**
+     * Getter pour la hauteur de la zone affichée.
+     * @return La hauteur de l'écran
+     */
+    public double getViewHeight() {
+        return viewHeight;
+    }
+}
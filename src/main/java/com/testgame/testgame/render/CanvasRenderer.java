@@ -0,0 +1,126 @@
+package com.testgame.testgame.render;
+
+import com.testgame.testgame.entities.*;
+import com.testgame.testgame.world.Obstacles;
+import com.testgame.testgame.world.World;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import static com.testgame.testgame.render.Renderer.lerp;
+
+/**
+ * Classe CanvasRenderer : dessine toutes les entités sur un unique Canvas à chaque frame (mode immédiat).
+ * La scène ne contient qu'un seul nœud quel que soit le nombre d'entités, ce qui évite les passes
+ * de mise en page et de CSS de JavaFX sur des milliers de nœuds. Les entités sont dessinées par type,
+ * pour ne changer de couleur de remplissage qu'une fois par lot. Le canvas a la taille de l'écran :
+ * le dessin est décalé de la position de la caméra et les entités hors de l'écran ne sont pas dessinées.
+ */
+public class CanvasRenderer implements Renderer {
+    private final Canvas canvas; // Surface de dessin
+    private final GraphicsContext graphics; // Contexte de dessin du canvas
+
+    /**
+     * Constructeur de la classe CanvasRenderer.
+     * @param width Largeur de la zone d'affichage
+     * @param height Hauteur de la zone d'affichage
+     */
+    public CanvasRenderer(double width, double height) {
+        this.canvas = new Canvas(width, height);
+        this.graphics = canvas.getGraphicsContext2D();
+    }
+
+    @Override
+    public Node getView() {
+        return canvas;
+    }
+
+    @Override
+    public void reset() {
+        graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    @Override
+    public void render(World world, Camera camera, double alpha) {
+        graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        graphics.save();
+        graphics.translate(-camera.getX(), -camera.getY());
+
+        // Murs
+        Obstacles obstacles = world.getObstacles();
+        graphics.setFill(Color.DIMGRAY);
+        for (int i = 0; i < obstacles.getWallCount(); i++) {
+            double wallX = obstacles.getWallX(i);
+            double wallY = obstacles.getWallY(i);
+            double wallWidth = obstacles.getWallWidth(i);
+            double wallHeight = obstacles.getWallHeight(i);
+            if (camera.isVisible(wallX, wallY, wallWidth, wallHeight)) {
+                graphics.fillRect(wallX, wallY, wallWidth, wallHeight);
+            }
+        }
+
+        // Bonus
+        graphics.setFill(Color.YELLOW);
+        for (AmmoPack ammoPack : world.getAmmoPacks()) {
+            graphics.fillRect(ammoPack.getX(), ammoPack.getY(), ammoPack.getSize(), ammoPack.getSize());
+        }
+        ExtraLifeItem extraLifeItem = world.getExtraLifeItem();
+        if (extraLifeItem != null) {
+            double radius = extraLifeItem.getRadius();
+            graphics.setFill(Color.PINK);
+            graphics.fillOval(extraLifeItem.getX() - radius, extraLifeItem.getY() - radius, radius * 2, radius * 2);
+        }
+
+        // Ennemis, un lot par couleur
+        Archetype enemies = world.getEntities().getEnemies();
+        drawEnemies(enemies, EntityStore.TYPE_ENEMY, Color.RED, camera, alpha);
+        drawEnemies(enemies, EntityStore.TYPE_ENEMY_ORANGE, Color.ORANGE, camera, alpha);
+
+        // Projectiles (la position désigne le centre du cercle)
+        Archetype projectiles = world.getEntities().getProjectiles();
+        graphics.setFill(Color.ORANGE);
+        for (int row = 0; row < projectiles.size(); row++) {
+            double radius = projectiles.getRadius(row);
+            double x = lerp(projectiles.getPreviousX(row), projectiles.getX(row), alpha);
+            double y = lerp(projectiles.getPreviousY(row), projectiles.getY(row), alpha);
+            if (camera.isVisible(x - radius, y - radius, radius * 2)) {
+                graphics.fillOval(x - radius, y - radius, radius * 2, radius * 2);
+            }
+        }
+
+        // Joueur et indicateur de vie supplémentaire
+        Player player = world.getPlayer();
+        double playerX = lerp(player.getPreviousX(), player.getX(), alpha);
+        double playerY = lerp(player.getPreviousY(), player.getY(), alpha);
+        graphics.setFill(Color.BLUE);
+        graphics.fillRect(playerX, playerY, player.getWidth(), player.getHeight());
+        if (world.hasExtraLife()) {
+            graphics.setFill(Color.PINK);
+            graphics.fillRect(playerX + player.getWidth() / 2 - 5, playerY - 15, 10, 10);
+        }
+        graphics.restore();
+    }
+
+    /**
+     * Dessine les ennemis d'un type donné, tous de la même couleur.
+     * @param enemies Archétype des ennemis
+     * @param type Type des ennemis à dessiner
+     * @param color Couleur de remplissage
+     * @param camera Zone du monde affichée, hors de laquelle les ennemis ne sont pas dessinés
+     * @param alpha Facteur d'interpolation entre le pas précédent et le pas courant
+     */
+    private void drawEnemies(Archetype enemies, byte type, Color color, Camera camera, double alpha) {
+        graphics.setFill(color);
+        for (int row = 0; row < enemies.size(); row++) {
+            if (enemies.getType(row) == type) {
+                double size = enemies.getRadius(row) * 2;
+                double x = lerp(enemies.getPreviousX(row), enemies.getX(row), alpha);
+                double y = lerp(enemies.getPreviousY(row), enemies.getY(row), alpha);
+                if (camera.isVisible(x, y, size)) {
+                    graphics.fillRect(x, y, size, size);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.testgame.testgame.render;
+
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Shape;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Classe NodePool : réserve de formes JavaFX réutilisables pour un type d'entité.
+ * Les formes restent dans la scène pendant toute la partie : libérer une forme la masque simplement,
+ * et la réutiliser la rend de nouveau visible. On évite ainsi d'ajouter et de retirer des nœuds
+ * de la liste des enfants de la scène (retrait en temps linéaire) à chaque tir ou élimination.
+ */
+public class NodePool {
+    private final Pane layer; // Conteneur dans lequel les formes sont ajoutées
+    private final Supplier<Shape> factory; // Création d'une forme neuve quand la réserve est vide
+    private Shape[] free; // Formes masquées disponibles
+    private int freeCount = 0; // Nombre de formes disponibles
+    private int createdCount = 0; // Nombre total de formes créées par la réserve
+
+    /**
+     * Constructeur de la classe NodePool.
+     * @param layer Conteneur dans lequel les formes sont ajoutées
+     * @param factory Création d'une forme neuve
+     * @param preallocated Nombre de formes créées (masquées) dès la construction
+     */
+    public NodePool(Pane layer, Supplier<Shape> factory, int preallocated) {
+        this.layer = layer;
+        this.factory = factory;
+        this.free = new Shape[Math.max(16, preallocated)];
+        for (int i = 0; i < preallocated; i++) {
+            release(create());
+        }
+    }
+
+    /**
+     * Fournit une forme visible, réutilisée si possible.
+     * @return Une forme prête à être positionnée
+     */
+    public Shape acquire() {
+        Shape shape = freeCount > 0 ? free[--freeCount] : create();
+        shape.setVisible(true);
+        return shape;
+    }
+
+    /**
+     * Rend une forme à la réserve en la masquant.
+     * @param shape Forme qui n'est plus utilisée
+     */
+    public void release(Shape shape) {
+        shape.setVisible(false);
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = shape;
+    }
+
+    /**
+     * Getter pour le nombre total de formes créées par la réserve.
+     * @return Le nombre de formes créées
+     */
+    public int getCreatedCount() {
+        return createdCount;
+    }
+
+    /**
+     * Crée une forme neuve et l'ajoute au conteneur.
+     * @return La forme créée
+     */
+    private Shape create() {
+        Shape shape = factory.get();
+        layer.getChildren().add(shape);
+        createdCount++;
+        return shape;
+    }
+}
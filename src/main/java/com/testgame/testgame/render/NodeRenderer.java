@@ -0,0 +1,279 @@
+package com.testgame.testgame.render;
+
+import com.testgame.testgame.entities.*;
+import com.testgame.testgame.world.Obstacles;
+import com.testgame.testgame.world.World;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.Shape;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.testgame.testgame.render.Renderer.lerp;
+
+/**
+ * Classe NodeRenderer : affiche chaque entité par une forme JavaFX conservée dans la scène.
+ * Les formes des ennemis et projectiles viennent de réserves ({@link NodePool}) et sont associées
+ * à l'emplacement du handle de leur entité ; le joueur et les bonus, peu nombreux, ont chacun leur forme.
+ * Les murs, fixes, ont une forme créée une fois par monde et masquée hors de l'écran.
+ */
+public class NodeRenderer implements Renderer {
+    private final Pane layer = new Pane(); // Conteneur des formes des entités
+    private final Map<Object, EntityNode> entityNodes = new IdentityHashMap<>(); // Formes affichées pour le joueur et les bonus
+    // Formes affichées pour les ennemis et projectiles, indexées par emplacement de handle
+    private Shape[] slotShapes = new Shape[128];
+    private int[] slotHandles = new int[128]; // Handle de l'entité représentée par chaque forme
+    private byte[] slotTypes = new byte[128]; // Type de l'entité, pour rendre la forme à la bonne réserve
+    private long[] slotSeenFrames = new long[128]; // Dernière frame où l'entité était présente
+    private final NodePool enemyPool; // Réserve de formes des ennemis standard
+    private final NodePool enemyOrangePool; // Réserve de formes des ennemis orange
+    private final NodePool projectilePool; // Réserve de formes des projectiles
+    private Rectangle extraLifeIndicator; // Indicateur visuel de vie supplémentaire
+    private Obstacles shownObstacles; // Murs dont les formes sont dans la scène
+    private Rectangle[] wallShapes = new Rectangle[0]; // Forme de chaque mur
+    private long renderFrame = 0; // Numéro de la frame affichée, pour repérer les formes obsolètes
+
+    /**
+     * Constructeur de la classe NodeRenderer.
+     */
+    public NodeRenderer() {
+        // Réserves de formes réutilisées pour les entités du magasin, d'une partie à l'autre
+        double enemySize = Enemy.SIZE;
+        enemyPool = new NodePool(layer, () -> new Rectangle(enemySize, enemySize, Color.RED), 8);
+        enemyOrangePool = new NodePool(layer, () -> new Rectangle(enemySize, enemySize, Color.ORANGE), 2);
+        projectilePool = new NodePool(layer, () -> new Circle(Projectile.RADIUS, Color.ORANGE), 32);
+    }
+
+    @Override
+    public Node getView() {
+        return layer;
+    }
+
+    /**
+     * Rend toutes les formes des ennemis et projectiles à leurs réserves, sans rien retirer de la scène : les handles
+     * d'une nouvelle partie peuvent reprendre ceux de la précédente. Les formes du joueur, des bonus et des murs
+     * sont gardées tant que le monde affiché les contient, et retirées au premier rendu sinon.
+     */
+    @Override
+    public void reset() {
+        for (int slot = 0; slot < slotShapes.length; slot++) {
+            if (slotShapes[slot] != null) {
+                releaseSlot(slot);
+            }
+        }
+    }
+
+    /**
+     * Met à jour l'affichage à partir de l'état du monde : crée les formes des nouvelles entités,
+     * déplace les formes existantes et retire celles des entités qui ont disparu.
+     * Seules les entités du magasin visibles par la caméra ont une forme : celles qui sortent de l'écran
+     * rendent la leur à la réserve, comme si elles avaient disparu.
+     * @param world Le monde à afficher
+     * @param camera Zone du monde affichée à l'écran
+     * @param alpha Fraction du pas suivant déjà écoulée (0 = état précédent, 1 = état courant)
+     */
+    @Override
+    public void render(World world, Camera camera, double alpha) {
+        renderFrame++;
+        layer.setTranslateX(-camera.getX());
+        layer.setTranslateY(-camera.getY());
+        syncWalls(world.getObstacles(), camera);
+        Player player = world.getPlayer();
+        double playerX = lerp(player.getPreviousX(), player.getX(), alpha);
+        double playerY = lerp(player.getPreviousY(), player.getY(), alpha);
+        syncNode(player, playerX, playerY);
+        syncStoreNodes(world.getEntities().getEnemies(), camera, alpha);
+        syncStoreNodes(world.getEntities().getProjectiles(), camera, alpha);
+        for (AmmoPack ammoPack : world.getAmmoPacks()) {
+            syncNode(ammoPack, ammoPack.getX(), ammoPack.getY());
+        }
+        ExtraLifeItem extraLifeItem = world.getExtraLifeItem();
+        if (extraLifeItem != null) {
+            syncNode(extraLifeItem, extraLifeItem.getX(), extraLifeItem.getY());
+        }
+
+        // Retire les formes des entités qui ne sont plus dans le monde
+        Iterator<EntityNode> nodeIterator = entityNodes.values().iterator();
+        while (nodeIterator.hasNext()) {
+            EntityNode node = nodeIterator.next();
+            if (node.seenFrame != renderFrame) {
+                layer.getChildren().remove(node.shape);
+                nodeIterator.remove();
+            }
+        }
+        for (int slot = 0; slot < slotShapes.length; slot++) {
+            if (slotShapes[slot] != null && slotSeenFrames[slot] != renderFrame) {
+                releaseSlot(slot);
+            }
+        }
+
+        updateExtraLifeIndicator(world, playerX, playerY);
+    }
+    /**
+     * Crée les formes des murs quand le monde change, puis n'affiche que celles qui sont à l'écran.
+     * @param obstacles Murs du monde affiché
+     * @param camera Zone du monde affichée
+     */
+    private void syncWalls(Obstacles obstacles, Camera camera) {
+        if (obstacles != shownObstacles) {
+            layer.getChildren().removeAll(wallShapes);
+            wallShapes = new Rectangle[obstacles.getWallCount()];
+            for (int i = 0; i < wallShapes.length; i++) {
+                wallShapes[i] = new Rectangle(obstacles.getWallWidth(i), obstacles.getWallHeight(i), Color.DIMGRAY);
+                wallShapes[i].setTranslateX(obstacles.getWallX(i));
+                wallShapes[i].setTranslateY(obstacles.getWallY(i));
+            }
+            layer.getChildren().addAll(0, Arrays.asList(wallShapes)); // Sous les entités
+            shownObstacles = obstacles;
+        }
+        for (int i = 0; i < wallShapes.length; i++) {
+            wallShapes[i].setVisible(camera.isVisible(obstacles.getWallX(i), obstacles.getWallY(i),
+                    obstacles.getWallWidth(i), obstacles.getWallHeight(i)));
+        }
+    }
+
+    /**
+     * Positionne la forme associée à une entité, en la créant si l'entité vient d'apparaître.
+     * @param entity L'entité à afficher
+     * @param x Coordonnée x de la forme
+     * @param y Coordonnée y de la forme
+     */
+    private void syncNode(Object entity, double x, double y) {
+        EntityNode node = entityNodes.get(entity);
+        if (node == null) {
+            node = new EntityNode(createShape(entity));
+            entityNodes.put(entity, node);
+            layer.getChildren().add(node.shape);
+        }
+        node.seenFrame = renderFrame;
+        node.shape.setTranslateX(x);
+        node.shape.setTranslateY(y);
+    }
+
+    /**
+     * Positionne les formes des entités d'un archétype, en prenant une forme dans la réserve du bon type
+     * pour les entités qui viennent d'apparaître. Une forme est associée à l'emplacement du handle de son entité ;
+     * si l'emplacement a été réutilisé par une nouvelle entité, l'ancienne forme est rendue à sa réserve.
+     * @param archetype Archétype à afficher
+     * @param camera Zone du monde affichée, hors de laquelle les entités sont ignorées
+     * @param alpha Facteur d'interpolation entre le pas précédent et le pas courant
+     */
+    private void syncStoreNodes(Archetype archetype, Camera camera, double alpha) {
+        for (int row = 0; row < archetype.size(); row++) {
+            double x = lerp(archetype.getPreviousX(row), archetype.getX(row), alpha);
+            double y = lerp(archetype.getPreviousY(row), archetype.getY(row), alpha);
+            if (!camera.isVisible(x, y, archetype.getRadius(row) * 2)) {
+                continue; // Hors de l'écran : la forme éventuelle est rendue à la réserve en fin de frame
+            }
+            int handle = archetype.getHandle(row);
+            int slot = EntityStore.slotOf(handle);
+            if (slot >= slotShapes.length) {
+                growSlots(slot + 1);
+            }
+            if (slotShapes[slot] != null && slotHandles[slot] != handle) {
+                releaseSlot(slot);
+            }
+            Shape shape = slotShapes[slot];
+            if (shape == null) {
+                byte type = archetype.getType(row);
+                shape = poolFor(type).acquire();
+                slotShapes[slot] = shape;
+                slotHandles[slot] = handle;
+                slotTypes[slot] = type;
+            }
+            slotSeenFrames[slot] = renderFrame;
+            shape.setTranslateX(x);
+            shape.setTranslateY(y);
+        }
+    }
+
+    /**
+     * Rend la forme d'un emplacement à sa réserve.
+     * @param slot Emplacement de handle
+     */
+    private void releaseSlot(int slot) {
+        poolFor(slotTypes[slot]).release(slotShapes[slot]);
+        slotShapes[slot] = null;
+    }
+
+    /**
+     * Agrandit les tableaux indexés par emplacement de handle.
+     * @param minCapacity Capacité minimale nécessaire
+     */
+    private void growSlots(int minCapacity) {
+        int capacity = Math.max(minCapacity, slotShapes.length * 2);
+        slotShapes = Arrays.copyOf(slotShapes, capacity);
+        slotHandles = Arrays.copyOf(slotHandles, capacity);
+        slotTypes = Arrays.copyOf(slotTypes, capacity);
+        slotSeenFrames = Arrays.copyOf(slotSeenFrames, capacity);
+    }
+
+    /**
+     * Retourne la réserve de formes correspondant au type d'une entité du magasin.
+     * @param type Type de l'entité (constante TYPE_ de EntityStore)
+     * @return La réserve de formes
+     */
+    private NodePool poolFor(byte type) {
+        switch (type) {
+            case EntityStore.TYPE_ENEMY_ORANGE:
+                return enemyOrangePool;
+            case EntityStore.TYPE_PROJECTILE:
+                return projectilePool;
+            default:
+                return enemyPool;
+        }
+    }
+
+    /**
+     * Crée la forme graphique du joueur ou d'un bonus.
+     * @param entity L'entité à représenter
+     * @return La forme à afficher
+     */
+    private Shape createShape(Object entity) {
+        if (entity instanceof Player) {
+            return new Rectangle(((Player) entity).getWidth(), ((Player) entity).getHeight(), Color.BLUE);
+        } else if (entity instanceof AmmoPack) {
+            return new Rectangle(((AmmoPack) entity).getSize(), ((AmmoPack) entity).getSize(), Color.YELLOW);
+        } else {
+            return new Circle(((ExtraLifeItem) entity).getRadius(), Color.PINK);
+        }
+    }
+
+    /**
+     * Affiche ou masque l'indicateur de vie supplémentaire et le place à côté du joueur.
+     * @param world Le monde affiché
+     * @param playerX Coordonnée x affichée du joueur
+     * @param playerY Coordonnée y affichée du joueur
+     */
+    private void updateExtraLifeIndicator(World world, double playerX, double playerY) {
+        if (world.hasExtraLife() && extraLifeIndicator == null) {
+            extraLifeIndicator = new Rectangle(10, 10, Color.PINK);
+            layer.getChildren().add(extraLifeIndicator);
+        } else if (!world.hasExtraLife() && extraLifeIndicator != null) {
+            layer.getChildren().remove(extraLifeIndicator);
+            extraLifeIndicator = null;
+        }
+        if (extraLifeIndicator != null) {
+            extraLifeIndicator.setTranslateX(playerX + world.getPlayer().getWidth() / 2 - 5);
+            extraLifeIndicator.setTranslateY(playerY - 15);
+        }
+    }
+
+    /**
+     * Forme affichée pour une entité, avec le numéro de la dernière frame où l'entité était présente.
+     */
+    private static class EntityNode {
+        private final Shape shape;
+        private long seenFrame;
+
+        private EntityNode(Shape shape) {
+            this.shape = shape;
+        }
+    }
+}
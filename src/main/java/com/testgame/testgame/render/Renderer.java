@@ -0,0 +1,56 @@
+package com.testgame.testgame.render;
+
+import com.testgame.testgame.world.World;
+import javafx.scene.Node;
+
+/**
+ * Interface Renderer : dessine l'état d'un {@link World} à chaque frame.
+ * Plusieurs implémentations existent pour pouvoir comparer leurs temps de frame sur la même partie :
+ * un nœud JavaFX par entité ({@link NodeRenderer}) ou un dessin immédiat sur un Canvas ({@link CanvasRenderer}).
+ */
+public interface Renderer {
+
+    /**
+     * Retourne le nœud à placer dans la scène de jeu.
+     * @return Le nœud qui contient l'affichage des entités
+     */
+    Node getView();
+
+    /**
+     * Efface l'affichage au début d'une nouvelle partie, en gardant ce qui peut resservir (formes, tampons).
+     */
+    void reset();
+
+    /**
+     * Dessine la partie visible du monde, avec des positions interpolées entre le pas précédent et le pas courant.
+     * @param world Le monde à afficher
+     * @param camera Zone du monde affichée à l'écran
+     * @param alpha Fraction du pas suivant déjà écoulée (0 = état précédent, 1 = état courant)
+     */
+    void render(World world, Camera camera, double alpha);
+
+    /**
+     * Interpolation linéaire entre deux valeurs.
+     * @param from Valeur pour alpha = 0
+     * @param to Valeur pour alpha = 1
+     * @param alpha Facteur d'interpolation
+     * @return La valeur interpolée
+     */
+    static double lerp(double from, double to, double alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    /**
+     * Crée le moteur de rendu demandé par son nom.
+     * @param name "canvas" pour le dessin immédiat, toute autre valeur pour un nœud par entité
+     * @param width Largeur de la zone d'affichage
+     * @param height Hauteur de la zone d'affichage
+     * @return Le moteur de rendu
+     */
+    static Renderer create(String name, double width, double height) {
+        if ("canvas".equalsIgnoreCase(name)) {
+            return new CanvasRenderer(width, height);
+        }
+        return new NodeRenderer();
+    }
+}
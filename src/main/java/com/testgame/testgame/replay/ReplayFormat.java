@@ -0,0 +1,37 @@
+package com.testgame.testgame.replay;
+
+/**
+ * Classe ReplayFormat décrivant le format binaire des replays, commun à {@link ReplayWriter} et {@link ReplayReader}.
+ * <p>
+ * Un replay contient ce qui suffit à rejouer une partie à l'identique : la graine, les dimensions et le mode du monde,
+ * puis les commandes du joueur pas par pas. Seuls les pas où les commandes changent sont écrits :
+ * <ul>
+ *     <li>en-tête : magique, version, graine, fréquence de simulation, largeur et hauteur de l'arène, mode de jeu ;</li>
+ *     <li>enregistrements : écart en pas depuis l'enregistrement précédent (varint), un octet avec les quatre
+ *     directions et le nombre de tirs, puis pour chaque tir son type et l'écart de sa cible avec le tir précédent
+ *     (varints zigzag, en 1/16 de pixel) ;</li>
+ *     <li>index : pour un pas sur {@link #INDEX_INTERVAL}, le pas et la position de l'octet des directions
+ *     de l'enregistrement qui le décrit ;</li>
+ *     <li>fin de fichier : position de l'index, nombre d'entrées, nombre de pas, kills annoncés et magique.</li>
+ * </ul>
+ * Un enregistrement est forcé à chaque entrée de l'index et les cibles des tirs y repartent de zéro, pour que la lecture
+ * puisse commencer à n'importe quelle entrée.
+ */
+public final class ReplayFormat {
+    public static final String FILE_EXTENSION = ".icfr"; // Extension des fichiers de replay
+    static final int MAGIC = 0x49434652; // "ICFR"
+    static final byte VERSION = 6; // Version du format (2 : tirages avec SplittableRandom, 3 : mode de jeu, 4 : tirage des apparitions par cases, 5 : écartement des ennemis voisins, 6 : murs)
+    static final int INDEX_INTERVAL = 600; // Nombre de pas entre deux entrées de l'index (10 s à 60 pas par seconde)
+    static final int HEADER_SIZE = 4 + 1 + 8 + 4 + 8 + 8 + 1; // Magique, version, graine, fréquence, largeur, hauteur, mode
+    static final int TRAILER_SIZE = 8 + 4 + 8 + 4 + 4; // Position de l'index, entrées, pas, kills, magique
+    static final int DIRECTION_MASK = 0x0F; // Bits des directions dans l'octet d'un enregistrement
+    static final int MAX_INLINE_SHOTS = 15; // Au-delà, le nombre de tirs suit l'octet sous forme de varint
+
+    static final int UP = 1; // Bit de la direction haut
+    static final int DOWN = 2; // Bit de la direction bas
+    static final int LEFT = 4; // Bit de la direction gauche
+    static final int RIGHT = 8; // Bit de la direction droite
+
+    private ReplayFormat() {
+    }
+}
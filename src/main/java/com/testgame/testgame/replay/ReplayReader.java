@@ -0,0 +1,258 @@
+package com.testgame.testgame.replay;
+
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.PlayerInput;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Classe ReplayReader qui relit un replay au format {@link ReplayFormat}, pas par pas.
+ * Le fichier est projeté en mémoire : la lecture ne copie rien et ne fait aucun appel système par pas,
+ * ce qui permet de rejouer une partie bien plus vite que le temps réel.
+ */
+public class ReplayReader {
+    private final MappedByteBuffer data; // Contenu du fichier
+    private final long seed; // Graine du monde enregistré
+    private final int tickRate; // Fréquence de simulation du monde enregistré
+    private final double width; // Largeur de l'arène
+    private final double height; // Hauteur de l'arène
+    private final GameMode mode; // Mode de jeu de la partie
+    private final int recordsEnd; // Position de l'index, qui suit le dernier enregistrement
+    private final long tickCount; // Nombre de pas de la partie
+    private final int killCount; // Score annoncé de la partie
+    private final long[] indexTicks; // Pas de chaque entrée de l'index
+    private final int[] indexOffsets; // Position de l'enregistrement de chaque entrée de l'index
+
+    private long tick = 0; // Prochain pas à lire
+    private long nextRecordTick; // Pas du prochain enregistrement
+    private int directions = 0; // Directions en cours
+    private long lastShotX = 0, lastShotY = 0; // Cible du dernier tir lu, en 1/16 de pixel
+
+    /**
+     * Ouvre un replay et lit son en-tête et son index.
+     * @param path Chemin du fichier
+     * @throws IOException Si le fichier ne peut pas être lu ou n'est pas un replay valide
+     */
+    public ReplayReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < ReplayFormat.HEADER_SIZE + ReplayFormat.TRAILER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Taille de replay invalide : " + path);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, length); // Reste valide après la fermeture du canal
+        }
+        if (data.getInt(0) != ReplayFormat.MAGIC || data.get(4) != ReplayFormat.VERSION
+                || data.getInt(data.limit() - 4) != ReplayFormat.MAGIC) {
+            throw new IOException("Fichier de replay invalide ou de version inconnue : " + path);
+        }
+        seed = data.getLong(5);
+        tickRate = data.getInt(13);
+        width = data.getDouble(17);
+        height = data.getDouble(25);
+        int modeIndex = data.get(33);
+        if (modeIndex < 0 || modeIndex >= GameMode.values().length) {
+            throw new IOException("Mode de jeu inconnu dans le replay : " + path);
+        }
+        mode = GameMode.values()[modeIndex];
+
+        if (tickRate <= 0) {
+            throw new IOException("Fréquence de simulation invalide dans le replay : " + path);
+        }
+
+        // La fin de fichier vient d'un fichier soumis : chaque champ est borné par la taille du fichier avant d'être utilisé
+        int trailer = data.limit() - ReplayFormat.TRAILER_SIZE;
+        long indexStart = data.getLong(trailer);
+        int indexCount = data.getInt(trailer + 8);
+        tickCount = data.getLong(trailer + 12);
+        killCount = data.getInt(trailer + 20);
+        if (indexStart < ReplayFormat.HEADER_SIZE || indexStart > trailer) {
+            throw new IOException("Position de l'index invalide dans le replay : " + path);
+        }
+        recordsEnd = (int) indexStart;
+        if (indexCount < 0 || indexCount > (trailer - recordsEnd) / 2) { // Au moins deux octets par entrée
+            throw new IOException("Nombre d'entrées de l'index invalide dans le replay : " + path);
+        }
+        if (tickCount < 0 || tickCount > (long) indexCount * ReplayFormat.INDEX_INTERVAL) { // Une entrée par INDEX_INTERVAL pas
+            throw new IOException("Nombre de pas invalide dans le replay : " + path);
+        }
+
+        indexTicks = new long[indexCount];
+        indexOffsets = new int[indexCount];
+        data.position(recordsEnd);
+        long entryTick = 0;
+        long entryOffset = 0;
+        for (int i = 0; i < indexCount; i++) {
+            entryTick += readVarLong();
+            entryOffset += readVarLong();
+            if (entryOffset < ReplayFormat.HEADER_SIZE || entryOffset >= recordsEnd || data.position() > trailer) {
+                throw new IOException("Entrée de l'index invalide dans le replay : " + path);
+            }
+            indexTicks[i] = entryTick;
+            indexOffsets[i] = (int) entryOffset;
+        }
+        seek(0);
+    }
+
+    /**
+     * Remplit les commandes du joueur pour le pas suivant.
+     * @param input Commandes à remplir ; les tirs précédents sont effacés
+     * @return true si un pas a été lu, false si la partie est terminée
+     */
+    public boolean next(PlayerInput input) {
+        if (tick >= tickCount) {
+            return false;
+        }
+        input.clearShots();
+        if (tick == nextRecordTick) {
+            if (tick % ReplayFormat.INDEX_INTERVAL == 0) {
+                lastShotX = 0; // Les cibles repartent de zéro à chaque entrée de l'index
+                lastShotY = 0;
+            }
+            int flags = data.get() & 0xFF;
+            directions = flags & ReplayFormat.DIRECTION_MASK;
+            int shotCount = flags >>> 4;
+            if (shotCount == ReplayFormat.MAX_INLINE_SHOTS) {
+                shotCount += (int) readVarLong();
+            }
+            for (int i = 0; i < shotCount; i++) {
+                int type = data.get();
+                lastShotX += unZigZag(readVarLong());
+                lastShotY += unZigZag(readVarLong());
+                input.addShot(type, (double) lastShotX / PlayerInput.SHOT_PRECISION, (double) lastShotY / PlayerInput.SHOT_PRECISION);
+            }
+            readNextRecordTick(tick);
+        }
+        input.setDirections((directions & ReplayFormat.UP) != 0, (directions & ReplayFormat.DOWN) != 0,
+                (directions & ReplayFormat.LEFT) != 0, (directions & ReplayFormat.RIGHT) != 0);
+        tick++;
+        return true;
+    }
+
+    /**
+     * Place la lecture sur un pas donné, en partant de l'entrée de l'index la plus proche avant ce pas.
+     * Seules les commandes sont repositionnées : l'état du monde à ce pas doit être obtenu par ailleurs.
+     * @param targetTick Pas à atteindre (borné au nombre de pas de la partie)
+     */
+    public void seek(long targetTick) {
+        targetTick = Math.max(0, Math.min(targetTick, tickCount));
+        int entry = -1;
+        for (int i = 0; i < indexTicks.length && indexTicks[i] <= targetTick; i++) {
+            entry = i;
+        }
+        tick = entry >= 0 ? indexTicks[entry] : 0;
+        directions = 0;
+        if (entry >= 0) {
+            data.position(indexOffsets[entry]);
+            nextRecordTick = tick; // Chaque entrée de l'index pointe sur un enregistrement de son pas
+        } else {
+            data.position(ReplayFormat.HEADER_SIZE);
+            readNextRecordTick(0);
+        }
+
+        PlayerInput skipped = new PlayerInput();
+        while (tick < targetTick) {
+            next(skipped);
+        }
+    }
+
+    /**
+     * Lit l'écart du prochain enregistrement, ou marque la fin des enregistrements.
+     * @param base Pas de l'enregistrement précédent
+     */
+    private void readNextRecordTick(long base) {
+        nextRecordTick = data.position() < recordsEnd ? base + readVarLong() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Lit un entier positif codé sur 7 bits par octet.
+     * @return La valeur lue
+     */
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Décode un entier signé écrit en zigzag.
+     * @param value Valeur codée
+     * @return La valeur signée
+     */
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Getter pour la graine du monde enregistré.
+     * @return La graine
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter pour la fréquence de simulation du monde enregistré.
+     * @return Le nombre de pas par seconde
+     */
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * Getter pour la largeur de l'arène.
+     * @return La largeur de l'arène
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter pour la hauteur de l'arène.
+     * @return La hauteur de l'arène
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Getter pour le mode de jeu de la partie.
+     * @return Le mode de jeu
+     */
+    public GameMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Getter pour le nombre de pas de la partie.
+     * @return Le nombre de pas enregistrés
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Getter pour le score annoncé de la partie.
+     * @return Le nombre de kills enregistré en fin de partie
+     */
+    public int getKillCount() {
+        return killCount;
+    }
+
+    /**
+     * Getter pour le prochain pas à lire.
+     * @return Le pas courant de la lecture
+     */
+    public long getTick() {
+        return tick;
+    }
+}
@@ -0,0 +1,69 @@
+package com.testgame.testgame.replay;
+
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Outil en ligne de commande qui rejoue des replays sans affichage, aussi vite que possible,
+ * et vérifie que le score obtenu est celui enregistré en fin de partie.
+ * Utilisation : java -cp InfiniteCubeFrenzy.jar com.testgame.testgame.replay.ReplayVerifier fichier.icfr...
+ * Le code de sortie vaut 1 si un replay est illisible ou incohérent, ou si un score ne correspond pas.
+ */
+public final class ReplayVerifier {
+
+    private ReplayVerifier() {
+    }
+
+    /**
+     * Rejoue une partie enregistrée jusqu'à son dernier pas, ou jusqu'à la fin de la partie si elle arrive avant.
+     * @param reader Replay à rejouer, lu depuis sa position courante
+     * @return Le monde dans son état final
+     */
+    public static World replay(ReplayReader reader) {
+        World world = new World(reader.getWidth(), reader.getHeight(), reader.getSeed(), reader.getTickRate(),
+                GameRules.forMode(reader.getMode()));
+        PlayerInput input = new PlayerInput();
+        while (!world.isGameOver() && reader.next(input)) {
+            world.step(input);
+        }
+        return world;
+    }
+
+    /**
+     * Point d'entrée de l'outil de vérification.
+     * @param args Chemins des replays à vérifier
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage : ReplayVerifier fichier" + ReplayFormat.FILE_EXTENSION + "...");
+            System.exit(2);
+        }
+        boolean allValid = true;
+        for (String arg : args) {
+            try {
+                ReplayReader reader = new ReplayReader(Path.of(arg));
+                long start = System.nanoTime();
+                World world = replay(reader);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                double gameSeconds = (double) reader.getTickCount() / reader.getTickRate();
+                boolean valid = world.getKillCount() == reader.getKillCount();
+                allValid &= valid;
+                System.out.printf("%s : %d pas, %d kills (annoncés : %d) %s, %.0f fois le temps réel%n",
+                        arg, world.getTick(), world.getKillCount(), reader.getKillCount(),
+                        valid ? "OK" : "ÉCART", gameSeconds / Math.max(seconds, 1e-9));
+            } catch (IOException e) {
+                allValid = false;
+                System.out.println(arg + " : " + e.getMessage());
+            } catch (RuntimeException e) {
+                // Replay lisible mais incohérent (enregistrements tronqués, dimensions invalides…) : rejeté, les suivants sont vérifiés
+                allValid = false;
+                System.out.println(arg + " : replay rejeté (" + e + ")");
+            }
+        }
+        System.exit(allValid ? 0 : 1);
+    }
+}
@@ -0,0 +1,218 @@
+package com.testgame.testgame.replay;
+
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.PlayerInput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Classe ReplayWriter qui enregistre les commandes du joueur pendant une partie, au format {@link ReplayFormat}.
+ * Le replay est construit en mémoire (quelques octets par changement de commande) et écrit sur disque en fin de partie,
+ * pour que l'enregistrement ne fasse aucune entrée/sortie pendant le jeu.
+ */
+public class ReplayWriter {
+    private byte[] buffer = new byte[4096]; // Contenu du replay
+    private int size = 0; // Nombre d'octets écrits
+    private long[] indexTicks = new long[16]; // Pas de chaque entrée de l'index
+    private int[] indexOffsets = new int[16]; // Position de l'enregistrement de chaque entrée de l'index
+    private int indexCount = 0; // Nombre d'entrées de l'index
+
+    private long tick = 0; // Nombre de pas enregistrés
+    private long lastRecordTick = 0; // Pas du dernier enregistrement
+    private int lastDirections = 0; // Directions du dernier enregistrement
+    private long lastShotX = 0, lastShotY = 0; // Cible du dernier tir, en 1/16 de pixel
+    private boolean finished = false; // Indique si la fin de fichier a été écrite
+
+    /**
+     * Constructeur de la classe ReplayWriter, qui écrit l'en-tête du replay.
+     * @param seed Graine du monde enregistré
+     * @param tickRate Fréquence de simulation du monde
+     * @param width Largeur de l'arène
+     * @param height Hauteur de l'arène
+     * @param mode Mode de jeu de la partie
+     */
+    public ReplayWriter(long seed, int tickRate, double width, double height, GameMode mode) {
+        reset(seed, tickRate, width, height, mode);
+    }
+
+    /**
+     * Recommence un replay vide pour une nouvelle partie, en gardant le tampon déjà alloué, et écrit son en-tête.
+     * @param seed Graine du monde enregistré
+     * @param tickRate Fréquence de simulation du monde
+     * @param width Largeur de l'arène
+     * @param height Hauteur de l'arène
+     * @param mode Mode de jeu de la partie
+     */
+    public void reset(long seed, int tickRate, double width, double height, GameMode mode) {
+        size = 0;
+        indexCount = 0;
+        tick = 0;
+        lastRecordTick = 0;
+        lastDirections = 0;
+        lastShotX = 0;
+        lastShotY = 0;
+        finished = false;
+        ByteBuffer header = ByteBuffer.allocate(ReplayFormat.HEADER_SIZE);
+        header.putInt(ReplayFormat.MAGIC).put(ReplayFormat.VERSION).putLong(seed).putInt(tickRate)
+                .putDouble(width).putDouble(height).put((byte) mode.ordinal());
+        writeBytes(header.array());
+    }
+
+    /**
+     * Enregistre les commandes d'un pas. À appeler une fois par pas, juste avant World.step, avec les mêmes commandes.
+     * @param input Commandes du joueur pour ce pas
+     */
+    public void record(PlayerInput input) {
+        if (finished) {
+            throw new IllegalStateException("Replay déjà terminé");
+        }
+        int directions = (input.isUp() ? ReplayFormat.UP : 0) | (input.isDown() ? ReplayFormat.DOWN : 0)
+                | (input.isLeft() ? ReplayFormat.LEFT : 0) | (input.isRight() ? ReplayFormat.RIGHT : 0);
+        int shotCount = input.getShotCount();
+
+        boolean indexed = tick % ReplayFormat.INDEX_INTERVAL == 0;
+        if (!indexed && directions == lastDirections && shotCount == 0) {
+            tick++;
+            return; // Rien n'a changé : le pas n'est pas écrit
+        }
+
+        writeVarLong(tick - lastRecordTick);
+        if (indexed) {
+            addIndexEntry();
+        }
+        ensureCapacity(1);
+        buffer[size++] = (byte) (directions | Math.min(shotCount, ReplayFormat.MAX_INLINE_SHOTS) << 4);
+        if (shotCount >= ReplayFormat.MAX_INLINE_SHOTS) {
+            writeVarLong(shotCount - ReplayFormat.MAX_INLINE_SHOTS);
+        }
+        for (int i = 0; i < shotCount; i++) {
+            long x = Math.round(input.getShotX(i) * PlayerInput.SHOT_PRECISION);
+            long y = Math.round(input.getShotY(i) * PlayerInput.SHOT_PRECISION);
+            ensureCapacity(1);
+            buffer[size++] = (byte) input.getShotType(i);
+            writeVarLong(zigZag(x - lastShotX));
+            writeVarLong(zigZag(y - lastShotY));
+            lastShotX = x;
+            lastShotY = y;
+        }
+        lastRecordTick = tick;
+        lastDirections = directions;
+        tick++;
+    }
+
+    /**
+     * Termine le replay en écrivant l'index et la fin de fichier.
+     * @param killCount Score annoncé de la partie, comparé au score obtenu lors de la vérification
+     */
+    public void finish(int killCount) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        int indexOffset = size;
+        long previousTick = 0;
+        int previousOffset = 0;
+        for (int i = 0; i < indexCount; i++) {
+            writeVarLong(indexTicks[i] - previousTick);
+            writeVarLong(indexOffsets[i] - previousOffset);
+            previousTick = indexTicks[i];
+            previousOffset = indexOffsets[i];
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(ReplayFormat.TRAILER_SIZE);
+        trailer.putLong(indexOffset).putInt(indexCount).putLong(tick).putInt(killCount).putInt(ReplayFormat.MAGIC);
+        writeBytes(trailer.array());
+    }
+
+    /**
+     * Écrit le replay terminé dans un fichier.
+     * @param path Chemin du fichier ; les dossiers manquants sont créés
+     * @throws IOException Si le fichier ne peut pas être écrit
+     */
+    public void save(Path path) throws IOException {
+        if (!finished) {
+            throw new IllegalStateException("Replay non terminé");
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, Arrays.copyOf(buffer, size));
+    }
+
+    /**
+     * Getter pour le nombre de pas enregistrés.
+     * @return Le nombre de pas enregistrés
+     */
+    public long getTickCount() {
+        return tick;
+    }
+
+    /**
+     * Getter pour la taille du replay.
+     * @return Le nombre d'octets écrits jusqu'ici
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Ajoute une entrée de l'index au pas courant, pointant sur l'octet des directions de l'enregistrement en cours.
+     * Les cibles des tirs de cet enregistrement sont écrites par rapport à zéro.
+     */
+    private void addIndexEntry() {
+        if (indexCount == indexTicks.length) {
+            indexTicks = Arrays.copyOf(indexTicks, indexCount * 2);
+            indexOffsets = Arrays.copyOf(indexOffsets, indexCount * 2);
+        }
+        indexTicks[indexCount] = tick;
+        indexOffsets[indexCount] = size;
+        indexCount++;
+        lastShotX = 0;
+        lastShotY = 0;
+    }
+
+    /**
+     * Encode un entier signé pour que les petites valeurs négatives restent courtes en varint.
+     * @param value Valeur signée
+     * @return Valeur positive équivalente
+     */
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Écrit un entier positif sur 7 bits par octet, le bit de poids fort indiquant qu'un octet suit.
+     * @param value Valeur à écrire
+     */
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Ajoute des octets à la fin du replay.
+     * @param bytes Octets à ajouter
+     */
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Agrandit le tampon pour qu'il puisse recevoir des octets supplémentaires.
+     * @param extra Nombre d'octets à ajouter
+     */
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
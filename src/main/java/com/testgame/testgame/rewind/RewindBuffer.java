@@ -0,0 +1,333 @@
+package com.testgame.testgame.rewind;
+
+import com.testgame.testgame.world.World;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Classe RewindBuffer : historique des derniers pas d'une partie, dans un budget de mémoire fixe,
+ * pour revenir en arrière ou se placer rapidement à un pas récent.
+ * <p>
+ * Après chaque pas, l'état complet du monde (voir {@link World#saveState}) est écrit puis rangé dans un tampon circulaire
+ * alloué une fois pour toutes : une image clé garde l'état tel quel, les autres pas ne gardent que l'écart avec le pas
+ * précédent ({@link StateDelta}). Un pas devient une image clé au plus {@link #KEYFRAME_INTERVAL} pas après la précédente,
+ * ou plus tôt si les écarts écrits depuis celle-ci dépasseraient la moitié d'un état complet : quand de nombreuses entités
+ * bougent à chaque pas, chaque écart est presque aussi gros que l'état et chaque pas devient une image clé.
+ * Quand le tampon est plein, ou que la durée demandée est couverte, les pas les plus anciens sont oubliés,
+ * une image clé et ses écarts à la fois.
+ * <p>
+ * Rétablir un pas recopie l'image clé qui le précède puis décode les écarts suivants, qui font moins d'un demi-état :
+ * le coût reste proportionnel à la taille de l'état, quelle que soit la durée de la partie. Tant qu'aucun nouveau pas n'est enregistré, l'historique reste intact
+ * et d'autres pas peuvent être rétablis ; le pas enregistré ensuite efface les pas qui suivaient celui rétabli.
+ * Les tampons de travail, de la taille d'un état, ne comptent pas dans le budget.
+ */
+public final class RewindBuffer {
+    public static final int KEYFRAME_INTERVAL = 30; // Nombre maximal de pas entre deux images clés
+
+    private final byte[] store; // Tampon circulaire des pas enregistrés
+    private final int capacity; // Nombre maximal de pas enregistrés
+    private final int[] offsets; // Position de chaque pas dans le tampon, indexée par pas modulo capacity
+    private final int[] lengths; // Taille compacte de chaque pas
+    private final int[] stateSizes; // Taille de l'état complet de chaque pas
+    private final boolean[] keyframes; // Indique si le pas est une image clé
+    private long oldestTick = 0; // Plus ancien pas enregistré
+    private long newestTick = -1; // Plus récent pas enregistré (oldestTick - 1 si l'historique est vide)
+    private long keyframeTick = 0; // Image clé dont dépend le plus récent pas
+    private long deltaBytes = 0; // Taille des écarts enregistrés après cette image clé
+    private int writePosition = 0; // Position du prochain pas dans le tampon
+    private long usedBytes = 0; // Taille totale des pas enregistrés
+
+    private byte[] previous = new byte[0]; // Dernier état enregistré ou rétabli, référence du prochain écart
+    private ByteBuffer previousView = ByteBuffer.wrap(previous);
+    private int previousSize = 0; // Taille de cet état
+    private long previousTick = -1; // Pas de cet état (-1 : aucun)
+    private byte[] current = new byte[0]; // État en cours d'écriture ou de décodage
+    private ByteBuffer currentView = ByteBuffer.wrap(current);
+    private byte[] encoded = new byte[0]; // Pas en cours de compression
+
+    /**
+     * Constructeur de la classe RewindBuffer.
+     * @param seconds Durée à couvrir
+     * @param tickRate Nombre de pas de simulation par seconde
+     * @param budgetBytes Taille du tampon circulaire, en octets : si elle ne suffit pas, la durée couverte est plus courte
+     */
+    public RewindBuffer(double seconds, int tickRate, int budgetBytes) {
+        this.capacity = (int) Math.ceil(seconds * tickRate) + 1;
+        this.store = new byte[budgetBytes];
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        this.stateSizes = new int[capacity];
+        this.keyframes = new boolean[capacity];
+    }
+
+    /**
+     * Enregistre l'état du monde après un pas. Un pas déjà enregistré (partie terminée, qui n'avance plus) est ignoré ;
+     * un pas qui ne suit ni le dernier pas enregistré ni le dernier pas rétabli recommence l'historique.
+     * @param world Monde à enregistrer
+     * @return false si l'état compact dépasse à lui seul le budget : l'historique est alors vide
+     */
+    public boolean record(World world) {
+        long tick = world.getTick();
+        if (tick == previousTick) {
+            return true;
+        }
+        if (previousTick >= 0 && tick == previousTick + 1 && previousTick >= oldestTick && previousTick <= newestTick) {
+            truncateAfter(previousTick);
+        } else {
+            clear();
+        }
+
+        int size = world.stateSize();
+        ensureCapacity(size);
+        currentView.clear();
+        world.saveState(currentView);
+        boolean keyframe = isEmpty() || tick - keyframeTick >= KEYFRAME_INTERVAL;
+        int length = size;
+        if (!keyframe) {
+            length = StateDelta.encode(previousView, previousSize, currentView, size, encoded);
+            if (deltaBytes + length > size / 2) {
+                // Rétablir ce pas décoderait plus d'un demi-état d'écarts : il devient une image clé
+                keyframe = true;
+                length = size;
+            }
+        }
+        int position = makeRoom(length);
+        if (!keyframe && isEmpty()) {
+            // La place libérée a emporté l'image clé de ce pas : il devient lui-même une image clé
+            keyframe = true;
+            length = size;
+            position = makeRoom(length);
+        }
+        if (position < 0) {
+            clear();
+            return false;
+        }
+
+        System.arraycopy(keyframe ? current : encoded, 0, store, position, length);
+        int index = indexOf(tick);
+        offsets[index] = position;
+        lengths[index] = length;
+        stateSizes[index] = size;
+        keyframes[index] = keyframe;
+        if (isEmpty()) {
+            oldestTick = tick;
+        }
+        newestTick = tick;
+        if (keyframe) {
+            keyframeTick = tick;
+            deltaBytes = 0;
+        } else {
+            deltaBytes += length;
+        }
+        writePosition = position + length;
+        usedBytes += length;
+        swapStates(size, tick);
+        return true;
+    }
+
+    /**
+     * Rétablit le monde tel qu'il était après un pas enregistré.
+     * @param world Monde à rétablir (celui qui a été enregistré, ou un monde de mêmes dimensions, fréquence et mode)
+     * @param tick Pas à rétablir
+     * @return false si le pas n'est pas dans l'historique
+     */
+    public boolean restore(World world, long tick) {
+        if (tick < oldestTick || tick > newestTick) {
+            return false;
+        }
+        long key = tick;
+        while (!keyframes[indexOf(key)]) {
+            key--;
+        }
+        int keyIndex = indexOf(key);
+        int size = stateSizes[keyIndex];
+        ensureCapacity(size);
+        System.arraycopy(store, offsets[keyIndex], current, 0, size);
+        for (long t = key + 1; t <= tick; t++) {
+            int index = indexOf(t);
+            ensureCapacity(stateSizes[index]);
+            currentView.clear(); // Limite laissée par une restauration précédente
+            StateDelta.decode(store, offsets[index], lengths[index], currentView, size, stateSizes[index]);
+            size = stateSizes[index];
+        }
+        currentView.clear();
+        currentView.limit(size);
+        world.restoreState(currentView);
+        swapStates(size, tick);
+        return true;
+    }
+
+    /**
+     * Oublie tous les pas enregistrés.
+     */
+    public void clear() {
+        oldestTick = 0;
+        newestTick = -1;
+        writePosition = 0;
+        usedBytes = 0;
+    }
+
+    /**
+     * Indique si l'historique est vide.
+     * @return true si aucun pas n'est enregistré
+     */
+    public boolean isEmpty() {
+        return newestTick < oldestTick;
+    }
+
+    /**
+     * Getter pour le plus ancien pas enregistré.
+     * @return Le plus ancien pas qui peut être rétabli
+     */
+    public long getOldestTick() {
+        return oldestTick;
+    }
+
+    /**
+     * Getter pour le plus récent pas enregistré.
+     * @return Le plus récent pas qui peut être rétabli (inférieur à getOldestTick si l'historique est vide)
+     */
+    public long getNewestTick() {
+        return newestTick;
+    }
+
+    /**
+     * Getter pour le nombre maximal de pas enregistrés.
+     * @return Le nombre de pas de la durée demandée, plus un
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Getter pour la mémoire occupée par les pas enregistrés.
+     * @return Le nombre d'octets utilisés dans le tampon circulaire
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Getter pour le budget de mémoire.
+     * @return La taille du tampon circulaire, en octets
+     */
+    public int getBudgetBytes() {
+        return store.length;
+    }
+
+    /**
+     * Oublie les pas qui suivent un pas donné, pour enregistrer une autre suite à partir de ce pas.
+     * @param tick Dernier pas conservé
+     */
+    private void truncateAfter(long tick) {
+        while (newestTick > tick) {
+            usedBytes -= lengths[indexOf(newestTick)];
+            newestTick--;
+        }
+        int index = indexOf(tick);
+        writePosition = offsets[index] + lengths[index];
+        keyframeTick = tick;
+        deltaBytes = 0;
+        while (!keyframes[indexOf(keyframeTick)]) {
+            deltaBytes += lengths[indexOf(keyframeTick)];
+            keyframeTick--;
+        }
+    }
+
+    /**
+     * Oublie les pas les plus anciens jusqu'à ce qu'un pas compact de la taille donnée tienne dans le tampon
+     * et que la durée couverte reste dans la limite. Les pas écrits après une image clé ne servent à rien sans elle :
+     * ils sont oubliés avec elle.
+     * @param length Taille du pas à ranger
+     * @return La position où ranger le pas, ou -1 s'il est plus grand que le tampon
+     */
+    private int makeRoom(int length) {
+        if (length > store.length) {
+            return -1;
+        }
+        int position = writePosition;
+        if (position + length > store.length) {
+            // Pas assez de place avant la fin : les pas restés en fin de tampon sont les plus anciens
+            while (!isEmpty() && offsets[indexOf(oldestTick)] >= position) {
+                evictOldest();
+            }
+            position = 0;
+        }
+        while (!isEmpty() && (newestTick - oldestTick + 1 >= capacity || overlaps(oldestTick, position, length))) {
+            evictOldest();
+        }
+        while (!isEmpty() && !keyframes[indexOf(oldestTick)]) {
+            evictOldest();
+        }
+        if (isEmpty()) {
+            position = 0; // Tout le tampon est libre
+        }
+        return position;
+    }
+
+    /**
+     * Vérifie si un pas enregistré occupe une partie d'une zone du tampon.
+     * @param tick Pas enregistré
+     * @param position Début de la zone
+     * @param length Taille de la zone
+     * @return true si le pas et la zone se chevauchent
+     */
+    private boolean overlaps(long tick, int position, int length) {
+        int index = indexOf(tick);
+        return offsets[index] < position + length && position < offsets[index] + lengths[index];
+    }
+
+    /**
+     * Oublie le plus ancien pas enregistré.
+     */
+    private void evictOldest() {
+        usedBytes -= lengths[indexOf(oldestTick)];
+        oldestTick++;
+    }
+
+    /**
+     * Calcule l'indice d'un pas dans les tableaux de description des pas.
+     * @param tick Pas
+     * @return L'indice du pas
+     */
+    private int indexOf(long tick) {
+        return (int) Math.floorMod(tick, (long) capacity);
+    }
+
+    /**
+     * Agrandit les tampons de travail pour un état de la taille donnée.
+     * @param size Taille de l'état, en octets
+     */
+    private void ensureCapacity(int size) {
+        if (current.length < size) {
+            int length = Math.max(size, current.length * 2);
+            byte[] grown = new byte[length];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+            currentView = ByteBuffer.wrap(current);
+            grown = new byte[length];
+            System.arraycopy(previous, 0, grown, 0, previous.length);
+            previous = grown;
+            previousView = ByteBuffer.wrap(previous);
+        }
+        if (encoded.length < StateDelta.maxEncodedSize(size)) {
+            encoded = new byte[StateDelta.maxEncodedSize(Math.max(size, current.length))];
+        }
+    }
+
+    /**
+     * Fait de l'état en cours la référence du prochain écart.
+     * @param size Taille de l'état en cours
+     * @param tick Pas de l'état en cours
+     */
+    private void swapStates(int size, long tick) {
+        byte[] swap = previous;
+        previous = current;
+        current = swap;
+        ByteBuffer swapView = previousView;
+        previousView = currentView;
+        currentView = swapView;
+        previousSize = size;
+        previousTick = tick;
+    }
+}
@@ -0,0 +1,108 @@
+package com.testgame.testgame.rewind;
+
+import com.testgame.testgame.CommandLineOptions;
+import com.testgame.testgame.balance.BotPlayer;
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Outil en ligne de commande qui mesure le coût de l'historique : il joue une partie à graine fixe, avec une foule
+ * de {@link #CROWD_ENEMIES} ennemis ajoutée au départ, en l'enregistrant dans un {@link RewindBuffer}, puis affiche
+ * la mémoire utilisée, la durée couverte et le temps de restauration d'un pas pris au hasard dans l'historique.
+ * <p>
+ * L'outil se termine en erreur si le p99 des restaurations dépasse {@link #MAX_RESTORE_MILLIS}. Les restaurations
+ * sont mesurées en plusieurs séries et seule la meilleure est retenue, pour écarter les pauses qui ne viennent pas
+ * du code mesuré (autres processus, compilation à la volée sur une machine à un cœur). L'exactitude de l'historique
+ * (état rétabli complet, partie rejouée à l'identique, budget respecté) est vérifiée par les tests de RewindBufferTest.
+ * <p>
+ * Utilisation : java -cp target/classes com.testgame.testgame.rewind.RewindCheck --mode=horde --walls=true --play=30 --seconds=5 --budget=192
+ */
+public final class RewindCheck {
+    public static final double MAX_RESTORE_MILLIS = 1; // p99 toléré du temps de restauration
+    public static final int CROWD_ENEMIES = 10_000; // Ennemis ajoutés au début de la partie : chaque pas change presque tout l'état
+    private static final int RESTORES = 1000; // Nombre de restaurations mesurées par série
+    private static final int RESTORE_ROUNDS = 5; // Nombre de séries mesurées, dont seule la meilleure est retenue
+    private static final int WARMUP_RESTORES = 5000; // Restaurations non mesurées, le temps que la JVM compile le code
+    private static final int SHOT_INTERVAL = 12; // Pas entre deux tirs du bot
+
+    private RewindCheck() {
+    }
+
+    /**
+     * Point d'entrée de l'outil.
+     * @param args Options au format --nom=valeur : mode, walls (murs dans l'arène), seed, play (durée de la partie en secondes),
+     *             seconds (durée couverte par l'historique), budget (taille de l'historique en mégaoctets)
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = CommandLineOptions.parse(args);
+        GameRules rules = GameRules.forMode(GameMode.valueOf(options.getOrDefault("mode", "horde").toUpperCase()));
+        rules.setObstacles(Boolean.parseBoolean(options.getOrDefault("walls", "true")));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        double play = Double.parseDouble(options.getOrDefault("play", "30"));
+        double seconds = Double.parseDouble(options.getOrDefault("seconds", "5"));
+        int budget = (int) (Double.parseDouble(options.getOrDefault("budget", "192")) * 1024 * 1024);
+        long ticks = (long) (play * World.REFERENCE_TICK_RATE);
+        int tickRate = World.REFERENCE_TICK_RATE;
+
+        RewindBuffer buffer = new RewindBuffer(seconds, tickRate, budget);
+        World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, seed, tickRate, rules);
+        world.setSteeringPool(null);
+        world.spawnEnemies(CROWD_ENEMIES);
+        PlayerInput input = new PlayerInput();
+        long recordNanos = 0;
+        while (world.getTick() < ticks && !world.isGameOver()) {
+            long tick = world.getTick();
+            input.clearShots();
+            new BotPlayer(new SplittableRandom(seed * 31 + tick)).decide(world, input);
+            if (tick % SHOT_INTERVAL != 0) {
+                input.clearShots();
+            }
+            world.step(input);
+            long start = System.nanoTime();
+            buffer.record(world);
+            recordNanos += System.nanoTime() - start;
+        }
+        long lastTick = world.getTick();
+        int enemies = world.getEntities().getEnemies().size();
+        int stateSize = world.stateSize();
+
+        // Restaurations à des pas tirés au hasard (une première série pour la compilation à la volée)
+        SplittableRandom random = new SplittableRandom(seed);
+        long span = buffer.getNewestTick() - buffer.getOldestTick() + 1;
+        for (int i = 0; i < WARMUP_RESTORES; i++) {
+            buffer.restore(world, buffer.getOldestTick() + random.nextLong(span));
+        }
+        long[] restoreNanos = null; // Durées triées de la meilleure série
+        long[] round = new long[RESTORES];
+        for (int r = 0; r < RESTORE_ROUNDS; r++) {
+            for (int i = 0; i < RESTORES; i++) {
+                long tick = buffer.getOldestTick() + random.nextLong(span);
+                long start = System.nanoTime();
+                buffer.restore(world, tick);
+                round[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(round);
+            if (restoreNanos == null || round[RESTORES * 99 / 100] < restoreNanos[RESTORES * 99 / 100]) {
+                restoreNanos = round.clone();
+            }
+        }
+
+        double p99 = restoreNanos[RESTORES * 99 / 100] / 1e6;
+        System.out.printf("Partie de %d pas, %d ennemis à la fin, état complet de %d octets%n", lastTick, enemies, stateSize);
+        System.out.printf("Historique : pas %d à %d (%.1f s sur %.1f s), %d octets utilisés sur %d, %.0f octets par pas, enregistrement %.3f ms par pas%n",
+                buffer.getOldestTick(), buffer.getNewestTick(), (double) span / tickRate, (double) (buffer.getCapacity() - 1) / tickRate,
+                buffer.getUsedBytes(), buffer.getBudgetBytes(), (double) buffer.getUsedBytes() / span, recordNanos / 1e6 / lastTick);
+        System.out.printf("Restauration (meilleure série) : médiane %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                restoreNanos[RESTORES / 2] / 1e6, p99, restoreNanos[RESTORES - 1] / 1e6);
+        if (p99 > MAX_RESTORE_MILLIS) {
+            System.out.printf("ÉCHEC : p99 des restaurations au-delà de %.1f ms%n", MAX_RESTORE_MILLIS);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.testgame.testgame.rewind;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Classe StateDelta : écart entre deux états du monde écrits par World.saveState, valeur de 8 octets par valeur de 8 octets.
+ * <p>
+ * Chaque valeur de l'état cible est combinée par ou exclusif avec la valeur à la même position dans l'état de référence
+ * (0 au-delà de sa fin). Une suite de valeurs inchangées s'écrit sur un octet, {@code n - 1} avec n entre 1 et 128 ;
+ * une valeur modifiée s'écrit sur un octet {@code 0x80 | zéros de tête << 3 | (octets utiles - 1)}, suivi des octets utiles
+ * du ou exclusif, sans ses octets nuls de tête et de queue. Deux doubles proches ont le même signe, le même exposant
+ * et le début de leur mantisse en commun : leur ou exclusif commence par des octets nuls.
+ */
+final class StateDelta {
+    private static final int MAX_RUN = 128; // Nombre maximal de valeurs inchangées écrites sur un octet
+    private static final int CHANGED = 0x80; // Marque d'une valeur modifiée
+    private static final VarHandle BIG_ENDIAN_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private StateDelta() {
+    }
+
+    /**
+     * Calcule la taille maximale d'un écart.
+     * @param targetSize Taille de l'état cible, en octets
+     * @return Le nombre d'octets dont encode peut avoir besoin
+     */
+    static int maxEncodedSize(int targetSize) {
+        return targetSize / Long.BYTES * (Long.BYTES + 1) + 1;
+    }
+
+    /**
+     * Écrit l'écart entre deux états.
+     * @param base État de référence
+     * @param baseSize Taille de l'état de référence (0 : écart avec un état vide)
+     * @param target État cible
+     * @param targetSize Taille de l'état cible, multiple de 8
+     * @param out Destination, d'au moins maxEncodedSize(targetSize) octets
+     * @return Le nombre d'octets écrits
+     */
+    static int encode(ByteBuffer base, int baseSize, ByteBuffer target, int targetSize, byte[] out) {
+        int position = 0;
+        int run = 0; // Valeurs inchangées pas encore écrites
+        for (int offset = 0; offset < targetSize; offset += Long.BYTES) {
+            long difference = target.getLong(offset) ^ (offset < baseSize ? base.getLong(offset) : 0);
+            if (difference == 0) {
+                if (++run == MAX_RUN) {
+                    out[position++] = (byte) (MAX_RUN - 1);
+                    run = 0;
+                }
+                continue;
+            }
+            if (run > 0) {
+                out[position++] = (byte) (run - 1);
+                run = 0;
+            }
+            int leading = Long.numberOfLeadingZeros(difference) >>> 3;
+            int trailing = Long.numberOfTrailingZeros(difference) >>> 3;
+            int length = Long.BYTES - leading - trailing;
+            out[position++] = (byte) (CHANGED | leading << 3 | (length - 1));
+            for (int k = length - 1; k >= 0; k--) {
+                out[position++] = (byte) (difference >>> (8 * (trailing + k)));
+            }
+        }
+        if (run > 0) {
+            out[position++] = (byte) (run - 1);
+        }
+        return position;
+    }
+
+    /**
+     * Applique un écart à l'état de référence, qui devient l'état cible.
+     * @param in Écart écrit par encode
+     * @param start Position du début de l'écart
+     * @param length Taille de l'écart
+     * @param state État de référence, remplacé par l'état cible ; sa capacité doit couvrir targetSize
+     * @param baseSize Taille de l'état de référence (0 : écart avec un état vide)
+     * @param targetSize Taille de l'état cible
+     */
+    static void decode(byte[] in, int start, int length, ByteBuffer state, int baseSize, int targetSize) {
+        for (int offset = baseSize; offset < targetSize; offset += Long.BYTES) {
+            state.putLong(offset, 0); // Au-delà de l'état de référence, l'écart porte sur des zéros
+        }
+        int position = start;
+        int end = start + length;
+        int offset = 0;
+        while (position < end) {
+            int control = in[position++] & 0xFF;
+            if (control < CHANGED) {
+                offset += (control + 1) * Long.BYTES;
+                continue;
+            }
+            int leading = (control >>> 3) & 7;
+            int significant = (control & 7) + 1;
+            long difference;
+            if (position + Long.BYTES <= in.length) {
+                // Lecture des huit octets d'un coup, puis seuls les octets utiles sont gardés
+                difference = (long) BIG_ENDIAN_LONG.get(in, position) >>> (Long.SIZE - 8 * significant);
+            } else {
+                difference = 0;
+                for (int k = 0; k < significant; k++) {
+                    difference = difference << 8 | (in[position + k] & 0xFF);
+                }
+            }
+            position += significant;
+            difference <<= 8 * (Long.BYTES - leading - significant);
+            state.putLong(offset, state.getLong(offset) ^ difference);
+            offset += Long.BYTES;
+        }
+    }
+}
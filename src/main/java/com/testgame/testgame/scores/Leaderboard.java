@@ -0,0 +1,337 @@
+package com.testgame.testgame.scores;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Classe Leaderboard : tableau des scores persistant.
+ * <p>
+ * Chaque score est ajouté à la fin d'un journal (scores.log) par un thread d'écriture dédié, jamais par le thread appelant.
+ * Un enregistrement fait 16 octets (score, date, somme de contrôle) : après un arrêt brutal, un enregistrement incomplet
+ * ou abîmé en fin de journal est détecté et retiré à l'ouverture.
+ * <p>
+ * En mémoire, le tableau garde les meilleurs scores (pour le menu) et le nombre de parties par score (pour les rangs).
+ * Ce résumé est aussi écrit régulièrement dans scores.idx avec la longueur de journal qu'il couvre :
+ * à l'ouverture, seule la fin du journal écrite après le dernier résumé est relue, quelle que soit la taille du journal.
+ */
+public class Leaderboard implements AutoCloseable {
+    static final int RECORD_SIZE = 16; // Score (4 octets), date (8 octets), somme de contrôle (4 octets)
+    public static final int MAX_SCORE = ScoreCounts.MAX_SCORE; // Plus grand score accepté
+    private static final int INDEX_MAGIC = 0x49434649; // "ICFI"
+    private static final int INDEX_INTERVAL = 4096; // Nombre de scores ajoutés entre deux écritures du résumé
+
+    private final Path logPath; // Journal des scores
+    private final Path indexPath; // Résumé du journal
+    private final int topSize; // Nombre de meilleurs scores conservés
+    private final int[] top; // Meilleurs scores, du plus grand au plus petit
+    private int topCount = 0; // Nombre de meilleurs scores connus
+    private final ScoreCounts counts = new ScoreCounts(); // Nombre de parties par score
+    private long logLength; // Longueur du journal, écritures en attente comprises
+    private long unindexed = 0; // Scores ajoutés depuis la dernière écriture du résumé
+    private final CRC32 crc = new CRC32(); // Somme de contrôle des enregistrements, réutilisée (sous le verrou ou à l'ouverture)
+    private final ByteBuffer checksumFields = ByteBuffer.allocate(12); // Champs couverts par la somme de contrôle
+
+    private final FileChannel log; // Canal d'ajout au journal, utilisé uniquement par le thread d'écriture
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "leaderboard-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Ouvre (ou crée) un tableau des scores dans un dossier.
+     * @param directory Dossier contenant scores.log et scores.idx
+     * @param topSize Nombre de meilleurs scores conservés pour le menu
+     * @throws IOException Si le journal ne peut pas être ouvert
+     */
+    public Leaderboard(Path directory, int topSize) throws IOException {
+        this.logPath = directory.resolve("scores.log");
+        this.indexPath = directory.resolve("scores.idx");
+        this.topSize = topSize;
+        this.top = new int[topSize];
+        Files.createDirectories(directory);
+        this.log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long covered = readIndex();
+        long length = log.size();
+        if (covered > length) {
+            // Résumé plus récent que le journal (journal remplacé ou tronqué) : tout est relu
+            clearSummary();
+            covered = 0;
+        }
+        logLength = replayLog(covered, length);
+        if (logLength < length) {
+            log.truncate(logLength); // Retire un enregistrement incomplet laissé par un arrêt brutal
+        }
+        log.position(logLength);
+    }
+
+    /**
+     * Ajoute un score. Le résumé en mémoire est mis à jour immédiatement, l'écriture sur disque est faite en arrière-plan.
+     * @param score Score de la partie (nombre de kills)
+     */
+    public void submit(int score) {
+        submitAll(new int[]{score});
+    }
+
+    /**
+     * Ajoute un lot de scores en une seule écriture, par exemple à la fin d'une série de parties automatiques.
+     * @param scores Scores des parties
+     * @throws IllegalArgumentException si un score est négatif ou supérieur à MAX_SCORE ; aucun score du lot n'est alors ajouté
+     */
+    public synchronized void submitAll(int[] scores) {
+        if (scores.length == 0) {
+            return;
+        }
+        for (int score : scores) {
+            if (score < 0 || score > MAX_SCORE) {
+                throw new IllegalArgumentException("Score hors bornes (0 à " + MAX_SCORE + ") : " + score);
+            }
+        }
+        long now = System.currentTimeMillis();
+        ByteBuffer records = ByteBuffer.allocate(scores.length * RECORD_SIZE);
+        for (int score : scores) {
+            putRecord(records, score, now);
+            record(score);
+        }
+        records.flip();
+        logLength += records.remaining();
+        unindexed += scores.length;
+        writer.execute(() -> append(records));
+        if (unindexed >= INDEX_INTERVAL) {
+            unindexed = 0;
+            byte[] summary = encodeSummary();
+            writer.execute(() -> writeIndex(summary));
+        }
+    }
+
+    /**
+     * Getter pour les meilleurs scores.
+     * @return Les meilleurs scores, du plus grand au plus petit (au plus topSize valeurs)
+     */
+    public synchronized int[] getTop() {
+        return Arrays.copyOf(top, topCount);
+    }
+
+    /**
+     * Calcule le rang qu'aurait un score dans le tableau : 1 pour le meilleur, les ex aequo partageant le même rang.
+     * @param score Score à classer
+     * @return Le rang du score
+     */
+    public synchronized long rankOf(int score) {
+        return counts.countAbove(score) + 1;
+    }
+
+    /**
+     * Getter pour le nombre de scores enregistrés.
+     * @return Le nombre de parties dans le tableau
+     */
+    public synchronized long size() {
+        return counts.total();
+    }
+
+    /**
+     * Termine les écritures en attente, écrit le résumé et ferme le journal.
+     */
+    @Override
+    public void close() {
+        byte[] summary;
+        synchronized (this) {
+            summary = encodeSummary();
+        }
+        writer.execute(() -> writeIndex(summary));
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("Écriture du tableau des scores interrompue");
+            }
+            log.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Impossible de fermer le tableau des scores : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ajoute un score au résumé en mémoire.
+     * @param score Score à ajouter
+     */
+    private void record(int score) {
+        counts.add(score, 1);
+        if (topCount == topSize && (topSize == 0 || score <= top[topCount - 1])) {
+            return; // Ne fait pas partie des meilleurs scores
+        }
+        int i = Math.min(topCount, topSize - 1);
+        while (i > 0 && top[i - 1] < score) {
+            top[i] = top[i - 1];
+            i--;
+        }
+        top[i] = score;
+        topCount = Math.min(topCount + 1, topSize);
+    }
+
+    /**
+     * Relit la fin du journal et l'ajoute au résumé. S'arrête au premier enregistrement incomplet ou abîmé.
+     * @param from Position de départ (longueur couverte par le résumé)
+     * @param length Longueur actuelle du journal
+     * @return La longueur des enregistrements valides
+     * @throws IOException Si le journal ne peut pas être lu
+     */
+    private long replayLog(long from, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        long position = from;
+        while (position + RECORD_SIZE <= length) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (length - position) / RECORD_SIZE * RECORD_SIZE));
+            while (buffer.hasRemaining() && log.read(buffer, position + buffer.position()) >= 0) {
+                // Lit jusqu'à remplir le tampon
+            }
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_SIZE) {
+                int score = buffer.getInt();
+                long date = buffer.getLong();
+                int checksum = buffer.getInt();
+                if (checksum != checksum(score, date) || score < 0 || score > MAX_SCORE) {
+                    return position;
+                }
+                record(score);
+                position += RECORD_SIZE;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Lit le résumé du journal, s'il existe et s'il est valide.
+     * @return La longueur de journal couverte par le résumé chargé, 0 si aucun résumé n'a été chargé
+     */
+    private long readIndex() {
+        if (!Files.exists(indexPath)) {
+            return 0;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            if (buffer.getInt() != INDEX_MAGIC) {
+                return 0;
+            }
+            long covered = buffer.getLong();
+            int entries = buffer.getInt();
+            for (int i = 0; i < entries; i++) {
+                int score = buffer.getInt();
+                long count = buffer.getLong();
+                counts.add(score, count);
+            }
+            int storedTop = buffer.getInt();
+            for (int i = 0; i < storedTop; i++) {
+                int score = buffer.getInt();
+                if (topCount < topSize) {
+                    top[topCount++] = score;
+                }
+            }
+            return covered;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Résumé du tableau des scores illisible, reconstruction depuis le journal : " + e.getMessage());
+            clearSummary();
+            return 0;
+        }
+    }
+
+    /**
+     * Vide le résumé en mémoire, avant de le reconstruire depuis le début du journal.
+     */
+    private void clearSummary() {
+        counts.clear();
+        topCount = 0;
+    }
+
+    /**
+     * Encode le résumé en mémoire : longueur de journal couverte, nombre de parties par score et meilleurs scores.
+     * @return Le contenu du fichier de résumé
+     */
+    private byte[] encodeSummary() {
+        int entries = 0;
+        for (int score = 0; score < counts.capacity(); score++) {
+            if (counts.countOf(score) > 0) {
+                entries++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 4 + entries * 12 + 4 + topCount * 4);
+        buffer.putInt(INDEX_MAGIC).putLong(logLength).putInt(entries);
+        for (int score = 0; score < counts.capacity(); score++) {
+            long count = counts.countOf(score);
+            if (count > 0) {
+                buffer.putInt(score).putLong(count);
+            }
+        }
+        buffer.putInt(topCount);
+        for (int i = 0; i < topCount; i++) {
+            buffer.putInt(top[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Ajoute des enregistrements à la fin du journal et attend qu'ils soient sur le disque (thread d'écriture).
+     * @param records Enregistrements à écrire
+     */
+    private void append(ByteBuffer records) {
+        try {
+            while (records.hasRemaining()) {
+                log.write(records);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            System.err.println("Impossible d'enregistrer le score : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remplace le fichier de résumé par un nouveau, en passant par un fichier temporaire (thread d'écriture).
+     * Un résumé n'est jamais lu à moitié écrit : soit l'ancien, soit le nouveau est présent.
+     * @param summary Contenu du résumé
+     */
+    private void writeIndex(byte[] summary) {
+        Path temporary = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try {
+            Files.write(temporary, summary);
+            Files.move(temporary, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Impossible d'écrire le résumé du tableau des scores : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Écrit un enregistrement du journal.
+     * @param buffer Tampon de destination
+     * @param score Score de la partie
+     * @param date Date de la partie, en millisecondes
+     */
+    private void putRecord(ByteBuffer buffer, int score, long date) {
+        buffer.putInt(score).putLong(date).putInt(checksum(score, date));
+    }
+
+    /**
+     * Calcule la somme de contrôle d'un enregistrement, sans allocation.
+     * @param score Score de la partie
+     * @param date Date de la partie
+     * @return La somme CRC32 des deux champs
+     */
+    private int checksum(int score, long date) {
+        checksumFields.clear();
+        checksumFields.putInt(score).putLong(date);
+        crc.reset();
+        crc.update(checksumFields.array(), 0, checksumFields.position());
+        return (int) crc.getValue();
+    }
+}
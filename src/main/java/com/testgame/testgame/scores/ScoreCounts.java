@@ -0,0 +1,111 @@
+package com.testgame.testgame.scores;
+
+import java.util.Arrays;
+
+/**
+ * Classe ScoreCounts : nombre de parties par score, avec un arbre de Fenwick pour les rangs.
+ * L'ajout d'un score et le nombre de scores supérieurs à une valeur (donc le rang) coûtent O(log S),
+ * S étant le plus grand score rencontré, quel que soit le nombre de parties enregistrées.
+ * Les tableaux sont indexés par score : les scores sont bornés par {@link #MAX_SCORE} pour que leur taille le soit aussi.
+ */
+class ScoreCounts {
+    static final int MAX_SCORE = 1 << 20; // Plus grand score accepté (tableaux de 8 Mo chacun au plus)
+
+    private long[] counts = new long[1024]; // Nombre de parties pour chaque score
+    private long[] tree = new long[1025]; // Arbre de Fenwick sur counts (indices décalés de 1)
+    private long total = 0; // Nombre de scores ajoutés
+    private int limit = 0; // Plus grand score ajouté, plus un
+
+    /**
+     * Ajoute des parties pour un score.
+     * @param score Score, entre 0 et MAX_SCORE
+     * @param count Nombre de parties à ajouter
+     * @throws IllegalArgumentException si le score est hors de ces bornes
+     */
+    void add(int score, long count) {
+        if (score < 0 || score > MAX_SCORE) {
+            throw new IllegalArgumentException("Score hors bornes : " + score);
+        }
+        if (score >= counts.length) {
+            grow(score);
+        }
+        counts[score] += count;
+        for (int i = score + 1; i < tree.length; i += i & -i) {
+            tree[i] += count;
+        }
+        total += count;
+        limit = Math.max(limit, score + 1);
+    }
+
+    /**
+     * Compte les scores strictement supérieurs à une valeur.
+     * @param score Valeur de comparaison
+     * @return Le nombre de parties avec un score plus élevé
+     */
+    long countAbove(int score) {
+        if (score < 0) {
+            return total;
+        }
+        long upTo = 0;
+        for (int i = Math.min(score, counts.length - 1) + 1; i > 0; i -= i & -i) {
+            upTo += tree[i];
+        }
+        return total - upTo;
+    }
+
+    /**
+     * Compte les parties d'un score exact.
+     * @param score Score recherché
+     * @return Le nombre de parties avec ce score
+     */
+    long countOf(int score) {
+        return score >= 0 && score < counts.length ? counts[score] : 0;
+    }
+
+    /**
+     * Getter pour le nombre total de scores.
+     * @return Le nombre de parties enregistrées
+     */
+    long total() {
+        return total;
+    }
+
+    /**
+     * Getter pour la borne des scores enregistrés.
+     * @return Un score strictement supérieur à tous les scores enregistrés
+     */
+    int capacity() {
+        return limit;
+    }
+
+    /**
+     * Retire tous les scores.
+     */
+    void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(tree, 0);
+        total = 0;
+        limit = 0;
+    }
+
+    /**
+     * Agrandit les tableaux pour qu'ils contiennent un score, en reconstruisant l'arbre en O(S).
+     * La taille double, sans dépasser MAX_SCORE + 1.
+     * @param score Score à pouvoir ajouter, au plus MAX_SCORE
+     */
+    private void grow(int score) {
+        int length = counts.length;
+        while (score >= length) {
+            length = Math.min(length * 2, MAX_SCORE + 1); // Pas de dépassement : length reste inférieure à 2^21
+        }
+        counts = Arrays.copyOf(counts, length);
+        tree = new long[length + 1];
+        for (int i = 1; i <= length; i++) {
+            tree[i] += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.testgame.testgame.world;
+
+/**
+ * Classe ChunkLod : niveau de détail de la simulation selon la distance au joueur, par tronçons (chunks) carrés du monde.
+ * <ul>
+ *     <li>tronçons proches (au plus {@link #ACTIVE_CHUNKS} tronçons du joueur) : les ennemis se déplacent à chaque pas ;</li>
+ *     <li>tronçons intermédiaires (au plus {@link #REDUCED_CHUNKS}) : un pas sur {@link #REDUCED_INTERVAL},
+ *     avec un déplacement multiplié d'autant pour garder la même vitesse moyenne ;</li>
+ *     <li>tronçons lointains : les ennemis dorment et ne bougent pas jusqu'à ce que le joueur s'approche.</li>
+ * </ul>
+ * Les ennemis d'un tronçon intermédiaire ne sont pas tous mis à jour au même pas : ils sont répartis selon leur handle,
+ * pour que le coût reste le même d'un pas à l'autre. Dans l'arène par défaut, tout le monde est à portée
+ * du joueur et chaque ennemi est mis à jour à chaque pas.
+ */
+class ChunkLod {
+    static final double CHUNK_SIZE = 512; // Côté d'un tronçon, en pixels
+    static final int ACTIVE_CHUNKS = 1; // Distance en tronçons jusqu'à laquelle la simulation est complète
+    static final int REDUCED_CHUNKS = 4; // Distance en tronçons jusqu'à laquelle la simulation est ralentie
+    static final int REDUCED_INTERVAL = 4; // Nombre de pas entre deux mises à jour dans un tronçon intermédiaire
+
+    private int playerChunkX; // Colonne du tronçon du joueur
+    private int playerChunkY; // Ligne du tronçon du joueur
+
+    /**
+     * Repère le tronçon du joueur, une fois par pas avant de déplacer les ennemis.
+     * @param playerX Coordonnée x du joueur
+     * @param playerY Coordonnée y du joueur
+     */
+    void update(double playerX, double playerY) {
+        playerChunkX = chunkOf(playerX);
+        playerChunkY = chunkOf(playerY);
+    }
+
+    /**
+     * Calcule le nombre de pas entre deux mises à jour d'une entité.
+     * @param x Coordonnée x de l'entité
+     * @param y Coordonnée y de l'entité
+     * @return 1 près du joueur, {@link #REDUCED_INTERVAL} à distance intermédiaire, 0 si l'entité dort
+     */
+    int intervalAt(double x, double y) {
+        int distance = Math.max(Math.abs(chunkOf(x) - playerChunkX), Math.abs(chunkOf(y) - playerChunkY));
+        if (distance <= ACTIVE_CHUNKS) {
+            return 1;
+        }
+        return distance <= REDUCED_CHUNKS ? REDUCED_INTERVAL : 0;
+    }
+
+    /**
+     * Calcule l'indice du tronçon contenant une coordonnée.
+     * @param coordinate Coordonnée x ou y
+     * @return L'indice du tronçon
+     */
+    private static int chunkOf(double coordinate) {
+        return (int) Math.floor(coordinate / CHUNK_SIZE);
+    }
+}
@@ -0,0 +1,109 @@
+package com.testgame.testgame.world;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Classe EnemySteeringPhase : répartit le déplacement des ennemis sur plusieurs cœurs, sans rien allouer à chaque pas.
+ * <p>
+ * Les ennemis sont découpés en morceaux de {@link EnemySteeringTask#CHUNK_SIZE} lignes, dont les tâches sont créées
+ * la première fois qu'un tel nombre de morceaux est nécessaire, puis réutilisées. Le thread appelant confie tous les morceaux
+ * sauf le premier au pool, déplace lui-même le premier, puis s'endort jusqu'à ce que le dernier morceau terminé le réveille.
+ * L'attente passe par un compteur atomique et LockSupport plutôt que par join, qui alloue un nœud d'attente
+ * à chaque fois qu'il doit bloquer.
+ */
+final class EnemySteeringPhase {
+    private final World world; // Monde dont les ennemis sont déplacés
+    private final EnemySteeringTask first; // Premier morceau, déplacé par le thread appelant
+    private EnemySteeringTask[] tasks = new EnemySteeringTask[0]; // Morceaux suivants, confiés au pool
+    private final AtomicInteger remaining = new AtomicInteger(); // Morceaux confiés au pool et pas encore terminés
+    private volatile Thread waiter; // Thread appelant, réveillé par le dernier morceau terminé
+    private volatile Throwable failure; // Première erreur levée par un morceau du pas (ou null)
+
+    /**
+     * Constructeur de la classe EnemySteeringPhase.
+     * @param world Monde dont les ennemis sont déplacés
+     */
+    EnemySteeringPhase(World world) {
+        this.world = world;
+        this.first = new EnemySteeringTask(world, this);
+    }
+
+    /**
+     * Vérifie que le pool a des threads pour exécuter les morceaux. Le pool commun n'en a aucun sur une machine
+     * à un seul cœur : ses tâches n'y sont exécutées que par les threads qui les attendent avec join.
+     * @param pool Pool de threads
+     * @return true si les morceaux confiés au pool seront exécutés sans l'aide du thread appelant
+     */
+    static boolean canUse(ForkJoinPool pool) {
+        return pool != ForkJoinPool.commonPool() || ForkJoinPool.getCommonPoolParallelism() > 1
+                || Runtime.getRuntime().availableProcessors() > 1;
+    }
+
+    /**
+     * Déplace tous les ennemis, répartis sur le thread appelant et les threads du pool, et attend la fin de tous les morceaux.
+     * @param pool Pool de threads
+     * @param count Nombre d'ennemis
+     * @param speed Vitesse du pas
+     */
+    void run(ForkJoinPool pool, int count, double speed) {
+        int others = (count - 1) / EnemySteeringTask.CHUNK_SIZE; // Morceaux après le premier
+        if (tasks.length < others) {
+            int previous = tasks.length;
+            tasks = Arrays.copyOf(tasks, others);
+            for (int i = previous; i < others; i++) {
+                tasks[i] = new EnemySteeringTask(world, this);
+            }
+        }
+        failure = null;
+        waiter = Thread.currentThread();
+        remaining.set(others);
+        for (int i = 0; i < others; i++) {
+            int from = (i + 1) * EnemySteeringTask.CHUNK_SIZE;
+            tasks[i].prepare(from, Math.min(count, from + EnemySteeringTask.CHUNK_SIZE), speed);
+            pool.execute(tasks[i]);
+        }
+        first.prepare(0, Math.min(count, EnemySteeringTask.CHUNK_SIZE), speed);
+        try {
+            first.steer();
+        } catch (RuntimeException | Error e) {
+            fail(e); // Relancée une fois les autres morceaux terminés, pour qu'aucun ne tourne encore
+        }
+        while (remaining.get() > 0) {
+            LockSupport.park(this); // Un réveil peut être anticipé : le compteur est relu
+        }
+        for (int i = 0; i < others; i++) {
+            while (!tasks[i].isDone()) {
+                Thread.yield(); // Le morceau a prévenu la phase mais son thread ne l'a pas encore marqué terminé : il ne peut pas encore être relancé
+            }
+        }
+        waiter = null;
+        Throwable error = failure;
+        if (error instanceof RuntimeException runtime) {
+            throw runtime;
+        } else if (error instanceof Error fatal) {
+            throw fatal;
+        }
+    }
+
+    /**
+     * Enregistre l'erreur levée par un morceau, relancée par le thread appelant à la fin de la phase.
+     * @param error Erreur levée
+     */
+    void fail(Throwable error) {
+        if (failure == null) {
+            failure = error;
+        }
+    }
+
+    /**
+     * Signale la fin d'un morceau confié au pool ; le dernier réveille le thread appelant.
+     */
+    void chunkDone() {
+        if (remaining.decrementAndGet() == 0) {
+            LockSupport.unpark(waiter);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.testgame.testgame.world;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Classe EnemySteeringTask : déplacement d'un morceau de lignes d'ennemis, exécuté dans le pool en parallèle des autres morceaux
+ * (voir {@link EnemySteeringPhase}).
+ * Chaque ennemi ne lit que le joueur, le champ de danger, la grille des voisins et la copie de leurs déplacements,
+ * tous figés pendant la phase, et n'écrit que sa propre ligne :
+ * les morceaux sont indépendants et le résultat est identique, au bit près, à un parcours sur un seul cœur.
+ * Chaque morceau a ses propres tableaux de travail pour la recherche des voisins ; la tâche est réutilisée à chaque pas.
+ */
+class EnemySteeringTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L; // ForkJoinTask est sérialisable, mais la tâche n'est jamais sérialisée
+    static final int CHUNK_SIZE = 2048; // Nombre de lignes d'un morceau
+
+    private final World world; // Monde dont les ennemis sont déplacés
+    private final EnemySteeringPhase phase; // Phase prévenue de la fin du morceau
+    private final Flocking flocking; // Tableaux de travail de la recherche des voisins, propres au morceau
+    private int from; // Première ligne du morceau
+    private int to; // Ligne suivant la dernière ligne du morceau
+    private double speed; // Vitesse du pas
+
+    /**
+     * Constructeur de la classe EnemySteeringTask.
+     * @param world Monde dont les ennemis sont déplacés
+     * @param phase Phase prévenue de la fin du morceau
+     */
+    EnemySteeringTask(World world, EnemySteeringPhase phase) {
+        this.world = world;
+        this.phase = phase;
+        this.flocking = world.createFlocking();
+    }
+
+    /**
+     * Prépare la tâche pour un nouveau pas.
+     * @param from Première ligne (incluse)
+     * @param to Dernière ligne (exclue)
+     * @param speed Vitesse du pas
+     */
+    void prepare(int from, int to, double speed) {
+        reinitialize();
+        this.from = from;
+        this.to = to;
+        this.speed = speed;
+    }
+
+    /**
+     * Déplace les ennemis du morceau.
+     */
+    void steer() {
+        world.steerEnemies(from, to, speed, flocking);
+    }
+
+    /**
+     * Déplace les ennemis du morceau dans un thread du pool, puis prévient la phase, même en cas d'erreur.
+     */
+    @Override
+    protected void compute() {
+        try {
+            steer();
+        } catch (RuntimeException | Error e) {
+            phase.fail(e);
+        } finally {
+            phase.chunkDone();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.testgame.testgame.world;
+
+/**
+ * Classe FixedStepClock qui cadence la simulation à fréquence fixe, indépendamment de la fréquence d'affichage.
+ * Le temps écoulé entre deux frames est accumulé puis converti en un nombre entier de pas de simulation ;
+ * le reste sert à interpoler l'affichage entre les deux derniers états du monde.
+ */
+public class FixedStepClock {
+    private final int tickRate; // Nombre de pas de simulation par seconde
+    private final long stepNanos; // Durée d'un pas de simulation en nanosecondes
+    private final int maxStepsPerFrame; // Nombre maximal de pas de rattrapage par frame
+    private long lastTime = -1; // Horodatage de la frame précédente (-1 avant la première frame)
+    private long accumulator = 0; // Temps écoulé pas encore simulé
+
+    /**
+     * Constructeur de la classe FixedStepClock.
+     * @param tickRate Nombre de pas de simulation par seconde (par exemple 60 ou 120)
+     * @param maxStepsPerFrame Nombre maximal de pas simulés pour une seule frame, pour qu'une frame lente ne bloque pas le jeu
+     */
+    public FixedStepClock(int tickRate, int maxStepsPerFrame) {
+        if (tickRate <= 0 || maxStepsPerFrame <= 0) {
+            throw new IllegalArgumentException("tickRate et maxStepsPerFrame doivent être positifs");
+        }
+        this.tickRate = tickRate;
+        this.stepNanos = 1_000_000_000L / tickRate;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Ajoute le temps écoulé depuis la frame précédente et retourne le nombre de pas à simuler pour cette frame.
+     * Au-delà de maxStepsPerFrame, le retard restant est abandonné : le jeu ralentit au lieu de s'emballer.
+     * @param now Horodatage de la frame en nanosecondes
+     * @return Le nombre de pas de simulation à effectuer
+     */
+    public int advance(long now) {
+        if (lastTime < 0) {
+            lastTime = now;
+            return 0;
+        }
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        int steps = (int) Math.min(accumulator / stepNanos, maxStepsPerFrame);
+        accumulator -= steps * stepNanos;
+        if (accumulator >= stepNanos) {
+            accumulator %= stepNanos; // Abandonne le retard qui dépasse le plafond de rattrapage
+        }
+        return steps;
+    }
+
+    /**
+     * Retourne la fraction du pas suivant déjà écoulée, utilisée pour interpoler l'affichage.
+     * @return Un facteur entre 0 (état précédent) et 1 (état courant)
+     */
+    public double getAlpha() {
+        return (double) accumulator / stepNanos;
+    }
+
+    /**
+     * Réinitialise l'horloge, par exemple au début d'une partie.
+     */
+    public void reset() {
+        lastTime = -1;
+        accumulator = 0;
+    }
+
+    /**
+     * Getter pour la fréquence de simulation.
+     * @return Le nombre de pas de simulation par seconde
+     */
+    public int getTickRate() {
+        return tickRate;
+    }
+}
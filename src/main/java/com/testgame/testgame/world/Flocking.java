@@ -0,0 +1,91 @@
+package com.testgame.testgame.world;
+
+/**
+ * Classe Flocking : correction de trajectoire d'un ennemi selon ses plus proches voisins, à la manière des boids.
+ * <ul>
+ *     <li>séparation : chaque voisin à moins de {@link #NEIGHBOR_RADIUS} repousse l'ennemi, d'autant plus qu'il est proche ;</li>
+ *     <li>alignement : l'ennemi suit un peu la direction moyenne de ses voisins.</li>
+ * </ul>
+ * Les voisins viennent d'une grille des ennemis dont les cases ont la taille du rayon de voisinage, avec un nombre de voisins plafonné (règle neighborCap)
+ * et un nombre d'éléments examinés borné : le coût par ennemi reste constant même dans une foule compacte.
+ * Une instance contient les tableaux de travail d'une recherche : chaque thread de déplacement utilise la sienne.
+ */
+final class Flocking {
+    static final double NEIGHBOR_RADIUS = 40; // Distance en dessous de laquelle deux ennemis se repoussent
+    static final double SEPARATION_WEIGHT = 1.5; // Poids de la séparation face à la direction du joueur
+    static final double ALIGNMENT_WEIGHT = 0.3; // Poids de l'alignement face à la direction du joueur
+    static final int SCAN_FACTOR = 4; // Éléments examinés par voisin retenu
+
+    private final int[] neighbors; // Lignes des voisins trouvés
+    private final double[] offsetsX; // Écart en x de chaque voisin
+    private final double[] offsetsY; // Écart en y de chaque voisin
+    private final double[] distances; // Carré de la distance de chaque voisin
+    private double steerX, steerY; // Dernière correction calculée
+
+    /**
+     * Constructeur de la classe Flocking.
+     * @param neighborCap Nombre maximal de voisins pris en compte (0 : aucune correction)
+     */
+    Flocking(int neighborCap) {
+        this.neighbors = new int[neighborCap];
+        this.offsetsX = new double[neighborCap];
+        this.offsetsY = new double[neighborCap];
+        this.distances = new double[neighborCap];
+    }
+
+    /**
+     * Calcule la correction d'un ennemi, lue ensuite avec getSteerX et getSteerY.
+     * @param grid Grille des ennemis rangée par {@link SpatialHash#pack}, figée pendant la phase de déplacement
+     * @param row Ligne de l'ennemi
+     * @param centerX Coordonnée x du centre de l'ennemi
+     * @param centerY Coordonnée y du centre de l'ennemi
+     * @param velocityX Déplacement en x de chaque ennemi au pas précédent, par ligne
+     * @param velocityY Déplacement en y de chaque ennemi au pas précédent, par ligne
+     */
+    void compute(SpatialHash grid, int row, double centerX, double centerY, double[] velocityX, double[] velocityY) {
+        steerX = 0;
+        steerY = 0;
+        int count = grid.nearest(centerX, centerY, NEIGHBOR_RADIUS, row, neighbors.length * SCAN_FACTOR,
+                neighbors, offsetsX, offsetsY, distances);
+        if (count == 0) {
+            return;
+        }
+        double separationX = 0, separationY = 0;
+        double alignmentX = 0, alignmentY = 0;
+        for (int i = 0; i < count; i++) {
+            double distance = Math.sqrt(distances[i]);
+            double strength = 1 - distance / NEIGHBOR_RADIUS;
+            if (distance > 0) {
+                separationX -= offsetsX[i] / distance * strength;
+                separationY -= offsetsY[i] / distance * strength;
+            } else {
+                separationX += row < neighbors[i] ? -1 : 1; // Ennemis superposés : écartés dans un sens fixe
+            }
+            alignmentX += velocityX[neighbors[i]];
+            alignmentY += velocityY[neighbors[i]];
+        }
+        double alignment = Math.sqrt(alignmentX * alignmentX + alignmentY * alignmentY);
+        steerX = separationX * SEPARATION_WEIGHT;
+        steerY = separationY * SEPARATION_WEIGHT;
+        if (alignment > 0) {
+            steerX += alignmentX / alignment * ALIGNMENT_WEIGHT;
+            steerY += alignmentY / alignment * ALIGNMENT_WEIGHT;
+        }
+    }
+
+    /**
+     * Getter pour la correction en x.
+     * @return La composante x de la correction, à ajouter à la direction unitaire vers le joueur
+     */
+    double getSteerX() {
+        return steerX;
+    }
+
+    /**
+     * Getter pour la correction en y.
+     * @return La composante y de la correction, à ajouter à la direction unitaire vers le joueur
+     */
+    double getSteerY() {
+        return steerY;
+    }
+}
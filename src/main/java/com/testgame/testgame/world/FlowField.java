@@ -0,0 +1,245 @@
+package com.testgame.testgame.world;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Classe FlowField : champ de direction vers le joueur, partagé par tous les ennemis.
+ * <p>
+ * Un parcours en largeur part de la case du joueur sur la grille des murs ({@link Obstacles}) et donne à chaque case libre
+ * la direction de la case voisine la plus proche du joueur ; un ennemi lit la direction de sa case en temps constant
+ * et vise le centre de cette case voisine, ce qui le recentre dans le couloir et évite qu'il accroche un coin de mur.
+ * Le coût du calcul ne dépend donc que du nombre de cases, et non du nombre d'ennemis.
+ * <ul>
+ *     <li>le parcours n'est relancé que lorsque le joueur change de case, et reste limité à {@link #RANGE} cases
+ *     autour de lui : au-delà, les ennemis dorment (voir {@link ChunkLod}) ;</li>
+ *     <li>il avance d'au plus {@link #CELLS_PER_STEP} cases par pas : le champ en cours de calcul est séparé
+ *     du champ lu par les ennemis, et le remplace une fois terminé ;</li>
+ *     <li>les cases voisines de celle du joueur sont marquées {@link #DIRECT} : l'ennemi y vise directement le joueur.</li>
+ * </ul>
+ * Les déplacements en diagonale ne sont permis que si les deux cases adjacentes sont libres, pour ne pas couper les coins des murs.
+ * Chaque case porte le numéro du parcours qui l'a atteinte : rien n'est remis à zéro entre deux parcours.
+ */
+final class FlowField {
+    static final int RANGE = (int) Math.ceil((ChunkLod.REDUCED_CHUNKS + 1) * ChunkLod.CHUNK_SIZE / Obstacles.CELL_SIZE);
+    static final int CELLS_PER_STEP = 2048; // Nombre maximal de cases parcourues par pas
+    static final int NONE = -1; // Case hors du champ, dans un mur ou inaccessible : l'ennemi vise directement le joueur
+    static final int DIRECT = 8; // Case voisine de celle du joueur
+    static final int STATE_BYTES = 6 * Long.BYTES; // Taille de l'état écrit par writeState
+
+    // Directions vers les 8 cases voisines ; la direction opposée à d est d ^ 1
+    private static final int[] STEP_X = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] STEP_Y = {0, 0, 1, -1, 1, -1, -1, 1};
+
+    private final Obstacles obstacles; // Murs de l'arène
+    private final int columns; // Nombre de colonnes de la grille
+    private final int rows; // Nombre de lignes de la grille
+    private byte[] directions; // Direction de chaque case, lue par les ennemis
+    private int[] stamps; // Numéro du parcours qui a atteint chaque case, lue par les ennemis
+    private int generation = 0; // Numéro du parcours lu par les ennemis (0 : aucun)
+    private byte[] pendingDirections; // Direction de chaque case, parcours en cours
+    private int[] pendingStamps; // Numéro du parcours qui a atteint chaque case, parcours en cours
+    private int pendingGeneration = 0; // Numéro du parcours en cours
+    private final int[] queue; // File du parcours en largeur
+    private int head = 0, tail = 0; // Début et fin de la file
+    private boolean running = false; // Indique si un parcours est en cours
+    private int sourceColumn, sourceRow; // Case du joueur au début du parcours en cours
+    private int fieldColumn = -1, fieldRow = -1; // Case du joueur pour laquelle le champ lu a été calculé
+
+    /**
+     * Constructeur de la classe FlowField.
+     * @param obstacles Murs de l'arène
+     */
+    FlowField(Obstacles obstacles) {
+        this.obstacles = obstacles;
+        this.columns = obstacles.getColumns();
+        this.rows = obstacles.getRows();
+        this.directions = new byte[columns * rows];
+        this.stamps = new int[columns * rows];
+        this.pendingDirections = new byte[columns * rows];
+        this.pendingStamps = new int[columns * rows];
+        int span = 2 * RANGE + 1;
+        this.queue = new int[(int) Math.min((long) columns * rows, (long) span * span)];
+    }
+
+    /**
+     * Repère la case du joueur et avance le parcours, une fois par pas avant de déplacer les ennemis.
+     * Le premier parcours est terminé dans le pas, pour que le champ soit disponible dès le départ.
+     * @param playerX Coordonnée x du centre du joueur
+     * @param playerY Coordonnée y du centre du joueur
+     */
+    void update(double playerX, double playerY) {
+        int playerColumn = clamp((int) Math.floor(playerX / Obstacles.CELL_SIZE), columns);
+        int playerRow = clamp((int) Math.floor(playerY / Obstacles.CELL_SIZE), rows);
+        if (!running && (playerColumn != fieldColumn || playerRow != fieldRow)) {
+            start(playerColumn, playerRow);
+        }
+        if (running) {
+            expand(generation == 0 ? Integer.MAX_VALUE : CELLS_PER_STEP);
+        }
+    }
+
+    /**
+     * Lance un nouveau parcours depuis une case.
+     * @param column Colonne de départ
+     * @param row Ligne de départ
+     */
+    private void start(int column, int row) {
+        pendingGeneration = Math.max(generation, pendingGeneration) + 1;
+        sourceColumn = column;
+        sourceRow = row;
+        head = 0;
+        tail = 0;
+        running = true;
+        int cell = row * columns + column;
+        pendingStamps[cell] = pendingGeneration;
+        pendingDirections[cell] = DIRECT;
+        queue[tail++] = cell;
+    }
+
+    /**
+     * Avance le parcours en cours, et le publie s'il est terminé.
+     * @param budget Nombre maximal de cases à traiter
+     */
+    private void expand(int budget) {
+        while (head < tail && budget-- > 0) {
+            int cell = queue[head++];
+            int column = cell % columns;
+            int row = cell / columns;
+            boolean source = column == sourceColumn && row == sourceRow;
+            for (int d = 0; d < 8; d++) {
+                int nextColumn = column + STEP_X[d];
+                int nextRow = row + STEP_Y[d];
+                if (nextColumn < 0 || nextColumn >= columns || nextRow < 0 || nextRow >= rows
+                        || Math.abs(nextColumn - sourceColumn) > RANGE || Math.abs(nextRow - sourceRow) > RANGE) {
+                    continue;
+                }
+                int next = nextRow * columns + nextColumn;
+                if (pendingStamps[next] == pendingGeneration || obstacles.isBlockedCell(nextColumn, nextRow)) {
+                    continue;
+                }
+                if (d >= 4 && (obstacles.isBlockedCell(nextColumn, row) || obstacles.isBlockedCell(column, nextRow))) {
+                    continue; // La diagonale couperait le coin d'un mur
+                }
+                pendingStamps[next] = pendingGeneration;
+                pendingDirections[next] = (byte) (source ? DIRECT : d ^ 1);
+                queue[tail++] = next;
+            }
+        }
+        if (head == tail) {
+            publish();
+        }
+    }
+
+    /**
+     * Remplace le champ lu par les ennemis par le parcours terminé.
+     */
+    private void publish() {
+        byte[] swapDirections = directions;
+        directions = pendingDirections;
+        pendingDirections = swapDirections;
+        int[] swapStamps = stamps;
+        stamps = pendingStamps;
+        pendingStamps = swapStamps;
+        generation = pendingGeneration;
+        fieldColumn = sourceColumn;
+        fieldRow = sourceRow;
+        running = false;
+    }
+
+    /**
+     * Oublie le champ lu et le parcours en cours, pour une nouvelle partie : le prochain parcours est terminé dans le pas.
+     * Les numéros de parcours ne repartent pas de zéro, les cases déjà marquées restent donc périmées.
+     */
+    void reset() {
+        running = false;
+        generation = 0;
+        fieldColumn = -1;
+        fieldRow = -1;
+    }
+
+    /**
+     * Écrit le champ dans l'état du monde. Les tableaux n'en font pas partie : un parcours ne dépend que de sa case de départ
+     * et des murs, seuls sont écrits la case du champ lu et l'avancement du parcours en cours.
+     * @param out Tampon de destination
+     */
+    void writeState(ByteBuffer out) {
+        out.putLong(generation == 0 ? -1 : fieldColumn);
+        out.putLong(fieldRow);
+        out.putLong(running ? 1 : 0);
+        out.putLong(running ? sourceColumn : 0); // Sans parcours en cours, des zéros : deux mondes identiques ont le même état
+        out.putLong(running ? sourceRow : 0);
+        out.putLong(running ? head : 0);
+    }
+
+    /**
+     * Rétablit le champ écrit par writeState : le champ lu est recalculé en entier,
+     * puis le parcours en cours est relancé et avancé du même nombre de cases.
+     * @param in Tampon source
+     */
+    void readState(ByteBuffer in) {
+        int column = (int) in.getLong();
+        int row = (int) in.getLong();
+        boolean wasRunning = in.getLong() != 0;
+        int runColumn = (int) in.getLong();
+        int runRow = (int) in.getLong();
+        int processed = (int) in.getLong();
+        reset();
+        if (column >= 0) {
+            start(column, row);
+            expand(Integer.MAX_VALUE); // Publie le champ lu
+        }
+        if (wasRunning) {
+            start(runColumn, runRow);
+            expand(processed); // Le parcours n'est publié qu'une fois la file vide : il reste en cours
+        }
+    }
+
+    /**
+     * Lit la direction à suivre depuis un point. Ne modifie rien : peut être appelée depuis plusieurs threads pendant la phase de déplacement.
+     * @param x Coordonnée x du point (centre de l'ennemi)
+     * @param y Coordonnée y du point
+     * @return L'indice de la direction (à passer à {@link #nextCenterX} et {@link #nextCenterY}), {@link #DIRECT} ou {@link #NONE}
+     */
+    int directionAt(double x, double y) {
+        if (generation == 0 || x < 0 || y < 0) {
+            return NONE;
+        }
+        int column = (int) (x / Obstacles.CELL_SIZE);
+        int row = (int) (y / Obstacles.CELL_SIZE);
+        if (column >= columns || row >= rows) {
+            return NONE;
+        }
+        int cell = row * columns + column;
+        return stamps[cell] == generation ? directions[cell] : NONE;
+    }
+
+    /**
+     * Calcule la coordonnée x du centre de la case voisine dans une direction.
+     * @param x Coordonnée x du point dont la direction a été lue
+     * @param direction Indice de direction retourné par directionAt (entre 0 et 7)
+     * @return La coordonnée x du centre de la case voisine
+     */
+    static double nextCenterX(double x, int direction) {
+        return (Math.floor(x / Obstacles.CELL_SIZE) + STEP_X[direction] + 0.5) * Obstacles.CELL_SIZE;
+    }
+
+    /**
+     * Calcule la coordonnée y du centre de la case voisine dans une direction.
+     * @param y Coordonnée y du point dont la direction a été lue
+     * @param direction Indice de direction retourné par directionAt (entre 0 et 7)
+     * @return La coordonnée y du centre de la case voisine
+     */
+    static double nextCenterY(double y, int direction) {
+        return (Math.floor(y / Obstacles.CELL_SIZE) + STEP_Y[direction] + 0.5) * Obstacles.CELL_SIZE;
+    }
+
+    /**
+     * Borne un indice de case à la grille.
+     * @param index Indice calculé
+     * @param count Nombre de cases sur l'axe
+     * @return L'indice borné
+     */
+    private static int clamp(int index, int count) {
+        return Math.max(0, Math.min(count - 1, index));
+    }
+}
@@ -0,0 +1,23 @@
+package com.testgame.testgame.world;
+
+/**
+ * Modes de jeu. Le mode fait partie des règles d'une partie ({@link GameRules}) et est enregistré dans les replays.
+ */
+public enum GameMode {
+    CLASSIC("Classique"), // Un nouvel ennemi remplace chaque ennemi éliminé
+    HORDE("Horde"); // Des vagues de plus en plus grandes, jusqu'à des milliers d'ennemis en même temps
+
+    private final String label; // Nom affiché
+
+    GameMode(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Getter pour le nom affiché du mode.
+     * @return Le nom du mode
+     */
+    public String getLabel() {
+        return label;
+    }
+}
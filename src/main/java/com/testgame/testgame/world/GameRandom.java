@@ -0,0 +1,53 @@
+package com.testgame.testgame.world;
+
+/**
+ * Classe GameRandom : générateur aléatoire de la partie, dont l'état tient dans un seul entier long.
+ * <p>
+ * Il applique l'algorithme SplitMix64 de java.util.SplittableRandom, avec le même incrément, et tire les mêmes nombres
+ * que new SplittableRandom(seed).nextDouble() : les parties et les replays enregistrés avant son introduction
+ * se déroulent à l'identique. Contrairement à SplittableRandom, son état peut être lu et rétabli,
+ * ce qui permet de sauvegarder le monde (voir {@link World#saveState}).
+ */
+final class GameRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L; // Incrément de l'état à chaque tirage
+    private static final double DOUBLE_UNIT = 0x1.0p-53; // Écart entre deux doubles tirés
+
+    private long state; // État du générateur, avancé de GOLDEN_GAMMA à chaque tirage
+
+    /**
+     * Constructeur de la classe GameRandom.
+     * @param seed Graine de la partie
+     */
+    GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Tire un nombre uniforme.
+     * @return Un double entre 0 (inclus) et 1 (exclu)
+     */
+    double nextDouble() {
+        state += GOLDEN_GAMMA;
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Getter pour l'état du générateur.
+     * @return L'état, à passer à setState pour reprendre la même suite de tirages
+     */
+    long getState() {
+        return state;
+    }
+
+    /**
+     * Rétablit un état lu avec getState.
+     * @param state État du générateur
+     */
+    void setState(long state) {
+        this.state = state;
+    }
+}
@@ -0,0 +1,208 @@
+package com.testgame.testgame.world;
+
+import com.testgame.testgame.entities.EnemyOrange;
+
+/**
+ * Classe GameRules regroupant les constantes d'équilibrage d'une partie.
+ * Les valeurs par défaut sont celles du jeu ; les outils d'équilibrage en créent des variantes
+ * pour comparer des réglages sur un grand nombre de parties. Un monde copie ses règles à la création.
+ * Chaque mode de jeu a ses propres valeurs de départ, données par {@link #forMode(GameMode)}.
+ */
+public class GameRules {
+    private GameMode mode = GameMode.CLASSIC; // Mode de jeu
+    private double orangeChance = 0.05; // Probabilité qu'un nouvel ennemi soit orange
+    private double extraLifeChance = 0.05; // Probabilité qu'une vie supplémentaire apparaisse avec un nouvel ennemi
+    private double evadeSpeed = EnemyOrange.EVADE_SPEED; // Vitesse d'esquive des ennemis orange
+    private int maxAmmo = 20; // Capacité maximale de munitions du joueur
+    private int ammoPackThreshold = 5; // Munitions à partir desquelles un pack de munitions apparaît
+    private double speedStep = 0.02; // Augmentation de la vitesse du jeu à chaque kill
+    private boolean obstacles = false; // Présence des murs dans l'arène
+    private int neighborCap = 6; // Nombre maximal de voisins qui écartent un ennemi (0 : pas d'évitement entre ennemis)
+
+    /**
+     * Constructeur de la classe GameRules avec les valeurs du jeu.
+     */
+    public GameRules() {
+    }
+
+    /**
+     * Constructeur de copie de la classe GameRules.
+     * @param other Règles à copier
+     */
+    public GameRules(GameRules other) {
+        this.mode = other.mode;
+        this.orangeChance = other.orangeChance;
+        this.extraLifeChance = other.extraLifeChance;
+        this.evadeSpeed = other.evadeSpeed;
+        this.maxAmmo = other.maxAmmo;
+        this.ammoPackThreshold = other.ammoPackThreshold;
+        this.speedStep = other.speedStep;
+        this.obstacles = other.obstacles;
+        this.neighborCap = other.neighborCap;
+    }
+
+    /**
+     * Crée les règles par défaut d'un mode de jeu.
+     * En mode horde, la difficulté vient du nombre d'ennemis : la vitesse du jeu n'augmente plus à chaque kill,
+     * le joueur a plus de munitions, et une vie supplémentaire est plus rare puisque les apparitions sont bien plus nombreuses.
+     * L'arène du mode horde contient des murs, que la foule d'ennemis doit contourner.
+     * @param mode Mode de jeu
+     * @return Les règles du mode
+     */
+    public static GameRules forMode(GameMode mode) {
+        GameRules rules = new GameRules();
+        rules.mode = mode;
+        if (mode == GameMode.HORDE) {
+            rules.extraLifeChance = 0.002;
+            rules.maxAmmo = 60;
+            rules.ammoPackThreshold = 15;
+            rules.speedStep = 0;
+            rules.obstacles = true;
+        }
+        return rules;
+    }
+
+    /**
+     * Getter pour le mode de jeu.
+     * @return Le mode de jeu
+     */
+    public GameMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Setter pour le mode de jeu.
+     * @param mode Le mode de jeu
+     */
+    public void setMode(GameMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Getter pour la probabilité qu'un nouvel ennemi soit orange.
+     * @return La probabilité, entre 0 et 1
+     */
+    public double getOrangeChance() {
+        return orangeChance;
+    }
+
+    /**
+     * Setter pour la probabilité qu'un nouvel ennemi soit orange.
+     * @param orangeChance La probabilité, entre 0 et 1
+     */
+    public void setOrangeChance(double orangeChance) {
+        this.orangeChance = orangeChance;
+    }
+
+    /**
+     * Getter pour la probabilité qu'une vie supplémentaire apparaisse avec un nouvel ennemi.
+     * @return La probabilité, entre 0 et 1
+     */
+    public double getExtraLifeChance() {
+        return extraLifeChance;
+    }
+
+    /**
+     * Setter pour la probabilité qu'une vie supplémentaire apparaisse avec un nouvel ennemi.
+     * @param extraLifeChance La probabilité, entre 0 et 1
+     */
+    public void setExtraLifeChance(double extraLifeChance) {
+        this.extraLifeChance = extraLifeChance;
+    }
+
+    /**
+     * Getter pour la vitesse d'esquive des ennemis orange.
+     * @return La vitesse d'esquive, multipliée par la vitesse du jeu
+     */
+    public double getEvadeSpeed() {
+        return evadeSpeed;
+    }
+
+    /**
+     * Setter pour la vitesse d'esquive des ennemis orange.
+     * @param evadeSpeed La vitesse d'esquive, multipliée par la vitesse du jeu
+     */
+    public void setEvadeSpeed(double evadeSpeed) {
+        this.evadeSpeed = evadeSpeed;
+    }
+
+    /**
+     * Getter pour la capacité maximale de munitions du joueur.
+     * @return Le nombre maximal de munitions
+     */
+    public int getMaxAmmo() {
+        return maxAmmo;
+    }
+
+    /**
+     * Setter pour la capacité maximale de munitions du joueur.
+     * @param maxAmmo Le nombre maximal de munitions
+     */
+    public void setMaxAmmo(int maxAmmo) {
+        this.maxAmmo = maxAmmo;
+    }
+
+    /**
+     * Getter pour le seuil d'apparition des packs de munitions.
+     * @return Le nombre de munitions à partir duquel un pack apparaît
+     */
+    public int getAmmoPackThreshold() {
+        return ammoPackThreshold;
+    }
+
+    /**
+     * Setter pour le seuil d'apparition des packs de munitions.
+     * @param ammoPackThreshold Le nombre de munitions à partir duquel un pack apparaît
+     */
+    public void setAmmoPackThreshold(int ammoPackThreshold) {
+        this.ammoPackThreshold = ammoPackThreshold;
+    }
+
+    /**
+     * Getter pour l'augmentation de la vitesse du jeu à chaque kill.
+     * @return L'augmentation de vitesse
+     */
+    public double getSpeedStep() {
+        return speedStep;
+    }
+
+    /**
+     * Setter pour l'augmentation de la vitesse du jeu à chaque kill.
+     * @param speedStep L'augmentation de vitesse
+     */
+    public void setSpeedStep(double speedStep) {
+        this.speedStep = speedStep;
+    }
+
+    /**
+     * Indique si l'arène contient des murs.
+     * @return true si les murs sont présents
+     */
+    public boolean hasObstacles() {
+        return obstacles;
+    }
+
+    /**
+     * Setter pour la présence des murs dans l'arène.
+     * @param obstacles true pour placer les murs
+     */
+    public void setObstacles(boolean obstacles) {
+        this.obstacles = obstacles;
+    }
+
+    /**
+     * Getter pour le nombre maximal de voisins pris en compte par un ennemi pour s'écarter de la foule.
+     * @return Le nombre maximal de voisins
+     */
+    public int getNeighborCap() {
+        return neighborCap;
+    }
+
+    /**
+     * Setter pour le nombre maximal de voisins pris en compte par un ennemi pour s'écarter de la foule.
+     * @param neighborCap Le nombre maximal de voisins (0 désactive l'évitement entre ennemis)
+     */
+    public void setNeighborCap(int neighborCap) {
+        this.neighborCap = neighborCap;
+    }
+}
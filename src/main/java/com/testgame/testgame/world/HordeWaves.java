@@ -0,0 +1,93 @@
+package com.testgame.testgame.world;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Classe HordeWaves : calendrier des vagues du mode horde.
+ * Chaque vague est plus grande que la précédente, jusqu'à {@link #MAX_WAVE_SIZE} ennemis. Une vague commence
+ * quand la durée de la précédente est écoulée, ou peu après que tous les ennemis ont été éliminés.
+ * Les ennemis d'une vague sont confiés à {@link SpawnDirector}, qui étale leur apparition sur plusieurs pas.
+ */
+class HordeWaves {
+    static final int FIRST_WAVE_SIZE = 50; // Nombre d'ennemis de la première vague
+    static final double WAVE_GROWTH = 1.8; // Facteur de taille d'une vague à la suivante
+    static final int MAX_WAVE_SIZE = 12_000; // Nombre maximal d'ennemis d'une vague
+    static final double WAVE_SECONDS = 8; // Durée d'une vague avant que la suivante commence
+    static final double CLEARED_PAUSE_SECONDS = 2; // Pause avant la vague suivante quand l'arène est vide
+    static final int STATE_BYTES = 2 * Long.BYTES; // Taille de l'état écrit par writeState
+
+    private final int waveTicks; // Durée d'une vague, en pas
+    private final int pauseTicks; // Pause après une vague éliminée, en pas
+    private int wave = 0; // Numéro de la vague en cours (0 avant la première)
+    private int ticksUntilNextWave = 0; // Pas restants avant la vague suivante
+
+    /**
+     * Constructeur de la classe HordeWaves. La première vague commence au premier pas.
+     * @param tickRate Nombre de pas de simulation par seconde
+     */
+    HordeWaves(int tickRate) {
+        this.waveTicks = (int) Math.round(WAVE_SECONDS * tickRate);
+        this.pauseTicks = (int) Math.round(CLEARED_PAUSE_SECONDS * tickRate);
+    }
+
+    /**
+     * Ramène le calendrier avant la première vague, pour une nouvelle partie.
+     */
+    void reset() {
+        wave = 0;
+        ticksUntilNextWave = 0;
+    }
+
+    /**
+     * Avance le calendrier d'un pas.
+     * @param alive Nombre d'ennemis présents dans l'arène
+     * @param queued Nombre d'ennemis en attente d'apparition
+     * @return Le nombre d'ennemis de la vague qui commence à ce pas, 0 si aucune vague ne commence
+     */
+    int update(int alive, int queued) {
+        if (queued == 0 && alive == 0) {
+            ticksUntilNextWave = Math.min(ticksUntilNextWave, pauseTicks); // Vague éliminée : la suivante arrive plus tôt
+        }
+        if (--ticksUntilNextWave > 0) {
+            return 0;
+        }
+        wave++;
+        ticksUntilNextWave = waveTicks;
+        return sizeOf(wave);
+    }
+
+    /**
+     * Calcule la taille d'une vague.
+     * @param wave Numéro de la vague (à partir de 1)
+     * @return Le nombre d'ennemis de la vague
+     */
+    static int sizeOf(int wave) {
+        return (int) Math.min(MAX_WAVE_SIZE, Math.round(FIRST_WAVE_SIZE * Math.pow(WAVE_GROWTH, wave - 1)));
+    }
+
+    /**
+     * Écrit le calendrier dans l'état du monde.
+     * @param out Tampon de destination
+     */
+    void writeState(ByteBuffer out) {
+        out.putLong(wave);
+        out.putLong(ticksUntilNextWave);
+    }
+
+    /**
+     * Rétablit le calendrier écrit par writeState.
+     * @param in Tampon source
+     */
+    void readState(ByteBuffer in) {
+        wave = (int) in.getLong();
+        ticksUntilNextWave = (int) in.getLong();
+    }
+
+    /**
+     * Getter pour le numéro de la vague en cours.
+     * @return Le numéro de la vague (0 avant la première)
+     */
+    int getWave() {
+        return wave;
+    }
+}
@@ -0,0 +1,259 @@
+package com.testgame.testgame.world;
+
+import java.util.Arrays;
+
+/**
+ * Classe Obstacles : murs de l'arène, alignés sur une grille de cases de {@link #CELL_SIZE} pixels.
+ * Les murs bloquent le joueur, les ennemis et les projectiles ; les ennemis les contournent en suivant
+ * le champ de direction partagé ({@link FlowField}), calculé sur la même grille.
+ * La disposition standard répète un même motif de murs sur tout le monde, par blocs de la taille de l'arène par défaut :
+ * elle ne dépend que des dimensions du monde, et un replay n'a donc pas besoin de l'enregistrer.
+ */
+public class Obstacles {
+    public static final double CELL_SIZE = 40; // Côté d'une case de la grille des murs
+    static final int PATTERN_COLUMNS = 20; // Largeur du motif répété, en cases (arène par défaut)
+    static final int PATTERN_ROWS = 15; // Hauteur du motif répété, en cases (arène par défaut)
+    // Murs du motif : colonne, ligne, largeur et hauteur en cases ; les bords du motif restent libres
+    private static final int[][] PATTERN_WALLS = {
+            {5, 4, 4, 1},
+            {14, 3, 1, 5},
+            {9, 10, 5, 1},
+            {4, 9, 1, 4}
+    };
+    private static final double SEGMENT_STEP = CELL_SIZE / 4; // Pas d'échantillonnage d'un segment testé contre les murs
+
+    private final int columns; // Nombre de colonnes de la grille
+    private final int rows; // Nombre de lignes de la grille
+    private final boolean[] blocked; // Cases occupées par un mur
+    private int[] walls = new int[16]; // Murs, par groupes de 4 valeurs : colonne, ligne, largeur et hauteur en cases
+    private int wallCount = 0; // Nombre de murs
+
+    /**
+     * Constructeur de la classe Obstacles, sans aucun mur.
+     * @param width Largeur du monde
+     * @param height Hauteur du monde
+     */
+    public Obstacles(double width, double height) {
+        this.columns = Math.max(1, (int) Math.ceil(width / CELL_SIZE));
+        this.rows = Math.max(1, (int) Math.ceil(height / CELL_SIZE));
+        this.blocked = new boolean[columns * rows];
+    }
+
+    /**
+     * Crée la disposition standard des murs : le motif de l'arène par défaut, répété sur tout le monde.
+     * Un mur qui dépasserait du monde n'est pas ajouté.
+     * @param width Largeur du monde
+     * @param height Hauteur du monde
+     * @return Les murs du monde
+     */
+    public static Obstacles standard(double width, double height) {
+        Obstacles obstacles = new Obstacles(width, height);
+        for (int originRow = 0; originRow < obstacles.rows; originRow += PATTERN_ROWS) {
+            for (int originColumn = 0; originColumn < obstacles.columns; originColumn += PATTERN_COLUMNS) {
+                for (int[] wall : PATTERN_WALLS) {
+                    int column = originColumn + wall[0];
+                    int row = originRow + wall[1];
+                    if (column + wall[2] <= obstacles.columns && row + wall[3] <= obstacles.rows) {
+                        obstacles.addWall(column, row, wall[2], wall[3]);
+                    }
+                }
+            }
+        }
+        return obstacles;
+    }
+
+    /**
+     * Ajoute un mur rectangulaire, aligné sur la grille.
+     * @param column Colonne de la première case du mur
+     * @param row Ligne de la première case du mur
+     * @param wallColumns Largeur du mur, en cases
+     * @param wallRows Hauteur du mur, en cases
+     */
+    public void addWall(int column, int row, int wallColumns, int wallRows) {
+        if (column < 0 || row < 0 || wallColumns <= 0 || wallRows <= 0
+                || column + wallColumns > columns || row + wallRows > rows) {
+            throw new IllegalArgumentException("Mur hors de la grille : " + column + ", " + row);
+        }
+        for (int r = row; r < row + wallRows; r++) {
+            Arrays.fill(blocked, r * columns + column, r * columns + column + wallColumns, true);
+        }
+        if (walls.length < (wallCount + 1) * 4) {
+            walls = Arrays.copyOf(walls, walls.length * 2);
+        }
+        walls[wallCount * 4] = column;
+        walls[wallCount * 4 + 1] = row;
+        walls[wallCount * 4 + 2] = wallColumns;
+        walls[wallCount * 4 + 3] = wallRows;
+        wallCount++;
+    }
+
+    /**
+     * Vérifie si un rectangle recouvre un mur. Les parties hors de la grille ne sont jamais bloquées.
+     * @param x Coordonnée x du coin supérieur gauche
+     * @param y Coordonnée y du coin supérieur gauche
+     * @param width Largeur du rectangle
+     * @param height Hauteur du rectangle
+     * @return true si au moins une case recouverte est un mur
+     */
+    public boolean overlaps(double x, double y, double width, double height) {
+        if (wallCount == 0) {
+            return false;
+        }
+        int firstColumn = Math.max(0, (int) Math.floor(x / CELL_SIZE));
+        int lastColumn = Math.min(columns - 1, (int) Math.ceil((x + width) / CELL_SIZE) - 1);
+        int firstRow = Math.max(0, (int) Math.floor(y / CELL_SIZE));
+        int lastRow = Math.min(rows - 1, (int) Math.ceil((y + height) / CELL_SIZE) - 1);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                if (blocked[row * columns + column]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calcule l'abscisse atteinte par un rectangle qui se déplace horizontalement : le déplacement est annulé
+     * si le rectangle traverserait un mur. Un rectangle déjà dans un mur peut en sortir librement.
+     * Avec {@link #limitMoveY}, un déplacement en diagonale glisse le long des murs.
+     * @param oldX Coordonnée x de départ du coin supérieur gauche
+     * @param y Coordonnée y du coin supérieur gauche
+     * @param newX Coordonnée x demandée
+     * @param width Largeur du rectangle
+     * @param height Hauteur du rectangle
+     * @return La coordonnée x retenue
+     */
+    public double limitMoveX(double oldX, double y, double newX, double width, double height) {
+        if (newX == oldX || !overlaps(Math.min(oldX, newX), y, width + Math.abs(newX - oldX), height)
+                || overlaps(oldX, y, width, height)) {
+            return newX;
+        }
+        return oldX;
+    }
+
+    /**
+     * Calcule l'ordonnée atteinte par un rectangle qui se déplace verticalement (voir {@link #limitMoveX}).
+     * @param x Coordonnée x du coin supérieur gauche
+     * @param oldY Coordonnée y de départ du coin supérieur gauche
+     * @param newY Coordonnée y demandée
+     * @param width Largeur du rectangle
+     * @param height Hauteur du rectangle
+     * @return La coordonnée y retenue
+     */
+    public double limitMoveY(double x, double oldY, double newY, double width, double height) {
+        if (newY == oldY || !overlaps(x, Math.min(oldY, newY), width, height + Math.abs(newY - oldY))
+                || overlaps(x, oldY, width, height)) {
+            return newY;
+        }
+        return oldY;
+    }
+
+    /**
+     * Cherche le premier point d'un segment qui tombe dans un mur, en échantillonnant le segment tous les quarts de case.
+     * @param startX Coordonnée x du début du segment
+     * @param startY Coordonnée y du début du segment
+     * @param endX Coordonnée x de la fin du segment
+     * @param endY Coordonnée y de la fin du segment
+     * @return La fraction du segment parcourue avant le mur, entre 0 et 1, ou -1 si le segment ne touche aucun mur
+     */
+    public double segmentHitTime(double startX, double startY, double endX, double endY) {
+        if (wallCount == 0) {
+            return -1;
+        }
+        double length = Math.sqrt((endX - startX) * (endX - startX) + (endY - startY) * (endY - startY));
+        int steps = Math.max(1, (int) Math.ceil(length / SEGMENT_STEP));
+        for (int i = 0; i <= steps; i++) {
+            double time = (double) i / steps;
+            if (isBlockedAt(startX + (endX - startX) * time, startY + (endY - startY) * time)) {
+                return time;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Vérifie si un point est dans un mur.
+     * @param x Coordonnée x du point
+     * @param y Coordonnée y du point
+     * @return true si la case du point est un mur (jamais hors de la grille)
+     */
+    public boolean isBlockedAt(double x, double y) {
+        if (x < 0 || y < 0) {
+            return false;
+        }
+        int column = (int) (x / CELL_SIZE);
+        int row = (int) (y / CELL_SIZE);
+        return column < columns && row < rows && blocked[row * columns + column];
+    }
+
+    /**
+     * Vérifie si une case est un mur.
+     * @param column Colonne de la case
+     * @param row Ligne de la case
+     * @return true si la case est un mur
+     */
+    boolean isBlockedCell(int column, int row) {
+        return blocked[row * columns + column];
+    }
+
+    /**
+     * Getter pour le nombre de colonnes de la grille.
+     * @return Le nombre de colonnes
+     */
+    int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Getter pour le nombre de lignes de la grille.
+     * @return Le nombre de lignes
+     */
+    int getRows() {
+        return rows;
+    }
+
+    /**
+     * Getter pour le nombre de murs.
+     * @return Le nombre de murs
+     */
+    public int getWallCount() {
+        return wallCount;
+    }
+
+    /**
+     * Getter pour la coordonnée x d'un mur.
+     * @param index Indice du mur
+     * @return La coordonnée x du coin supérieur gauche, en pixels
+     */
+    public double getWallX(int index) {
+        return walls[index * 4] * CELL_SIZE;
+    }
+
+    /**
+     * Getter pour la coordonnée y d'un mur.
+     * @param index Indice du mur
+     * @return La coordonnée y du coin supérieur gauche, en pixels
+     */
+    public double getWallY(int index) {
+        return walls[index * 4 + 1] * CELL_SIZE;
+    }
+
+    /**
+     * Getter pour la largeur d'un mur.
+     * @param index Indice du mur
+     * @return La largeur, en pixels
+     */
+    public double getWallWidth(int index) {
+        return walls[index * 4 + 2] * CELL_SIZE;
+    }
+
+    /**
+     * Getter pour la hauteur d'un mur.
+     * @param index Indice du mur
+     * @return La hauteur, en pixels
+     */
+    public double getWallHeight(int index) {
+        return walls[index * 4 + 3] * CELL_SIZE;
+    }
+}
@@ -0,0 +1,128 @@
+package com.testgame.testgame.world;
+
+import java.util.Arrays;
+
+/**
+ * Classe PlayerInput décrivant les commandes du joueur pour un pas de simulation.
+ * Elle contient l'état des directions de déplacement et la liste des tirs demandés depuis le pas précédent.
+ * Les tableaux de tirs sont réutilisés d'un pas à l'autre pour ne pas allouer pendant la partie.
+ */
+public class PlayerInput {
+    public static final int SHOT_NORMAL = 0; // Tir simple (clic gauche)
+    public static final int SHOT_SPECIAL = 1; // Attaque spéciale en éventail (clic droit)
+    public static final int SHOT_PRECISION = 16; // Les cibles sont arrondies au 1/16 de pixel, valeur exacte dans un replay
+
+    private boolean up, down, left, right; // Directions de déplacement actives
+    private int shotCount; // Nombre de tirs en attente
+    private int[] shotTypes = new int[8]; // Type de chaque tir
+    private double[] shotXs = new double[8]; // Coordonnée x visée par chaque tir
+    private double[] shotYs = new double[8]; // Coordonnée y visée par chaque tir
+
+    /**
+     * Définit les directions de déplacement actives.
+     * @param up true si le joueur monte
+     * @param down true si le joueur descend
+     * @param left true si le joueur va à gauche
+     * @param right true si le joueur va à droite
+     */
+    public void setDirections(boolean up, boolean down, boolean left, boolean right) {
+        this.up = up;
+        this.down = down;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Ajoute un tir vers une position cible. La cible est arrondie à la précision {@link #SHOT_PRECISION},
+     * pour que la partie enregistrée et sa relecture voient exactement les mêmes valeurs.
+     * @param type Type du tir (SHOT_NORMAL ou SHOT_SPECIAL)
+     * @param targetX Coordonnée x de la cible
+     * @param targetY Coordonnée y de la cible
+     */
+    public void addShot(int type, double targetX, double targetY) {
+        if (shotCount == shotTypes.length) {
+            int capacity = shotCount * 2;
+            shotTypes = Arrays.copyOf(shotTypes, capacity);
+            shotXs = Arrays.copyOf(shotXs, capacity);
+            shotYs = Arrays.copyOf(shotYs, capacity);
+        }
+        shotTypes[shotCount] = type;
+        shotXs[shotCount] = (double) Math.round(targetX * SHOT_PRECISION) / SHOT_PRECISION;
+        shotYs[shotCount] = (double) Math.round(targetY * SHOT_PRECISION) / SHOT_PRECISION;
+        shotCount++;
+    }
+
+    /**
+     * Vide la liste des tirs, une fois qu'ils ont été consommés par la simulation.
+     */
+    public void clearShots() {
+        shotCount = 0;
+    }
+
+    /**
+     * Indique si le joueur se déplace vers le haut.
+     * @return true si la direction haut est active
+     */
+    public boolean isUp() {
+        return up;
+    }
+
+    /**
+     * Indique si le joueur se déplace vers le bas.
+     * @return true si la direction bas est active
+     */
+    public boolean isDown() {
+        return down;
+    }
+
+    /**
+     * Indique si le joueur se déplace vers la gauche.
+     * @return true si la direction gauche est active
+     */
+    public boolean isLeft() {
+        return left;
+    }
+
+    /**
+     * Indique si le joueur se déplace vers la droite.
+     * @return true si la direction droite est active
+     */
+    public boolean isRight() {
+        return right;
+    }
+
+    /**
+     * Getter pour le nombre de tirs en attente.
+     * @return Le nombre de tirs en attente
+     */
+    public int getShotCount() {
+        return shotCount;
+    }
+
+    /**
+     * Getter pour le type d'un tir.
+     * @param index Indice du tir
+     * @return Le type du tir
+     */
+    public int getShotType(int index) {
+        return shotTypes[index];
+    }
+
+    /**
+     * Getter pour la coordonnée x visée par un tir.
+     * @param index Indice du tir
+     * @return La coordonnée x de la cible
+     */
+    public double getShotX(int index) {
+        return shotXs[index];
+    }
+
+    /**
+     * Getter pour la coordonnée y visée par un tir.
+     * @param index Indice du tir
+     * @return La coordonnée y de la cible
+     */
+    public double getShotY(int index) {
+        return shotYs[index];
+    }
+}
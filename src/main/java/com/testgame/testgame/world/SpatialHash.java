@@ -0,0 +1,278 @@
+package com.testgame.testgame.world;
+
+import java.util.Arrays;
+
+/**
+ * Classe SpatialHash : grille uniforme utilisée comme phase large pour les collisions.
+ * Chaque élément est rangé dans la case qui contient son centre ; une requête rectangulaire ne parcourt
+ * que les cases qu'elle recouvre, ce qui évite de tester toutes les paires d'entités.
+ * Les éléments sont identifiés par un entier (en général leur indice dans une liste) et stockés
+ * dans des tableaux chaînés réutilisés, pour qu'une reconstruction à chaque pas n'alloue rien.
+ * Vider la grille ne remet à zéro que les cases occupées : le coût d'un pas ne dépend pas de la taille du monde.
+ * Pour la recherche des plus proches voisins ({@link #nearest}), {@link #pack} recopie les éléments case par case
+ * dans des tableaux contigus, avec leur position : chaque recherche lit alors des plages continues de mémoire
+ * au lieu de suivre les chaînes.
+ * Les positions hors de la grille sont ramenées dans la case du bord la plus proche.
+ */
+public class SpatialHash {
+    private final double cellSize; // Taille d'une case en pixels
+    private final int columns; // Nombre de colonnes de la grille
+    private final int rows; // Nombre de lignes de la grille
+    private final int[] cellHeads; // Premier élément de chaque case (-1 si la case est vide)
+    private int[] next = new int[64]; // Élément suivant dans la même case (-1 en fin de chaîne)
+    private int[] ids = new int[64]; // Identifiant de chaque élément inséré
+    private int[] cells = new int[64]; // Case de chaque élément inséré
+    private double[] xs = new double[64]; // Coordonnée x de chaque élément inséré
+    private double[] ys = new double[64]; // Coordonnée y de chaque élément inséré
+    private int size = 0; // Nombre d'éléments insérés
+    private final int[] packedStarts; // Début de chaque case occupée dans les tableaux contigus
+    private final int[] packedEnds; // Fin (exclue) de chaque case occupée dans les tableaux contigus
+    private int[] packedIds = new int[64]; // Identifiants rangés case par case
+    private double[] packedXs = new double[64]; // Coordonnées x rangées case par case
+    private double[] packedYs = new double[64]; // Coordonnées y rangées case par case
+    private int[] results = new int[64]; // Identifiants trouvés par la dernière requête
+    private int resultCount = 0; // Nombre d'identifiants trouvés par la dernière requête
+
+    /**
+     * Constructeur de la classe SpatialHash.
+     * @param cellSize Taille d'une case, idéalement de l'ordre de la taille des entités
+     * @param width Largeur de la zone couverte
+     * @param height Hauteur de la zone couverte
+     */
+    public SpatialHash(double cellSize, double width, double height) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellHeads = new int[columns * rows];
+        this.packedStarts = new int[columns * rows];
+        this.packedEnds = new int[columns * rows];
+        Arrays.fill(cellHeads, -1);
+    }
+
+    /**
+     * Vide la grille, avant de la reconstruire pour un nouveau pas.
+     */
+    public void clear() {
+        for (int item = 0; item < size; item++) {
+            cellHeads[cells[item]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Insère un élément dans la case contenant le point donné.
+     * @param id Identifiant de l'élément
+     * @param x Coordonnée x du centre de l'élément
+     * @param y Coordonnée y du centre de l'élément
+     */
+    public void insert(int id, double x, double y) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            next = Arrays.copyOf(next, size * 2);
+            cells = Arrays.copyOf(cells, size * 2);
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        int cell = cellRow(y) * columns + cellColumn(x);
+        ids[size] = id;
+        cells[size] = cell;
+        xs[size] = x;
+        ys[size] = y;
+        next[size] = cellHeads[cell];
+        cellHeads[cell] = size;
+        size++;
+    }
+
+    /**
+     * Recherche les éléments dont le centre se trouve dans les cases recouvertes par un rectangle.
+     * Le résultat est un ensemble de candidats : l'appelant doit encore faire le test exact.
+     * Les identifiants trouvés sont lus avec {@link #getResult(int)} jusqu'à la requête suivante.
+     * @param minX Bord gauche du rectangle
+     * @param minY Bord haut du rectangle
+     * @param maxX Bord droit du rectangle
+     * @param maxY Bord bas du rectangle
+     * @return Le nombre de candidats trouvés
+     */
+    public int query(double minX, double minY, double maxX, double maxY) {
+        resultCount = 0;
+        int firstColumn = cellColumn(minX);
+        int lastColumn = cellColumn(maxX);
+        int firstRow = cellRow(minY);
+        int lastRow = cellRow(maxY);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int item = cellHeads[row * columns + column]; item != -1; item = next[item]) {
+                    if (resultCount == results.length) {
+                        results = Arrays.copyOf(results, resultCount * 2);
+                    }
+                    results[resultCount++] = ids[item];
+                }
+            }
+        }
+        return resultCount;
+    }
+
+    /**
+     * Recopie les éléments case par case dans des tableaux contigus, pour {@link #nearest}.
+     * À appeler une fois les insertions du pas terminées : les éléments insérés ensuite ne sont pas vus par nearest.
+     * Chaque case est recopiée quand son dernier élément inséré (la tête de sa chaîne) est rencontré.
+     */
+    public void pack() {
+        if (packedIds.length < size) {
+            packedIds = new int[ids.length];
+            packedXs = new double[ids.length];
+            packedYs = new double[ids.length];
+        }
+        int position = 0;
+        for (int head = 0; head < size; head++) {
+            int cell = cells[head];
+            if (cellHeads[cell] != head) {
+                continue; // La case sera recopiée avec sa tête
+            }
+            packedStarts[cell] = position;
+            for (int item = head; item != -1; item = next[item]) {
+                packedIds[position] = ids[item];
+                packedXs[position] = xs[item];
+                packedYs[position] = ys[item];
+                position++;
+            }
+            packedEnds[cell] = position;
+        }
+    }
+
+    /**
+     * Cherche les éléments les plus proches d'un point, dans un rayon donné, sans ordre particulier.
+     * Le nombre de voisins retenus est borné par la taille des tableaux de résultat, et le nombre d'éléments examinés
+     * par maxScanned (la case du point d'abord, puis les cases voisines) : dans une foule très dense, le résultat est
+     * une approximation des plus proches voisins, mais le coût d'une recherche reste borné. Une case voisine
+     * n'est pas examinée si elle est entièrement hors du rayon, ou plus loin que le pire voisin d'une liste déjà pleine.
+     * La recherche lit les tableaux remplis par le dernier appel à {@link #pack}. Elle ne modifie ni la grille
+     * ni le résultat de {@link #query} : elle peut être appelée depuis plusieurs threads à la fois, tant que la grille
+     * n'est pas reconstruite.
+     * @param x Coordonnée x du point
+     * @param y Coordonnée y du point
+     * @param radius Rayon de recherche
+     * @param exclude Identifiant à ignorer (l'élément qui cherche ses voisins), ou -1
+     * @param maxScanned Nombre maximal d'éléments examinés
+     * @param ids Identifiants des voisins trouvés (sa taille fixe le nombre maximal de voisins)
+     * @param offsetsX Écart en x entre le point et chaque voisin
+     * @param offsetsY Écart en y entre le point et chaque voisin
+     * @param distances Carré de la distance de chaque voisin
+     * @return Le nombre de voisins trouvés
+     */
+    public int nearest(double x, double y, double radius, int exclude, int maxScanned,
+                       int[] ids, double[] offsetsX, double[] offsetsY, double[] distances) {
+        if (ids.length == 0) {
+            return 0;
+        }
+        int count = 0;
+        int scanned = 0;
+        int worst = 0; // Voisin retenu le plus éloigné
+        double worstDistance = 0; // Carré de sa distance
+        double radius2 = radius * radius;
+        int homeColumn = cellColumn(x);
+        int homeRow = cellRow(y);
+        int firstColumn = cellColumn(x - radius);
+        int lastColumn = cellColumn(x + radius);
+        int firstRow = cellRow(y - radius);
+        int lastRow = cellRow(y + radius);
+        // Passe 0 : case du point ; passe 1 : autres cases recouvertes par le rayon
+        for (int pass = 0; pass < 2; pass++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    boolean home = row == homeRow && column == homeColumn;
+                    if (home != (pass == 0)) {
+                        continue;
+                    }
+                    int cell = row * columns + column;
+                    if (cellHeads[cell] == -1) {
+                        continue;
+                    }
+                    if (!home) {
+                        double gapX = Math.max(0, Math.max(column * cellSize - x, x - (column + 1) * cellSize));
+                        double gapY = Math.max(0, Math.max(row * cellSize - y, y - (row + 1) * cellSize));
+                        double gap = gapX * gapX + gapY * gapY;
+                        if (gap > radius2 || (count == ids.length && gap >= worstDistance)) {
+                            continue; // Aucun élément de la case ne peut être retenu
+                        }
+                    }
+                    int start = packedStarts[cell];
+                    int end = Math.min(packedEnds[cell], start + maxScanned - scanned);
+                    scanned += end - start;
+                    for (int item = start; item < end; item++) {
+                        if (packedIds[item] == exclude) {
+                            continue;
+                        }
+                        double dx = packedXs[item] - x;
+                        double dy = packedYs[item] - y;
+                        double distance = dx * dx + dy * dy;
+                        if (distance > radius2 || (count == ids.length && distance >= worstDistance)) {
+                            continue;
+                        }
+                        // Liste pleine : le nouveau voisin remplace le plus éloigné
+                        int i = count < ids.length ? count++ : worst;
+                        ids[i] = packedIds[item];
+                        offsetsX[i] = dx;
+                        offsetsY[i] = dy;
+                        distances[i] = distance;
+                        if (count < ids.length) {
+                            if (distance >= worstDistance) {
+                                worst = i;
+                                worstDistance = distance;
+                            }
+                            continue;
+                        }
+                        worst = 0;
+                        for (int j = 1; j < count; j++) {
+                            if (distances[j] > distances[worst]) {
+                                worst = j;
+                            }
+                        }
+                        worstDistance = distances[worst];
+                    }
+                    if (scanned == maxScanned) {
+                        return count;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Getter pour un identifiant trouvé par la dernière requête.
+     * @param index Indice du résultat, entre 0 et le nombre retourné par query
+     * @return L'identifiant de l'élément
+     */
+    public int getResult(int index) {
+        return results[index];
+    }
+
+    /**
+     * Getter pour le nombre d'éléments insérés.
+     * @return Le nombre d'éléments dans la grille
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calcule la colonne contenant une coordonnée x, bornée à la grille.
+     * @param x Coordonnée x
+     * @return L'indice de colonne
+     */
+    private int cellColumn(double x) {
+        int column = (int) Math.floor(x / cellSize);
+        return Math.min(columns - 1, Math.max(0, column));
+    }
+
+    /**
+     * Calcule la ligne contenant une coordonnée y, bornée à la grille.
+     * @param y Coordonnée y
+     * @return L'indice de ligne
+     */
+    private int cellRow(double y) {
+        int row = (int) Math.floor(y / cellSize);
+        return Math.min(rows - 1, Math.max(0, row));
+    }
+}
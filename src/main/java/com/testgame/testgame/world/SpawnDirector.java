@@ -0,0 +1,261 @@
+package com.testgame.testgame.world;
+
+import com.testgame.testgame.entities.Enemy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Classe SpawnDirector : choix des positions d'apparition et file d'attente des ennemis à faire apparaître.
+ * <p>
+ * Une apparition doit se faire à au moins {@link #MIN_DISTANCE} du joueur, et à au plus {@link #SPAWN_RANGE} sur chaque axe
+ * pour rester près de lui quand le monde est grand : c'est-à-dire dans une fenêtre de l'arène autour du joueur, privée d'un disque.
+ * Plutôt que de tirer dans la fenêtre jusqu'à tomber hors du disque (sans limite de durée quand le disque couvre
+ * presque toute la fenêtre), la fenêtre est découpée en cases : les cases entièrement dans le disque sont écartées,
+ * une case est tirée parmi les autres selon son aire, puis un point dans la case. Seuls les points tirés dans une case
+ * coupée par le disque peuvent être refusés, et le nombre d'essais est borné : au-delà, le coin de la case
+ * le plus éloigné du joueur est retenu. Si aucune case n'est assez loin, le coin de la fenêtre le plus éloigné est retenu.
+ * Un point qui ferait apparaître un ennemi dans un mur est refusé comme un point trop proche.
+ * La table des cases n'est recalculée que lorsque le joueur a bougé.
+ * <p>
+ * Les ennemis demandés (remplacement d'un ennemi éliminé, vagues du mode horde) sont mis en file d'attente,
+ * puis ajoutés par lots une fois par pas, à un débit borné par seconde, pour qu'une grande vague ne bloque pas une frame.
+ */
+class SpawnDirector {
+    static final double MIN_DISTANCE = 400; // Distance minimale entre le joueur et une apparition
+    static final double SPAWN_RANGE = 1200; // Écart maximal sur chaque axe entre le joueur et une apparition
+    static final int GRID_COLUMNS = 16; // Nombre de colonnes de la table des cases
+    static final int GRID_ROWS = 16; // Nombre de lignes de la table des cases
+    static final int MAX_ATTEMPTS = 8; // Nombre maximal de points tirés pour une apparition
+    static final double SPAWNS_PER_SECOND = 6000; // Débit maximal d'apparition des ennemis en attente
+    static final int MAX_ALIVE = 20_000; // Nombre maximal d'ennemis présents en même temps
+    static final int STATE_BYTES = 2 * Long.BYTES; // Taille de l'état écrit par writeState
+
+    private final double width; // Largeur de l'arène
+    private final double height; // Hauteur de l'arène
+    private final Obstacles obstacles; // Murs de l'arène, où rien ne doit apparaître
+    private double regionX, regionY; // Coin supérieur gauche de la fenêtre d'apparition
+    private double regionWidth, regionHeight; // Dimensions de la fenêtre d'apparition
+    private double cellWidth; // Largeur d'une case
+    private double cellHeight; // Hauteur d'une case
+    private final int[] candidateCells = new int[GRID_COLUMNS * GRID_ROWS]; // Cases assez loin du joueur, au moins en partie
+    private final double[] cumulativeArea = new double[GRID_COLUMNS * GRID_ROWS]; // Aire cumulée des cases candidates
+    private final boolean[] partial = new boolean[GRID_COLUMNS * GRID_ROWS]; // Case candidate coupée par le disque
+    private int candidateCount = 0; // Nombre de cases candidates
+    private double tableX = Double.NaN, tableY = Double.NaN; // Position du joueur pour laquelle la table a été calculée
+    private double sampleX, sampleY; // Dernière position tirée
+
+    private final double spawnsPerTick; // Apparitions autorisées par pas
+    private int pending = 0; // Ennemis en attente d'apparition
+    private double spawnBudget = 0; // Apparitions autorisées et pas encore utilisées
+
+    /**
+     * Constructeur de la classe SpawnDirector.
+     * @param width Largeur de l'arène
+     * @param height Hauteur de l'arène
+     * @param tickRate Nombre de pas de simulation par seconde
+     * @param obstacles Murs de l'arène
+     */
+    SpawnDirector(double width, double height, int tickRate, Obstacles obstacles) {
+        this.width = width;
+        this.height = height;
+        this.obstacles = obstacles;
+        this.spawnsPerTick = SPAWNS_PER_SECOND / tickRate;
+    }
+
+    /**
+     * Tire une position d'apparition à au moins {@link #MIN_DISTANCE} d'un point, lue ensuite avec getSampleX et getSampleY.
+     * @param random Générateur aléatoire de la partie
+     * @param fromX Coordonnée x du joueur
+     * @param fromY Coordonnée y du joueur
+     * @return Le nombre de points tirés (au plus {@link #MAX_ATTEMPTS}, 0 si aucune position valide n'existe)
+     */
+    int sample(GameRandom random, double fromX, double fromY) {
+        if (fromX != tableX || fromY != tableY) {
+            buildTable(fromX, fromY);
+        }
+        if (candidateCount == 0) {
+            // Arène trop petite : le coin le plus éloigné du joueur est le meilleur choix possible
+            sampleX = fromX < regionX + regionWidth / 2 ? regionX + regionWidth : regionX;
+            sampleY = fromY < regionY + regionHeight / 2 ? regionY + regionHeight : regionY;
+            return 0;
+        }
+        double totalArea = cumulativeArea[candidateCount - 1];
+        int cell = 0;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            cell = findCell(random.nextDouble() * totalArea);
+            int index = candidateCells[cell];
+            sampleX = regionX + (index % GRID_COLUMNS + random.nextDouble()) * cellWidth;
+            sampleY = regionY + (index / GRID_COLUMNS + random.nextDouble()) * cellHeight;
+            if ((!partial[index] || Math.hypot(sampleX - fromX, sampleY - fromY) >= MIN_DISTANCE)
+                    && !obstacles.overlaps(sampleX, sampleY, Enemy.SIZE, Enemy.SIZE)) {
+                return attempt;
+            }
+        }
+        // Essais épuisés (cases coupées par le disque, ou murs) : le coin de la dernière case le plus éloigné est assez loin,
+        // et un ennemi placé dans un mur peut en sortir
+        int index = candidateCells[cell];
+        double minX = regionX + index % GRID_COLUMNS * cellWidth;
+        double minY = regionY + index / GRID_COLUMNS * cellHeight;
+        sampleX = Math.abs(minX - fromX) > Math.abs(minX + cellWidth - fromX) ? minX : minX + cellWidth;
+        sampleY = Math.abs(minY - fromY) > Math.abs(minY + cellHeight - fromY) ? minY : minY + cellHeight;
+        return MAX_ATTEMPTS;
+    }
+
+    /**
+     * Tire une position uniforme dans la fenêtre d'apparition, sans distance minimale (packs de munitions).
+     * Les positions dans un mur sont tirées à nouveau, au plus {@link #MAX_ATTEMPTS} fois, puis la position du joueur est retenue.
+     * La position est lue ensuite avec getSampleX et getSampleY.
+     * @param random Générateur aléatoire de la partie
+     * @param fromX Coordonnée x du joueur
+     * @param fromY Coordonnée y du joueur
+     */
+    void sampleNear(GameRandom random, double fromX, double fromY) {
+        if (fromX != tableX || fromY != tableY) {
+            buildTable(fromX, fromY);
+        }
+        int attempt = 0;
+        do {
+            sampleX = regionX + random.nextDouble() * regionWidth;
+            sampleY = regionY + random.nextDouble() * regionHeight;
+        } while (++attempt < MAX_ATTEMPTS && obstacles.overlaps(sampleX, sampleY, Enemy.SIZE, Enemy.SIZE));
+        if (attempt == MAX_ATTEMPTS && obstacles.overlaps(sampleX, sampleY, Enemy.SIZE, Enemy.SIZE)) {
+            // Toujours dans un mur : la position du joueur, hors des murs, reste accessible
+            sampleX = fromX;
+            sampleY = fromY;
+        }
+    }
+
+    /**
+     * Recalcule la fenêtre d'apparition et la table des cases candidates pour une position du joueur.
+     * @param fromX Coordonnée x du joueur
+     * @param fromY Coordonnée y du joueur
+     */
+    private void buildTable(double fromX, double fromY) {
+        tableX = fromX;
+        tableY = fromY;
+        regionX = Math.max(0, fromX - SPAWN_RANGE);
+        regionY = Math.max(0, fromY - SPAWN_RANGE);
+        regionWidth = Math.min(width, fromX + SPAWN_RANGE) - regionX;
+        regionHeight = Math.min(height, fromY + SPAWN_RANGE) - regionY;
+        cellWidth = regionWidth / GRID_COLUMNS;
+        cellHeight = regionHeight / GRID_ROWS;
+        candidateCount = 0;
+        double area = 0;
+        for (int row = 0; row < GRID_ROWS; row++) {
+            double minY = regionY + row * cellHeight;
+            double nearY = Math.max(0, Math.max(minY - fromY, fromY - minY - cellHeight));
+            double farY = Math.max(Math.abs(minY - fromY), Math.abs(minY + cellHeight - fromY));
+            for (int column = 0; column < GRID_COLUMNS; column++) {
+                double minX = regionX + column * cellWidth;
+                double nearX = Math.max(0, Math.max(minX - fromX, fromX - minX - cellWidth));
+                double farX = Math.max(Math.abs(minX - fromX), Math.abs(minX + cellWidth - fromX));
+                if (Math.hypot(farX, farY) < MIN_DISTANCE) {
+                    continue; // Case entièrement trop proche du joueur
+                }
+                int index = row * GRID_COLUMNS + column;
+                partial[index] = Math.hypot(nearX, nearY) < MIN_DISTANCE;
+                area += cellWidth * cellHeight;
+                candidateCells[candidateCount] = index;
+                cumulativeArea[candidateCount] = area;
+                candidateCount++;
+            }
+        }
+    }
+
+    /**
+     * Cherche par dichotomie la case candidate qui contient une aire cumulée.
+     * @param target Aire tirée, entre 0 et l'aire totale des cases candidates
+     * @return La position de la case dans la liste des cases candidates
+     */
+    private int findCell(double target) {
+        int low = 0;
+        int high = candidateCount - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeArea[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Met des ennemis en attente d'apparition.
+     * @param count Nombre d'ennemis demandés
+     */
+    void enqueue(int count) {
+        pending = Math.min(pending + count, MAX_ALIVE);
+    }
+
+    /**
+     * Retire de la file le lot d'ennemis à faire apparaître pendant ce pas.
+     * @param alive Nombre d'ennemis présents dans l'arène
+     * @return Le nombre d'ennemis à ajouter
+     */
+    int nextBatch(int alive) {
+        if (pending == 0) {
+            spawnBudget = 0;
+            return 0;
+        }
+        spawnBudget = Math.min(spawnBudget + spawnsPerTick, spawnsPerTick + 1);
+        int count = Math.max(0, Math.min(pending, Math.min((int) spawnBudget, MAX_ALIVE - alive)));
+        spawnBudget -= count;
+        pending -= count;
+        return count;
+    }
+
+    /**
+     * Vide la file d'attente et oublie la table des cases, pour une nouvelle partie.
+     */
+    void reset() {
+        pending = 0;
+        spawnBudget = 0;
+        tableX = Double.NaN;
+        tableY = Double.NaN;
+    }
+
+    /**
+     * Écrit la file d'attente dans l'état du monde. La table des cases n'en fait pas partie :
+     * elle ne dépend que de la position du joueur et est recalculée à la demande.
+     * @param out Tampon de destination
+     */
+    void writeState(ByteBuffer out) {
+        out.putLong(pending);
+        out.putDouble(spawnBudget);
+    }
+
+    /**
+     * Rétablit la file d'attente écrite par writeState.
+     * @param in Tampon source
+     */
+    void readState(ByteBuffer in) {
+        pending = (int) in.getLong();
+        spawnBudget = in.getDouble();
+    }
+
+    /**
+     * Getter pour le nombre d'ennemis en attente d'apparition.
+     * @return Le nombre d'ennemis en attente
+     */
+    int getPending() {
+        return pending;
+    }
+
+    /**
+     * Getter pour la coordonnée x de la dernière position tirée.
+     * @return La coordonnée x
+     */
+    double getSampleX() {
+        return sampleX;
+    }
+
+    /**
+     * Getter pour la coordonnée y de la dernière position tirée.
+     * @return La coordonnée y
+     */
+    double getSampleY() {
+        return sampleY;
+    }
+}
@@ -0,0 +1,157 @@
+package com.testgame.testgame.world;
+
+import java.util.Arrays;
+
+/**
+ * Classe ThreatField : champ de danger des projectiles, construit une fois par pas et partagé par tous les ennemis qui esquivent.
+ * Chaque projectile répand un danger dans les cases de la grille situées à moins du rayon d'esquive, plus fort près du projectile
+ * et devant lui que derrière. Chaque case accumule aussi une direction de fuite pondérée par ce danger.
+ * Un ennemi lit ensuite sa case en temps constant, quel que soit le nombre de projectiles.
+ * Seules les cases touchées pendant la construction sont remises à zéro au pas suivant.
+ */
+public class ThreatField {
+    private final double cellSize; // Taille d'une case en pixels
+    private final double radius; // Distance d'influence d'un projectile
+    private final int columns; // Nombre de colonnes de la grille
+    private final int rows; // Nombre de lignes de la grille
+    private final double[] danger; // Danger accumulé dans chaque case
+    private final double[] escapeX, escapeY; // Direction de fuite de chaque case (normalisée par finish())
+    private final boolean[] touched; // Cases modifiées depuis le dernier clear()
+    private int[] touchedCells = new int[256]; // Liste des cases modifiées
+    private int touchedCount = 0; // Nombre de cases modifiées
+
+    /**
+     * Constructeur de la classe ThreatField.
+     * @param cellSize Taille d'une case, plus petite que le rayon pour un champ précis
+     * @param radius Distance d'influence d'un projectile (rayon d'esquive des ennemis)
+     * @param width Largeur de la zone couverte
+     * @param height Hauteur de la zone couverte
+     */
+    public ThreatField(double cellSize, double radius, double width, double height) {
+        this.cellSize = cellSize;
+        this.radius = radius;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.danger = new double[columns * rows];
+        this.escapeX = new double[columns * rows];
+        this.escapeY = new double[columns * rows];
+        this.touched = new boolean[columns * rows];
+    }
+
+    /**
+     * Remet à zéro les cases modifiées au pas précédent.
+     */
+    public void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            int cell = touchedCells[i];
+            danger[cell] = 0;
+            escapeX[cell] = 0;
+            escapeY[cell] = 0;
+            touched[cell] = false;
+        }
+        touchedCount = 0;
+    }
+
+    /**
+     * Ajoute le danger d'un projectile aux cases situées à moins du rayon d'influence.
+     * Le danger décroît avec la distance, et il est plus fort pour les cases vers lesquelles le projectile se dirige.
+     * @param x Coordonnée x du projectile
+     * @param y Coordonnée y du projectile
+     * @param velocityX Déplacement du projectile en x par pas
+     * @param velocityY Déplacement du projectile en y par pas
+     */
+    public void addThreat(double x, double y, double velocityX, double velocityY) {
+        double speed = Math.sqrt(velocityX * velocityX + velocityY * velocityY);
+        double headingX = speed > 0 ? velocityX / speed : 0;
+        double headingY = speed > 0 ? velocityY / speed : 0;
+        int firstColumn = Math.max(0, (int) Math.floor((x - radius) / cellSize));
+        int lastColumn = Math.min(columns - 1, (int) Math.floor((x + radius) / cellSize));
+        int firstRow = Math.max(0, (int) Math.floor((y - radius) / cellSize));
+        int lastRow = Math.min(rows - 1, (int) Math.floor((y + radius) / cellSize));
+        for (int row = firstRow; row <= lastRow; row++) {
+            double deltaY = (row + 0.5) * cellSize - y;
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                double deltaX = (column + 0.5) * cellSize - x;
+                double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+                if (distance >= radius) {
+                    continue;
+                }
+                double awayX = distance > 0 ? deltaX / distance : headingY; // Au centre exact, fuite perpendiculaire au tir
+                double awayY = distance > 0 ? deltaY / distance : -headingX;
+                double approach = Math.max(0, awayX * headingX + awayY * headingY); // 1 si la case est droit devant le projectile
+                double weight = (1 - distance / radius) * (0.5 + 0.5 * approach);
+
+                int cell = row * columns + column;
+                if (!touched[cell]) {
+                    touched[cell] = true;
+                    if (touchedCount == touchedCells.length) {
+                        touchedCells = Arrays.copyOf(touchedCells, touchedCount * 2);
+                    }
+                    touchedCells[touchedCount++] = cell;
+                }
+                danger[cell] += weight;
+                escapeX[cell] += awayX * weight;
+                escapeY[cell] += awayY * weight;
+            }
+        }
+    }
+
+    /**
+     * Termine la construction du champ en normalisant la direction de fuite de chaque case touchée.
+     */
+    public void finish() {
+        for (int i = 0; i < touchedCount; i++) {
+            int cell = touchedCells[i];
+            double length = Math.sqrt(escapeX[cell] * escapeX[cell] + escapeY[cell] * escapeY[cell]);
+            if (length > 0) {
+                escapeX[cell] /= length;
+                escapeY[cell] /= length;
+            }
+        }
+    }
+
+    /**
+     * Retourne la case qui contient un point.
+     * @param x Coordonnée x du point
+     * @param y Coordonnée y du point
+     * @return L'indice de la case, ou -1 si le point est hors de la grille
+     */
+    public int cellAt(double x, double y) {
+        if (x < 0 || y < 0) {
+            return -1;
+        }
+        int column = (int) (x / cellSize);
+        int row = (int) (y / cellSize);
+        if (column >= columns || row >= rows) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    /**
+     * Getter pour le danger d'une case.
+     * @param cell Indice de la case
+     * @return Le danger accumulé (0 si aucun projectile n'est proche)
+     */
+    public double getDanger(int cell) {
+        return danger[cell];
+    }
+
+    /**
+     * Getter pour la composante x de la direction de fuite d'une case.
+     * @param cell Indice de la case
+     * @return La composante x de la direction de fuite normalisée
+     */
+    public double getEscapeX(int cell) {
+        return escapeX[cell];
+    }
+
+    /**
+     * Getter pour la composante y de la direction de fuite d'une case.
+     * @param cell Indice de la case
+     * @return La composante y de la direction de fuite normalisée
+     */
+    public double getEscapeY(int cell) {
+        return escapeY[cell];
+    }
+}
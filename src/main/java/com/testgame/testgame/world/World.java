@@ -0,0 +1,971 @@
+package com.testgame.testgame.world;
+
+import com.testgame.testgame.entities.*;
+import com.testgame.testgame.metrics.FrameProfiler;
+import com.testgame.testgame.metrics.KillEvent;
+import com.testgame.testgame.metrics.SpawnEvent;
+import com.testgame.testgame.metrics.TickEvent;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Classe World contenant tout l'état d'une partie et les règles du jeu, sans aucune dépendance à JavaFX.
+ * La simulation avance d'un pas à chaque appel de {@link #step(PlayerInput)}, ce qui permet de la faire tourner
+ * sans fenêtre (tests, calculs en lot) ou de l'afficher via GameApp, qui se contente de lire l'état du monde.
+ */
+public class World {
+    public static final double DEFAULT_WIDTH = 800; // Largeur par défaut de l'arène
+    public static final double DEFAULT_HEIGHT = 600; // Hauteur par défaut de l'arène
+    public static final double GRID_CELL_SIZE = 64; // Taille des cases de la grille spatiale des collisions
+    public static final double THREAT_CELL_SIZE = 25; // Taille des cases du champ de danger des projectiles
+    public static final int REFERENCE_TICK_RATE = 60; // Fréquence pour laquelle les vitesses du jeu sont exprimées (pixels par pas)
+    public static final double PROJECTILE_RANGE = 1200; // Distance au joueur au-delà de laquelle un projectile disparaît
+    private static final double PLAYER_START = 100; // Position de départ du joueur (en x comme en y)
+    private static final double INITIAL_GAME_SPEED = 0.5; // Vitesse du jeu au début d'une partie
+    private static final long STATE_MAGIC = 0x49434657_53540001L; // Début de l'état d'un monde (« ICFWST », version 1)
+    private static final int STATE_HEADER_BYTES = 12 * Long.BYTES; // En-tête et valeurs scalaires de l'état
+    // Décalages angulaires des cinq projectiles de l'attaque spéciale en éventail
+    private static final double[] FAN_ANGLES = {
+            Math.toRadians(-20), Math.toRadians(-10), 0, Math.toRadians(10), Math.toRadians(20)};
+
+    private final double width; // Largeur de l'arène
+    private final double height; // Hauteur de l'arène
+    private final double timeScale; // Facteur appliqué aux vitesses pour la fréquence de simulation choisie
+    private final GameRules rules; // Constantes d'équilibrage de la partie
+    private final GameRandom random; // Générateur aléatoire de la partie, initialisé avec une graine
+    private final Player player;
+    private final EntityStore entities = new EntityStore(); // Ennemis et projectiles, stockés par archétype
+    private final Archetype enemies = entities.getEnemies(); // Table des ennemis actifs
+    private final Archetype projectiles = entities.getProjectiles(); // Table des projectiles actifs
+    private final List<AmmoPack> ammoPacks = new ArrayList<>(); // Liste des packs de munitions
+    private ExtraLifeItem extraLifeItem; // Objet de vie supplémentaire présent dans l'arène (ou null)
+    private final SpatialHash enemyGrid; // Grille spatiale des ennemis, reconstruite à chaque phase de collision
+    private final ThreatField threatField; // Champ de danger des projectiles, lu par les ennemis qui esquivent
+    private boolean[] enemyKilled = new boolean[16]; // Ennemis touchés pendant la phase des projectiles, retirés à la fin
+    private double maxEnemyRadius = 0; // Plus grand rayon d'ennemi dans la grille, pour élargir les requêtes
+    private ForkJoinPool steeringPool = ForkJoinPool.commonPool(); // Threads du déplacement des ennemis (null : un seul cœur)
+    private FrameProfiler profiler; // Reçoit la durée des phases de chaque pas (ou null)
+    private final SpawnDirector spawnDirector; // Positions d'apparition et ennemis en attente d'apparition
+    private final HordeWaves waves; // Calendrier des vagues du mode horde (null en mode classique)
+    private final ChunkLod chunkLod = new ChunkLod(); // Fréquence de mise à jour des ennemis selon leur distance au joueur
+    private final Obstacles obstacles; // Murs de l'arène (aucun si les règles les désactivent)
+    private final FlowField flowField; // Champ de direction vers le joueur, partagé par les ennemis (null sans murs)
+    private final Flocking flocking; // Écartement des ennemis voisins, pour le déplacement sur un seul cœur
+    private EnemySteeringPhase steeringPhase = null; // Déplacement sur plusieurs cœurs, créé la première fois que les ennemis sont assez nombreux
+    private final SpatialHash neighborGrid; // Grille fine des ennemis, figée pendant la phase de déplacement
+    private double[] neighborVelocityX = new double[16]; // Déplacement en x de chaque ennemi au pas précédent, lu par ses voisins
+    private double[] neighborVelocityY = new double[16]; // Déplacement en y de chaque ennemi au pas précédent, lu par ses voisins
+
+    private int killCount = 0; // Compteur de kills
+    private double gameSpeed = INITIAL_GAME_SPEED; // Vitesse du jeu, augmentée à chaque kill
+    private boolean hasExtraLife = false; // Indicateur de vie supplémentaire
+    private boolean isAmmoPackPresent = false; // Indicateur de présence d'un pack de munitions
+    private boolean gameOver = false; // Indique si la partie est terminée
+    private long tick = 0; // Nombre de pas de simulation effectués
+
+    /**
+     * Constructeur de la classe World avec les dimensions par défaut de l'arène.
+     * @param seed Graine du générateur aléatoire, pour rejouer une partie à l'identique
+     */
+    public World(long seed) {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT, seed);
+    }
+
+    /**
+     * Constructeur de la classe World, simulé à la fréquence de référence.
+     * @param width Largeur de l'arène
+     * @param height Hauteur de l'arène
+     * @param seed Graine du générateur aléatoire, pour rejouer une partie à l'identique
+     */
+    public World(double width, double height, long seed) {
+        this(width, height, seed, REFERENCE_TICK_RATE);
+    }
+
+    /**
+     * Constructeur de la classe World, avec les règles du jeu.
+     * @param width Largeur de l'arène
+     * @param height Hauteur de l'arène
+     * @param seed Graine du générateur aléatoire, pour rejouer une partie à l'identique
+     * @param tickRate Nombre de pas de simulation par seconde
+     */
+    public World(double width, double height, long seed, int tickRate) {
+        this(width, height, seed, tickRate, new GameRules());
+    }
+
+    /**
+     * Constructeur de la classe World.
+     * Place le joueur et fait apparaître le premier ennemi ; en mode horde, les ennemis arrivent par vagues dès le premier pas.
+     * Les vitesses sont ajustées pour que le jeu avance au même rythme quelle que soit la fréquence de simulation.
+     * @param width Largeur de l'arène
+     * @param height Hauteur de l'arène
+     * @param seed Graine du générateur aléatoire, pour rejouer une partie à l'identique
+     * @param tickRate Nombre de pas de simulation par seconde
+     * @param rules Constantes d'équilibrage, copiées à la création
+     */
+    public World(double width, double height, long seed, int tickRate, GameRules rules) {
+        this.width = width;
+        this.height = height;
+        this.timeScale = (double) REFERENCE_TICK_RATE / tickRate;
+        this.rules = new GameRules(rules);
+        this.random = new GameRandom(seed);
+        this.enemyGrid = new SpatialHash(GRID_CELL_SIZE, width, height);
+        this.threatField = new ThreatField(THREAT_CELL_SIZE, EnemyOrange.EVADE_RADIUS, width, height);
+        this.player = new Player(PLAYER_START, PLAYER_START, this.rules.getMaxAmmo(), this.rules.getAmmoPackThreshold());
+        this.obstacles = this.rules.hasObstacles() ? Obstacles.standard(width, height) : new Obstacles(width, height);
+        this.flowField = obstacles.getWallCount() > 0 ? new FlowField(obstacles) : null;
+        this.spawnDirector = new SpawnDirector(width, height, tickRate, obstacles);
+        this.flocking = createFlocking();
+        this.neighborGrid = new SpatialHash(Flocking.NEIGHBOR_RADIUS, width, height);
+        if (this.rules.getMode() == GameMode.HORDE) {
+            this.waves = new HordeWaves(tickRate);
+        } else {
+            this.waves = null;
+            spawnEnemy(); // Ajoute le premier ennemi
+        }
+    }
+
+    /**
+     * Recommence la partie avec une nouvelle graine, en gardant les tableaux du monde (entités, grilles, champ de direction) :
+     * la partie se déroule exactement comme dans un monde neuf créé avec cette graine, sans allouer sa mémoire.
+     * Les dimensions, la fréquence de simulation et les règles ne changent pas.
+     * @param seed Graine du générateur aléatoire de la nouvelle partie
+     */
+    public void reset(long seed) {
+        random.setState(seed);
+        player.reset(PLAYER_START, PLAYER_START);
+        entities.reset();
+        ammoPacks.clear();
+        extraLifeItem = null;
+        Arrays.fill(enemyKilled, false);
+        maxEnemyRadius = 0;
+        spawnDirector.reset();
+        if (flowField != null) {
+            flowField.reset();
+        }
+        killCount = 0;
+        gameSpeed = INITIAL_GAME_SPEED;
+        hasExtraLife = false;
+        isAmmoPackPresent = false;
+        gameOver = false;
+        tick = 0;
+        if (waves != null) {
+            waves.reset();
+        } else {
+            spawnEnemy(); // Ajoute le premier ennemi
+        }
+    }
+
+    /**
+     * Avance la simulation d'un pas : applique les tirs et les déplacements demandés,
+     * puis met à jour les projectiles, les ennemis, les vagues du mode horde et les bonus.
+     * La durée des phases est transmise au profileur s'il y en a un, et à JFR si l'événement de pas est activé.
+     * @param input Commandes du joueur pour ce pas
+     */
+    public void step(PlayerInput input) {
+        if (gameOver) {
+            return;
+        }
+        tick++;
+        savePreviousPositions();
+
+        applyShots(input);
+        movePlayer(input);
+        player.update();
+        chunkLod.update(player.getX(), player.getY());
+
+        long start = System.nanoTime();
+        updateProjectiles();
+        long projectilesEnd = System.nanoTime();
+        updateEnemies();
+        long enemiesEnd = System.nanoTime();
+        if (!gameOver) {
+            spawnQueued();
+            checkForAmmoSpawn();
+        }
+        long end = System.nanoTime();
+        reportTick(projectilesEnd - start, enemiesEnd - projectilesEnd, end - enemiesEnd);
+    }
+
+    /**
+     * Transmet la durée des phases du pas au profileur et à JFR.
+     * @param projectilesNanos Durée de la phase des projectiles
+     * @param enemiesNanos Durée de la phase des ennemis
+     * @param ammoSpawnNanos Durée de la phase des apparitions (ennemis en attente et munitions)
+     */
+    private void reportTick(long projectilesNanos, long enemiesNanos, long ammoSpawnNanos) {
+        if (profiler != null) {
+            profiler.record(FrameProfiler.Phase.PROJECTILES, projectilesNanos);
+            profiler.record(FrameProfiler.Phase.ENEMIES, enemiesNanos);
+            profiler.record(FrameProfiler.Phase.AMMO_SPAWN, ammoSpawnNanos);
+        }
+        if (TickEvent.TYPE.isEnabled()) {
+            TickEvent event = new TickEvent();
+            event.tick = tick;
+            event.enemies = enemies.size();
+            event.projectiles = projectiles.size();
+            event.projectilesDuration = projectilesNanos;
+            event.enemiesDuration = enemiesNanos;
+            event.ammoSpawnDuration = ammoSpawnNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Mémorise les positions de début de pas, pour que l'affichage puisse interpoler entre deux états.
+     */
+    private void savePreviousPositions() {
+        player.savePreviousPosition();
+        enemies.savePreviousPositions();
+        projectiles.savePreviousPositions();
+    }
+
+    /**
+     * Retourne la vitesse du jeu ramenée à la durée d'un pas de simulation.
+     * @return Le facteur de vitesse à appliquer aux déplacements de ce pas
+     */
+    private double stepSpeed() {
+        return gameSpeed * timeScale;
+    }
+
+    /**
+     * Crée les projectiles correspondant aux tirs demandés par le joueur.
+     * @param input Commandes du joueur pour ce pas
+     */
+    private void applyShots(PlayerInput input) {
+        for (int i = 0; i < input.getShotCount(); i++) {
+            double targetX = input.getShotX(i);
+            double targetY = input.getShotY(i);
+            if (input.getShotType(i) == PlayerInput.SHOT_SPECIAL) {
+                fireSpecialAttack(targetX, targetY);
+            } else if (projectiles.remainingCapacity() > 0 && player.shoot()) {  // Vérifie la réserve et les munitions
+                Projectile.spawn(entities, player.getX(), player.getY(), targetX, targetY, stepSpeed());
+            }
+        }
+    }
+
+    /**
+     * Déclenche une attaque spéciale en éventail si le joueur a au moins 5 munitions.
+     * L'attaque spéciale consiste en cinq projectiles lancés avec des angles de dispersion autour de la cible.
+     * Les munitions ne sont déduites que si la réserve de projectiles a pu accueillir tout l'éventail.
+     * @param targetX Coordonnée x de la cible
+     * @param targetY Coordonnée y de la cible
+     */
+    private void fireSpecialAttack(double targetX, double targetY) {
+        if (player.getAmmo() < FAN_ANGLES.length) {
+            return; // Pas assez de munitions : la réserve reste affichée par le HUD
+        }
+
+        // Calcul de l'angle de base vers la cible, puis création des cinq projectiles en un seul lot
+        double baseAngle = Math.atan2(targetY - player.getY(), targetX - player.getX());
+        if (Projectile.spawnFan(entities, player.getX(), player.getY(), baseAngle, FAN_ANGLES, stepSpeed())) {
+            // Déduit 5 munitions pour l'attaque spéciale
+            for (int i = 0; i < FAN_ANGLES.length; i++) {
+                player.shoot();
+            }
+        }
+    }
+
+    /**
+     * Déplace le joueur selon les directions actives, en restant dans les limites de l'arène et hors des murs.
+     * @param input Commandes du joueur pour ce pas
+     */
+    private void movePlayer(PlayerInput input) {
+        double speed = stepSpeed();
+        if (input.isUp()) {
+            movePlayerAlong(0, -1, speed);
+        }
+        if (input.isDown()) {
+            movePlayerAlong(0, 1, speed);
+        }
+        if (input.isLeft()) {
+            movePlayerAlong(-1, 0, speed);
+        }
+        if (input.isRight()) {
+            movePlayerAlong(1, 0, speed);
+        }
+    }
+
+    /**
+     * Déplace le joueur sur un axe, sans traverser de mur.
+     * @param dx Direction en x (-1, 0 ou 1)
+     * @param dy Direction en y (-1, 0 ou 1)
+     * @param speed Vitesse du pas
+     */
+    private void movePlayerAlong(double dx, double dy, double speed) {
+        double oldX = player.getX();
+        double oldY = player.getY();
+        player.move(dx, dy, width, height, speed);
+        double x = obstacles.limitMoveX(oldX, oldY, player.getX(), player.getWidth(), player.getHeight());
+        double y = obstacles.limitMoveY(x, oldY, player.getY(), player.getWidth(), player.getHeight());
+        if (x != player.getX() || y != player.getY()) {
+            player.setPosition(x, y);
+        }
+    }
+
+    /**
+     * Met à jour les projectiles, gère les collisions, et les supprime s'ils sortent des limites de l'arène.
+     * Tous les projectiles avancent d'abord en un seul parcours de leur table, puis le segment parcouru par chacun
+     * est testé contre les ennemis candidats de la grille spatiale. Les collisions sont testées avant la sortie
+     * de l'arène, pour qu'un projectile qui touche un ennemi près du bord puis sort dans le même pas compte.
+     * Un projectile qui rencontre un mur disparaît, et ne touche que les ennemis placés avant le mur sur son segment.
+     * Les ennemis touchés sont retirés en fin de phase pour que les lignes rangées dans la grille restent valides pendant le parcours.
+     */
+    private void updateProjectiles() {
+        projectiles.integrate();
+        rebuildEnemyGrid();
+        int killedCount = 0;
+        int p = 0;
+        while (p < projectiles.size()) {
+            // Gère les collisions entre projectiles et ennemis, puis avec les murs
+            double wallTime = obstacles.segmentHitTime(projectiles.getPreviousX(p), projectiles.getPreviousY(p),
+                    projectiles.getX(p), projectiles.getY(p));
+            int hit = findEnemyHitBy(p, wallTime < 0 ? Double.MAX_VALUE : wallTime);
+            if (hit >= 0) {
+                enemyKilled[hit] = true;
+                killedCount++;
+                entities.destroyRow(projectiles, p); // Le dernier projectile prend la place de celui-ci
+
+                killCount++;
+                increaseGameSpeed();
+                if (KillEvent.TYPE.isEnabled()) {
+                    KillEvent event = new KillEvent();
+                    event.tick = tick;
+                    event.enemyType = enemies.getType(hit);
+                    event.killCount = killCount;
+                    event.gameSpeed = gameSpeed;
+                    event.commit();
+                }
+
+                if (waves == null) {
+                    spawnDirector.enqueue(1); // Remplacé en fin de pas
+                }
+                continue;
+            }
+
+            if (wallTime >= 0 || Projectile.isOutOfBounds(projectiles, p, width, height) || isOutOfRange(p)) {
+                entities.destroyRow(projectiles, p);
+                continue;
+            }
+            p++;
+        }
+        if (killedCount > 0) {
+            removeKilledEnemies();
+        }
+    }
+
+    /**
+     * Vérifie si un projectile s'est trop éloigné du joueur, pour qu'un tir ne traverse pas tout un grand monde.
+     * Dans l'arène par défaut, un projectile sort de l'arène avant d'atteindre cette distance.
+     * @param projectile Ligne du projectile
+     * @return true si le projectile est hors de portée
+     */
+    private boolean isOutOfRange(int projectile) {
+        double dx = projectiles.getX(projectile) - player.getX();
+        double dy = projectiles.getY(projectile) - player.getY();
+        return dx * dx + dy * dy > PROJECTILE_RANGE * PROJECTILE_RANGE;
+    }
+
+    /**
+     * Cherche l'ennemi touché par un projectile pendant le pas, parmi les candidats de la grille spatiale
+     * qui recouvrent le segment parcouru. L'ennemi touché le plus tôt sur le segment est retenu ;
+     * à instant égal, l'ennemi de plus petite ligne l'emporte, pour un résultat déterministe.
+     * @param projectile Ligne du projectile à tester
+     * @param maxTime Fraction du segment au-delà de laquelle les ennemis ne sont plus atteints (mur sur le trajet)
+     * @return La ligne de l'ennemi touché, ou -1 si aucun
+     */
+    private int findEnemyHitBy(int projectile, double maxTime) {
+        double startX = projectiles.getPreviousX(projectile);
+        double startY = projectiles.getPreviousY(projectile);
+        double endX = projectiles.getX(projectile);
+        double endY = projectiles.getY(projectile);
+        double reach = projectiles.getRadius(projectile) + maxEnemyRadius;
+        int candidates = enemyGrid.query(Math.min(startX, endX) - reach, Math.min(startY, endY) - reach,
+                Math.max(startX, endX) + reach, Math.max(startY, endY) + reach);
+        int hit = -1;
+        double hitTime = Double.MAX_VALUE;
+        for (int c = 0; c < candidates; c++) {
+            int e = enemyGrid.getResult(c);
+            if (enemyKilled[e]) {
+                continue;
+            }
+            double time = Projectile.sweep(projectiles, projectile, enemies, e);
+            if (time >= 0 && time <= maxTime && (time < hitTime || (time == hitTime && e < hit))) {
+                hit = e;
+                hitTime = time;
+            }
+        }
+        return hit;
+    }
+
+    /**
+     * Met à jour les ennemis, vérifie les collisions avec le joueur et la collecte des bonus.
+     * Le comportement de chaque ennemi dépend de la colonne de type de sa table, et sa fréquence de mise à jour
+     * de sa distance au joueur (voir {@link ChunkLod}). Les ennemis contournent les murs en suivant le champ de direction
+     * ({@link FlowField}), lu en temps constant par chacun. Chaque ennemi s'écarte de ses plus proches voisins (voir {@link Flocking}),
+     * lus dans une grille plus fine que celle des collisions et dans une copie des déplacements du pas précédent. Quand les ennemis sont nombreux,
+     * leur déplacement est réparti sur plusieurs cœurs ; le retrait et l'apparition d'ennemis ont lieu ensuite, sur ce thread.
+     */
+    private void updateEnemies() {
+        double speed = stepSpeed();
+        buildThreatField();
+        if (flowField != null) {
+            flowField.update(player.getX() + player.getWidth() / 2, player.getY() + player.getHeight() / 2);
+        }
+        if (rules.getNeighborCap() > 0) {
+            buildNeighborGrid();
+        }
+        if (steeringPool != null && enemies.size() > EnemySteeringTask.CHUNK_SIZE && EnemySteeringPhase.canUse(steeringPool)) {
+            if (steeringPhase == null) {
+                steeringPhase = new EnemySteeringPhase(this);
+            }
+            steeringPhase.run(steeringPool, enemies.size(), speed);
+        } else {
+            steerEnemies(0, enemies.size(), speed, flocking);
+        }
+
+        // Vérifie la collision avec le joueur, parmi les ennemis proches seulement
+        rebuildEnemyGrid();
+        int hit = findEnemyTouchingPlayer();
+        if (hit >= 0) {
+            if (hasExtraLife) {
+                hasExtraLife = false;
+            } else {
+                gameOver = true; // Fin de jeu
+                return;
+            }
+            entities.destroyRow(enemies, hit);
+            if (waves == null) {
+                spawnDirector.enqueue(1);
+            }
+        }
+
+        // Vérifie la collecte des packs de munitions
+        for (int a = 0; a < ammoPacks.size(); a++) {
+            AmmoPack ammoPack = ammoPacks.get(a);
+            if (intersectsPlayer(ammoPack.getX(), ammoPack.getY(), ammoPack.getSize(), ammoPack.getSize())) {
+                player.reload();
+                ammoPacks.remove(a--);
+                isAmmoPackPresent = false;
+            }
+        }
+
+        // Vérifie la collecte de la vie supplémentaire
+        if (extraLifeItem != null) {
+            double radius = extraLifeItem.getRadius();
+            if (intersectsPlayer(extraLifeItem.getX() - radius, extraLifeItem.getY() - radius, radius * 2, radius * 2)) {
+                hasExtraLife = true;
+                extraLifeItem = null;
+            }
+        }
+    }
+
+    /**
+     * Déplace une plage d'ennemis selon leur type. Ne modifie que les lignes de la plage,
+     * ce qui permet de traiter plusieurs plages en même temps (voir {@link EnemySteeringTask}).
+     * Les ennemis loin du joueur ne sont déplacés qu'un pas sur plusieurs, d'autant plus loin, ou pas du tout.
+     * Chaque ennemi vise le joueur, ou le centre de la case suivante du champ quand un mur peut être sur le chemin,
+     * puis glisse le long des murs qu'il rencontre.
+     * @param from Première ligne (incluse)
+     * @param to Dernière ligne (exclue)
+     * @param speed Vitesse du pas
+     * @param flocking Tableaux de travail de la recherche des voisins, propres au thread appelant
+     */
+    void steerEnemies(int from, int to, double speed, Flocking flocking) {
+        boolean flock = rules.getNeighborCap() > 0;
+        for (int e = from; e < to; e++) {
+            int interval = chunkLod.intervalAt(enemies.getX(e), enemies.getY(e));
+            if (interval != 1 && (interval == 0 || (EntityStore.slotOf(enemies.getHandle(e)) + tick) % interval != 0)) {
+                continue; // Ennemi endormi, ou dont ce n'est pas le tour
+            }
+            double enemySpeed = speed * interval;
+            double x = enemies.getX(e);
+            double y = enemies.getY(e);
+            double radius = enemies.getRadius(e);
+            double targetX = player.getX();
+            double targetY = player.getY();
+            if (flowField != null) {
+                int direction = flowField.directionAt(x + radius, y + radius);
+                if (direction >= 0 && direction != FlowField.DIRECT) {
+                    // Centre de la case suivante, ramené au coin supérieur gauche comme la position du joueur
+                    targetX = FlowField.nextCenterX(x + radius, direction) - radius;
+                    targetY = FlowField.nextCenterY(y + radius, direction) - radius;
+                }
+            }
+            double steerX = 0, steerY = 0;
+            if (flock) {
+                flocking.compute(neighborGrid, e, x + radius, y + radius, neighborVelocityX, neighborVelocityY);
+                steerX = flocking.getSteerX();
+                steerY = flocking.getSteerY();
+            }
+            if (enemies.getType(e) == EntityStore.TYPE_ENEMY_ORANGE) {
+                int cell = threatField.cellAt(x, y);
+                if (cell >= 0) {
+                    EnemyOrange.update(enemies, e, threatField.getEscapeX(cell), threatField.getEscapeY(cell),
+                            targetX, targetY, steerX, steerY, enemySpeed, rules.getEvadeSpeed());
+                } else {
+                    EnemyOrange.update(enemies, e, 0, 0, targetX, targetY, steerX, steerY, enemySpeed, rules.getEvadeSpeed());
+                }
+            } else {
+                Enemy.steer(enemies, e, targetX, targetY, steerX, steerY, enemySpeed);
+            }
+            if (flowField != null) {
+                // Glisse le long des murs plutôt que de les traverser
+                double size = radius * 2;
+                double limitedX = obstacles.limitMoveX(x, y, enemies.getX(e), size, size);
+                double limitedY = obstacles.limitMoveY(limitedX, y, enemies.getY(e), size, size);
+                if (limitedX != enemies.getX(e) || limitedY != enemies.getY(e)) {
+                    enemies.setVelocity(e, limitedX - x, limitedY - y);
+                    enemies.setPosition(e, limitedX, limitedY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Crée les tableaux de travail de la recherche des voisins, un jeu par thread de déplacement.
+     * @return Un nouvel objet Flocking dimensionné selon les règles de la partie
+     */
+    Flocking createFlocking() {
+        return new Flocking(rules.getNeighborCap());
+    }
+
+    /**
+     * Range les ennemis éveillés dans la grille des voisins et copie le déplacement de chaque ennemi,
+     * avant la phase de déplacement : la recherche des voisins et l'alignement ne dépendent pas
+     * de l'ordre dans lequel les lignes sont déplacées.
+     */
+    private void buildNeighborGrid() {
+        neighborGrid.clear();
+        if (neighborVelocityX.length < enemies.size()) {
+            int capacity = Math.max(enemies.size(), neighborVelocityX.length * 2);
+            neighborVelocityX = new double[capacity];
+            neighborVelocityY = new double[capacity];
+        }
+        for (int e = 0; e < enemies.size(); e++) {
+            neighborVelocityX[e] = enemies.getVelocityX(e);
+            neighborVelocityY[e] = enemies.getVelocityY(e);
+            if (chunkLod.intervalAt(enemies.getX(e), enemies.getY(e)) != 0) {
+                double radius = enemies.getRadius(e);
+                neighborGrid.insert(e, enemies.getX(e) + radius, enemies.getY(e) + radius);
+            }
+        }
+        neighborGrid.pack();
+    }
+
+    /**
+     * Construit le champ de danger à partir de tous les projectiles, une seule fois pour tous les ennemis du pas.
+     */
+    private void buildThreatField() {
+        threatField.clear();
+        for (int p = 0; p < projectiles.size(); p++) {
+            threatField.addThreat(projectiles.getX(p), projectiles.getY(p),
+                    projectiles.getVelocityX(p), projectiles.getVelocityY(p));
+        }
+        threatField.finish();
+    }
+
+    /**
+     * Cherche un ennemi en contact avec le joueur parmi les candidats de la grille spatiale.
+     * @return L'indice de l'ennemi le plus ancien en contact avec le joueur, ou -1 si aucun
+     */
+    private int findEnemyTouchingPlayer() {
+        double centerX = player.getX() + player.getWidth() / 2;
+        double centerY = player.getY() + player.getHeight() / 2;
+        double reach = player.getWidth() / 2 + maxEnemyRadius * 2; // Couvre la position d'origine de l'ennemi, testée par collidesWithPlayer
+        int candidates = enemyGrid.query(centerX - reach, centerY - reach, centerX + reach, centerY + reach);
+        int hit = -1;
+        for (int c = 0; c < candidates; c++) {
+            int e = enemyGrid.getResult(c);
+            if ((hit < 0 || e < hit) && Enemy.collidesWithPlayer(enemies, e, player)) {
+                hit = e;
+            }
+        }
+        return hit;
+    }
+
+    /**
+     * Reconstruit la grille spatiale à partir des positions actuelles des ennemis.
+     * Les ennemis endormis n'y sont pas rangés : ils sont bien plus loin du joueur que la portée des projectiles.
+     */
+    private void rebuildEnemyGrid() {
+        enemyGrid.clear();
+        maxEnemyRadius = 0;
+        if (enemyKilled.length < enemies.size()) {
+            enemyKilled = Arrays.copyOf(enemyKilled, Math.max(enemies.size(), enemyKilled.length * 2));
+        }
+        for (int e = 0; e < enemies.size(); e++) {
+            if (chunkLod.intervalAt(enemies.getX(e), enemies.getY(e)) != 0) {
+                insertInEnemyGrid(e);
+            }
+        }
+    }
+
+    /**
+     * Ajoute un ennemi à la grille spatiale, rangé selon son centre.
+     * @param row Ligne de l'ennemi dans la table des ennemis
+     */
+    private void insertInEnemyGrid(int row) {
+        if (row >= enemyKilled.length) {
+            enemyKilled = Arrays.copyOf(enemyKilled, Math.max(row + 1, enemyKilled.length * 2));
+        }
+        enemyKilled[row] = false;
+        double radius = enemies.getRadius(row);
+        maxEnemyRadius = Math.max(maxEnemyRadius, radius);
+        enemyGrid.insert(row, enemies.getX(row) + radius, enemies.getY(row) + radius);
+    }
+
+    /**
+     * Retire les ennemis marqués comme éliminés.
+     * Le parcours se fait de la dernière ligne vers la première : la ligne qui vient combler un trou
+     * a déjà été examinée, et n'est donc jamais marquée.
+     */
+    private void removeKilledEnemies() {
+        for (int e = enemies.size() - 1; e >= 0; e--) {
+            if (enemyKilled[e]) {
+                enemyKilled[e] = false;
+                entities.destroyRow(enemies, e);
+            }
+        }
+    }
+
+    /**
+     * Vérifie si un rectangle touche le rectangle du joueur (bords inclus).
+     * @param minX Coordonnée x du coin supérieur gauche du rectangle
+     * @param minY Coordonnée y du coin supérieur gauche du rectangle
+     * @param w Largeur du rectangle
+     * @param h Hauteur du rectangle
+     * @return true si les deux rectangles se chevauchent, false sinon
+     */
+    private boolean intersectsPlayer(double minX, double minY, double w, double h) {
+        return player.getX() + player.getWidth() >= minX && player.getX() <= minX + w
+                && player.getY() + player.getHeight() >= minY && player.getY() <= minY + h;
+    }
+
+    /**
+     * Vérifie s'il est nécessaire de faire apparaître un pack de munitions pour le joueur.
+     */
+    private void checkForAmmoSpawn() {
+        if (player.needsAmmoPack() && !isAmmoPackPresent) {
+            spawnAmmoPack();
+            isAmmoPackPresent = true;
+        }
+    }
+
+    /**
+     * Met en attente les ennemis d'une nouvelle vague (mode horde), puis fait apparaître le lot d'ennemis en attente
+     * prévu pour ce pas. Les ennemis éliminés pendant le pas sont ainsi remplacés en une seule fois, à la fin du pas.
+     */
+    private void spawnQueued() {
+        if (waves != null) {
+            spawnDirector.enqueue(waves.update(enemies.size(), spawnDirector.getPending()));
+        }
+        int count = spawnDirector.nextBatch(enemies.size());
+        for (int i = 0; i < count; i++) {
+            spawnEnemy();
+        }
+    }
+
+    /**
+     * Fait apparaître un nouvel ennemi à une distance minimale du joueur.
+     */
+    private void spawnEnemy() {
+        int attempts = spawnDirector.sample(random, player.getX(), player.getY());
+        double enemyX = spawnDirector.getSampleX();
+        double enemyY = spawnDirector.getSampleY();
+
+        if (random.nextDouble() < rules.getExtraLifeChance() && !hasExtraLife && extraLifeItem == null) {
+            spawnExtraLifeItem();
+        }
+
+        int type;
+        if (random.nextDouble() < rules.getOrangeChance()) {
+            EnemyOrange.spawn(entities, enemyX, enemyY);
+            type = EntityStore.TYPE_ENEMY_ORANGE;
+        } else {
+            Enemy.spawn(entities, enemyX, enemyY);
+            type = EntityStore.TYPE_ENEMY;
+        }
+        if (SpawnEvent.TYPE.isEnabled()) {
+            SpawnEvent event = new SpawnEvent();
+            event.tick = tick;
+            event.enemyType = type;
+            event.x = enemyX;
+            event.y = enemyY;
+            event.attempts = attempts;
+            event.commit();
+        }
+    }
+
+    /**
+     * Fait apparaître immédiatement plusieurs ennemis supplémentaires, sans passer par la file d'attente.
+     * Sert à préparer des scénarios chargés (mesures de performance, parties en lot).
+     * @param count Nombre d'ennemis à ajouter
+     */
+    public void spawnEnemies(int count) {
+        for (int i = 0; i < count; i++) {
+            spawnEnemy();
+        }
+    }
+
+    /**
+     * Fait apparaître un objet de vie supplémentaire à une distance minimale du joueur.
+     */
+    private void spawnExtraLifeItem() {
+        spawnDirector.sample(random, player.getX(), player.getY());
+        extraLifeItem = new ExtraLifeItem(spawnDirector.getSampleX(), spawnDirector.getSampleY());
+    }
+
+    /**
+     * Fait apparaître un pack de munitions à une position aléatoire, dans la fenêtre d'apparition autour du joueur.
+     */
+    private void spawnAmmoPack() {
+        spawnDirector.sampleNear(random, player.getX(), player.getY());
+        ammoPacks.add(new AmmoPack(spawnDirector.getSampleX(), spawnDirector.getSampleY()));
+    }
+
+    /**
+     * Augmente progressivement la vitesse du jeu.
+     */
+    private void increaseGameSpeed() {
+        gameSpeed += rules.getSpeedStep();
+    }
+
+    /**
+     * Calcule la taille de l'état écrit par saveState, qui dépend du nombre d'entités.
+     * @return Le nombre d'octets écrits
+     */
+    public int stateSize() {
+        return STATE_HEADER_BYTES + Player.STATE_BYTES + SpawnDirector.STATE_BYTES
+                + (waves != null ? HordeWaves.STATE_BYTES : 0) + (flowField != null ? FlowField.STATE_BYTES : 0)
+                + Long.BYTES * (4 + 2 * ammoPacks.size()) + entities.stateSize();
+    }
+
+    /**
+     * Écrit tout l'état de la partie à la position du tampon : compteurs, générateur aléatoire, joueur, bonus, file d'apparition,
+     * vagues, champ de direction et entités. Chaque valeur occupe 8 octets, et les entités, dont le nombre varie, sont écrites
+     * en dernier : d'un pas à l'autre, la plupart des valeurs restent à la même position (voir RewindBuffer).
+     * Les données recalculées à chaque pas (grilles, champ de danger) et les positions précédentes, qui ne servent
+     * qu'à l'interpolation de l'affichage, n'en font pas partie.
+     * @param out Tampon de destination, avec au moins {@link #stateSize()} octets disponibles
+     */
+    public void saveState(ByteBuffer out) {
+        out.putLong(STATE_MAGIC);
+        out.putDouble(width);
+        out.putDouble(height);
+        out.putDouble(timeScale);
+        out.putLong(rules.getMode().ordinal());
+        out.putLong(tick);
+        out.putLong(killCount);
+        out.putDouble(gameSpeed);
+        out.putLong(hasExtraLife ? 1 : 0);
+        out.putLong(isAmmoPackPresent ? 1 : 0);
+        out.putLong(gameOver ? 1 : 0);
+        out.putLong(random.getState());
+        player.writeState(out);
+        spawnDirector.writeState(out);
+        if (waves != null) {
+            waves.writeState(out);
+        }
+        if (flowField != null) {
+            flowField.writeState(out);
+        }
+        out.putLong(extraLifeItem != null ? 1 : 0);
+        out.putDouble(extraLifeItem != null ? extraLifeItem.getX() : 0);
+        out.putDouble(extraLifeItem != null ? extraLifeItem.getY() : 0);
+        out.putLong(ammoPacks.size());
+        for (int a = 0; a < ammoPacks.size(); a++) {
+            out.putDouble(ammoPacks.get(a).getX());
+            out.putDouble(ammoPacks.get(a).getY());
+        }
+        entities.writeState(out);
+    }
+
+    /**
+     * Rétablit l'état écrit par saveState. La partie reprend ensuite exactement comme après le pas enregistré :
+     * avec les mêmes commandes, les pas suivants donnent le même résultat, au bit près.
+     * @param in Tampon source, positionné au début de l'état
+     * @throws IllegalArgumentException si l'état n'a pas été écrit par un monde de mêmes dimensions, fréquence et mode
+     */
+    public void restoreState(ByteBuffer in) {
+        if (in.getLong() != STATE_MAGIC || in.getDouble() != width || in.getDouble() != height
+                || in.getDouble() != timeScale || in.getLong() != rules.getMode().ordinal()) {
+            throw new IllegalArgumentException("État d'un autre monde (dimensions, fréquence ou mode différents)");
+        }
+        tick = in.getLong();
+        killCount = (int) in.getLong();
+        gameSpeed = in.getDouble();
+        hasExtraLife = in.getLong() != 0;
+        isAmmoPackPresent = in.getLong() != 0;
+        gameOver = in.getLong() != 0;
+        random.setState(in.getLong());
+        player.readState(in);
+        spawnDirector.readState(in);
+        if (waves != null) {
+            waves.readState(in);
+        }
+        if (flowField != null) {
+            flowField.readState(in);
+        }
+        boolean extraLife = in.getLong() != 0;
+        double extraLifeX = in.getDouble();
+        double extraLifeY = in.getDouble();
+        // Les bonus déjà présents sont déplacés plutôt que recréés : rétablir un état proche n'alloue rien
+        if (!extraLife) {
+            extraLifeItem = null;
+        } else if (extraLifeItem != null) {
+            extraLifeItem.setPosition(extraLifeX, extraLifeY);
+        } else {
+            extraLifeItem = new ExtraLifeItem(extraLifeX, extraLifeY);
+        }
+        int ammoPackCount = (int) in.getLong();
+        while (ammoPacks.size() > ammoPackCount) {
+            ammoPacks.remove(ammoPacks.size() - 1);
+        }
+        for (int a = 0; a < ammoPackCount; a++) {
+            double x = in.getDouble();
+            double y = in.getDouble();
+            if (a < ammoPacks.size()) {
+                ammoPacks.get(a).setPosition(x, y);
+            } else {
+                ammoPacks.add(new AmmoPack(x, y));
+            }
+        }
+        entities.readState(in);
+        Arrays.fill(enemyKilled, false);
+        chunkLod.update(player.getX(), player.getY());
+    }
+
+    /**
+     * Choisit les threads utilisés pour déplacer les ennemis quand ils sont nombreux.
+     * Le résultat de la simulation ne dépend pas de ce choix.
+     * @param pool Pool de threads, ou null pour tout calculer sur le thread appelant
+     *             (par exemple quand plusieurs parties tournent déjà en parallèle)
+     */
+    public void setSteeringPool(ForkJoinPool pool) {
+        this.steeringPool = pool;
+    }
+
+    /**
+     * Définit le profileur qui reçoit la durée des phases de chaque pas.
+     * @param profiler Profileur, ou null pour ne pas mesurer
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Getter pour le mode de jeu de la partie.
+     * @return Le mode de jeu
+     */
+    public GameMode getMode() {
+        return rules.getMode();
+    }
+
+    /**
+     * Getter pour le numéro de la vague en cours.
+     * @return Le numéro de la vague du mode horde, ou 0 en mode classique
+     */
+    public int getWave() {
+        return waves != null ? waves.getWave() : 0;
+    }
+
+    /**
+     * Getter pour le joueur.
+     * @return Le joueur
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Getter pour les murs de l'arène.
+     * @return Les murs (aucun si les règles les désactivent)
+     */
+    public Obstacles getObstacles() {
+        return obstacles;
+    }
+
+    /**
+     * Getter pour le magasin d'entités (ennemis et projectiles).
+     * @return Le magasin d'entités
+     */
+    public EntityStore getEntities() {
+        return entities;
+    }
+
+    /**
+     * Getter pour les packs de munitions présents.
+     * @return La liste des packs de munitions
+     */
+    public List<AmmoPack> getAmmoPacks() {
+        return ammoPacks;
+    }
+
+    /**
+     * Getter pour l'objet de vie supplémentaire présent dans l'arène.
+     * @return L'objet de vie supplémentaire, ou null s'il n'y en a pas
+     */
+    public ExtraLifeItem getExtraLifeItem() {
+        return extraLifeItem;
+    }
+
+    /**
+     * Getter pour le compteur de kills.
+     * @return Le nombre d'ennemis éliminés
+     */
+    public int getKillCount() {
+        return killCount;
+    }
+
+    /**
+     * Retourne la vitesse actuelle du jeu.
+     * @return Vitesse du jeu
+     */
+    public double getGameSpeed() {
+        return gameSpeed;
+    }
+
+    /**
+     * Indique si le joueur possède une vie supplémentaire.
+     * @return true si le joueur a une vie supplémentaire
+     */
+    public boolean hasExtraLife() {
+        return hasExtraLife;
+    }
+
+    /**
+     * Indique si la partie est terminée.
+     * @return true si le joueur a perdu
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Getter pour le nombre de pas de simulation effectués.
+     * @return Le nombre de pas
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Getter pour la largeur de l'arène.
+     * @return La largeur de l'arène
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter pour la hauteur de l'arène.
+     * @return La hauteur de l'arène
+     */
+    public double getHeight() {
+        return height;
+    }
+}
@@ -1,12 +1,15 @@
 module com.testgame.testgame {
     requires javafx.controls;
-    requires javafx.fxml;
+    requires jdk.jfr;
 
-    requires org.controlsfx.controls;
-    requires org.kordamp.bootstrapfx.core;
-
-    opens com.testgame.testgame to javafx.fxml;
     exports com.testgame.testgame;
     exports com.testgame.testgame.entities;
-    opens com.testgame.testgame.entities to javafx.fxml;
+    exports com.testgame.testgame.world;
+    exports com.testgame.testgame.render;
+    exports com.testgame.testgame.replay;
+    exports com.testgame.testgame.balance;
+    exports com.testgame.testgame.scores;
+    exports com.testgame.testgame.metrics;
+    exports com.testgame.testgame.net;
+    exports com.testgame.testgame.rewind;
 }
@@ -0,0 +1,180 @@
+package com.testgame.testgame.metrics;
+
+import com.testgame.testgame.balance.BotPlayer;
+import com.testgame.testgame.entities.Archetype;
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test qui mesure la mémoire allouée par pas de simulation, une fois le jeu chaud, et échoue si elle dépasse
+ * {@link #MAX_BYTES_PER_TICK} : un pas qui alloue finit par déclencher le ramasse-miettes, dont les pauses font saccader
+ * le jeu sur les machines modestes. Lancé par Surefire à chaque compilation (mvn test, mvn package).
+ * <p>
+ * Chaque scénario joue des parties à graine fixe avec le bot d'équilibrage. Ne sont pas comptés : la première partie
+ * (compilation du code par la JVM), les premiers pas de chaque partie, ni les pas qui portent le nombre d'ennemis
+ * ou de projectiles à un niveau jamais atteint dans la partie, ni le pas qui les suit : les tableaux du monde
+ * y grandissent par doublement, ce qui n'arrive qu'un petit nombre de fois par partie. Seuls les appels à World.step
+ * sont mesurés, sur le thread appelant et sur les threads du pool de déplacement, avec ThreadMXBean.getThreadAllocatedBytes.
+ */
+class AllocationGateTest {
+    private static final double MAX_BYTES_PER_TICK = 16; // Allocation moyenne tolérée par pas
+    private static final int WARMUP_TICKS = 600; // Pas non mesurés au début de chaque partie
+    private static final int CROWD_WARMUP_TICKS = 60; // Pas non mesurés quand la partie commence avec une foule d'ennemis
+    private static final int CROWD_ENEMIES = 5000; // Ennemis ajoutés au début des parties du scénario parallèle
+    private static final int MEASURED_TICKS = 3000; // Pas mesurés par scénario
+    private static final int MAX_TICKS_PER_GAME = 6000; // Durée maximale d'une partie
+    private static final int MAX_GAMES = 50; // Nombre maximal de parties jouées pour atteindre MEASURED_TICKS
+
+    private static com.sun.management.ThreadMXBean threads; // Mesure de l'allocation par thread
+
+    /**
+     * Prépare la mesure de l'allocation.
+     */
+    @BeforeAll
+    static void setUp() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    /**
+     * Parties en mode classique, déplacement sur le thread appelant.
+     */
+    @Test
+    void classicTickDoesNotAllocate() {
+        run("classique", GameRules.forMode(GameMode.CLASSIC), 0, WARMUP_TICKS, List.of(), null);
+    }
+
+    /**
+     * Parties en mode horde, déplacement sur le thread appelant.
+     */
+    @Test
+    void hordeTickDoesNotAllocate() {
+        run("horde", GameRules.forMode(GameMode.HORDE), 0, WARMUP_TICKS, List.of(), null);
+    }
+
+    /**
+     * Foule présente dès le départ : le bot tient quelques centaines de pas, le déplacement passe par le pool.
+     */
+    @Test
+    void parallelCrowdTickDoesNotAllocate() {
+        List<Thread> workers = new CopyOnWriteArrayList<>(); // Remplie par les threads qui démarrent le pool
+        ForkJoinPool pool = new ForkJoinPool(2, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            workers.add(thread);
+            return thread;
+        }, null, false);
+        try {
+            run("horde " + CROWD_ENEMIES + " ennemis, parallèle", GameRules.forMode(GameMode.HORDE),
+                    CROWD_ENEMIES, CROWD_WARMUP_TICKS, workers, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Mesure un scénario et échoue si l'allocation moyenne par pas dépasse le budget.
+     * @param name Nom du scénario
+     * @param rules Règles des parties
+     * @param extraEnemies Ennemis ajoutés au début de chaque partie
+     * @param warmupTicks Pas non mesurés au début de chaque partie
+     * @param workers Threads du pool de déplacement
+     * @param pool Pool de déplacement des ennemis (null : tout sur le thread appelant)
+     */
+    private static void run(String name, GameRules rules, int extraEnemies, int warmupTicks, List<Thread> workers, ForkJoinPool pool) {
+        PlayerInput input = new PlayerInput();
+        long seed = 1;
+        long[] result = new long[4]; // Octets alloués, pas mesurés, plus grande allocation d'un pas, pas de croissance ignorés
+        playGame(workers, rules, seed++, extraEnemies, warmupTicks, pool, input, 0, result); // Première partie : compilation du code
+        for (int game = 0; game < MAX_GAMES && result[1] < MEASURED_TICKS; game++) {
+            playGame(workers, rules, seed++, extraEnemies, warmupTicks, pool, input, MEASURED_TICKS, result);
+        }
+        double perTick = (double) result[0] / Math.max(1, result[1]);
+        String summary = String.format("%s : %d pas mesurés (%d de croissance ignorés), %.1f octets par pas (max %d sur un pas), budget %.0f",
+                name, result[1], result[3], perTick, result[2], MAX_BYTES_PER_TICK);
+        System.out.println(summary);
+        assertTrue(result[1] > 0 && perTick <= MAX_BYTES_PER_TICK, summary);
+    }
+
+    /**
+     * Joue une partie avec le bot et mesure l'allocation des pas après l'échauffement.
+     * @param workers Threads du pool de déplacement
+     * @param rules Règles de la partie
+     * @param seed Graine de la partie
+     * @param extraEnemies Ennemis ajoutés au début de la partie
+     * @param warmupTicks Pas non mesurés au début de la partie
+     * @param pool Pool de déplacement des ennemis
+     * @param input Commandes réutilisées
+     * @param maxMeasured Nombre total de pas à mesurer (0 : partie jouée sans mesure)
+     * @param result Octets alloués, pas mesurés, plus grande allocation d'un pas et pas de croissance ignorés,
+     *               complétés par cette partie
+     */
+    private static void playGame(List<Thread> workers, GameRules rules, long seed,
+                                 int extraEnemies, int warmupTicks, ForkJoinPool pool, PlayerInput input, long maxMeasured,
+                                 long[] result) {
+        World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, seed, World.REFERENCE_TICK_RATE, rules);
+        world.setSteeringPool(pool);
+        world.spawnEnemies(extraEnemies);
+        BotPlayer bot = new BotPlayer(new SplittableRandom(seed));
+        Archetype enemies = world.getEntities().getEnemies();
+        Archetype projectiles = world.getEntities().getProjectiles();
+        int maxEnemies = enemies.size(); // Plus grand nombre d'ennemis atteint dans la partie
+        int maxProjectiles = projectiles.size(); // Plus grand nombre de projectiles atteint dans la partie
+        boolean grew = false; // Le pas précédent a atteint un nouveau maximum
+        for (int tick = 0; tick < MAX_TICKS_PER_GAME && !world.isGameOver(); tick++) {
+            if (maxMeasured > 0 && result[1] >= maxMeasured) {
+                return;
+            }
+            input.clearShots();
+            bot.decide(world, input);
+            if (maxMeasured == 0 || tick < warmupTicks) {
+                world.step(input);
+                grew = enemies.size() > maxEnemies || projectiles.size() > maxProjectiles;
+                maxEnemies = Math.max(maxEnemies, enemies.size());
+                maxProjectiles = Math.max(maxProjectiles, projectiles.size());
+                continue;
+            }
+            // Les threads du pool sont lus hors de la fenêtre du thread appelant, la lecture allouant elle-même
+            long workersBefore = workerBytes(workers);
+            long before = threads.getCurrentThreadAllocatedBytes();
+            world.step(input);
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            allocated += workerBytes(workers) - workersBefore;
+            boolean growth = grew; // Les grilles sont dimensionnées au début du pas, un pas après les tables d'entités
+            grew = enemies.size() > maxEnemies || projectiles.size() > maxProjectiles;
+            maxEnemies = Math.max(maxEnemies, enemies.size());
+            maxProjectiles = Math.max(maxProjectiles, projectiles.size());
+            if (growth || grew) {
+                result[3]++; // Pas de croissance : les tableaux du monde ont pu doubler
+                continue;
+            }
+            result[0] += allocated;
+            result[1]++;
+            result[2] = Math.max(result[2], allocated);
+        }
+    }
+
+    /**
+     * Additionne la mémoire allouée par les threads du pool de déplacement.
+     * @param workers Threads du pool
+     * @return Le total des octets alloués par ces threads depuis leur création
+     */
+    private static long workerBytes(List<Thread> workers) {
+        long total = 0;
+        for (int i = 0; i < workers.size(); i++) {
+            total += Math.max(0, threads.getThreadAllocatedBytes(workers.get(i).getId()));
+        }
+        return total;
+    }
+}
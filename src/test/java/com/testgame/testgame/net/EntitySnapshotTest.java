@@ -0,0 +1,231 @@
+package com.testgame.testgame.net;
+
+import com.testgame.testgame.entities.EntityStore;
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.World;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'encodage des snapshots en écart ({@link EntitySnapshot}) : aller-retour encode puis decode,
+ * écart coupé faute de place puis repris au snapshot suivant, et absence de désynchronisation en boucle locale avec pertes.
+ */
+class EntitySnapshotTest {
+
+    /**
+     * Déplacements, ajouts, suppressions et emplacement réutilisé par une nouvelle génération, parcours depuis l'emplacement 0.
+     */
+    @Test
+    void roundTripFromFirstSlot() {
+        assertRoundTrip(0);
+    }
+
+    /**
+     * Même écart avec un parcours qui commence au milieu des emplacements et reprend au début après le dernier.
+     */
+    @Test
+    void roundTripWrapsAroundStart() {
+        assertRoundTrip(7);
+        assertRoundTrip(EntityStore.MAX_SLOTS - 1);
+    }
+
+    /**
+     * Un snapshot complet (référence vide) redonne l'état cible.
+     */
+    @Test
+    void fullSnapshotRoundTrip() {
+        EntitySnapshot target = target(2);
+        EntitySnapshot decoded = roundTrip(new EntitySnapshot(), target, 0, NetFormat.MAX_PACKET, 0);
+        assertSame(target, decoded);
+    }
+
+    /**
+     * Un écart coupé par un petit tampon donne au client l'état prévu par le serveur, et les écarts suivants,
+     * repris depuis l'emplacement renvoyé par encode, finissent par atteindre l'état cible.
+     */
+    @Test
+    void cutDeltaResumesFromNextStart() {
+        EntitySnapshot base = new EntitySnapshot();
+        base.clear(1);
+        EntitySnapshot target = new EntitySnapshot();
+        target.clear(2);
+        for (int slot = 0; slot < 200; slot++) {
+            target.add(handle(1, slot * 3), EntityStore.TYPE_ENEMY, slot * 40, slot * 17);
+        }
+        int start = 0;
+        int rounds = 0;
+        do {
+            ByteBuffer buffer = ByteBuffer.allocate(96);
+            EntitySnapshot sent = new EntitySnapshot();
+            int next = EntitySnapshot.encode(base, target, start, buffer, sent);
+            buffer.flip();
+            EntitySnapshot decoded = new EntitySnapshot();
+            assertTrue(EntitySnapshot.decode(base, start, buffer, decoded), "Somme de contrôle refusée au tour " + rounds);
+            assertSame(sent, decoded);
+            if (next != 0) {
+                assertNotEquals(target.checksum(), decoded.checksum(), "Écart coupé qui contient déjà tout l'état");
+            }
+            base = decoded;
+            start = next;
+            rounds++;
+        } while (start != 0 && rounds < 100);
+        assertTrue(rounds > 1, "Le tampon aurait dû couper l'écart");
+        assertSame(target, base);
+    }
+
+    /**
+     * Une courte partie en boucle locale, avec 10 % de pertes dans les deux sens, ne désynchronise aucun client.
+     * @throws Exception En cas d'erreur réseau ou d'arrêt du serveur
+     */
+    @Test
+    void loopbackWithLossHasNoDesync() throws Exception {
+        GameServer server = new GameServer(0, GameRules.forMode(GameMode.HORDE), 3, World.REFERENCE_TICK_RATE);
+        server.setExtraEnemies(300);
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "game-server");
+        serverThread.start();
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        GameClient[] clients = new GameClient[2];
+        try {
+            for (int i = 0; i < clients.length; i++) {
+                clients[i] = new GameClient(address);
+                clients[i].setLossRate(0.1, 5 + i);
+            }
+            SplittableRandom random = new SplittableRandom(3);
+            long stepNanos = 1_000_000_000L / World.REFERENCE_TICK_RATE;
+            long start = System.nanoTime();
+            for (int tick = 0; tick < 3 * World.REFERENCE_TICK_RATE; tick++) {
+                for (GameClient client : clients) {
+                    client.poll();
+                    boolean up = client.isPilot() && tick / 30 % 2 == 0;
+                    boolean left = client.isPilot() && random.nextInt(4) == 0;
+                    client.sendInput(up, !up && client.isPilot(), left, false);
+                }
+                LockSupport.parkNanos(Math.max(0, start + (tick + 1) * stepNanos - System.nanoTime()));
+            }
+        } finally {
+            server.stop();
+            serverThread.join();
+            server.close();
+        }
+        for (GameClient client : clients) {
+            assertTrue(client.getSnapshotsReceived() > 0, "Client " + client.getClientId() + " sans snapshot");
+            assertEquals(0, client.getDesyncs(), "Client " + client.getClientId() + " désynchronisé");
+            client.close();
+        }
+    }
+
+    /**
+     * Vérifie qu'un écart entre une référence et une cible qui mêle tous les cas redonne la cible, sans coupure.
+     * @param start Emplacement de départ du parcours
+     */
+    private static void assertRoundTrip(int start) {
+        EntitySnapshot base = base();
+        EntitySnapshot target = target(2);
+        EntitySnapshot decoded = roundTrip(base, target, start, NetFormat.MAX_PACKET, 0);
+        assertSame(target, decoded);
+    }
+
+    /**
+     * Encode puis décode un écart, en vérifiant la somme de contrôle et l'état prévu par le serveur.
+     * @param base Snapshot de référence
+     * @param target Snapshot cible
+     * @param start Emplacement de départ du parcours
+     * @param capacity Taille du tampon du datagramme
+     * @param expectedCut Emplacement de coupure attendu
+     * @return L'état obtenu par le client
+     */
+    private static EntitySnapshot roundTrip(EntitySnapshot base, EntitySnapshot target, int start, int capacity, int expectedCut) {
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        EntitySnapshot sent = new EntitySnapshot();
+        assertEquals(expectedCut, EntitySnapshot.encode(base, target, start, buffer, sent));
+        buffer.flip();
+        EntitySnapshot decoded = new EntitySnapshot();
+        assertTrue(EntitySnapshot.decode(base, start, buffer, decoded));
+        assertEquals(0, buffer.remaining(), "Octets non lus après l'écart");
+        assertSame(sent, decoded);
+        return decoded;
+    }
+
+    /**
+     * Snapshot de référence : des entités sur les emplacements 1 à 12, triées par emplacement.
+     * @return Le snapshot
+     */
+    private static EntitySnapshot base() {
+        EntitySnapshot base = new EntitySnapshot();
+        base.clear(1);
+        for (int slot = 1; slot <= 12; slot++) {
+            base.add(handle(1, slot), EntityStore.TYPE_ENEMY, slot * 100, slot * 50);
+        }
+        return base;
+    }
+
+    /**
+     * Snapshot cible, écart avec base : emplacements 2 et 9 déplacés d'un pas, 10 déplacé loin,
+     * 4 et 11 supprimés, 5 réutilisé par une nouvelle génération d'un autre type, 0 et 13 ajoutés.
+     * @param tick Pas du snapshot
+     * @return Le snapshot
+     */
+    private static EntitySnapshot target(int tick) {
+        EntitySnapshot target = new EntitySnapshot();
+        target.clear(tick);
+        target.add(handle(1, 0), EntityStore.TYPE_PROJECTILE, -40, 7);
+        for (int slot = 1; slot <= 12; slot++) {
+            int x = slot * 100;
+            int y = slot * 50;
+            switch (slot) {
+                case 2, 9 -> target.add(handle(1, slot), EntityStore.TYPE_ENEMY, x + 3, y - 2);
+                case 10 -> target.add(handle(1, slot), EntityStore.TYPE_ENEMY, x - 5000, y + 70000);
+                case 4, 11 -> {
+                    // Supprimés
+                }
+                case 5 -> target.add(handle(2, slot), EntityStore.TYPE_ENEMY_ORANGE, 1, 2);
+                default -> target.add(handle(1, slot), EntityStore.TYPE_ENEMY, x, y);
+            }
+        }
+        target.add(handle(4, 13), EntityStore.TYPE_ENEMY_ORANGE, 9, 9);
+        return target;
+    }
+
+    /**
+     * Construit un handle.
+     * @param generation Génération de l'emplacement
+     * @param slot Emplacement
+     * @return Le handle
+     */
+    private static int handle(int generation, int slot) {
+        return generation * EntityStore.MAX_SLOTS + slot;
+    }
+
+    /**
+     * Vérifie que deux snapshots contiennent les mêmes entités, dans le même ordre.
+     * @param expected Snapshot attendu
+     * @param actual Snapshot obtenu
+     */
+    private static void assertSame(EntitySnapshot expected, EntitySnapshot actual) {
+        assertEquals(expected.size(), actual.size(), "Nombre d'entités");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getHandle(i), actual.getHandle(i), "Handle " + i);
+            assertEquals(expected.getType(i), actual.getType(i), "Type " + i);
+            assertEquals(expected.getX(i), actual.getX(i), "x " + i);
+            assertEquals(expected.getY(i), actual.getY(i), "y " + i);
+        }
+        assertEquals(expected.checksum(), actual.checksum());
+    }
+}
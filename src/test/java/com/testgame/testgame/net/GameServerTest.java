@@ -0,0 +1,194 @@
+package com.testgame.testgame.net;
+
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.World;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'accueil des clients par {@link GameServer} : le serveur ne doit jamais répondre à une adresse
+ * qui n'a pas prouvé qu'elle reçoit ses datagrammes par plus d'octets qu'il n'en a reçus.
+ */
+class GameServerTest {
+    private static final int QUIET_MILLIS = 300; // Attente au-delà de laquelle le serveur est considéré muet
+
+    private GameServer server; // Serveur lancé sur un port libre
+    private Thread serverThread; // Thread de la boucle du serveur
+    private InetSocketAddress address; // Adresse du serveur en boucle locale
+    private final List<DatagramSocket> sockets = new ArrayList<>(); // Sockets des faux clients, fermées après chaque test
+
+    /**
+     * Lance un serveur en mode horde sur un port libre.
+     * @throws IOException Si le port ne peut pas être ouvert
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new GameServer(0, GameRules.forMode(GameMode.HORDE), 1, World.REFERENCE_TICK_RATE);
+        serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "game-server");
+        serverThread.start();
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    /**
+     * Arrête le serveur et ferme les sockets des faux clients.
+     * @throws Exception Si le serveur ne s'arrête pas proprement
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        server.stop();
+        serverThread.join();
+        server.close();
+        for (DatagramSocket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    /**
+     * Un HELLO plus court que la réponse n'obtient rien.
+     */
+    @Test
+    void shortHelloIsIgnored() throws IOException {
+        DatagramSocket socket = open();
+        ByteBuffer hello = header(NetFormat.HELLO, 4);
+        send(socket, hello);
+        assertNull(receive(socket));
+    }
+
+    /**
+     * Le WELCOME n'est pas plus long que le HELLO, et aucun snapshot ne part avant que le jeton soit renvoyé.
+     */
+    @Test
+    void snapshotsWaitForTheNonce() throws IOException {
+        DatagramSocket socket = open();
+        send(socket, hello());
+        ByteBuffer welcome = receive(socket);
+        assertNotNull(welcome);
+        assertTrue(welcome.remaining() <= NetFormat.HELLO_SIZE, "WELCOME de " + welcome.remaining() + " octets");
+        assertEquals(NetFormat.WELCOME, NetFormat.readHeader(welcome));
+        NetFormat.getVarInt(welcome);
+        long nonce = welcome.getLong();
+        assertNull(receive(socket), "Snapshot envoyé avant le renvoi du jeton");
+
+        send(socket, input(nonce + 1));
+        assertNull(receive(socket), "Snapshot envoyé pour un jeton faux");
+
+        send(socket, input(nonce));
+        ByteBuffer snapshot = receive(socket);
+        assertNotNull(snapshot);
+        assertEquals(NetFormat.SNAPSHOT, NetFormat.readHeader(snapshot));
+    }
+
+    /**
+     * Au-delà de {@link GameServer#MAX_CLIENTS} adresses, les HELLO restent sans réponse.
+     */
+    @Test
+    void clientCountIsCapped() throws IOException {
+        for (int i = 0; i < GameServer.MAX_CLIENTS; i++) {
+            DatagramSocket socket = open();
+            send(socket, hello());
+            assertNotNull(receive(socket), "Client " + i + " refusé");
+        }
+        DatagramSocket extra = open();
+        send(extra, hello());
+        assertNull(receive(extra));
+    }
+
+    /**
+     * Ouvre la socket d'un faux client.
+     * @return La socket, fermée après le test
+     * @throws IOException Si la socket ne peut pas être ouverte
+     */
+    private DatagramSocket open() throws IOException {
+        DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        socket.setSoTimeout(QUIET_MILLIS);
+        sockets.add(socket);
+        return socket;
+    }
+
+    /**
+     * Prépare un datagramme avec son en-tête.
+     * @param type Type du datagramme
+     * @param size Taille réservée
+     * @return Le tampon, positionné après l'en-tête
+     */
+    private static ByteBuffer header(byte type, int size) {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        NetFormat.putHeader(buffer, type);
+        return buffer;
+    }
+
+    /**
+     * Construit un HELLO complété jusqu'à {@link NetFormat#HELLO_SIZE}.
+     * @return Le datagramme
+     */
+    private static ByteBuffer hello() {
+        ByteBuffer buffer = header(NetFormat.HELLO, NetFormat.HELLO_SIZE);
+        buffer.position(NetFormat.HELLO_SIZE);
+        return buffer;
+    }
+
+    /**
+     * Construit des commandes vides, sans accusé.
+     * @param nonce Jeton renvoyé au serveur
+     * @return Le datagramme
+     */
+    private static ByteBuffer input(long nonce) {
+        ByteBuffer buffer = header(NetFormat.INPUT, 32);
+        buffer.putLong(nonce);
+        NetFormat.putVarInt(buffer, 1);
+        NetFormat.putVarInt(buffer, 0);
+        NetFormat.putVarInt(buffer, 0);
+        buffer.put((byte) 0);
+        NetFormat.putVarInt(buffer, 0);
+        return buffer;
+    }
+
+    /**
+     * Envoie un datagramme au serveur.
+     * @param socket Socket du faux client
+     * @param buffer Datagramme, rempli jusqu'à sa position
+     * @throws IOException En cas d'erreur d'envoi
+     */
+    private void send(DatagramSocket socket, ByteBuffer buffer) throws IOException {
+        socket.send(new DatagramPacket(buffer.array(), buffer.position(), address));
+    }
+
+    /**
+     * Attend un datagramme du serveur.
+     * @param socket Socket du faux client
+     * @return Le datagramme reçu, ou null si rien n'est arrivé dans le délai
+     * @throws IOException En cas d'erreur de réception
+     */
+    private static ByteBuffer receive(DatagramSocket socket) throws IOException {
+        DatagramPacket packet = new DatagramPacket(new byte[NetFormat.MAX_PACKET], NetFormat.MAX_PACKET);
+        try {
+            socket.receive(packet);
+        } catch (SocketTimeoutException e) {
+            return null;
+        }
+        return ByteBuffer.wrap(packet.getData(), 0, packet.getLength());
+    }
+}
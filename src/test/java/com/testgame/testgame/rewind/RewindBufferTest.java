@@ -0,0 +1,221 @@
+package com.testgame.testgame.rewind;
+
+import com.testgame.testgame.balance.BotPlayer;
+import com.testgame.testgame.world.GameMode;
+import com.testgame.testgame.world.GameRules;
+import com.testgame.testgame.world.PlayerInput;
+import com.testgame.testgame.world.World;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'historique ({@link RewindBuffer}) sur des parties jouées par le bot d'équilibrage : état rétabli complet
+ * et partie rejouée à l'identique, budget respecté, tampon circulaire qui reprend au début, et nouvelle suite
+ * enregistrée après un retour en arrière.
+ * <p>
+ * Les commandes du bot sont tirées à nouveau à chaque pas à partir du numéro du pas : elles ne dépendent que du pas
+ * et de l'état du monde, et peuvent donc être rejouées.
+ */
+class RewindBufferTest {
+    private static final long SEED = 1; // Graine des parties et des commandes
+    private static final int PLAY_TICKS = 20 * World.REFERENCE_TICK_RATE; // Durée maximale des parties
+    private static final double SECONDS = 10; // Durée couverte par l'historique
+    private static final int BUDGET = 32 * 1024 * 1024; // Budget de l'historique
+    private static final int SHOT_INTERVAL = 12; // Pas entre deux tirs du bot
+
+    /**
+     * Avec le budget demandé, l'historique couvre toute sa durée ; le dernier pas rétabli est identique à l'état enregistré,
+     * et la partie rejouée depuis le milieu de l'historique se termine à l'identique.
+     */
+    @Test
+    void restoreAndReplayAreByteIdentical() {
+        World world = newWorld();
+        RewindBuffer buffer = new RewindBuffer(SECONDS, World.REFERENCE_TICK_RATE, BUDGET);
+        playAndRecord(world, buffer, PLAY_TICKS);
+        long lastTick = world.getTick();
+        assertTrue(lastTick >= buffer.getCapacity(), "Partie terminée avant de remplir l'historique");
+        // Les pas sont oubliés une image clé et ses écarts à la fois : un historique plein couvre sa durée, à une image clé près
+        assertTrue(span(buffer) >= buffer.getCapacity() - RewindBuffer.KEYFRAME_INTERVAL);
+        assertReplaysIdentically(world, buffer);
+    }
+
+    /**
+     * Avec un budget quatre fois plus petit que la mémoire utilisée par une partie, les pas les plus anciens
+     * sont oubliés sans dépasser le budget, et les pas gardés restent exacts.
+     */
+    @Test
+    void tightBudgetEvictsOldestTicks() {
+        RewindBuffer full = new RewindBuffer(SECONDS, World.REFERENCE_TICK_RATE, BUDGET);
+        playAndRecord(newWorld(), full, PLAY_TICKS);
+        int tightBudget = (int) (full.getUsedBytes() / 4);
+
+        World world = newWorld();
+        RewindBuffer buffer = new RewindBuffer(SECONDS, World.REFERENCE_TICK_RATE, tightBudget);
+        playAndRecord(world, buffer, PLAY_TICKS);
+        assertTrue(span(buffer) < buffer.getCapacity() - RewindBuffer.KEYFRAME_INTERVAL, "Le budget n'a pas limité l'historique");
+        assertTrue(buffer.getUsedBytes() <= buffer.getBudgetBytes());
+        assertReplaysIdentically(world, buffer);
+    }
+
+    /**
+     * Un historique court et un petit budget font reprendre plusieurs fois le tampon et les descriptions des pas au début :
+     * tout pas encore gardé est rétabli tel qu'il a été enregistré.
+     */
+    @Test
+    void wrapAroundKeepsEveryTickExact() {
+        World world = newWorld();
+        World other = newWorld();
+        PlayerInput input = new PlayerInput();
+        RewindBuffer buffer = new RewindBuffer(1, World.REFERENCE_TICK_RATE, 40 * world.stateSize());
+        Map<Long, byte[]> states = new HashMap<>();
+        int checks = 0;
+        while (world.getTick() < 10 * World.REFERENCE_TICK_RATE && !world.isGameOver()) {
+            step(world, input);
+            assertTrue(buffer.record(world));
+            states.put(world.getTick(), saveState(world));
+            if (world.getTick() % 37 == 0) {
+                for (long tick = buffer.getOldestTick(); tick <= buffer.getNewestTick(); tick++) {
+                    assertTrue(buffer.restore(other, tick));
+                    assertArrayEquals(states.get(tick), saveState(other), "Pas " + tick);
+                }
+                // Retour au dernier pas, pour que le prochain pas enregistré le suive
+                assertTrue(buffer.restore(world, buffer.getNewestTick()));
+                checks++;
+            }
+        }
+        assertTrue(checks > 5);
+        assertTrue(buffer.getOldestTick() > buffer.getCapacity(), "L'historique n'a jamais repris au début");
+        assertFalse(buffer.restore(other, buffer.getOldestTick() - 1));
+        assertFalse(buffer.restore(other, buffer.getNewestTick() + 1));
+    }
+
+    /**
+     * Enregistrer un pas après un retour en arrière efface les pas qui suivaient ; les pas d'avant restent exacts,
+     * et la nouvelle suite est enregistrée correctement, images clés comprises.
+     */
+    @Test
+    void recordingAfterRestoreTruncates() {
+        World world = newWorld();
+        RewindBuffer buffer = new RewindBuffer(SECONDS, World.REFERENCE_TICK_RATE, BUDGET);
+        PlayerInput input = new PlayerInput();
+        Map<Long, byte[]> states = new HashMap<>();
+        while (world.getTick() < 300 && !world.isGameOver()) {
+            step(world, input);
+            buffer.record(world);
+            states.put(world.getTick(), saveState(world));
+        }
+        long middle = buffer.getOldestTick() + span(buffer) / 2 + 7; // Entre deux images clés
+        assertTrue(buffer.restore(world, middle));
+
+        // Autre suite de commandes : le joueur reste immobile
+        PlayerInput still = new PlayerInput();
+        for (int i = 0; i < 2 * RewindBuffer.KEYFRAME_INTERVAL; i++) {
+            world.step(still);
+            assertTrue(buffer.record(world));
+            states.put(world.getTick(), saveState(world));
+            assertEquals(world.getTick(), buffer.getNewestTick());
+        }
+        World other = newWorld();
+        for (long tick = buffer.getOldestTick(); tick <= buffer.getNewestTick(); tick++) {
+            assertTrue(buffer.restore(other, tick));
+            assertArrayEquals(states.get(tick), saveState(other), "Pas " + tick);
+        }
+        assertEquals(middle + 2L * RewindBuffer.KEYFRAME_INTERVAL, buffer.getNewestTick());
+    }
+
+    /**
+     * Ramène le monde au dernier pas puis au milieu de l'historique, rejoue les mêmes commandes jusqu'au dernier pas,
+     * et vérifie que l'état est chaque fois identique à celui de la première fois.
+     * @param world Monde enregistré, au dernier pas
+     * @param buffer Historique de la partie
+     */
+    private static void assertReplaysIdentically(World world, RewindBuffer buffer) {
+        long lastTick = world.getTick();
+        byte[] expected = saveState(world);
+        long middle = buffer.getOldestTick() + span(buffer) / 2;
+        assertTrue(buffer.restore(world, middle));
+        assertEquals(middle, world.getTick());
+        assertTrue(buffer.restore(world, lastTick));
+        assertArrayEquals(expected, saveState(world), "État rétabli différent de l'état enregistré");
+
+        assertTrue(buffer.restore(world, middle));
+        PlayerInput input = new PlayerInput();
+        while (world.getTick() < lastTick) {
+            step(world, input);
+            buffer.record(world);
+        }
+        assertArrayEquals(expected, saveState(world), "Partie rejouée différente");
+        assertEquals(lastTick, buffer.getNewestTick());
+    }
+
+    /**
+     * Joue une partie en l'enregistrant après chaque pas.
+     * @param world Monde à faire avancer
+     * @param buffer Historique
+     * @param ticks Durée maximale de la partie, en pas
+     */
+    private static void playAndRecord(World world, RewindBuffer buffer, int ticks) {
+        PlayerInput input = new PlayerInput();
+        while (world.getTick() < ticks && !world.isGameOver()) {
+            step(world, input);
+            assertTrue(buffer.record(world));
+        }
+    }
+
+    /**
+     * Avance le monde d'un pas avec les commandes du bot d'équilibrage : un nouveau bot est tiré à chaque pas,
+     * et seul un pas sur SHOT_INTERVAL garde son tir.
+     * @param world Monde à faire avancer
+     * @param input Commandes réutilisées
+     */
+    private static void step(World world, PlayerInput input) {
+        long tick = world.getTick();
+        input.clearShots();
+        new BotPlayer(new SplittableRandom(SEED * 31 + tick)).decide(world, input);
+        if (tick % SHOT_INTERVAL != 0) {
+            input.clearShots();
+        }
+        world.step(input);
+    }
+
+    /**
+     * Crée une partie en mode horde avec murs, déplacements sur le thread appelant.
+     * @return Le monde
+     */
+    private static World newWorld() {
+        GameRules rules = GameRules.forMode(GameMode.HORDE);
+        rules.setObstacles(true);
+        World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, SEED, World.REFERENCE_TICK_RATE, rules);
+        world.setSteeringPool(null);
+        return world;
+    }
+
+    /**
+     * Calcule le nombre de pas gardés.
+     * @param buffer Historique
+     * @return Le nombre de pas qui peuvent être rétablis
+     */
+    private static long span(RewindBuffer buffer) {
+        return buffer.getNewestTick() - buffer.getOldestTick() + 1;
+    }
+
+    /**
+     * Écrit l'état complet du monde dans un nouveau tableau.
+     * @param world Monde à enregistrer
+     * @return L'état du monde
+     */
+    private static byte[] saveState(World world) {
+        ByteBuffer state = ByteBuffer.allocate(world.stateSize());
+        world.saveState(state);
+        return state.array();
+    }
+}
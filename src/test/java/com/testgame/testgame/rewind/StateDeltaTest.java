@@ -0,0 +1,149 @@
+package com.testgame.testgame.rewind;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'écart entre deux états ({@link StateDelta}) : aller-retour encode puis decode pour des états de même taille,
+ * un état qui grandit, un état qui rétrécit, et l'écart avec un état vide.
+ */
+class StateDeltaTest {
+
+    /**
+     * Valeurs inchangées (dont des suites de plus de 128), légèrement modifiées et entièrement modifiées.
+     */
+    @Test
+    void sameSizeRoundTrip() {
+        SplittableRandom random = new SplittableRandom(1);
+        byte[] base = randomState(random, 600);
+        byte[] target = base.clone();
+        ByteBuffer view = ByteBuffer.wrap(target);
+        for (int value = 0; value < 600; value++) {
+            int offset = value * Long.BYTES;
+            if (value >= 200 && value < 400) {
+                continue; // Suite inchangée plus longue qu'un octet de suite
+            }
+            switch (value % 4) {
+                case 0 -> view.putDouble(offset, view.getDouble(offset) + 0.25);
+                case 1 -> view.putLong(offset, random.nextLong());
+                case 2 -> view.putLong(offset, view.getLong(offset) ^ 1L << 63);
+                default -> {
+                    // Inchangée
+                }
+            }
+        }
+        assertRoundTrip(base, target);
+    }
+
+    /**
+     * Deux états identiques donnent un écart fait uniquement d'octets de suite.
+     */
+    @Test
+    void identicalStatesEncodeAsRuns() {
+        byte[] state = randomState(new SplittableRandom(2), 1000);
+        byte[] out = new byte[StateDelta.maxEncodedSize(state.length)];
+        int length = StateDelta.encode(ByteBuffer.wrap(state), state.length, ByteBuffer.wrap(state), state.length, out);
+        assertEquals((1000 + 127) / 128, length);
+        assertRoundTrip(state, state);
+    }
+
+    /**
+     * L'état cible est plus long : au-delà de la fin de la référence, l'écart porte sur des zéros,
+     * même si le tampon de décodage contient autre chose à cet endroit.
+     */
+    @Test
+    void growingState() {
+        SplittableRandom random = new SplittableRandom(3);
+        byte[] base = randomState(random, 40);
+        byte[] target = Arrays.copyOf(base, 90 * Long.BYTES);
+        ByteBuffer.wrap(target).putLong(10 * Long.BYTES, 42);
+        for (int offset = 40 * Long.BYTES; offset < target.length; offset += 3 * Long.BYTES) {
+            ByteBuffer.wrap(target).putLong(offset, random.nextLong());
+        }
+        assertRoundTrip(base, target);
+    }
+
+    /**
+     * L'état cible est plus court : seules ses valeurs comptent.
+     */
+    @Test
+    void shrinkingState() {
+        SplittableRandom random = new SplittableRandom(4);
+        byte[] base = randomState(random, 90);
+        byte[] target = Arrays.copyOf(base, 40 * Long.BYTES);
+        ByteBuffer.wrap(target).putLong(7 * Long.BYTES, -1);
+        assertRoundTrip(base, target);
+    }
+
+    /**
+     * L'écart avec un état vide redonne l'état complet, et ne dépasse jamais maxEncodedSize.
+     */
+    @Test
+    void fromEmptyState() {
+        byte[] target = randomState(new SplittableRandom(5), 300);
+        byte[] out = new byte[StateDelta.maxEncodedSize(target.length)];
+        int length = StateDelta.encode(ByteBuffer.allocate(0), 0, ByteBuffer.wrap(target), target.length, out);
+        assertTrue(length <= out.length);
+        assertRoundTrip(new byte[0], target);
+    }
+
+    /**
+     * Encode l'écart puis le décode, rangé en fin de tableau puis au milieu d'un tableau plus grand,
+     * et vérifie que l'état obtenu est l'état cible.
+     * @param base État de référence
+     * @param target État cible
+     */
+    private static void assertRoundTrip(byte[] base, byte[] target) {
+        byte[] encoded = new byte[StateDelta.maxEncodedSize(target.length)];
+        int length = StateDelta.encode(ByteBuffer.wrap(base), base.length, ByteBuffer.wrap(target), target.length, encoded);
+
+        byte[] exact = Arrays.copyOf(encoded, length); // Les dernières valeurs sont lues sans octets après elles
+        assertArrayEquals(target, decode(exact, 0, length, base, target.length));
+
+        byte[] padded = new byte[length + 64];
+        System.arraycopy(encoded, 0, padded, 13, length);
+        assertArrayEquals(target, decode(padded, 13, length, base, target.length));
+    }
+
+    /**
+     * Applique un écart à une copie de l'état de référence, dans un tampon rempli d'octets non nuls au-delà de sa fin.
+     * @param in Tableau qui contient l'écart
+     * @param start Début de l'écart
+     * @param length Taille de l'écart
+     * @param base État de référence
+     * @param targetSize Taille de l'état cible
+     * @return L'état obtenu, de la taille de l'état cible
+     */
+    private static byte[] decode(byte[] in, int start, int length, byte[] base, int targetSize) {
+        byte[] state = new byte[Math.max(base.length, targetSize)];
+        Arrays.fill(state, (byte) 0x5A);
+        System.arraycopy(base, 0, state, 0, base.length);
+        StateDelta.decode(in, start, length, ByteBuffer.wrap(state), base.length, targetSize);
+        return Arrays.copyOf(state, targetSize);
+    }
+
+    /**
+     * Construit un état de valeurs au hasard : doubles, petits entiers et zéros, comme ceux de World.saveState.
+     * @param random Générateur
+     * @param values Nombre de valeurs de 8 octets
+     * @return L'état
+     */
+    private static byte[] randomState(SplittableRandom random, int values) {
+        ByteBuffer state = ByteBuffer.allocate(values * Long.BYTES);
+        for (int i = 0; i < values; i++) {
+            switch (random.nextInt(3)) {
+                case 0 -> state.putDouble(random.nextDouble(0, 2000));
+                case 1 -> state.putLong(random.nextInt(1000));
+                default -> state.putLong(0);
+            }
+        }
+        return state.array();
+    }
+}